@@ -30,9 +30,16 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import blue.endless.jankson.api.document.ObjectElement;
 import blue.endless.jankson.api.document.ValueElement;
@@ -40,8 +47,11 @@ import blue.endless.jankson.api.io.JsonReader;
 import blue.endless.jankson.api.io.JsonReaderOptions;
 import blue.endless.jankson.api.io.JsonWriter;
 import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.ObjectWriter;
 import blue.endless.jankson.api.io.StructuredDataReader;
 import blue.endless.jankson.api.io.ValueElementWriter;
+import blue.endless.jankson.impl.io.ArrayElementSpliterator;
+import blue.endless.jankson.impl.io.BulkReader;
 import blue.endless.jankson.impl.io.pojo.ObjectStructuredDataReader;
 
 
@@ -95,6 +105,21 @@ public class Jankson {
 		return writer.toValueElement();
 	}
 	
+	/**
+	 * Reads in json data from a file, using the settings provided. The file will be interpreted as UTF-8 character data.
+	 * @param path the file to read
+	 * @param opts hints and settings to control the reading process
+	 * @return     a ValueElement representing the document root
+	 * @throws IOException if there was a problem reading the file
+	 * @throws SyntaxError if there was a problem with the syntax or structure of the json document
+	 * @see blue.endless.jankson.api.io.DocumentCache
+	 */
+	public static ValueElement readJson(Path path, JsonReaderOptions opts) throws IOException, SyntaxError {
+		try(Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return readJson(r, opts);
+		}
+	}
+	
 	/**
 	 * Reads in json data from a String using the default settings.
 	 * @see #readJson(String, JsonReaderOptions)
@@ -119,6 +144,14 @@ public class Jankson {
 		return readJson(in, JsonReaderOptions.UNSPECIFIED);
 	}
 	
+	/**
+	 * Reads in json data from a file, using the default settings.
+	 * @see #readJson(Path, JsonReaderOptions)
+	 */
+	public static ValueElement readJson(Path path) throws IOException, SyntaxError {
+		return readJson(path, JsonReaderOptions.UNSPECIFIED);
+	}
+	
 	/**
 	 * Reads in a json object from a String using the settings provided.
 	 * @param s    the String to interpret as json
@@ -197,6 +230,93 @@ public class Jankson {
 		return readJsonObject(in, JsonReaderOptions.UNSPECIFIED);
 	}
 	
+	/**
+	 * Lazily reads the elements of an array from a Reader, unpacking each one into an object of the specified type.
+	 * Elements are read and bound one at a time as the Stream is consumed, so memory use does not depend on the length
+	 * of the array. The Reader will not be closed unless the Stream is closed.
+	 * @param <T>  the type of each array element
+	 * @param r    the Reader that is reading json character data
+	 * @param opts hints and settings to control the reading process
+	 * @param type the type of each array element
+	 * @param path the keys to descend through to find the array. If no keys are specified, the document root must be
+	 *             the array.
+	 * @return     a sequential Stream of the array elements
+	 */
+	public static <T> Stream<T> streamArray(Reader r, JsonReaderOptions opts, Type type, String... path) {
+		JsonReader reader = new JsonReader(r, opts);
+		return StreamSupport.stream(new ArrayElementSpliterator<T>(reader, type, path), false)
+				.onClose(() -> {
+					try {
+						r.close();
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+	}
+	
+	/**
+	 * Lazily reads the elements of an array from a file. The file is interpreted as UTF-8 and is closed when the Stream
+	 * is closed, so this method should be used in a try-with-resources block.
+	 * @see #streamArray(Reader, JsonReaderOptions, Type, String...)
+	 */
+	public static <T> Stream<T> streamArray(Path path, JsonReaderOptions opts, Type type, String... keys) throws IOException {
+		return streamArray(Files.newBufferedReader(path, StandardCharsets.UTF_8), opts, type, keys);
+	}
+	
+	/**
+	 * Lazily reads the elements of an array from a Reader using the default settings.
+	 * @see #streamArray(Reader, JsonReaderOptions, Type, String...)
+	 */
+	public static <T> Stream<T> streamArray(Reader r, Type type, String... path) {
+		return streamArray(r, JsonReaderOptions.UNSPECIFIED, type, path);
+	}
+	
+	/**
+	 * Lazily reads the elements of an array from a file using the default settings.
+	 * @see #streamArray(Path, JsonReaderOptions, Type, String...)
+	 */
+	public static <T> Stream<T> streamArray(Path path, Type type, String... keys) throws IOException {
+		return streamArray(path, JsonReaderOptions.UNSPECIFIED, type, keys);
+	}
+	
+	/**
+	 * Reads many files at once, concurrently. Files ending in ".toml" are read as TOML, files ending in ".ini" are read
+	 * as INI, and any other files are read as json using the settings provided. Files are interpreted as UTF-8.
+	 * @param paths the files to read
+	 * @param opts  hints and settings to control the reading process for json files
+	 * @return      a Map of each file to its document root, in the same order as the Collection provided
+	 * @throws IOException if the thread was interrupted while waiting for the files to load
+	 * @throws MultiFileSyntaxError if any of the files could not be read. The error contains a separate SyntaxError for
+	 *                              each file that failed, as well as the results for the files that succeeded.
+	 */
+	public static Map<Path, ValueElement> readAll(Collection<Path> paths, JsonReaderOptions opts) throws IOException, SyntaxError {
+		return BulkReader.readAll(paths, opts, BulkReader.DEFAULT_CONCURRENCY, (reader) -> {
+			ValueElementWriter writer = new ValueElementWriter();
+			reader.transferTo(writer);
+			return writer.toValueElement();
+		});
+	}
+	
+	/**
+	 * Reads many files at once, concurrently, unpacking each one into an object of the specified type.
+	 * @see #readAll(Collection, JsonReaderOptions)
+	 */
+	public static <T> Map<Path, T> readAll(Collection<Path> paths, JsonReaderOptions opts, Type type) throws IOException, SyntaxError {
+		return BulkReader.readAll(paths, opts, BulkReader.DEFAULT_CONCURRENCY, (reader) -> {
+			ObjectWriter<T> writer = new ObjectWriter<>(type);
+			reader.transferTo(writer);
+			return writer.toObject();
+		});
+	}
+	
+	/**
+	 * Reads many files at once, concurrently, using the default settings.
+	 * @see #readAll(Collection, JsonReaderOptions)
+	 */
+	public static Map<Path, ValueElement> readAll(Collection<Path> paths) throws IOException, SyntaxError {
+		return readAll(paths, JsonReaderOptions.UNSPECIFIED);
+	}
+	
 	// TODO: This is kind of the pinnacle of end-to-end Jankson behavior. It'll take some time before it's testable.
 	/*
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when one or more files in a bulk read could not be loaded. Each file's problem is reported separately, and the
+ * files which were read successfully are still available.
+ */
+@SuppressWarnings("serial")
+public final class MultiFileSyntaxError extends SyntaxError {
+	private final Map<Path, SyntaxError> errors;
+	private final Map<Path, ?> results;
+	
+	public MultiFileSyntaxError(Map<Path, SyntaxError> errors, Map<Path, ?> results) {
+		super(errors.size()+" file(s) could not be read: "+errors.keySet());
+		this.errors = Collections.unmodifiableMap(errors);
+		this.results = Collections.unmodifiableMap(results);
+		
+		for(SyntaxError err : errors.values()) addSuppressed(err);
+	}
+	
+	/**
+	 * Gets the errors that occurred, keyed by the file they occurred in.
+	 */
+	public Map<Path, SyntaxError> getErrors() {
+		return errors;
+	}
+	
+	/**
+	 * Gets the values for the files which were read successfully.
+	 */
+	public Map<Path, ?> getResults() {
+		return results;
+	}
+}
@@ -27,6 +27,7 @@ package blue.endless.jankson.api.document;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -37,6 +38,7 @@ import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.LongFunction;
 
+import blue.endless.jankson.impl.document.BinaryElementImpl;
 import blue.endless.jankson.impl.document.BooleanElementImpl;
 import blue.endless.jankson.impl.document.DoubleElementImpl;
 import blue.endless.jankson.impl.document.LongElementImpl;
@@ -186,6 +188,26 @@ public abstract class PrimitiveElement implements ValueElement {
 	 */
 	public abstract Optional<BigDecimal> asBigDecimal();
 	
+	/**
+	 * If this value holds binary data, returns that data. If this value is a String which is valid base64 or base64url,
+	 * with or without padding, returns the decoded bytes. Otherwise, the result will be empty.
+	 */
+	public Optional<byte[]> asBinary() {
+		return asString().flatMap(PrimitiveElement::decodeBase64);
+	}
+	
+	/**
+	 * Decodes a base64 String, accepting both the standard and url-safe alphabets, with or without padding.
+	 */
+	public static Optional<byte[]> decodeBase64(String value) {
+		boolean urlSafe = value.indexOf('-') != -1 || value.indexOf('_') != -1;
+		try {
+			return Optional.of((urlSafe ? Base64.getUrlDecoder() : Base64.getDecoder()).decode(value));
+		} catch (IllegalArgumentException ex) {
+			return Optional.empty();
+		}
+	}
+	
 	protected void copyNonValueElementsFrom(PrimitiveElement elem) {
 		for(NonValueElement nv : elem.prologue) this.prologue.add(nv);
 		for(NonValueElement nv : elem.epilogue) this.epilogue.add(nv);
@@ -222,6 +244,11 @@ public abstract class PrimitiveElement implements ValueElement {
 		return new StringElementImpl(value.toString());
 	}
 	
+	public static PrimitiveElement of(byte[] value) {
+		if (value==null) return ofNull();
+		return new BinaryElementImpl(value);
+	}
+	
 	public static boolean canBox(Object value) {
 		return
 				value == null ||
@@ -235,7 +262,8 @@ public abstract class PrimitiveElement implements ValueElement {
 				value instanceof Float ||
 				value instanceof Double ||
 				value instanceof BigInteger ||
-				value instanceof BigDecimal;
+				value instanceof BigDecimal ||
+				value instanceof byte[];
 	}
 	
 	public static PrimitiveElement box(Object value) throws IllegalArgumentException {
@@ -252,6 +280,7 @@ public abstract class PrimitiveElement implements ValueElement {
 		if (value instanceof Double v)     return of(v);
 		if (value instanceof BigInteger v) return of(v);
 		if (value instanceof BigDecimal v) return of(v);
+		if (value instanceof byte[] v)     return of(v);
 		
 		throw new IllegalArgumentException("Objects of type "+value.getClass().getCanonicalName()+" cannot be boxed as a PrimitiveElement.");
 	}
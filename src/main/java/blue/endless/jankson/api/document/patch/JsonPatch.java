@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.document.patch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.document.patch.PatchGenerator;
+
+/**
+ * An RFC 6902 json patch: a list of operations which transform one document into another.
+ */
+public record JsonPatch(List<PatchOperation> operations) {
+	
+	public JsonPatch {
+		operations = List.copyOf(operations);
+	}
+	
+	/**
+	 * Computes a patch which transforms the source document into the target document. Object members are matched by
+	 * key, and array elements are matched by finding the longest run of unchanged elements, so that an insertion in
+	 * the middle of an array produces one "add" operation instead of replacing everything after it. Unchanged subtrees
+	 * are skipped by comparing cached hashes. Comments and formatting are ignored.
+	 * 
+	 * <p>Values in the patch are copies, so later changes to the target document won't affect the patch.
+	 */
+	public static JsonPatch diff(ValueElement source, ValueElement target) {
+		return new JsonPatch(PatchGenerator.diff(source, target));
+	}
+	
+	/**
+	 * Applies this patch to a document. Objects and arrays in the document are modified in place, so the return value
+	 * is only different from the document passed in if the patch replaces the entire document.
+	 * 
+	 * <p>If an operation fails, no further operations are applied, but operations which already succeeded are not
+	 * rolled back. Apply the patch to a clone if the original must be preserved on failure.
+	 * @param document the document to modify
+	 * @return the patched document root
+	 * @throws PatchException if any operation could not be applied
+	 */
+	public ValueElement apply(ValueElement document) throws PatchException {
+		ValueElement result = document;
+		for(PatchOperation op : operations) {
+			result = op.apply(result);
+		}
+		return result;
+	}
+	
+	public boolean isEmpty() {
+		return operations.isEmpty();
+	}
+	
+	/**
+	 * Gets this patch as a patch document, suitable for writing out as json.
+	 */
+	public ArrayElement toValueElement() {
+		ArrayElement result = new ArrayElement();
+		for(PatchOperation op : operations) {
+			result.add(op.toValueElement());
+		}
+		return result;
+	}
+	
+	/**
+	 * Reads a patch from a patch document.
+	 * @throws PatchException if the patch document is malformed
+	 */
+	public static JsonPatch of(ValueElement document) throws PatchException {
+		if (!(document instanceof ArrayElement arr)) throw new PatchException("A json patch must be an array of operations.");
+		
+		List<PatchOperation> operations = new ArrayList<>(arr.size());
+		for(ValueElement elem : arr) {
+			operations.add(PatchOperation.of(elem));
+		}
+		return new JsonPatch(operations);
+	}
+	
+	@Override
+	public String toString() {
+		return toValueElement().toString();
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.document.patch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.ValueElement;
+
+/**
+ * An RFC 6901 json pointer, which locates a value within a document. Each reference token is either an object key or
+ * an array index.
+ */
+public record JsonPointer(List<String> tokens) {
+	public static final JsonPointer ROOT = new JsonPointer(List.of());
+	
+	public JsonPointer {
+		tokens = List.copyOf(tokens);
+	}
+	
+	/**
+	 * Parses a json pointer from its String representation, such as "/foo/0/bar".
+	 * @throws PatchException if the String is not a valid json pointer
+	 */
+	public static JsonPointer parse(String s) throws PatchException {
+		if (s.isEmpty()) return ROOT;
+		if (s.charAt(0) != '/') throw new PatchException("Json pointer \""+s+"\" must be empty or start with '/'.");
+		
+		List<String> tokens = new ArrayList<>();
+		StringBuilder token = new StringBuilder();
+		for(int i=1; i<s.length(); i++) {
+			char ch = s.charAt(i);
+			if (ch == '/') {
+				tokens.add(token.toString());
+				token.setLength(0);
+			} else if (ch == '~') {
+				char next = (i+1 < s.length()) ? s.charAt(i+1) : 0;
+				if (next == '0') {
+					token.append('~');
+				} else if (next == '1') {
+					token.append('/');
+				} else {
+					throw new PatchException("Json pointer \""+s+"\" has an invalid escape at character "+i+".");
+				}
+				i++;
+			} else {
+				token.append(ch);
+			}
+		}
+		tokens.add(token.toString());
+		
+		return new JsonPointer(tokens);
+	}
+	
+	/**
+	 * Escapes a key for use as a json pointer reference token.
+	 */
+	public static String escape(String key) {
+		if (key.indexOf('~') == -1 && key.indexOf('/') == -1) return key;
+		return key.replace("~", "~0").replace("/", "~1");
+	}
+	
+	public boolean isRoot() {
+		return tokens.isEmpty();
+	}
+	
+	/**
+	 * Gets the pointer to the value containing this one. The root has no parent.
+	 */
+	public JsonPointer parent() {
+		if (tokens.isEmpty()) throw new IllegalStateException("The root pointer has no parent.");
+		return new JsonPointer(tokens.subList(0, tokens.size()-1));
+	}
+	
+	/**
+	 * Gets the last reference token of this pointer, which is the key or index of the value within its parent.
+	 */
+	public String last() {
+		if (tokens.isEmpty()) throw new IllegalStateException("The root pointer has no reference tokens.");
+		return tokens.get(tokens.size()-1);
+	}
+	
+	public JsonPointer append(String token) {
+		List<String> result = new ArrayList<>(tokens.size()+1);
+		result.addAll(tokens);
+		result.add(token);
+		return new JsonPointer(result);
+	}
+	
+	public JsonPointer append(int index) {
+		return append(Integer.toString(index));
+	}
+	
+	/**
+	 * Returns true if this pointer refers to an ancestor of the value at the other pointer. A pointer is not a proper
+	 * prefix of itself.
+	 */
+	public boolean isProperPrefixOf(JsonPointer other) {
+		return tokens.size() < other.tokens.size() && other.tokens.subList(0, tokens.size()).equals(tokens);
+	}
+	
+	/**
+	 * Finds the value this pointer refers to.
+	 * @param root the document root to start at
+	 * @return the value this pointer refers to
+	 * @throws PatchException if there is no value at this location
+	 */
+	public ValueElement resolve(ValueElement root) throws PatchException {
+		ValueElement cur = root;
+		for(int i=0; i<tokens.size(); i++) {
+			String token = tokens.get(i);
+			if (cur instanceof ObjectElement obj) {
+				cur = obj.get(token);
+				if (cur == null) throw new PatchException("No value exists at \""+this+"\": key \""+token+"\" is missing.");
+			} else if (cur instanceof ArrayElement arr) {
+				int index = parseIndex(token);
+				if (index >= arr.size()) throw new PatchException("No value exists at \""+this+"\": index "+index+" is out of bounds.");
+				cur = arr.get(index);
+			} else {
+				throw new PatchException("No value exists at \""+this+"\": cannot descend into a primitive.");
+			}
+		}
+		
+		return cur;
+	}
+	
+	/**
+	 * Parses an array index reference token. Only plain non-negative decimal integers without leading zeroes are
+	 * allowed.
+	 */
+	static int parseIndex(String token) throws PatchException {
+		if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+			throw new PatchException("\""+token+"\" is not a valid array index.");
+		}
+		
+		int result = 0;
+		for(int i=0; i<token.length(); i++) {
+			char ch = token.charAt(i);
+			if (ch < '0' || ch > '9') throw new PatchException("\""+token+"\" is not a valid array index.");
+			result = result * 10 + (ch - '0');
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for(String token : tokens) {
+			result.append('/');
+			result.append(escape(token));
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.document.patch;
+
+import java.util.Map;
+
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.document.SemanticHash;
+
+/**
+ * Computes and applies RFC 7386 merge patches. A merge patch looks like the document it modifies: object members in the
+ * patch replace or merge into members of the document, and null members remove them. Arrays are always replaced as a
+ * whole, and there is no way to set a member to null, so merge patches are less capable than {@link JsonPatch}, but
+ * easier to write by hand.
+ */
+public class MergePatch {
+	
+	/**
+	 * Applies a merge patch to a document. Objects in the document are modified in place, so the return value is only
+	 * different from the document passed in if the patch replaces the entire document.
+	 * @param target the document to modify
+	 * @param patch  the merge patch to apply
+	 * @return the patched document root
+	 */
+	public static ValueElement apply(ValueElement target, ValueElement patch) {
+		if (!(patch instanceof ObjectElement patchObj)) return patch.clone();
+		
+		ObjectElement result = (target instanceof ObjectElement targetObj) ? targetObj : new ObjectElement();
+		for(Map.Entry<String, ValueElement> entry : patchObj.entrySet()) {
+			ValueElement value = entry.getValue();
+			if (value instanceof PrimitiveElement prim && prim.isNull()) {
+				result.remove(entry.getKey());
+			} else {
+				ValueElement existing = result.get(entry.getKey());
+				if (existing != null) {
+					ValueElement merged = apply(existing, value);
+					if (merged != existing) result.put(entry.getKey(), merged);
+				} else {
+					result.put(entry.getKey(), apply(new ObjectElement(), value));
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Computes a merge patch which transforms the source document into the target document.
+	 * 
+	 * <p>Merge patches cannot represent every change. In particular, a member which is set to null in the target will
+	 * be removed when the patch is applied.
+	 */
+	public static ValueElement diff(ValueElement source, ValueElement target) {
+		return diff(new SemanticHash(), source, target);
+	}
+	
+	private static ValueElement diff(SemanticHash hasher, ValueElement source, ValueElement target) {
+		if (!(source instanceof ObjectElement sourceObj) || !(target instanceof ObjectElement targetObj)) {
+			return target.clone().stripAllFormatting();
+		}
+		
+		ObjectElement result = new ObjectElement();
+		for(Map.Entry<String, ValueElement> entry : sourceObj.entrySet()) {
+			if (!targetObj.containsKey(entry.getKey())) result.put(entry.getKey(), PrimitiveElement.ofNull());
+		}
+		for(Map.Entry<String, ValueElement> entry : targetObj.entrySet()) {
+			ValueElement oldValue = sourceObj.get(entry.getKey());
+			if (oldValue == null) {
+				result.put(entry.getKey(), entry.getValue().clone().stripAllFormatting());
+			} else if (!hasher.equals(oldValue, entry.getValue())) {
+				result.put(entry.getKey(), diff(hasher, oldValue, entry.getValue()));
+			}
+		}
+		
+		return result;
+	}
+}
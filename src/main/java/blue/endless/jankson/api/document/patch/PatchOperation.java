@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.document.patch;
+
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.document.SemanticHash;
+
+/**
+ * One operation from an RFC 6902 json patch.
+ * @param op    the kind of operation
+ * @param path  the location the operation acts on
+ * @param from  the source location for move and copy operations; null otherwise
+ * @param value the value for add, replace, and test operations; null otherwise
+ */
+public record PatchOperation(Op op, JsonPointer path, @Nullable JsonPointer from, @Nullable ValueElement value) {
+	
+	public static enum Op {
+		ADD("add"),
+		REMOVE("remove"),
+		REPLACE("replace"),
+		MOVE("move"),
+		COPY("copy"),
+		TEST("test");
+		
+		private final String name;
+		
+		Op(String name) {
+			this.name = name;
+		}
+		
+		/**
+		 * Gets the name of this operation as it appears in a patch document.
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		public static Op of(String name) throws PatchException {
+			for(Op op : values()) {
+				if (op.name.equals(name)) return op;
+			}
+			throw new PatchException("Unknown patch operation \""+name+"\".");
+		}
+	}
+	
+	public PatchOperation {
+		Objects.requireNonNull(op);
+		Objects.requireNonNull(path);
+		switch(op) {
+			case ADD, REPLACE, TEST -> { if (value == null) throw new IllegalArgumentException("The "+op.getName()+" operation requires a value."); }
+			case MOVE, COPY -> { if (from == null) throw new IllegalArgumentException("The "+op.getName()+" operation requires a 'from' location."); }
+			default -> {}
+		}
+	}
+	
+	public static PatchOperation add(JsonPointer path, ValueElement value) {
+		return new PatchOperation(Op.ADD, path, null, value);
+	}
+	
+	public static PatchOperation remove(JsonPointer path) {
+		return new PatchOperation(Op.REMOVE, path, null, null);
+	}
+	
+	public static PatchOperation replace(JsonPointer path, ValueElement value) {
+		return new PatchOperation(Op.REPLACE, path, null, value);
+	}
+	
+	public static PatchOperation move(JsonPointer from, JsonPointer path) {
+		return new PatchOperation(Op.MOVE, path, from, null);
+	}
+	
+	public static PatchOperation copy(JsonPointer from, JsonPointer path) {
+		return new PatchOperation(Op.COPY, path, from, null);
+	}
+	
+	public static PatchOperation test(JsonPointer path, ValueElement value) {
+		return new PatchOperation(Op.TEST, path, null, value);
+	}
+	
+	/**
+	 * Applies this operation to a document, modifying it in place where possible.
+	 * @param root the document root
+	 * @return the document root after this operation. This is only different from the root passed in if the operation
+	 *         replaced the entire document.
+	 * @throws PatchException if the operation cannot be applied to this document
+	 */
+	public ValueElement apply(ValueElement root) throws PatchException {
+		switch(op) {
+			case ADD:
+				return add(root, path, value.clone());
+			case REMOVE:
+				remove(root, path);
+				return root;
+			case REPLACE:
+				return replace(root, path, value.clone());
+			case MOVE: {
+				if (from.equals(path)) return root;
+				if (from.isProperPrefixOf(path)) throw new PatchException("Cannot move \""+from+"\" into its own child \""+path+"\".");
+				ValueElement moved = remove(root, from);
+				return add(root, path, moved);
+			}
+			case COPY:
+				return add(root, path, from.resolve(root).clone());
+			case TEST:
+				if (!SemanticHash.semanticEquals(path.resolve(root), value)) {
+					throw new PatchException("Test failed: the value at \""+path+"\" is not "+value+".");
+				}
+				return root;
+			default:
+				throw new IllegalStateException();
+		}
+	}
+	
+	private static ValueElement add(ValueElement root, JsonPointer path, ValueElement value) throws PatchException {
+		if (path.isRoot()) return value;
+		
+		ValueElement parent = path.parent().resolve(root);
+		String token = path.last();
+		if (parent instanceof ObjectElement obj) {
+			obj.put(token, value);
+		} else if (parent instanceof ArrayElement arr) {
+			if (token.equals("-")) {
+				arr.add(value);
+			} else {
+				int index = JsonPointer.parseIndex(token);
+				if (index > arr.size()) throw new PatchException("Cannot add at \""+path+"\": index "+index+" is out of bounds.");
+				arr.add(index, value);
+			}
+		} else {
+			throw new PatchException("Cannot add at \""+path+"\": the parent is a primitive.");
+		}
+		
+		return root;
+	}
+	
+	private static ValueElement remove(ValueElement root, JsonPointer path) throws PatchException {
+		if (path.isRoot()) throw new PatchException("Cannot remove the document root.");
+		
+		ValueElement parent = path.parent().resolve(root);
+		String token = path.last();
+		if (parent instanceof ObjectElement obj) {
+			ValueElement removed = obj.remove(token);
+			if (removed == null) throw new PatchException("Cannot remove \""+path+"\": there is no value there.");
+			return removed;
+		} else if (parent instanceof ArrayElement arr) {
+			int index = JsonPointer.parseIndex(token);
+			if (index >= arr.size()) throw new PatchException("Cannot remove \""+path+"\": index "+index+" is out of bounds.");
+			return arr.remove(index);
+		} else {
+			throw new PatchException("Cannot remove \""+path+"\": the parent is a primitive.");
+		}
+	}
+	
+	private static ValueElement replace(ValueElement root, JsonPointer path, ValueElement value) throws PatchException {
+		if (path.isRoot()) return value;
+		
+		ValueElement parent = path.parent().resolve(root);
+		String token = path.last();
+		if (parent instanceof ObjectElement obj) {
+			if (!obj.containsKey(token)) throw new PatchException("Cannot replace \""+path+"\": there is no value there.");
+			obj.put(token, value);
+		} else if (parent instanceof ArrayElement arr) {
+			int index = JsonPointer.parseIndex(token);
+			if (index >= arr.size()) throw new PatchException("Cannot replace \""+path+"\": index "+index+" is out of bounds.");
+			arr.set(index, value);
+		} else {
+			throw new PatchException("Cannot replace \""+path+"\": the parent is a primitive.");
+		}
+		
+		return root;
+	}
+	
+	/**
+	 * Gets this operation as it would appear in a patch document.
+	 */
+	public ObjectElement toValueElement() {
+		ObjectElement result = new ObjectElement();
+		result.put("op", PrimitiveElement.of(op.getName()));
+		if (from != null) result.put("from", PrimitiveElement.of(from.toString()));
+		result.put("path", PrimitiveElement.of(path.toString()));
+		if (value != null) result.put("value", value.clone());
+		return result;
+	}
+	
+	/**
+	 * Reads an operation from a patch document.
+	 * @throws PatchException if the operation is malformed
+	 */
+	public static PatchOperation of(ValueElement elem) throws PatchException {
+		if (!(elem instanceof ObjectElement obj)) throw new PatchException("Patch operations must be objects.");
+		
+		Op op = Op.of(getString(obj, "op"));
+		JsonPointer path = JsonPointer.parse(getString(obj, "path"));
+		JsonPointer from = (op == Op.MOVE || op == Op.COPY) ? JsonPointer.parse(getString(obj, "from")) : null;
+		ValueElement value = null;
+		if (op == Op.ADD || op == Op.REPLACE || op == Op.TEST) {
+			value = obj.get("value");
+			if (value == null) throw new PatchException("The "+op.getName()+" operation requires a value.");
+		}
+		
+		return new PatchOperation(op, path, from, value);
+	}
+	
+	private static String getString(ObjectElement obj, String key) throws PatchException {
+		if (obj.get(key) instanceof PrimitiveElement prim) {
+			var result = prim.asString();
+			if (result.isPresent()) return result.get();
+		}
+		throw new PatchException("Patch operation is missing the String member \""+key+"\".");
+	}
+	
+	@Override
+	public String toString() {
+		return toValueElement().toString();
+	}
+}
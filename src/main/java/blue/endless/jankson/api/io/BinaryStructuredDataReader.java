@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.CommentType;
+import blue.endless.jankson.impl.io.BinaryFormat;
+import blue.endless.jankson.impl.io.BufferRecycler;
+import blue.endless.jankson.impl.io.ByteStreams;
+
+/**
+ * Reads StructuredData written by {@link BinaryStructuredDataWriter}.
+ */
+public class BinaryStructuredDataReader implements StructuredDataReader {
+	private static final CommentType[] COMMENT_TYPES = CommentType.values();
+	
+	private final InputStream in;
+	private byte[] buf = null; // Borrowed from BufferRecycler until the EOF tag is read
+	private int pos = 0;
+	private int limit = 0;
+	private boolean headerRead = false;
+	private boolean finished = false;
+	private boolean hasFormatting = false;
+	private final List<String> keys = new ArrayList<>();
+	
+	public BinaryStructuredDataReader(InputStream in) {
+		this.in = in;
+	}
+	
+	/**
+	 * Returns true if the stream was written with comments and formatting retained. Only valid after the first call to
+	 * {@link #next()}.
+	 */
+	public boolean hasFormatting() {
+		return hasFormatting;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return !finished;
+	}
+	
+	@Override
+	public StructuredData next() throws IOException {
+		if (finished) return StructuredData.EOF;
+		if (!headerRead) readHeader();
+		
+		int tag = readByte();
+		return switch(tag) {
+			case BinaryFormat.TAG_EOF -> {
+				finished = true;
+				BufferRecycler.releaseBytes(buf);
+				buf = null;
+				pos = 0;
+				limit = 0;
+				yield StructuredData.EOF;
+			}
+			case BinaryFormat.TAG_OBJECT_START -> StructuredData.OBJECT_START;
+			case BinaryFormat.TAG_OBJECT_END   -> StructuredData.OBJECT_END;
+			case BinaryFormat.TAG_ARRAY_START  -> StructuredData.ARRAY_START;
+			case BinaryFormat.TAG_ARRAY_END    -> StructuredData.ARRAY_END;
+			case BinaryFormat.TAG_NULL         -> StructuredData.NULL;
+			case BinaryFormat.TAG_FALSE        -> new StructuredData(StructuredData.Type.PRIMITIVE, Boolean.FALSE);
+			case BinaryFormat.TAG_TRUE         -> new StructuredData(StructuredData.Type.PRIMITIVE, Boolean.TRUE);
+			case BinaryFormat.TAG_LONG         -> new StructuredData(StructuredData.Type.PRIMITIVE, BinaryFormat.zigzagDecode(readVarLong()));
+			case BinaryFormat.TAG_DOUBLE -> {
+				long bits = 0L;
+				for(int i=0; i<8; i++) bits = (bits << 8) | readByte();
+				yield new StructuredData(StructuredData.Type.PRIMITIVE, Double.longBitsToDouble(bits));
+			}
+			case BinaryFormat.TAG_STRING -> new StructuredData(StructuredData.Type.PRIMITIVE, readString());
+			case BinaryFormat.TAG_BINARY -> new StructuredData(StructuredData.Type.PRIMITIVE, readBytes());
+			case BinaryFormat.TAG_KEY -> {
+				String key = readString();
+				if (keys.size() < BinaryFormat.MAX_DICTIONARY_SIZE) keys.add(key);
+				yield StructuredData.objectKey(key);
+			}
+			case BinaryFormat.TAG_KEY_REF -> {
+				long index = readVarLong();
+				if (index < 0 || index >= keys.size()) throw new IOException(new SyntaxError("Key reference "+index+" is not in the dictionary."));
+				yield StructuredData.objectKey(keys.get((int) index));
+			}
+			case BinaryFormat.TAG_COMMENT -> {
+				int type = readByte();
+				if (type >= COMMENT_TYPES.length) throw new IOException(new SyntaxError("Unknown comment type "+type+"."));
+				yield StructuredData.comment(readString(), COMMENT_TYPES[type]);
+			}
+			case BinaryFormat.TAG_WHITESPACE -> StructuredData.whitespace(readString());
+			case BinaryFormat.TAG_NEWLINE -> StructuredData.NEWLINE;
+			default -> throw new IOException(new SyntaxError("Unknown tag 0x"+Integer.toHexString(tag)+"."));
+		};
+	}
+	
+	private void readHeader() throws IOException {
+		headerRead = true;
+		for(byte b : BinaryFormat.MAGIC) {
+			if (readByte() != (b & 0xFF)) throw new IOException(new SyntaxError("Not a Jankson binary stream."));
+		}
+		int version = readByte();
+		if (version != BinaryFormat.VERSION) throw new IOException(new SyntaxError("Unsupported binary format version "+version+"."));
+		hasFormatting = (readByte() & BinaryFormat.FLAG_FORMATTING) != 0;
+	}
+	
+	private String readString() throws IOException {
+		int len = readLength();
+		
+		if (limit - pos >= len) {
+			String result = new String(buf, pos, len, StandardCharsets.UTF_8);
+			pos += len;
+			return result;
+		}
+		
+		return new String(readFully(len), StandardCharsets.UTF_8);
+	}
+	
+	private byte[] readBytes() throws IOException {
+		return readFully(readLength());
+	}
+	
+	private int readLength() throws IOException {
+		long length = readVarLong();
+		if (length < 0 || length > Integer.MAX_VALUE) throw new IOException(new SyntaxError("Invalid string length "+length+"."));
+		return (int) length;
+	}
+	
+	private byte[] readFully(int len) throws IOException {
+		int copied = Math.min(len, limit - pos);
+		byte[] data = ByteStreams.readFully(in, buf, pos, copied, len, "Binary data ended in the middle of a value.");
+		pos += copied;
+		return data;
+	}
+	
+	private long readVarLong() throws IOException {
+		long result = 0L;
+		for(int shift=0; shift<64; shift+=7) {
+			int b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return result;
+		}
+		throw new IOException(new SyntaxError("Malformed varint."));
+	}
+	
+	private int readByte() throws IOException {
+		if (pos >= limit) {
+			if (buf == null) buf = BufferRecycler.acquireBytes();
+			limit = in.read(buf, 0, buf.length);
+			pos = 0;
+			if (limit <= 0) {
+				limit = 0;
+				throw new EOFException("Binary data ended without an EOF marker.");
+			}
+		}
+		return buf[pos++] & 0xFF;
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import blue.endless.jankson.api.document.CommentElement;
+import blue.endless.jankson.impl.io.BinaryFormat;
+
+/**
+ * Writes StructuredData in Jankson's compact binary format, which can be read back in with
+ * {@link BinaryStructuredDataReader}. Every StructuredData written is encoded one-to-one, so the data that is read back
+ * is identical to the data that was written.
+ * 
+ * <p>Output is buffered internally, and flushed to the OutputStream when EOF is written or {@link #flush()} is called.
+ */
+public class BinaryStructuredDataWriter implements StructuredDataWriter, Flushable {
+	private final OutputStream out;
+	private final boolean retainFormatting;
+	private final byte[] buf = new byte[8192];
+	private int pos = 0;
+	private boolean headerWritten = false;
+	private boolean finished = false;
+	private final Map<String, Integer> keys = new HashMap<>();
+	
+	/**
+	 * Creates a writer which keeps comments and formatting.
+	 */
+	public BinaryStructuredDataWriter(OutputStream out) {
+		this(out, true);
+	}
+	
+	/**
+	 * Creates a new writer.
+	 * @param out              the stream to write to
+	 * @param retainFormatting if true, comments, whitespace, and newlines will be written. If false, they will be
+	 *                         discarded and only semantic data will be written.
+	 */
+	public BinaryStructuredDataWriter(OutputStream out, boolean retainFormatting) {
+		this.out = out;
+		this.retainFormatting = retainFormatting;
+	}
+	
+	@Override
+	public void write(StructuredData data) throws IOException {
+		if (finished) return;
+		if (!headerWritten) writeHeader();
+		
+		switch(data.type()) {
+			case OBJECT_START -> writeByte(BinaryFormat.TAG_OBJECT_START);
+			case OBJECT_END   -> writeByte(BinaryFormat.TAG_OBJECT_END);
+			case ARRAY_START  -> writeByte(BinaryFormat.TAG_ARRAY_START);
+			case ARRAY_END    -> writeByte(BinaryFormat.TAG_ARRAY_END);
+			case OBJECT_KEY   -> writeKey(data.value().toString());
+			case PRIMITIVE    -> writePrimitive(data.value());
+			case COMMENT -> {
+				if (retainFormatting) {
+					CommentElement comment = data.asComment();
+					writeByte(BinaryFormat.TAG_COMMENT);
+					writeByte(comment.getCommentType().ordinal());
+					writeString(comment.getValue());
+				}
+			}
+			case WHITESPACE -> {
+				if (retainFormatting) {
+					writeByte(BinaryFormat.TAG_WHITESPACE);
+					writeString(data.value().toString());
+				}
+			}
+			case NEWLINE -> {
+				if (retainFormatting) writeByte(BinaryFormat.TAG_NEWLINE);
+			}
+			case EOF -> {
+				writeByte(BinaryFormat.TAG_EOF);
+				finished = true;
+				flush();
+			}
+		}
+	}
+	
+	private void writeHeader() throws IOException {
+		headerWritten = true;
+		for(byte b : BinaryFormat.MAGIC) writeByte(b);
+		writeByte(BinaryFormat.VERSION);
+		writeByte(retainFormatting ? BinaryFormat.FLAG_FORMATTING : 0);
+	}
+	
+	private void writePrimitive(Object value) throws IOException {
+		if (value == null) {
+			writeByte(BinaryFormat.TAG_NULL);
+		} else if (value instanceof Boolean bool) {
+			writeByte(bool ? BinaryFormat.TAG_TRUE : BinaryFormat.TAG_FALSE);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writeByte(BinaryFormat.TAG_LONG);
+			writeVarLong(BinaryFormat.zigzagEncode(((Number) value).longValue()));
+		} else if (value instanceof Double || value instanceof Float) {
+			writeByte(BinaryFormat.TAG_DOUBLE);
+			long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+			ensure(8);
+			for(int shift=56; shift>=0; shift-=8) buf[pos++] = (byte) (bits >>> shift);
+		} else if (value instanceof String s) {
+			writeByte(BinaryFormat.TAG_STRING);
+			writeString(s);
+		} else if (value instanceof byte[] bytes) {
+			writeByte(BinaryFormat.TAG_BINARY);
+			writeVarLong(bytes.length);
+			if (bytes.length <= buf.length) {
+				ensure(bytes.length);
+				System.arraycopy(bytes, 0, buf, pos, bytes.length);
+				pos += bytes.length;
+			} else {
+				flushBuffer();
+				out.write(bytes);
+			}
+		} else {
+			// Anything else (BigInteger, BigDecimal, Character...) gets the same treatment it would get in a PrimitiveElement
+			writePrimitive(StructuredData.primitive(value).value());
+		}
+	}
+	
+	private void writeKey(String key) throws IOException {
+		Integer index = keys.get(key);
+		if (index != null) {
+			writeByte(BinaryFormat.TAG_KEY_REF);
+			writeVarLong(index);
+		} else {
+			writeByte(BinaryFormat.TAG_KEY);
+			writeString(key);
+			if (keys.size() < BinaryFormat.MAX_DICTIONARY_SIZE) keys.put(key, keys.size());
+		}
+	}
+	
+	private void writeString(String s) throws IOException {
+		int length = BinaryFormat.utf8Length(s);
+		writeVarLong(length);
+		if (length <= buf.length) {
+			ensure(length);
+			pos = BinaryFormat.encodeUtf8(s, buf, pos);
+		} else {
+			flushBuffer();
+			byte[] encoded = new byte[length];
+			BinaryFormat.encodeUtf8(s, encoded, 0);
+			out.write(encoded);
+		}
+	}
+	
+	private void writeVarLong(long value) throws IOException {
+		ensure(10);
+		while((value & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+	
+	private void writeByte(int b) throws IOException {
+		ensure(1);
+		buf[pos++] = (byte) b;
+	}
+	
+	private void ensure(int bytes) throws IOException {
+		if (pos + bytes > buf.length) flushBuffer();
+	}
+	
+	private void flushBuffer() throws IOException {
+		if (pos > 0) {
+			out.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+	
+	/**
+	 * Writes any buffered data to the OutputStream and flushes it.
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.impl.io.ByteStreams;
+
+/**
+ * Reads RFC 8949 CBOR as StructuredData. Both definite and indefinite length arrays, maps, and strings are supported.
+ * If the stream contains several data items one after another (an RFC 8742 CBOR sequence), they are read as
+ * concatenated values, the same way JsonReader reads concatenated json values.
+ * 
+ * <p>Bignums (tags 2 and 3) which fit in a long are read as longs; larger ones, along with decimal fractions (tag 4)
+ * and bigfloats (tag 5), are read the same way Jankson represents BigInteger and BigDecimal elsewhere. Other tags are
+ * skipped, and the tagged value is read as-is. Byte strings are read as binary (byte[]) values, which JsonWriter
+ * writes as unpadded base64url Strings, following the advice in RFC 8949 section 6.1 for converting CBOR to json. Map
+ * keys which are numbers or booleans are converted to Strings.
+ */
+public class CborReader implements StructuredDataReader {
+	private static final int MAJOR_UNSIGNED = 0;
+	private static final int MAJOR_NEGATIVE = 1;
+	private static final int MAJOR_BYTES    = 2;
+	private static final int MAJOR_TEXT     = 3;
+	private static final int MAJOR_ARRAY    = 4;
+	private static final int MAJOR_MAP      = 5;
+	private static final int MAJOR_TAG      = 6;
+	private static final int MAJOR_SIMPLE   = 7;
+	
+	private static final int INDEFINITE = 31;
+	private static final BigInteger TWO_TO_THE_64 = BigInteger.ONE.shiftLeft(64);
+	
+	private final InputStream in;
+	private final byte[] buf = new byte[8192];
+	private int pos = 0;
+	private int limit = 0;
+	private boolean finished = false;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	
+	/**
+	 * One array or map that we're in the middle of reading. For definite-length maps, keys and values are counted
+	 * separately.
+	 */
+	private static class Frame {
+		final boolean isMap;
+		long remaining;
+		boolean expectingKey;
+		
+		Frame(boolean isMap, long remaining) {
+			this.isMap = isMap;
+			this.remaining = remaining;
+			this.expectingKey = isMap;
+		}
+	}
+	
+	public CborReader(InputStream in) {
+		this.in = in;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return !finished;
+	}
+	
+	@Override
+	public StructuredData next() throws IOException {
+		if (finished) return StructuredData.EOF;
+		
+		Frame frame = frames.peek();
+		if (frame == null) {
+			// Between top-level items, end of stream is a normal EOF
+			if (!fill()) {
+				finished = true;
+				return StructuredData.EOF;
+			}
+		} else if (frame.remaining == 0) {
+			frames.pop();
+			return frame.isMap ? StructuredData.OBJECT_END : StructuredData.ARRAY_END;
+		}
+		
+		int initial = readByte();
+		
+		if (initial == 0xFF) {
+			if (frame == null || frame.remaining != -1) throw syntaxError("Unexpected break outside of an indefinite-length item.");
+			if (frame.isMap && !frame.expectingKey) throw syntaxError("Map ended between a key and its value.");
+			frames.pop();
+			return frame.isMap ? StructuredData.OBJECT_END : StructuredData.ARRAY_END;
+		}
+		
+		boolean isKey = frame != null && frame.isMap && frame.expectingKey;
+		if (frame != null) {
+			if (frame.remaining > 0) frame.remaining--;
+			if (frame.isMap) frame.expectingKey = !frame.expectingKey;
+		}
+		
+		int major = initial >>> 5;
+		int info = initial & 0x1F;
+		
+		// Skip any tags we don't know about
+		while(major == MAJOR_TAG) {
+			long tag = readArgument(info);
+			switch((int) Math.min(tag, Integer.MAX_VALUE)) {
+				case 2, 3 -> {
+					BigInteger value = readBignum(tag == 3);
+					return isKey ? StructuredData.objectKey(value.toString()) : bigIntegerData(value);
+				}
+				case 4, 5 -> {
+					BigDecimal value = readFraction(tag == 4);
+					return isKey ? StructuredData.objectKey(value.toString()) : StructuredData.primitive(value);
+				}
+				default -> {
+					initial = readByte();
+					major = initial >>> 5;
+					info = initial & 0x1F;
+				}
+			}
+		}
+		
+		if (isKey) {
+			return switch(major) {
+				case MAJOR_TEXT -> StructuredData.objectKey(readText(info));
+				case MAJOR_UNSIGNED, MAJOR_NEGATIVE, MAJOR_SIMPLE -> {
+					Object value = readPrimitive(major, info);
+					yield StructuredData.objectKey(String.valueOf(value));
+				}
+				default -> throw syntaxError("Map keys must be Strings, numbers, or booleans.");
+			};
+		}
+		
+		switch(major) {
+			case MAJOR_ARRAY -> {
+				frames.push(new Frame(false, (info == INDEFINITE) ? -1 : readLength(info)));
+				return StructuredData.ARRAY_START;
+			}
+			case MAJOR_MAP -> {
+				long length = (info == INDEFINITE) ? -1 : readLength(info);
+				if (length > Long.MAX_VALUE / 2) throw syntaxError("Map is too large.");
+				frames.push(new Frame(true, (length == -1) ? -1 : length * 2));
+				return StructuredData.OBJECT_START;
+			}
+			case MAJOR_TEXT -> {
+				return new StructuredData(StructuredData.Type.PRIMITIVE, readText(info));
+			}
+			case MAJOR_BYTES -> {
+				return new StructuredData(StructuredData.Type.PRIMITIVE, readBytes(info));
+			}
+			default -> {
+				Object value = readPrimitive(major, info);
+				return (value instanceof BigInteger big) ? bigIntegerData(big) : new StructuredData(StructuredData.Type.PRIMITIVE, value);
+			}
+		}
+	}
+	
+	private static StructuredData bigIntegerData(BigInteger value) {
+		if (value.bitLength() < 64) return new StructuredData(StructuredData.Type.PRIMITIVE, value.longValue());
+		return StructuredData.primitive(value);
+	}
+	
+	/**
+	 * Reads an integer, float, or simple value. Integers which don't fit in a long are returned as BigIntegers.
+	 */
+	private Object readPrimitive(int major, int info) throws IOException {
+		switch(major) {
+			case MAJOR_UNSIGNED -> {
+				long value = readArgument(info);
+				if (value >= 0) return value;
+				return BigInteger.valueOf(value).add(TWO_TO_THE_64);
+			}
+			case MAJOR_NEGATIVE -> {
+				long value = readArgument(info);
+				if (value >= 0) return -1 - value;
+				return BigInteger.valueOf(value).add(TWO_TO_THE_64).negate().subtract(BigInteger.ONE);
+			}
+			case MAJOR_SIMPLE -> {
+				switch(info) {
+					case 20: return Boolean.FALSE;
+					case 21: return Boolean.TRUE;
+					case 22: return null;
+					case 23: return null; // undefined
+					case 24: readByte(); return null; // Unassigned simple values
+					case 25: return (double) Float.float16ToFloat((short) ((readByte() << 8) | readByte()));
+					case 26: return (double) Float.intBitsToFloat((int) readBigEndian(4));
+					case 27: return Double.longBitsToDouble(readBigEndian(8));
+					default:
+						if (info < 20) return null; // Unassigned simple values
+						throw syntaxError("Invalid simple value "+info+".");
+				}
+			}
+			default -> throw syntaxError("Expected a primitive value, but found major type "+major+".");
+		}
+	}
+	
+	private BigInteger readBignum(boolean negative) throws IOException {
+		int initial = readByte();
+		if ((initial >>> 5) != MAJOR_BYTES) throw syntaxError("Bignum content must be a byte string.");
+		BigInteger magnitude = new BigInteger(1, readBytes(initial & 0x1F));
+		return negative ? magnitude.negate().subtract(BigInteger.ONE) : magnitude;
+	}
+	
+	/**
+	 * Reads the [exponent, mantissa] array of a decimal fraction (base 10) or bigfloat (base 2).
+	 */
+	private BigDecimal readFraction(boolean decimal) throws IOException {
+		int initial = readByte();
+		if (initial != ((MAJOR_ARRAY << 5) | 2)) throw syntaxError("Decimal fractions and bigfloats must be a two-element array.");
+		
+		BigInteger exponent = readInteger();
+		BigInteger mantissa = readInteger();
+		int exp = exponent.intValueExact();
+		
+		if (decimal) {
+			return new BigDecimal(mantissa, -exp);
+		} else if (exp >= 0) {
+			return new BigDecimal(mantissa.shiftLeft(exp));
+		} else {
+			return new BigDecimal(mantissa).divide(new BigDecimal(BigInteger.ONE.shiftLeft(-exp)));
+		}
+	}
+	
+	private BigInteger readInteger() throws IOException {
+		int initial = readByte();
+		int major = initial >>> 5;
+		int info = initial & 0x1F;
+		if (major == MAJOR_TAG) {
+			long tag = readArgument(info);
+			if (tag != 2 && tag != 3) throw syntaxError("Expected an integer, but found tag "+tag+".");
+			return readBignum(tag == 3);
+		}
+		if (major != MAJOR_UNSIGNED && major != MAJOR_NEGATIVE) throw syntaxError("Expected an integer, but found major type "+major+".");
+		
+		Object value = readPrimitive(major, info);
+		return (value instanceof BigInteger big) ? big : BigInteger.valueOf((Long) value);
+	}
+	
+	private String readText(int info) throws IOException {
+		return new String(readChunks(MAJOR_TEXT, info), StandardCharsets.UTF_8);
+	}
+	
+	private byte[] readBytes(int info) throws IOException {
+		return readChunks(MAJOR_BYTES, info);
+	}
+	
+	/**
+	 * Reads the contents of a definite-length string, or all the chunks of an indefinite-length string.
+	 */
+	private byte[] readChunks(int major, int info) throws IOException {
+		if (info != INDEFINITE) return readFully(readLength(info));
+		
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		while(true) {
+			int initial = readByte();
+			if (initial == 0xFF) return result.toByteArray();
+			if ((initial >>> 5) != major || (initial & 0x1F) == INDEFINITE) throw syntaxError("Invalid chunk in indefinite-length string.");
+			result.writeBytes(readFully(readLength(initial & 0x1F)));
+		}
+	}
+	
+	private long readLength(int info) throws IOException {
+		long length = readArgument(info);
+		if (length < 0 || length > Integer.MAX_VALUE) throw syntaxError("Length "+Long.toUnsignedString(length)+" is too large.");
+		return length;
+	}
+	
+	/**
+	 * Reads the argument of a data item. The result should be treated as unsigned.
+	 */
+	private long readArgument(int info) throws IOException {
+		if (info < 24) return info;
+		return switch(info) {
+			case 24 -> readByte();
+			case 25 -> readBigEndian(2);
+			case 26 -> readBigEndian(4);
+			case 27 -> readBigEndian(8);
+			default -> throw syntaxError("Invalid additional information "+info+".");
+		};
+	}
+	
+	private long readBigEndian(int bytes) throws IOException {
+		long result = 0L;
+		for(int i=0; i<bytes; i++) result = (result << 8) | readByte();
+		return result;
+	}
+	
+	private byte[] readFully(long length) throws IOException {
+		int len = (int) length;
+		int copied = Math.min(len, limit - pos);
+		byte[] result = ByteStreams.readFully(in, buf, pos, copied, len, "CBOR data ended in the middle of a string.");
+		pos += copied;
+		return result;
+	}
+	
+	/**
+	 * Makes sure there is at least one byte in the buffer.
+	 * @return false if the end of the stream has been reached
+	 */
+	private boolean fill() throws IOException {
+		if (pos < limit) return true;
+		limit = in.read(buf, 0, buf.length);
+		pos = 0;
+		if (limit <= 0) {
+			limit = 0;
+			return false;
+		}
+		return true;
+	}
+	
+	private int readByte() throws IOException {
+		if (!fill()) throw new EOFException("CBOR data ended in the middle of an item.");
+		return buf[pos++] & 0xFF;
+	}
+	
+	private static IOException syntaxError(String message) {
+		return new IOException(new SyntaxError(message));
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import blue.endless.jankson.impl.io.BinaryFormat;
+
+/**
+ * Writes StructuredData as RFC 8949 CBOR. Because StructuredData doesn't say how many elements an array or object will
+ * have, arrays and objects are written as indefinite-length items. Integers and floats use the smallest encoding that
+ * represents them exactly.
+ * 
+ * <p>BigInteger values are written as bignums (tags 2 and 3), and BigDecimal values are written as decimal fractions
+ * (tag 4). Comments and formatting have no CBOR representation and are discarded.
+ * 
+ * <p>Output is buffered internally, and flushed to the OutputStream when EOF is written or {@link #flush()} is called.
+ */
+public class CborWriter implements StructuredDataWriter, Flushable {
+	private static final int MAJOR_UNSIGNED = 0;
+	private static final int MAJOR_NEGATIVE = 1;
+	private static final int MAJOR_BYTES    = 2;
+	private static final int MAJOR_TEXT     = 3;
+	private static final int MAJOR_ARRAY    = 4;
+	private static final int MAJOR_MAP      = 5;
+	private static final int MAJOR_TAG      = 6;
+	
+	private final OutputStream out;
+	private final byte[] buf = new byte[8192];
+	private int pos = 0;
+	private boolean finished = false;
+	
+	public CborWriter(OutputStream out) {
+		this.out = out;
+	}
+	
+	@Override
+	public void write(StructuredData data) throws IOException {
+		if (finished) return;
+		
+		switch(data.type()) {
+			case OBJECT_START -> writeByte((MAJOR_MAP << 5) | 31);
+			case ARRAY_START  -> writeByte((MAJOR_ARRAY << 5) | 31);
+			case OBJECT_END, ARRAY_END -> writeByte(0xFF);
+			case OBJECT_KEY -> writeText(data.value().toString());
+			case PRIMITIVE -> writePrimitive(data.value());
+			case COMMENT, WHITESPACE, NEWLINE -> {}
+			case EOF -> {
+				finished = true;
+				flush();
+			}
+		}
+	}
+	
+	private void writePrimitive(Object value) throws IOException {
+		if (value == null) {
+			writeByte(0xF6);
+		} else if (value instanceof Boolean bool) {
+			writeByte(bool ? 0xF5 : 0xF4);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writeLong(((Number) value).longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof String s) {
+			writeText(s);
+		} else if (value instanceof byte[] bytes) {
+			writeHead(MAJOR_BYTES, bytes.length);
+			writeRaw(bytes, 0, bytes.length);
+		} else if (value instanceof BigInteger big) {
+			writeBigInteger(big);
+		} else if (value instanceof BigDecimal dec) {
+			writeHead(MAJOR_TAG, 4);
+			writeHead(MAJOR_ARRAY, 2);
+			writeLong(-(long) dec.scale());
+			writeBigInteger(dec.unscaledValue());
+		} else {
+			writePrimitive(StructuredData.primitive(value).value());
+		}
+	}
+	
+	private void writeLong(long value) throws IOException {
+		if (value >= 0) {
+			writeHead(MAJOR_UNSIGNED, value);
+		} else {
+			writeHead(MAJOR_NEGATIVE, -1 - value);
+		}
+	}
+	
+	private void writeBigInteger(BigInteger value) throws IOException {
+		if (value.bitLength() < 64) {
+			writeLong(value.longValue());
+			return;
+		}
+		
+		boolean negative = value.signum() < 0;
+		BigInteger magnitude = negative ? value.negate().subtract(BigInteger.ONE) : value;
+		byte[] bytes = magnitude.toByteArray();
+		int start = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0; // Strip the sign byte
+		
+		writeHead(MAJOR_TAG, negative ? 3 : 2);
+		writeHead(MAJOR_BYTES, bytes.length - start);
+		writeRaw(bytes, start, bytes.length - start);
+	}
+	
+	/**
+	 * Copies bytes into the output, going around the buffer if there are too many of them to fit.
+	 */
+	private void writeRaw(byte[] bytes, int offset, int length) throws IOException {
+		ensure(length);
+		if (length > buf.length) {
+			flushBuffer();
+			out.write(bytes, offset, length);
+		} else {
+			System.arraycopy(bytes, offset, buf, pos, length);
+			pos += length;
+		}
+	}
+	
+	private void writeDouble(double value) throws IOException {
+		if (Double.isNaN(value)) {
+			writeByte(0xF9);
+			writeByte(0x7E);
+			writeByte(0x00);
+			return;
+		}
+		
+		float f = (float) value;
+		if (f == value) {
+			short half = Float.floatToFloat16(f);
+			if (Float.float16ToFloat(half) == f) {
+				writeByte(0xF9);
+				writeByte(half >> 8);
+				writeByte(half);
+			} else {
+				int bits = Float.floatToRawIntBits(f);
+				ensure(5);
+				buf[pos++] = (byte) 0xFA;
+				for(int shift=24; shift>=0; shift-=8) buf[pos++] = (byte) (bits >>> shift);
+			}
+		} else {
+			long bits = Double.doubleToRawLongBits(value);
+			ensure(9);
+			buf[pos++] = (byte) 0xFB;
+			for(int shift=56; shift>=0; shift-=8) buf[pos++] = (byte) (bits >>> shift);
+		}
+	}
+	
+	private void writeText(String s) throws IOException {
+		int length = BinaryFormat.utf8Length(s);
+		writeHead(MAJOR_TEXT, length);
+		if (length <= buf.length) {
+			ensure(length);
+			pos = BinaryFormat.encodeUtf8(s, buf, pos);
+		} else {
+			flushBuffer();
+			byte[] encoded = new byte[length];
+			BinaryFormat.encodeUtf8(s, encoded, 0);
+			out.write(encoded);
+		}
+	}
+	
+	/**
+	 * Writes the initial byte of a data item, along with its argument in the smallest form that fits. The argument is
+	 * treated as unsigned.
+	 */
+	private void writeHead(int majorType, long argument) throws IOException {
+		ensure(9);
+		int major = majorType << 5;
+		if (argument >= 0 && argument < 24) {
+			buf[pos++] = (byte) (major | (int) argument);
+		} else if (argument >= 0 && argument <= 0xFF) {
+			buf[pos++] = (byte) (major | 24);
+			buf[pos++] = (byte) argument;
+		} else if (argument >= 0 && argument <= 0xFFFF) {
+			buf[pos++] = (byte) (major | 25);
+			buf[pos++] = (byte) (argument >> 8);
+			buf[pos++] = (byte) argument;
+		} else if (argument >= 0 && argument <= 0xFFFF_FFFFL) {
+			buf[pos++] = (byte) (major | 26);
+			for(int shift=24; shift>=0; shift-=8) buf[pos++] = (byte) (argument >>> shift);
+		} else {
+			buf[pos++] = (byte) (major | 27);
+			for(int shift=56; shift>=0; shift-=8) buf[pos++] = (byte) (argument >>> shift);
+		}
+	}
+	
+	private void writeByte(int b) throws IOException {
+		ensure(1);
+		buf[pos++] = (byte) b;
+	}
+	
+	private void ensure(int bytes) throws IOException {
+		if (pos + bytes > buf.length) flushBuffer();
+	}
+	
+	private void flushBuffer() throws IOException {
+		if (pos > 0) {
+			out.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+	
+	/**
+	 * Writes any buffered data to the OutputStream and flushes it.
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+}
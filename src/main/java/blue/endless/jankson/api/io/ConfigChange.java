@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.nio.file.Path;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.document.ValueElement;
+
+/**
+ * Describes a single value that changed when a file was reloaded.
+ * @param file     the file that changed
+ * @param pointer  the location of the changed value within the file, as an RFC 6901 json pointer. The empty String
+ *                 represents the document root.
+ * @param oldValue the value before the change, or null if the value was added
+ * @param newValue the value after the change, or null if the value was removed
+ */
+public record ConfigChange(Path file, String pointer, @Nullable ValueElement oldValue, @Nullable ValueElement newValue) {
+	
+	public boolean isAddition() {
+		return oldValue == null;
+	}
+	
+	public boolean isRemoval() {
+		return newValue == null;
+	}
+}
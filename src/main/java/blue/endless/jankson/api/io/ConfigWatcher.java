@@ -0,0 +1,308 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.document.StructuralDiff;
+import blue.endless.jankson.impl.io.BulkReader;
+
+/**
+ * Watches config files for changes and reloads them. Filesystem events are debounced, so that an editor which writes a
+ * file in several steps only causes one reload, and events for the same file are coalesced. When a file is reloaded,
+ * it is compared against its previous contents, and listeners are told about each individual value that changed.
+ * 
+ * <p>A file is only re-parsed if its modification time or size changed and the hash of its contents is different from
+ * the last time it was read.
+ * 
+ * <p>Files are read the same way as {@link blue.endless.jankson.api.Jankson#readAll(java.util.Collection, JsonReaderOptions)
+ * Jankson::readAll}: by extension, falling back on json.
+ */
+public class ConfigWatcher implements AutoCloseable {
+	public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(100);
+	
+	private final JsonReaderOptions opts;
+	private final long debounceNanos;
+	private final WatchService watchService;
+	private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+	private final Map<Path, FileState> files = new ConcurrentHashMap<>();
+	private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+	private Thread thread = null;
+	
+	private static class FileState {
+		long lastModified;
+		long size;
+		byte[] hash;
+		@Nullable ValueElement value;
+	}
+	
+	public ConfigWatcher() throws IOException {
+		this(JsonReaderOptions.UNSPECIFIED, DEFAULT_DEBOUNCE);
+	}
+	
+	/**
+	 * Creates a new ConfigWatcher.
+	 * @param opts     hints and settings to control the reading process for json files
+	 * @param debounce how long a file must go without changes before it is reloaded
+	 */
+	public ConfigWatcher(JsonReaderOptions opts, Duration debounce) throws IOException {
+		this.opts = opts;
+		this.debounceNanos = debounce.toNanos();
+		this.watchService = FileSystems.getDefault().newWatchService();
+	}
+	
+	public void addListener(ConfigChangeListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void removeListener(ConfigChangeListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Starts watching a file, and reads its current contents.
+	 * @param file the file to watch
+	 * @return the current contents of the file, or null if the file does not exist yet
+	 * @throws IOException if the file's directory could not be watched
+	 * @throws SyntaxError if the file exists but could not be read
+	 */
+	public synchronized @Nullable ValueElement watch(Path file) throws IOException, SyntaxError {
+		Path absolute = file.toAbsolutePath().normalize();
+		Path dir = absolute.getParent();
+		if (!watchedDirectories.containsKey(dir)) {
+			WatchKey key = dir.register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+			watchedDirectories.put(dir, key);
+		}
+		
+		FileState state = new FileState();
+		files.put(absolute, state);
+		
+		if (Files.exists(absolute)) {
+			BasicFileAttributes attrs = Files.readAttributes(absolute, BasicFileAttributes.class);
+			byte[] data = Files.readAllBytes(absolute);
+			state.lastModified = attrs.lastModifiedTime().toMillis();
+			state.size = attrs.size();
+			state.hash = hash(data);
+			state.value = parse(absolute, data);
+		}
+		
+		return state.value;
+	}
+	
+	/**
+	 * Gets the most recently loaded contents of a watched file.
+	 */
+	public @Nullable ValueElement get(Path file) {
+		FileState state = files.get(file.toAbsolutePath().normalize());
+		return (state == null) ? null : state.value;
+	}
+	
+	/**
+	 * Starts a daemon thread which reloads files as they change. Listeners will be called on this thread.
+	 */
+	public synchronized void start() {
+		if (thread != null) return;
+		
+		thread = new Thread(this::run, "Jankson Config Watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Immediately checks every watched file for changes, without waiting for filesystem events.
+	 */
+	public void checkAll() {
+		for(Path file : files.keySet()) reload(file);
+	}
+	
+	private void run() {
+		Map<Path, Long> pending = new HashMap<>();
+		
+		try {
+			while(true) {
+				WatchKey key;
+				if (pending.isEmpty()) {
+					key = watchService.take();
+				} else {
+					long now = System.nanoTime();
+					long nextDeadline = Long.MAX_VALUE;
+					for(long deadline : pending.values()) nextDeadline = Math.min(nextDeadline, deadline);
+					key = watchService.poll(Math.max(0, nextDeadline - now), TimeUnit.NANOSECONDS);
+				}
+				
+				if (key != null) {
+					Path dir = (Path) key.watchable();
+					for(WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							// We lost track of what changed. Check everything.
+							for(Path file : files.keySet()) pending.put(file, System.nanoTime() + debounceNanos);
+							continue;
+						}
+						
+						Path file = dir.resolve((Path) event.context());
+						if (files.containsKey(file)) {
+							// Coalesce: each new event for a file pushes its reload back
+							pending.put(file, System.nanoTime() + debounceNanos);
+						}
+					}
+					key.reset();
+				}
+				
+				long now = System.nanoTime();
+				Set<Path> ready = new HashSet<>();
+				for(Map.Entry<Path, Long> entry : pending.entrySet()) {
+					if (entry.getValue() - now <= 0) ready.add(entry.getKey());
+				}
+				for(Path file : ready) {
+					pending.remove(file);
+					reload(file);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException ex) {
+			// We're shutting down
+		}
+	}
+	
+	private synchronized void reload(Path file) {
+		FileState state = files.get(file);
+		if (state == null) return;
+		
+		try {
+			BasicFileAttributes attrs;
+			try {
+				attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			} catch (NoSuchFileException ex) {
+				if (state.hash != null) {
+					ValueElement oldValue = state.value;
+					state.lastModified = 0;
+					state.size = 0;
+					state.hash = null;
+					state.value = null;
+					fireChange(new ConfigChange(file, "", oldValue, null));
+				}
+				return;
+			}
+			
+			long lastModified = attrs.lastModifiedTime().toMillis();
+			if (state.hash != null && lastModified == state.lastModified && attrs.size() == state.size) return;
+			
+			byte[] data = Files.readAllBytes(file);
+			byte[] hash = hash(data);
+			state.lastModified = lastModified;
+			state.size = attrs.size();
+			if (Arrays.equals(hash, state.hash)) return; // Touched, but the contents are the same
+			
+			ValueElement newValue;
+			try {
+				newValue = parse(file, data);
+			} catch (SyntaxError err) {
+				// Don't record the hash, so that we try again on the next change
+				for(ConfigChangeListener listener : listeners) listener.onError(file, err);
+				return;
+			}
+			
+			ValueElement oldValue = state.value;
+			state.hash = hash;
+			state.value = newValue;
+			
+			List<ConfigChange> changes = new ArrayList<>();
+			StructuralDiff.diff(oldValue, newValue, (pointer, oldElem, newElem) -> changes.add(new ConfigChange(file, pointer, oldElem, newElem)));
+			for(ConfigChange change : changes) fireChange(change);
+		} catch (IOException ex) {
+			SyntaxError err = new SyntaxError("Could not read "+file+": "+ex.getMessage(), ex);
+			for(ConfigChangeListener listener : listeners) listener.onError(file, err);
+		}
+	}
+	
+	private void fireChange(ConfigChange change) {
+		for(ConfigChangeListener listener : listeners) listener.onChange(change);
+	}
+	
+	private ValueElement parse(Path file, byte[] data) throws IOException, SyntaxError {
+		try(Reader r = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+			StructuredDataReader reader = BulkReader.readerFor(file, r, opts);
+			ValueElementWriter writer = new ValueElementWriter();
+			reader.transferTo(writer);
+			return writer.toValueElement();
+		} catch (IOException ex) {
+			if (ex.getCause() instanceof SyntaxError err) throw err;
+			throw ex;
+		}
+	}
+	
+	private static byte[] hash(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException ex) {
+			// Every Java implementation is required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+		Thread t;
+		synchronized(this) {
+			t = thread;
+			thread = null;
+		}
+		if (t != null) t.interrupt();
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.io.BinaryFormat;
+import blue.endless.jankson.impl.io.BulkReader;
+
+/**
+ * Caches parsed documents on disk in Jankson's binary format, so that unchanged files can be loaded without lexing
+ * them again. Snapshots are keyed by a hash of the source file's contents together with the reader options, so a
+ * changed file or different options will never load a stale snapshot. Reads which use a {@link LargeStringHandler}
+ * always parse the file and are never cached.
+ * 
+ * <p>The cache directory is kept under a size limit by evicting the least recently used snapshots. Snapshots of files
+ * that have since changed are never used again, so they age out naturally.
+ * 
+ * <p>Files are read by extension, the same way as {@link blue.endless.jankson.api.Jankson#readAll(java.util.Collection,
+ * JsonReaderOptions) Jankson::readAll}. Comments and formatting are kept in the snapshots.
+ */
+public class DocumentCache {
+	private static final String EXTENSION = ".jbin";
+	
+	private final Path cacheDirectory;
+	private final long maxBytes;
+	
+	/**
+	 * Creates a new DocumentCache.
+	 * @param cacheDirectory the directory to keep snapshots in. It will be created if it doesn't exist.
+	 * @param maxBytes       the largest total size the cache directory's snapshots may grow to
+	 */
+	public DocumentCache(Path cacheDirectory, long maxBytes) {
+		if (maxBytes < 0) throw new IllegalArgumentException("Cache size cannot be negative.");
+		this.cacheDirectory = cacheDirectory;
+		this.maxBytes = maxBytes;
+	}
+	
+	/**
+	 * Reads a file using the default settings, loading it from the cache if possible.
+	 * @see #read(Path, JsonReaderOptions)
+	 */
+	public ValueElement read(Path source) throws IOException, SyntaxError {
+		return read(source, JsonReaderOptions.UNSPECIFIED);
+	}
+	
+	/**
+	 * Reads a file, loading it from the cache if its contents have been read before with the same options. Otherwise,
+	 * the file is parsed and a snapshot is added to the cache.
+	 * @param source the file to read
+	 * @param opts   hints and settings to control the reading process for json files
+	 * @return a ValueElement representing the document root
+	 * @throws IOException if there was a problem reading the file or writing to the cache
+	 * @throws SyntaxError if the file could not be parsed
+	 */
+	public ValueElement read(Path source, JsonReaderOptions opts) throws IOException, SyntaxError {
+		byte[] data = Files.readAllBytes(source);
+		ValueElementWriter valueWriter = new ValueElementWriter();
+		
+		// A large string handler has to see the strings in the file, and can change what ends up in the document, so
+		// there's nothing we can safely reuse.
+		if (opts.getLargeStringHandler() != null) {
+			parse(source, data, opts, valueWriter);
+			return valueWriter.toValueElement();
+		}
+		
+		Path snapshot = cacheDirectory.resolve(key(source, data, opts) + EXTENSION);
+		
+		ValueElement cached = readSnapshot(snapshot);
+		if (cached != null) return cached;
+		
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream(data.length);
+		BinaryStructuredDataWriter binaryWriter = new BinaryStructuredDataWriter(encoded);
+		
+		parse(source, data, opts, (it) -> {
+			valueWriter.write(it);
+			binaryWriter.write(it);
+		});
+		binaryWriter.write(StructuredData.EOF);
+		
+		writeSnapshot(snapshot, encoded.toByteArray());
+		evict();
+		
+		return valueWriter.toValueElement();
+	}
+	
+	/**
+	 * Deletes every snapshot in the cache directory.
+	 */
+	public void clear() throws IOException {
+		for(Snapshot snapshot : listSnapshots()) {
+			Files.deleteIfExists(snapshot.path());
+		}
+	}
+	
+	private static void parse(Path source, byte[] data, JsonReaderOptions opts, StructuredDataWriter writer) throws IOException, SyntaxError {
+		try(Reader r = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+			StructuredDataReader reader = BulkReader.readerFor(source, r, opts);
+			reader.transferTo(writer);
+		} catch (IOException ex) {
+			if (ex.getCause() instanceof SyntaxError err) throw err;
+			throw ex;
+		}
+	}
+	
+	private ValueElement readSnapshot(Path snapshot) throws IOException {
+		if (!Files.exists(snapshot)) return null;
+		
+		try(InputStream in = Files.newInputStream(snapshot)) {
+			ValueElementWriter writer = new ValueElementWriter();
+			new BinaryStructuredDataReader(in).transferTo(writer);
+			ValueElement result = writer.toValueElement();
+			
+			// Record the access for LRU eviction
+			Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+			return result;
+		} catch (NoSuchFileException ex) {
+			// Evicted by someone else between the check and the read
+			return null;
+		} catch (IOException | RuntimeException ex) {
+			// A damaged or truncated snapshot is just a cache miss
+			Files.deleteIfExists(snapshot);
+			return null;
+		}
+	}
+	
+	private void writeSnapshot(Path snapshot, byte[] data) throws IOException {
+		Files.createDirectories(cacheDirectory);
+		Path temp = Files.createTempFile(cacheDirectory, "snapshot", ".tmp");
+		try {
+			Files.write(temp, data);
+			try {
+				Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private record Snapshot(Path path, long size, long lastModified) {}
+	
+	private List<Snapshot> listSnapshots() throws IOException {
+		List<Snapshot> result = new ArrayList<>();
+		if (!Files.isDirectory(cacheDirectory)) return result;
+		
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDirectory, "*" + EXTENSION)) {
+			for(Path path : stream) {
+				try {
+					BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+					result.add(new Snapshot(path, attrs.size(), attrs.lastModifiedTime().toMillis()));
+				} catch (NoSuchFileException ex) {
+					// Deleted while we were looking
+				}
+			}
+		}
+		return result;
+	}
+	
+	private void evict() throws IOException {
+		List<Snapshot> snapshots = listSnapshots();
+		long total = 0L;
+		for(Snapshot snapshot : snapshots) total += snapshot.size();
+		if (total <= maxBytes) return;
+		
+		snapshots.sort(Comparator.comparingLong(Snapshot::lastModified));
+		for(Snapshot snapshot : snapshots) {
+			if (total <= maxBytes) break;
+			Files.deleteIfExists(snapshot.path());
+			total -= snapshot.size();
+		}
+	}
+	
+	/**
+	 * Creates the cache key for a file: a SHA-256 hash over the file's contents, the format it will be parsed as, the
+	 * reader options, and the snapshot format version.
+	 */
+	private static String key(Path source, byte[] data, JsonReaderOptions opts) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(data);
+			
+			StringBuilder fingerprint = new StringBuilder();
+			fingerprint.append("|v").append(BinaryFormat.VERSION);
+			fingerprint.append('|').append(BulkReader.formatOf(source));
+			for(JsonReaderOptions.Hint hint : JsonReaderOptions.Hint.values()) {
+				if (opts.hasHint(hint)) fingerprint.append('|').append(hint.name());
+			}
+			digest.update(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+			
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException ex) {
+			// Every Java implementation is required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -53,6 +53,13 @@ public class IniReader extends AbstractStructuredDataReader {
 		enqueueOutput(StructuredData.OBJECT_START);
 	}
 	
+	@Override
+	public void reset(Reader source) {
+		super.reset(source);
+		isSection = false;
+		enqueueOutput(StructuredData.OBJECT_START);
+	}
+	
 	private String grabKeyOrValue() throws IOException {
 		StringBuilder result = new StringBuilder();
 		
@@ -84,10 +91,10 @@ public class IniReader extends AbstractStructuredDataReader {
 		
 		if (src.peek() == -1) {
 			if (isSection) {
-				readQueue.push(StructuredData.OBJECT_END);
+				output.write(StructuredData.OBJECT_END);
 				isSection = false;
 			}
-			readQueue.push(StructuredData.OBJECT_END);
+			output.write(StructuredData.OBJECT_END);
 			readQueue.push(StructuredData.EOF);
 			return;
 		}
@@ -97,11 +104,11 @@ public class IniReader extends AbstractStructuredDataReader {
 			String heading = grabHeading();
 			
 			if (isSection) {
-				readQueue.push(StructuredData.OBJECT_END);
+				output.write(StructuredData.OBJECT_END);
 				isSection = false;
 			}
-			readQueue.push(StructuredData.objectKey(heading));
-			readQueue.push(StructuredData.OBJECT_START);
+			output.write(StructuredData.objectKey(heading));
+			output.write(StructuredData.OBJECT_START);
 			isSection = true;
 			
 			while(Character.isWhitespace(src.peek())) src.read(); // Skip line breaks, etc.
@@ -113,29 +120,29 @@ public class IniReader extends AbstractStructuredDataReader {
 		if (key.startsWith("[")) {
 			//This is a section instead.
 			if (isSection) {
-				readQueue.push(StructuredData.OBJECT_END);
+				output.write(StructuredData.OBJECT_END);
 			}
 			//TODO: Strip brackets from key
-			readQueue.push(StructuredData.OBJECT_START);
+			output.write(StructuredData.OBJECT_START);
 		}
 		
 		if (src.peek() != '=') throw new IOException(new SyntaxError("Expected '=' but found "+formatCharacter(src.peek()), src.getLine(), src.getCharacter()));
 		src.read(); //discard the equals
 		
-		readQueue.push(StructuredData.objectKey(key));
+		output.write(StructuredData.objectKey(key));
 		
 		skipNonBreakingWhitespace();
 		
 		if (src.peek() == '"') {
 			try {
 				String value = StringValueParser.readStatic(src);
-				readQueue.push(StructuredData.primitive(value));
+				output.write(StructuredData.primitive(value));
 			} catch (SyntaxError e) {
 				throw new IOException(e);
 			}
 		} else {
 			String value = grabKeyOrValue().trim();
-			readQueue.push(StructuredData.primitive(value));
+			output.write(StructuredData.primitive(value));
 		}
 		
 		while(Character.isWhitespace(src.peek())) src.read(); // Skip line breaks, etc.
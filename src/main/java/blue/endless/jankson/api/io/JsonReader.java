@@ -30,12 +30,106 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 
 import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.CommentElement;
 import blue.endless.jankson.impl.io.AbstractStructuredDataReader;
-import blue.endless.jankson.impl.io.context.ParserContext;
-import blue.endless.jankson.impl.io.context.RootParserContext;
+import blue.endless.jankson.impl.io.KeyCache;
+import blue.endless.jankson.impl.io.context.CommentValueParser;
+import blue.endless.jankson.impl.io.context.NumberValueParser;
+import blue.endless.jankson.impl.io.context.StringValueParser;
+import blue.endless.jankson.impl.io.context.TokenValueParser;
 
+/**
+ * Reads json and json5 as StructuredData. When many small documents need to be read, a single JsonReader can be
+ * {@link #reset(Reader) reset} onto each new source in turn, reusing its buffers and parser state.
+ * 
+ * <p>The parser is a single loop over a stack of open containers. Each step skips whitespace and comments, then looks
+ * at one character to decide what comes next, and sends the resulting events straight to a StructuredDataWriter.
+ */
 public class JsonReader extends AbstractStructuredDataReader {
+	
+	// Kinds of container on the stack
+	private static final int FRAME_ROOT = 0;
+	private static final int FRAME_OBJECT = 1;
+	private static final int FRAME_ARRAY = 2;
+	/** An object at the document root with no braces, which ends at the end of the document. */
+	private static final int FRAME_BARE_OBJECT = 3;
+	
+	// Character classes for dispatching on the first character of a token
+	private static final byte CLASS_OTHER = 0;
+	private static final byte CLASS_WHITESPACE = 1;
+	private static final byte CLASS_NEWLINE = 2;
+	private static final byte CLASS_OBJECT_START = 3;
+	private static final byte CLASS_OBJECT_END = 4;
+	private static final byte CLASS_ARRAY_START = 5;
+	private static final byte CLASS_ARRAY_END = 6;
+	private static final byte CLASS_COMMA = 7;
+	private static final byte CLASS_COLON = 8;
+	private static final byte CLASS_QUOTE = 9;
+	private static final byte CLASS_NUMBER = 10;
+	private static final byte CLASS_TRUE = 11;
+	private static final byte CLASS_FALSE = 12;
+	/** 'n' or 'N', which might start null or NaN */
+	private static final byte CLASS_N = 13;
+	/** 'i' or 'I', which might start Infinity */
+	private static final byte CLASS_I = 14;
+	/** '#' or '/', which might start a comment */
+	private static final byte CLASS_COMMENT = 15;
+	
+	private static final byte[] CHAR_CLASS = new byte[128];
+	private static final boolean[] TOKEN_CHAR = new boolean[128];
+	
+	static {
+		for(int i=0; i<128; i++) {
+			if (Character.isWhitespace(i)) CHAR_CLASS[i] = CLASS_WHITESPACE;
+			if (Character.isLetterOrDigit(i) || i == '_') TOKEN_CHAR[i] = true;
+		}
+		CHAR_CLASS['\n'] = CLASS_NEWLINE;
+		CHAR_CLASS['{'] = CLASS_OBJECT_START;
+		CHAR_CLASS['}'] = CLASS_OBJECT_END;
+		CHAR_CLASS['['] = CLASS_ARRAY_START;
+		CHAR_CLASS[']'] = CLASS_ARRAY_END;
+		CHAR_CLASS[','] = CLASS_COMMA;
+		CHAR_CLASS[':'] = CLASS_COLON;
+		CHAR_CLASS['"'] = CLASS_QUOTE;
+		CHAR_CLASS['\''] = CLASS_QUOTE;
+		for(char ch : "-+.0123456789".toCharArray()) CHAR_CLASS[ch] = CLASS_NUMBER;
+		CHAR_CLASS['t'] = CLASS_TRUE;
+		CHAR_CLASS['f'] = CLASS_FALSE;
+		CHAR_CLASS['n'] = CLASS_N;
+		CHAR_CLASS['N'] = CLASS_N;
+		CHAR_CLASS['i'] = CLASS_I;
+		CHAR_CLASS['I'] = CLASS_I;
+		CHAR_CLASS['#'] = CLASS_COMMENT;
+		CHAR_CLASS['/'] = CLASS_COMMENT;
+	}
+	
 	private final JsonReaderOptions options;
+	private final boolean allowBareRootObject;
+	private final boolean allowUnquotedRootKeys;
+	private final boolean discardComments;
+	private final boolean allowRootCommas;
+	private final int largeStringThreshold;
+	private final LargeStringHandler largeStringHandler;
+	
+	private int[] stack = new int[16];
+	private int depth;
+	private boolean finished;
+	private String bufferedKey;
+	private final StringBuilder scratch = new StringBuilder();
+	private final KeyCache keyCache = new KeyCache();
+	private int tokenLine;
+	private int tokenColumn;
+	private final Locator locator = new Locator() {
+		@Override
+		public int getLine() {
+			return tokenLine;
+		}
+		
+		@Override
+		public int getColumn() {
+			return tokenColumn;
+		}
+	};
 	
 	public JsonReader(Reader source) {
 		this(source, JsonReaderOptions.UNSPECIFIED);
@@ -44,34 +138,332 @@ public class JsonReader extends AbstractStructuredDataReader {
 	public JsonReader(Reader source, JsonReaderOptions options) {
 		super(source);
 		this.options = options;
-		pushContext(new RootParserContext(options));
+		this.allowBareRootObject = options.hasHint(JsonReaderOptions.Hint.ALLOW_BARE_ROOT_OBJECT);
+		this.allowUnquotedRootKeys = allowBareRootObject && options.hasHint(JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS);
+		this.discardComments = options.hasHint(JsonReaderOptions.Hint.SKIP_COMMENTS);
+		this.allowRootCommas = options.hasHint(JsonReaderOptions.Hint.ALLOW_ROOT_COMMAS);
+		this.largeStringThreshold = options.getLargeStringThreshold();
+		this.largeStringHandler = options.getLargeStringHandler();
+		init();
 	}
 	
 	public JsonReader(InputStream source, JsonReaderOptions options) {
 		this(new InputStreamReader(source), options);
 	}
 	
+	private void init() {
+		stack[0] = FRAME_ROOT;
+		depth = 1;
+		finished = false;
+		bufferedKey = null;
+		tokenLine = 0;
+		tokenColumn = 0;
+	}
+	
+	@Override
+	public void reset(Reader source) {
+		super.reset(source);
+		init();
+	}
+	
 	@Override
 	protected void readNext() throws IOException {
-		ParserContext context = getContext();
-		if (context==null) throw new IllegalStateException("Root context was popped");
-		if (context.isComplete(src)) {
-			popContext();
-			if (getContext()==null) {
+		if (finished) {
+			readQueue.push(StructuredData.EOF);
+			return;
+		}
+		
+		try {
+			step(output);
+		} catch (SyntaxError err) {
+			throw new IOException(err);
+		}
+	}
+	
+	/**
+	 * Gets a Locator which reports where the data most recently produced by this reader started in the text. Once this
+	 * has been called, {@link #transferTo(StructuredDataWriter)} hands data over as it's parsed instead of in batches, so
+	 * that the location is accurate whenever data arrives at the destination. When data is pulled with {@link #next()},
+	 * the location may be up to one value ahead, since keys are read together with their values.
+	 */
+	public Locator getLocator() {
+		batchTransfers = false;
+		return locator;
+	}
+	
+	/**
+	 * Records the current position as the start of the token about to be read.
+	 */
+	private void mark() {
+		tokenLine = src.getLine();
+		tokenColumn = src.getCharacter();
+	}
+	
+	private static int classOf(int ch) {
+		return (ch >= 0 && ch < 128) ? CHAR_CLASS[ch] : CLASS_OTHER;
+	}
+	
+	private void push(int frame) {
+		if (depth == stack.length) {
+			int[] newStack = new int[stack.length * 2];
+			System.arraycopy(stack, 0, newStack, 0, depth);
+			stack = newStack;
+		}
+		stack[depth++] = frame;
+	}
+	
+	/**
+	 * Parses the next small piece of the document, usually one key or value, sending any resulting data to the sink.
+	 * A step may produce no data at all, for instance if it only consumed a comma.
+	 */
+	private void step(StructuredDataWriter sink) throws IOException, SyntaxError {
+		skipComments(sink);
+		
+		int ch = src.peek();
+		switch(stack[depth - 1]) {
+			case FRAME_ROOT -> {
+				if (bufferedKey != null) {
+					if (ch == ':') {
+						// The String we found is the first key of an object with no braces
+						src.read();
+						sink.write(StructuredData.OBJECT_START);
+						sink.write(StructuredData.objectKey(bufferedKey));
+						bufferedKey = null;
+						push(FRAME_BARE_OBJECT);
+						skipComments(sink);
+						readValue(sink);
+						return;
+					}
+					
+					// It was just a String value after all
+					sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, bufferedKey));
+					bufferedKey = null;
+				}
 				
+				mark();
+				if (ch == -1) {
+					finished = true;
+					readQueue.push(StructuredData.EOF);
+				} else if (ch == ',' && allowRootCommas) {
+					src.read();
+				} else if (allowBareRootObject && classOf(ch) == CLASS_QUOTE && !isTripleQuote()) {
+					// This could be either a key of a bare root object, or it could be a primitive String root object.
+					// Buffer it for now - if we find a colon later, it's a key.
+					bufferedKey = StringValueParser.readStatic(src, scratch);
+				} else {
+					readRootValue(sink, ch);
+				}
+			}
+			
+			case FRAME_OBJECT, FRAME_BARE_OBJECT -> {
+				switch(classOf(ch)) {
+					case CLASS_COMMA -> src.read(); // We ignore commas
+					case CLASS_OBJECT_END -> {
+						if (stack[depth - 1] == FRAME_BARE_OBJECT) throw new SyntaxError("Found the end of an object, but the root object has no braces.", src.getLine(), src.getCharacter());
+						mark();
+						src.read();
+						depth--;
+						sink.write(StructuredData.OBJECT_END);
+					}
+					default -> {
+						mark();
+						if (ch == -1) {
+							if (stack[depth - 1] == FRAME_OBJECT) throw new IOException("EOF found before object end.");
+							depth--;
+							sink.write(StructuredData.OBJECT_END);
+							return;
+						}
+						
+						//Read a key. Keys repeat a lot, so they're only turned into Strings when they haven't been seen recently.
+						if (classOf(ch) == CLASS_QUOTE && !isTripleQuote()) {
+							StringValueParser.readInto(src, scratch);
+						} else {
+							TokenValueParser.readInto(src, scratch);
+						}
+						sink.write(StructuredData.objectKey(keyCache.get(scratch)));
+						
+						//Look for the colon
+						skipComments(sink);
+						if (src.peek() != ':') throw new SyntaxError("Couldn't find key-value separator (:)", src.getLine(), src.getCharacter());
+						src.read();
+						skipComments(sink);
+						
+						readValue(sink);
+					}
+				}
+			}
+			
+			case FRAME_ARRAY -> {
+				switch(classOf(ch)) {
+					case CLASS_COMMA -> src.read();
+					case CLASS_ARRAY_END -> {
+						mark();
+						src.read();
+						depth--;
+						sink.write(StructuredData.ARRAY_END);
+					}
+					default -> readValue(sink);
+				}
+			}
+			
+			default -> throw new IllegalStateException("Corrupt parser stack");
+		}
+	}
+	
+	/**
+	 * Skips past whitespace, and sends any comments and newlines found along the way to the sink. If comments are being
+	 * skipped, they're consumed without being decoded, and nothing is sent.
+	 */
+	private void skipComments(StructuredDataWriter sink) throws IOException, SyntaxError {
+		while(true) {
+			int ch = src.peek();
+			switch(classOf(ch)) {
+				case CLASS_WHITESPACE -> src.read();
+				case CLASS_NEWLINE -> {
+					mark();
+					src.read();
+					if (!discardComments) sink.write(StructuredData.NEWLINE);
+				}
+				case CLASS_COMMENT -> {
+					if (ch == '/') {
+						int next = src.peek(2);
+						if (next != '/' && next != '*') return;
+					}
+					mark();
+					if (discardComments) {
+						CommentValueParser.skipStatic(src);
+					} else {
+						CommentElement comment = CommentValueParser.readStatic(src);
+						sink.write(new StructuredData(StructuredData.Type.COMMENT, comment));
+					}
+				}
+				default -> {
+					if (ch < 128 || !Character.isWhitespace(ch)) return;
+					src.read();
+				}
+			}
+		}
+	}
+	
+	private boolean isTripleQuote() throws IOException {
+		return src.peek() == '"' && src.peek(2) == '"' && src.peek(3) == '"';
+	}
+	
+	/**
+	 * Reads a value inside an object or array. Objects and arrays are opened, and primitives are read in full.
+	 */
+	private void readValue(StructuredDataWriter sink) throws IOException, SyntaxError {
+		mark();
+		int ch = src.peek();
+		switch(classOf(ch)) {
+			case CLASS_OBJECT_START -> {
+				src.read();
+				push(FRAME_OBJECT);
+				sink.write(StructuredData.OBJECT_START);
+			}
+			case CLASS_ARRAY_START -> {
+				src.read();
+				push(FRAME_ARRAY);
+				sink.write(StructuredData.ARRAY_START);
+			}
+			default -> {
+				if (!readPrimitive(sink, ch)) {
+					if (src.peekString(4).equals("null")) {
+						src.readString(4);
+						sink.write(StructuredData.NULL);
+					} else {
+						throw new SyntaxError("Expected a value here, but couldn't decode it.", src.getLine(), src.getCharacter());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads a value at the document root. This differs from {@link #readValue(StructuredDataWriter)} in that null must
+	 * be followed by a break, and unquoted Strings may begin a bare root object.
+	 */
+	private void readRootValue(StructuredDataWriter sink, int ch) throws IOException, SyntaxError {
+		switch(classOf(ch)) {
+			case CLASS_OBJECT_START, CLASS_ARRAY_START -> readValue(sink);
+			default -> {
+				if (readPrimitive(sink, ch)) return;
 				
-				readQueue.write(StructuredData.EOF);
+				if (ch == 'n' && src.peekString(4).equals("null") && !Character.isLetterOrDigit(src.peek(5))) {
+					src.readString(4); //Consume the null literal
+					sink.write(StructuredData.NULL);
+				} else if (allowUnquotedRootKeys && ch < 128 && TOKEN_CHAR[ch]) {
+					bufferedKey = TokenValueParser.readStatic(src, scratch);
+				} else {
+					// Nothing consumed the input, so if we don't bail out here we'll be called on the same character forever
+					throw new SyntaxError("Expected a value here, but couldn't decode it.", src.getLine(), src.getCharacter());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tries to read a number, boolean, or quoted String.
+	 * @return true if a value was read, or false if the input doesn't start with one of these.
+	 */
+	private boolean readPrimitive(StructuredDataWriter sink, int ch) throws IOException, SyntaxError {
+		switch(classOf(ch)) {
+			case CLASS_NUMBER -> {
+				readNumber(sink);
+				return true;
 			}
-		} else {
-			try {
-			context.parse(
-					src,
-					this::enqueueOutput,
-					this::pushContext
-					);
-			} catch (SyntaxError err) {
-				throw new IOException(err);
+			case CLASS_QUOTE -> {
+				if (isTripleQuote()) return false; // Multiline strings aren't handled by the quoted String parser
+				if (largeStringHandler == null) {
+					sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, StringValueParser.readStatic(src, scratch)));
+				} else {
+					Object value = StringValueParser.readStatic(src, scratch, largeStringThreshold, largeStringHandler);
+					if (value instanceof String) {
+						sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, value));
+					} else {
+						// This is whatever the handler said to put in place of the String
+						sink.write((value == null) ? StructuredData.NULL : StructuredData.primitive(value));
+					}
+				}
+				return true;
+			}
+			case CLASS_TRUE -> {
+				if (!src.peekString(4).equals("true")) return false;
+				src.readString(4);
+				sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, Boolean.TRUE));
+				return true;
+			}
+			case CLASS_FALSE -> {
+				if (!src.peekString(5).equals("false")) return false;
+				src.readString(5);
+				sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, Boolean.FALSE));
+				return true;
+			}
+			case CLASS_N -> {
+				int a = src.peek(2);
+				int n = src.peek(3);
+				if ((a == 'a' || a == 'A') && (n == 'n' || n == 'N')) {
+					readNumber(sink);
+					return true;
+				}
+				return false;
+			}
+			case CLASS_I -> {
+				String infinity = src.peekString(8);
+				if (infinity.equals("Infinity") || infinity.equals("infinity")) {
+					readNumber(sink);
+					return true;
+				}
+				return false;
+			}
+			default -> {
+				return false;
 			}
 		}
 	}
+	
+	private void readNumber(StructuredDataWriter sink) throws IOException, SyntaxError {
+		// NumberValueParser only produces Longs and Doubles, which need no further boxing
+		sink.write(new StructuredData(StructuredData.Type.PRIMITIVE, NumberValueParser.readStatic(src, scratch)));
+	}
 }
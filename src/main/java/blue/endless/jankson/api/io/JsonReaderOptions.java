@@ -39,9 +39,11 @@ public class JsonReaderOptions {
 	
 	private final EnumSet<Hint> hints = EnumSet.noneOf(Hint.class);
 	private final Marshaller marshaller;
+	private int largeStringThreshold = Integer.MAX_VALUE;
+	private LargeStringHandler largeStringHandler = null;
 	
 	public JsonReaderOptions(Hint... hints) {
-		this.marshaller = MarshallerImpl.getFallback();
+		this(MarshallerImpl.getFallback(), hints);
 	}
 	
 	public JsonReaderOptions(Marshaller marshaller, Hint... hints) {
@@ -57,6 +59,54 @@ public class JsonReaderOptions {
 		return this.marshaller;
 	}
 	
+	/**
+	 * Creates a copy of these options which streams large String values to a handler instead of buffering them.
+	 * @param threshold the number of characters a String value can reach before it's handed off
+	 * @param handler   the handler to send large Strings to
+	 * @return the new options
+	 */
+	public JsonReaderOptions withLargeStrings(int threshold, LargeStringHandler handler) {
+		if (threshold < 1) throw new IllegalArgumentException("Large string threshold must be positive.");
+		JsonReaderOptions result = copy();
+		result.largeStringThreshold = threshold;
+		result.largeStringHandler = handler;
+		return result;
+	}
+	
+	/**
+	 * Creates a copy of these options with the specified hints added. Every other setting is kept.
+	 * @param hints the hints to add
+	 * @return the new options
+	 */
+	public JsonReaderOptions withHints(Hint... hints) {
+		JsonReaderOptions result = copy();
+		for(Hint hint : hints) result.hints.add(hint);
+		return result;
+	}
+	
+	private JsonReaderOptions copy() {
+		JsonReaderOptions result = new JsonReaderOptions(marshaller);
+		result.hints.addAll(hints);
+		result.largeStringThreshold = largeStringThreshold;
+		result.largeStringHandler = largeStringHandler;
+		return result;
+	}
+	
+	/**
+	 * Gets the number of characters a String value can reach before it's sent to the {@link #getLargeStringHandler()
+	 * large string handler}.
+	 */
+	public int getLargeStringThreshold() {
+		return largeStringThreshold;
+	}
+	
+	/**
+	 * Gets the handler for large String values, or null if String values are always buffered.
+	 */
+	public LargeStringHandler getLargeStringHandler() {
+		return largeStringHandler;
+	}
+	
 	public enum Hint {
 		/** Allow the root object of a document to omit its delimiters / braces */
 		ALLOW_BARE_ROOT_OBJECT,
@@ -66,6 +116,12 @@ public class JsonReaderOptions {
 		 * JsonReader access. */
 		MERGE_DUPLICATE_OBJECTS,
 		/** This is the HOCON behavior of allowing equals ('=') to replace colons between keys and values */
-		ALLOW_KEY_EQUALS_VALUE;
+		ALLOW_KEY_EQUALS_VALUE,
+		/** Skip over comments and line breaks instead of reporting them, so that only data is produced. Useful when
+		 * the document is going to be unpacked into objects, which have nowhere to keep comments anyway. */
+		SKIP_COMMENTS,
+		/** Skip commas between values at the root of the document, the same way they're skipped inside objects. This
+		 * lets a stream of concatenated documents be separated by commas, as {@link MultiDocumentReader} allows. */
+		ALLOW_ROOT_COMMAS;
 	}
 }
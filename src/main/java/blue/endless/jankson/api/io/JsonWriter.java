@@ -34,6 +34,8 @@ import blue.endless.jankson.impl.io.AbstractStructuredDataWriter;
 import static blue.endless.jankson.api.io.JsonWriterOptions.Hint.*;
 
 public class JsonWriter extends AbstractStructuredDataWriter {
+	private static final char[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+	
 	private final JsonWriterOptions options;
 	private int indentLevel = 0;
 	
@@ -41,6 +43,8 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 	private int line = 0;
 	private int column = 0;
 	private boolean skipNewline = false;
+	private StringValueWriter openString = null;
+	private char[] base64Buffer = null;
 	
 	public JsonWriter(Writer destination) {
 		this(destination, JsonWriterOptions.DEFAULTS);
@@ -51,6 +55,16 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		this.options = options;
 	}
 	
+	@Override
+	public void reset(Writer destination) {
+		super.reset(destination);
+		indentLevel = 0;
+		line = 0;
+		column = 0;
+		skipNewline = false;
+		openString = null;
+	}
+	
 	private void write(char ch) throws IOException {
 		if (ch == '\n') {
 			line++;
@@ -77,8 +91,30 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		return column;
 	}
 	
+	/**
+	 * Starts a String value whose contents will be supplied a piece at a time, so that very large Strings never have to
+	 * be held in memory all at once. The String is escaped as it's written. Closing the returned Writer finishes the
+	 * value; until then, nothing else can be written.
+	 * @return a Writer which receives the unescaped contents of the String
+	 */
+	public Writer beginString() throws IOException {
+		checkNoOpenString();
+		addCommas();
+		
+		assertValue();
+		write('"');
+		
+		openString = new StringValueWriter();
+		return openString;
+	}
+	
+	private void checkNoOpenString() {
+		if (openString != null) throw new IllegalStateException("Cannot write more data until the String value being streamed is closed.");
+	}
+	
 	@Override
 	public void write(StructuredData data) throws IOException {
+		checkNoOpenString();
 		switch(data.type()) {
 			case PRIMITIVE -> {
 				if (data.value() == null) {
@@ -91,6 +127,8 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 					writeDoubleLiteral(val);
 				} else if (data.value() instanceof Boolean val) {
 					writeBooleanLiteral(val);
+				} else if (data.value() instanceof byte[] val) {
+					writeBinaryLiteral(val);
 				} else {
 					throw new IOException("Found illegal value in a PRIMITIVE StructuredData element");
 				}
@@ -114,7 +152,9 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 						(data.value() == null) ? " " : data.value().toString()
 						);
 			}
-			case NEWLINE -> writeNewline();
+			case NEWLINE -> {
+				if (hint(WRITE_NEWLINES)) writeNewline();
+			}
 			case EOF -> { return; }
 		}
 	}
@@ -125,6 +165,8 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 			addCommas();
 			write("//");
 			write(value);
+			// The comment runs to the end of the line, so the line has to end here even if one just did
+			skipNewline = false;
 			writeNewline();
 			break;
 		
@@ -169,20 +211,19 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		
 		assertKey();
 		
-		//TODO: escape parts of the key if needed, omit quotes if possible + configured
-		boolean quoted = !hint(UNQUOTED_KEYS); //TODO: Check to make sure it CAN be unquoted
+		boolean quoted = !hint(UNQUOTED_KEYS) || !isPlainKey(key);
 		if (quoted) {
 			write('"');
-		}
-		dest.write(key);
-		if (quoted) {
+			writeEscaped(key);
 			write('"');
+		} else {
+			dest.write(key);
 		}
 		
 		if (hint(KEY_EQUALS_VALUE)) {
-			write(" = ");
+			write(hint(WRITE_WHITESPACE) ? " = " : "=");
 		} else {
-			write(": ");
+			write(hint(WRITE_WHITESPACE) ? ": " : ":");
 		}
 		
 		keyWritten();
@@ -209,7 +250,7 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 				skipNewline = false;
 				writeNewline();
 			} else {
-				write(' ');
+				if (hint(WRITE_WHITESPACE)) write(' ');
 			}
 			
 			context.pop();
@@ -287,7 +328,7 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		assertValue();
 		
 		write('"');
-		write(value);
+		writeEscaped(value);
 		write('"');
 		
 		valueWritten();
@@ -317,6 +358,46 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		valueWritten();
 	}
 	
+	/**
+	 * Writes binary data as an unpadded base64url String. The data is encoded a piece at a time straight into the
+	 * destination, so no String the size of the data is ever created.
+	 */
+	private void writeBinaryLiteral(byte[] value) throws IOException {
+		addCommas();
+		
+		assertValue();
+		write('"');
+		
+		if (base64Buffer == null) base64Buffer = new char[1024]; // Must be a multiple of 4
+		char[] chunk = base64Buffer;
+		int n = 0;
+		int whole = value.length - (value.length % 3);
+		for(int i=0; i<whole; i+=3) {
+			int bits = ((value[i] & 0xFF) << 16) | ((value[i+1] & 0xFF) << 8) | (value[i+2] & 0xFF);
+			chunk[n++] = BASE64URL[bits >>> 18];
+			chunk[n++] = BASE64URL[(bits >>> 12) & 0x3F];
+			chunk[n++] = BASE64URL[(bits >>> 6) & 0x3F];
+			chunk[n++] = BASE64URL[bits & 0x3F];
+			if (n == chunk.length) {
+				dest.write(chunk, 0, n);
+				n = 0;
+			}
+		}
+		
+		int remaining = value.length - whole;
+		if (remaining > 0) {
+			int bits = (value[whole] & 0xFF) << 16;
+			if (remaining == 2) bits |= (value[whole+1] & 0xFF) << 8;
+			chunk[n++] = BASE64URL[bits >>> 18];
+			chunk[n++] = BASE64URL[(bits >>> 12) & 0x3F];
+			if (remaining == 2) chunk[n++] = BASE64URL[(bits >>> 6) & 0x3F];
+		}
+		if (n > 0) dest.write(chunk, 0, n);
+		
+		write('"');
+		valueWritten();
+	}
+	
 	private void writeNullLiteral() throws IOException {
 		addCommas();
 		
@@ -325,10 +406,120 @@ public class JsonWriter extends AbstractStructuredDataWriter {
 		valueWritten();
 	}
 	
+	/**
+	 * Returns true if the key can be read back without quotes.
+	 */
+	private static boolean isPlainKey(String key) {
+		if (key.isEmpty()) return false;
+		for(int i=0; i<key.length(); i++) {
+			char ch = key.charAt(i);
+			if (!(ch >= 'a' && ch <= 'z') && !(ch >= 'A' && ch <= 'Z') && !(ch >= '0' && ch <= '9') && ch != '_') return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Writes the contents of a double-quoted String. Only quotes, backslashes, and control characters are escaped, so
+	 * text outside ASCII is written as it is.
+	 */
+	private void writeEscaped(String value) throws IOException {
+		writeEscaped(value, 0, value.length());
+	}
+	
+	private void writeEscaped(String value, int off, int len) throws IOException {
+		int start = off;
+		int end = off + len;
+		for(int i=off; i<end; i++) {
+			char ch = value.charAt(i);
+			if (ch >= 0x20 && ch != '"' && ch != '\\') continue;
+			
+			// Write out the run of plain characters before this one
+			if (i > start) dest.write(value, start, i - start);
+			start = i + 1;
+			
+			writeEscape(ch);
+		}
+		if (start < end) dest.write(value, start, end - start);
+	}
+	
+	/**
+	 * Writes part of the contents of a double-quoted String from a char array, in the same way as
+	 * {@link #writeEscaped(String, int, int)}.
+	 */
+	private void writeEscaped(char[] value, int off, int len) throws IOException {
+		int start = off;
+		int end = off + len;
+		for(int i=off; i<end; i++) {
+			char ch = value[i];
+			if (ch >= 0x20 && ch != '"' && ch != '\\') continue;
+			
+			if (i > start) dest.write(value, start, i - start);
+			start = i + 1;
+			
+			writeEscape(ch);
+		}
+		if (start < end) dest.write(value, start, end - start);
+	}
+	
+	private void writeEscape(char ch) throws IOException {
+		switch(ch) {
+			case '"' -> dest.write("\\\"");
+			case '\\' -> dest.write("\\\\");
+			case '\n' -> dest.write("\\n");
+			case '\r' -> dest.write("\\r");
+			case '\t' -> dest.write("\\t");
+			case '\b' -> dest.write("\\b");
+			case '\f' -> dest.write("\\f");
+			default -> {
+				dest.write("\\u00");
+				dest.write(Character.forDigit(ch >> 4, 16));
+				dest.write(Character.forDigit(ch & 0xF, 16));
+			}
+		}
+	}
+	
 	private void writeNewline() throws IOException {
 		if (skipNewline) return;
 		write('\n');
 		write(options.getIndent(indentLevel));
 		skipNewline = true;
 	}
+	
+	/**
+	 * The Writer handed out by {@link JsonWriter#beginString()}. Closing it doesn't close the JsonWriter's destination.
+	 */
+	private class StringValueWriter extends Writer {
+		private boolean closed = false;
+		
+		private void checkOpen() throws IOException {
+			if (closed) throw new IOException("This String value has already been closed.");
+		}
+		
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			checkOpen();
+			writeEscaped(cbuf, off, len);
+		}
+		
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			checkOpen();
+			writeEscaped(str, off, len);
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			dest.flush();
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if (closed) return;
+			closed = true;
+			openString = null;
+			
+			JsonWriter.this.write('"');
+			valueWritten();
+		}
+	}
 }
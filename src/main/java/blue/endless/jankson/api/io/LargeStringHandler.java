@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives String values which are too large to comfortably hold in memory. Once a String value grows past the
+ * threshold set in {@link JsonReaderOptions#withLargeStrings(int, LargeStringHandler)}, the reader stops buffering it
+ * and instead sends its decoded contents, chunk by chunk, to a Writer obtained from this handler. Whatever
+ * {@link #end(Writer)} returns is reported in the StructuredData stream in place of the String.
+ * 
+ * <p>To stream bytes instead of characters, wrap an OutputStream in an OutputStreamWriter.
+ */
+public interface LargeStringHandler {
+	/**
+	 * Called when a String value becomes too large to buffer.
+	 * @return a Writer to send the contents of the String to. This includes the part of the String which was already
+	 *         read.
+	 */
+	Writer begin() throws IOException;
+	
+	/**
+	 * Called after the last of a large String has been sent to its Writer.
+	 * @param destination the Writer returned by the matching call to {@link #begin()}
+	 * @return the value to report in place of the String. Must be something that can be stored in a PrimitiveElement,
+	 *         or null.
+	 */
+	default Object end(Writer destination) throws IOException {
+		destination.close();
+		return null;
+	}
+	
+	/**
+	 * Called instead of {@link #end(Writer)} if the document turns out to be malformed, or can't be read, partway
+	 * through a large String. Handlers which write to files should use this to clean up the partial file.
+	 * @param destination the Writer returned by the matching call to {@link #begin()}
+	 * @param cause       the problem which stopped the String from being read. It will be thrown once this returns.
+	 */
+	default void abort(Writer destination, Throwable cause) throws IOException {
+		destination.close();
+	}
+}
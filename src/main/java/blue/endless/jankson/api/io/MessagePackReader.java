@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.impl.io.ByteStreams;
+
+/**
+ * Reads MessagePack as StructuredData. If the data contains several values one after another, they are read as
+ * concatenated values, the same way JsonReader reads concatenated json values.
+ * 
+ * <p>Unsigned 64-bit integers too large for a long are read the same way Jankson represents BigIntegers elsewhere.
+ * Timestamps (extension type -1) are read as ISO-8601 Strings. Binary data is read as binary (byte[]) values, and
+ * other extension types are read as unpadded base64url Strings. Map keys which are numbers or booleans are converted
+ * to Strings.
+ */
+public class MessagePackReader implements StructuredDataReader {
+	private final InputStream in;
+	private final ByteBuffer inBuffer;
+	private final byte[] buf;
+	private int pos = 0;
+	private int limit = 0;
+	private boolean finished = false;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	
+	private static class Frame {
+		final boolean isMap;
+		long remaining;
+		boolean expectingKey;
+		
+		Frame(boolean isMap, long remaining) {
+			this.isMap = isMap;
+			this.remaining = remaining;
+			this.expectingKey = isMap;
+		}
+	}
+	
+	public MessagePackReader(InputStream in) {
+		this.in = in;
+		this.inBuffer = null;
+		this.buf = new byte[8192];
+	}
+	
+	/**
+	 * Creates a reader which reads from a ByteBuffer, starting at its current position.
+	 */
+	public MessagePackReader(ByteBuffer in) {
+		this.in = null;
+		this.inBuffer = in;
+		this.buf = null;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return !finished;
+	}
+	
+	@Override
+	public StructuredData next() throws IOException {
+		if (finished) return StructuredData.EOF;
+		
+		Frame frame = frames.peek();
+		if (frame == null) {
+			if (!fill()) {
+				finished = true;
+				return StructuredData.EOF;
+			}
+		} else if (frame.remaining == 0) {
+			frames.pop();
+			return frame.isMap ? StructuredData.OBJECT_END : StructuredData.ARRAY_END;
+		}
+		
+		boolean isKey = frame != null && frame.isMap && frame.expectingKey;
+		if (frame != null) {
+			frame.remaining--;
+			if (frame.isMap) frame.expectingKey = !frame.expectingKey;
+		}
+		
+		int b = readByte();
+		
+		// Containers
+		long arrayLength = -1;
+		long mapLength = -1;
+		if ((b & 0xF0) == 0x90) arrayLength = b & 0x0F;
+		else if (b == 0xDC) arrayLength = readUnsigned(2);
+		else if (b == 0xDD) arrayLength = readUnsigned(4);
+		else if ((b & 0xF0) == 0x80) mapLength = b & 0x0F;
+		else if (b == 0xDE) mapLength = readUnsigned(2);
+		else if (b == 0xDF) mapLength = readUnsigned(4);
+		
+		if (arrayLength != -1 || mapLength != -1) {
+			if (isKey) throw syntaxError("Map keys must be Strings, numbers, or booleans.");
+			if (arrayLength != -1) {
+				frames.push(new Frame(false, arrayLength));
+				return StructuredData.ARRAY_START;
+			} else {
+				frames.push(new Frame(true, mapLength * 2));
+				return StructuredData.OBJECT_START;
+			}
+		}
+		
+		Object value = readValue(b);
+		if (isKey) {
+			if (value instanceof byte[] bytes) value = base64(bytes);
+			if (value == null || !(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+				throw syntaxError("Map keys must be Strings, numbers, or booleans.");
+			}
+			return StructuredData.objectKey(value.toString());
+		}
+		
+		if (value instanceof BigInteger) return StructuredData.primitive(value);
+		return new StructuredData(StructuredData.Type.PRIMITIVE, value);
+	}
+	
+	private Object readValue(int b) throws IOException {
+		if (b <= 0x7F) return (long) b;
+		if (b >= 0xE0) return (long) (byte) b;
+		if ((b & 0xE0) == 0xA0) return readString(b & 0x1F);
+		
+		return switch(b) {
+			case 0xC0 -> null;
+			case 0xC2 -> Boolean.FALSE;
+			case 0xC3 -> Boolean.TRUE;
+			case 0xC4 -> readBytes(readUnsigned(1));
+			case 0xC5 -> readBytes(readUnsigned(2));
+			case 0xC6 -> readBytes(readUnsigned(4));
+			case 0xC7 -> readExtension(readUnsigned(1));
+			case 0xC8 -> readExtension(readUnsigned(2));
+			case 0xC9 -> readExtension(readUnsigned(4));
+			case 0xCA -> (double) Float.intBitsToFloat((int) readUnsigned(4));
+			case 0xCB -> Double.longBitsToDouble(readUnsigned(8));
+			case 0xCC -> readUnsigned(1);
+			case 0xCD -> readUnsigned(2);
+			case 0xCE -> readUnsigned(4);
+			case 0xCF -> {
+				long value = readUnsigned(8);
+				yield (value >= 0) ? (Object) value : new BigInteger(Long.toUnsignedString(value));
+			}
+			case 0xD0 -> (long) (byte) readUnsigned(1);
+			case 0xD1 -> (long) (short) readUnsigned(2);
+			case 0xD2 -> (long) (int) readUnsigned(4);
+			case 0xD3 -> readUnsigned(8);
+			case 0xD4 -> readExtension(1);
+			case 0xD5 -> readExtension(2);
+			case 0xD6 -> readExtension(4);
+			case 0xD7 -> readExtension(8);
+			case 0xD8 -> readExtension(16);
+			case 0xD9 -> readString(readUnsigned(1));
+			case 0xDA -> readString(readUnsigned(2));
+			case 0xDB -> readString(readUnsigned(4));
+			default -> throw syntaxError("Invalid MessagePack type byte 0x"+Integer.toHexString(b)+".");
+		};
+	}
+	
+	private String readExtension(long length) throws IOException {
+		int type = (byte) readByte();
+		byte[] data = readBytes(length);
+		
+		if (type == -1) {
+			// Timestamp extension
+			switch(data.length) {
+				case 4:
+					return Instant.ofEpochSecond(bigEndian(data, 0, 4)).toString();
+				case 8: {
+					long value = bigEndian(data, 0, 8);
+					return Instant.ofEpochSecond(value & 0x3_FFFF_FFFFL, value >>> 34).toString();
+				}
+				case 12:
+					return Instant.ofEpochSecond(bigEndian(data, 4, 8), bigEndian(data, 0, 4)).toString();
+				default:
+					throw syntaxError("Invalid timestamp length "+data.length+".");
+			}
+		}
+		
+		return base64(data);
+	}
+	
+	private static long bigEndian(byte[] data, int offset, int length) {
+		long result = 0L;
+		for(int i=0; i<length; i++) result = (result << 8) | (data[offset + i] & 0xFF);
+		if (length == 8) return result;
+		return result & ((1L << (length * 8)) - 1);
+	}
+	
+	private static String base64(byte[] data) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+	}
+	
+	private String readString(long length) throws IOException {
+		if (length < 0 || length > Integer.MAX_VALUE) throw syntaxError("String length "+length+" is too large.");
+		int len = (int) length;
+		if (inBuffer != null) {
+			if (inBuffer.remaining() < len) throw new EOFException("MessagePack data ended in the middle of a String.");
+			if (inBuffer.hasArray()) {
+				String result = new String(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), len, StandardCharsets.UTF_8);
+				inBuffer.position(inBuffer.position() + len);
+				return result;
+			}
+		} else if (limit - pos >= len) {
+			String result = new String(buf, pos, len, StandardCharsets.UTF_8);
+			pos += len;
+			return result;
+		}
+		return new String(readBytes(len), StandardCharsets.UTF_8);
+	}
+	
+	private byte[] readBytes(long length) throws IOException {
+		if (length < 0 || length > Integer.MAX_VALUE) throw syntaxError("Length "+length+" is too large.");
+		int len = (int) length;
+		
+		if (inBuffer != null) {
+			if (inBuffer.remaining() < len) throw new EOFException("MessagePack data ended in the middle of a value.");
+			byte[] result = new byte[len];
+			inBuffer.get(result);
+			return result;
+		}
+		
+		int copied = Math.min(len, limit - pos);
+		byte[] result = ByteStreams.readFully(in, buf, pos, copied, len, "MessagePack data ended in the middle of a value.");
+		pos += copied;
+		return result;
+	}
+	
+	private long readUnsigned(int bytes) throws IOException {
+		long result = 0L;
+		for(int i=0; i<bytes; i++) result = (result << 8) | readByte();
+		return result;
+	}
+	
+	/**
+	 * Makes sure there is at least one byte available.
+	 * @return false if the end of the data has been reached
+	 */
+	private boolean fill() throws IOException {
+		if (inBuffer != null) return inBuffer.hasRemaining();
+		if (pos < limit) return true;
+		limit = in.read(buf, 0, buf.length);
+		pos = 0;
+		if (limit <= 0) {
+			limit = 0;
+			return false;
+		}
+		return true;
+	}
+	
+	private int readByte() throws IOException {
+		if (!fill()) throw new EOFException("MessagePack data ended in the middle of a value.");
+		if (inBuffer != null) return inBuffer.get() & 0xFF;
+		return buf[pos++] & 0xFF;
+	}
+	
+	private static IOException syntaxError(String message) {
+		return new IOException(new SyntaxError(message));
+	}
+}
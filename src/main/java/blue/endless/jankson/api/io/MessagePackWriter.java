@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import blue.endless.jankson.impl.io.BinaryFormat;
+
+/**
+ * Writes StructuredData as MessagePack. Integers, Strings, arrays, and maps are written with the smallest encoding that
+ * fits, and Strings are encoded as UTF-8 straight from their chars.
+ * 
+ * <p>MessagePack needs to know how many elements an array or map has before writing any of them, and StructuredData
+ * can't say. So while an array or map is open, its contents are buffered, with space reserved for the largest possible
+ * header. When it closes, the smallest header that fits is written into the end of that space, and the unused part is
+ * skipped when the value is sent. Each top-level value is sent to the destination as soon as it's complete, so a
+ * stream of many top-level values never buffers more than one of them.
+ * 
+ * <p>Values which can't be represented in MessagePack, such as BigDecimal or BigIntegers too large for 64 bits, are
+ * written as Strings the same way PrimitiveElement represents them. Comments and formatting are discarded.
+ */
+public class MessagePackWriter implements StructuredDataWriter {
+	private static final int MAX_HEADER = 5;
+	
+	private final OutputStream out;
+	private final ByteBuffer outBuffer;
+	
+	private byte[] buf = new byte[1024];
+	private int pos = 0;
+	
+	// Open containers
+	private int depth = 0;
+	private int[] containerStart = new int[16];
+	private long[] containerCount = new long[16];
+	private boolean[] containerIsMap = new boolean[16];
+	
+	// Unused header space to skip when sending, as pairs of (start, length)
+	private int[] gaps = new int[32];
+	private int gapCount = 0;
+	
+	private boolean finished = false;
+	
+	/**
+	 * Creates a writer which sends each completed top-level value to an OutputStream. The OutputStream is flushed when
+	 * EOF is written.
+	 */
+	public MessagePackWriter(OutputStream out) {
+		this.out = out;
+		this.outBuffer = null;
+	}
+	
+	/**
+	 * Creates a writer which puts each completed top-level value into a ByteBuffer, starting at its current position.
+	 * If the buffer runs out of room, a {@link java.nio.BufferOverflowException} will be thrown.
+	 */
+	public MessagePackWriter(ByteBuffer out) {
+		this.out = null;
+		this.outBuffer = out;
+	}
+	
+	@Override
+	public void write(StructuredData data) throws IOException {
+		if (finished) return;
+		
+		switch(data.type()) {
+			case OBJECT_START -> openContainer(true);
+			case ARRAY_START -> openContainer(false);
+			case OBJECT_END, ARRAY_END -> closeContainer();
+			case OBJECT_KEY -> {
+				// Keys aren't counted; the map header counts key-value pairs, so we count the values instead.
+				writeString(data.value().toString());
+			}
+			case PRIMITIVE -> {
+				countElement();
+				writePrimitive(data.value());
+				if (depth == 0) send();
+			}
+			case COMMENT, WHITESPACE, NEWLINE -> {}
+			case EOF -> {
+				finished = true;
+				if (depth > 0) throw new IOException("Stream ended with "+depth+" unclosed array(s) or object(s).");
+				if (out != null) out.flush();
+			}
+		}
+	}
+	
+	private void countElement() {
+		if (depth > 0) containerCount[depth - 1]++;
+	}
+	
+	private void openContainer(boolean isMap) {
+		countElement();
+		if (depth == containerStart.length) {
+			containerStart = Arrays.copyOf(containerStart, depth * 2);
+			containerCount = Arrays.copyOf(containerCount, depth * 2);
+			containerIsMap = Arrays.copyOf(containerIsMap, depth * 2);
+		}
+		ensure(MAX_HEADER);
+		containerStart[depth] = pos;
+		containerCount[depth] = 0;
+		containerIsMap[depth] = isMap;
+		depth++;
+		pos += MAX_HEADER;
+	}
+	
+	private void closeContainer() throws IOException {
+		if (depth == 0) throw new IOException("Found the end of an array or object that was never started.");
+		depth--;
+		
+		int start = containerStart[depth];
+		long count = containerCount[depth];
+		if (count > 0xFFFF_FFFFL) throw new IOException("Too many elements for MessagePack.");
+		
+		// Write the smallest header right-aligned into the reserved space
+		byte[] header = new byte[MAX_HEADER];
+		int headerLength;
+		if (count < 16) {
+			header[0] = (byte) ((containerIsMap[depth] ? 0x80 : 0x90) | (int) count);
+			headerLength = 1;
+		} else if (count <= 0xFFFF) {
+			header[0] = (byte) (containerIsMap[depth] ? 0xDE : 0xDC);
+			header[1] = (byte) (count >> 8);
+			header[2] = (byte) count;
+			headerLength = 3;
+		} else {
+			header[0] = (byte) (containerIsMap[depth] ? 0xDF : 0xDD);
+			for(int i=0; i<4; i++) header[1+i] = (byte) (count >>> (24 - 8*i));
+			headerLength = 5;
+		}
+		System.arraycopy(header, 0, buf, start + MAX_HEADER - headerLength, headerLength);
+		if (headerLength < MAX_HEADER) addGap(start, MAX_HEADER - headerLength);
+		
+		if (depth == 0) send();
+	}
+	
+	private void addGap(int start, int length) {
+		if (gapCount * 2 + 2 > gaps.length) gaps = Arrays.copyOf(gaps, gaps.length * 2);
+		gaps[gapCount * 2] = start;
+		gaps[gapCount * 2 + 1] = length;
+		gapCount++;
+	}
+	
+	/**
+	 * Sends the completed top-level value, skipping over unused header space.
+	 */
+	private void send() throws IOException {
+		if (gapCount > 1) {
+			// Inner containers close first, so gaps are recorded out of order. Sort them by position.
+			long[] sorted = new long[gapCount];
+			for(int i=0; i<gapCount; i++) sorted[i] = ((long) gaps[i*2] << 32) | gaps[i*2 + 1];
+			Arrays.sort(sorted);
+			for(int i=0; i<gapCount; i++) {
+				gaps[i*2] = (int) (sorted[i] >>> 32);
+				gaps[i*2 + 1] = (int) sorted[i];
+			}
+		}
+		
+		int from = 0;
+		for(int i=0; i<gapCount; i++) {
+			int gapStart = gaps[i*2];
+			sendRange(from, gapStart - from);
+			from = gapStart + gaps[i*2 + 1];
+		}
+		sendRange(from, pos - from);
+		
+		pos = 0;
+		gapCount = 0;
+	}
+	
+	private void sendRange(int offset, int length) throws IOException {
+		if (length <= 0) return;
+		if (out != null) {
+			out.write(buf, offset, length);
+		} else {
+			outBuffer.put(buf, offset, length);
+		}
+	}
+	
+	private void writePrimitive(Object value) {
+		if (value == null) {
+			writeByte(0xC0);
+		} else if (value instanceof Boolean bool) {
+			writeByte(bool ? 0xC3 : 0xC2);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writeLong(((Number) value).longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			double d = ((Number) value).doubleValue();
+			float f = (float) d;
+			if (f == d) {
+				ensure(5);
+				buf[pos++] = (byte) 0xCA;
+				writeBigEndian(Float.floatToRawIntBits(f), 4);
+			} else {
+				ensure(9);
+				buf[pos++] = (byte) 0xCB;
+				writeBigEndian(Double.doubleToRawLongBits(d), 8);
+			}
+		} else if (value instanceof String s) {
+			writeString(s);
+		} else if (value instanceof byte[] bytes) {
+			writeBinary(bytes);
+		} else if (value instanceof BigInteger big && big.signum() >= 0 && big.bitLength() <= 64) {
+			ensure(9);
+			buf[pos++] = (byte) 0xCF;
+			writeBigEndian(big.longValue(), 8);
+		} else {
+			writePrimitive(StructuredData.primitive(value).value());
+		}
+	}
+	
+	private void writeLong(long value) {
+		ensure(9);
+		if (value >= 0) {
+			if (value < 128) {
+				buf[pos++] = (byte) value;
+			} else if (value <= 0xFF) {
+				buf[pos++] = (byte) 0xCC;
+				buf[pos++] = (byte) value;
+			} else if (value <= 0xFFFF) {
+				buf[pos++] = (byte) 0xCD;
+				writeBigEndian(value, 2);
+			} else if (value <= 0xFFFF_FFFFL) {
+				buf[pos++] = (byte) 0xCE;
+				writeBigEndian(value, 4);
+			} else {
+				buf[pos++] = (byte) 0xCF;
+				writeBigEndian(value, 8);
+			}
+		} else {
+			if (value >= -32) {
+				buf[pos++] = (byte) value;
+			} else if (value >= Byte.MIN_VALUE) {
+				buf[pos++] = (byte) 0xD0;
+				buf[pos++] = (byte) value;
+			} else if (value >= Short.MIN_VALUE) {
+				buf[pos++] = (byte) 0xD1;
+				writeBigEndian(value, 2);
+			} else if (value >= Integer.MIN_VALUE) {
+				buf[pos++] = (byte) 0xD2;
+				writeBigEndian(value, 4);
+			} else {
+				buf[pos++] = (byte) 0xD3;
+				writeBigEndian(value, 8);
+			}
+		}
+	}
+	
+	private void writeString(String s) {
+		int length = BinaryFormat.utf8Length(s);
+		ensure(5 + length);
+		if (length < 32) {
+			buf[pos++] = (byte) (0xA0 | length);
+		} else if (length <= 0xFF) {
+			buf[pos++] = (byte) 0xD9;
+			buf[pos++] = (byte) length;
+		} else if (length <= 0xFFFF) {
+			buf[pos++] = (byte) 0xDA;
+			writeBigEndian(length, 2);
+		} else {
+			buf[pos++] = (byte) 0xDB;
+			writeBigEndian(length, 4);
+		}
+		pos = BinaryFormat.encodeUtf8(s, buf, pos);
+	}
+	
+	private void writeBinary(byte[] bytes) {
+		int length = bytes.length;
+		ensure(5 + length);
+		if (length <= 0xFF) {
+			buf[pos++] = (byte) 0xC4;
+			buf[pos++] = (byte) length;
+		} else if (length <= 0xFFFF) {
+			buf[pos++] = (byte) 0xC5;
+			writeBigEndian(length, 2);
+		} else {
+			buf[pos++] = (byte) 0xC6;
+			writeBigEndian(length, 4);
+		}
+		System.arraycopy(bytes, 0, buf, pos, length);
+		pos += length;
+	}
+	
+	private void writeBigEndian(long value, int bytes) {
+		for(int shift=(bytes-1)*8; shift>=0; shift-=8) buf[pos++] = (byte) (value >>> shift);
+	}
+	
+	private void writeByte(int b) {
+		ensure(1);
+		buf[pos++] = (byte) b;
+	}
+	
+	private void ensure(int bytes) {
+		if (pos + bytes > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + bytes));
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.impl.io.DocumentSplitter;
+
+/**
+ * Reads a stream which contains multiple json documents, one after another. This covers newline-delimited json (also
+ * called "json lines" or ndjson), as well as json5 values which are simply concatenated, with or without whitespace
+ * between them. Commas between top-level documents are tolerated.
+ * 
+ * <p>Documents can be consumed one at a time through the Iterator interface, or as a Stream. Sequential access parses
+ * the stream lazily, one document at a time, so the whole input never needs to be held in memory.
+ * 
+ * <p>Parallel streams work differently: the input is split on record boundaries without being parsed, and each record
+ * is then decoded independently on the ForkJoinPool that runs the stream. Note that bare root objects are not
+ * supported in either mode, since there would be no way to tell where one document ends and the next begins.
+ */
+public class MultiDocumentReader implements Iterator<ValueElement>, AutoCloseable {
+	private final Reader source;
+	private final JsonReaderOptions options;
+	private JsonReader reader = null;
+	private DocumentSplitter splitter = null;
+	
+	private final List<StructuredData> bufferedPrologue = new ArrayList<>();
+	private StructuredData bufferedStart = null;
+	private boolean eof = false;
+	
+	public MultiDocumentReader(Reader source) {
+		this(source, JsonReaderOptions.UNSPECIFIED);
+	}
+	
+	public MultiDocumentReader(Reader source, JsonReaderOptions options) {
+		this.source = source;
+		this.options = options;
+	}
+	
+	private JsonReader getReader() {
+		if (splitter != null) throw new IllegalStateException("This MultiDocumentReader is already being read in parallel.");
+		if (reader == null) reader = new JsonReader(source, options.withHints(JsonReaderOptions.Hint.ALLOW_ROOT_COMMAS));
+		return reader;
+	}
+	
+	/**
+	 * Advances the underlying reader to the start of the next document, if we haven't already. Comments which occur
+	 * before the document are buffered so that they wind up in its prologue.
+	 */
+	private void prime() throws IOException {
+		if (bufferedStart != null || eof) return;
+		
+		JsonReader r = getReader();
+		while(r.hasNext()) {
+			StructuredData data = r.next();
+			switch(data.type()) {
+				case EOF -> {
+					eof = true;
+					return;
+				}
+				case COMMENT -> bufferedPrologue.add(data);
+				case PRIMITIVE, OBJECT_START, ARRAY_START -> {
+					bufferedStart = data;
+					return;
+				}
+				case OBJECT_KEY, OBJECT_END, ARRAY_END -> throw new IOException(new SyntaxError("Expected the start of a document, found "+data.type().name()));
+				default -> {} // NEWLINE and WHITESPACE between documents don't belong to either one
+			}
+		}
+		
+		eof = true;
+	}
+	
+	/**
+	 * Reads the next complete document, sending its data to the writer supplied.
+	 * @param writer the destination for the document's StructuredData
+	 * @return true if a document was read, or false if there are no more documents in the stream
+	 * @throws IOException if there was a problem reading the stream, or if the document is malformed
+	 */
+	public boolean readNext(StructuredDataWriter writer) throws IOException {
+		prime();
+		if (bufferedStart == null) return false;
+		
+		for(StructuredData data : bufferedPrologue) writer.write(data);
+		bufferedPrologue.clear();
+		
+		StructuredData start = bufferedStart;
+		bufferedStart = null;
+		writer.write(start);
+		
+		if (start.type() != StructuredData.Type.PRIMITIVE) {
+			JsonReader r = getReader();
+			int depth = 1;
+			while(depth > 0) {
+				if (!r.hasNext()) throw new IOException(new SyntaxError("Stream ended in the middle of a document."));
+				StructuredData data = r.next();
+				switch(data.type()) {
+					case OBJECT_START, ARRAY_START -> depth++;
+					case OBJECT_END, ARRAY_END -> depth--;
+					case EOF -> throw new IOException(new SyntaxError("Stream ended in the middle of a document."));
+					default -> {}
+				}
+				writer.write(data);
+			}
+		}
+		
+		writer.write(StructuredData.EOF);
+		return true;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		try {
+			prime();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bufferedStart != null;
+	}
+	
+	@Override
+	public ValueElement next() {
+		try {
+			ValueElementWriter writer = new ValueElementWriter();
+			if (!readNext(writer)) throw new NoSuchElementException();
+			return writer.toValueElement();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	/**
+	 * Reads the next document and unpacks it into an object of the specified type.
+	 * @param <T> the type of object to produce
+	 * @param type the type of object to produce
+	 * @return the unpacked object
+	 * @throws NoSuchElementException if there are no more documents in the stream
+	 */
+	public <T> T next(Type type) throws IOException {
+		ObjectWriter<T> writer = new ObjectWriter<>(type);
+		if (!readNext(writer)) throw new NoSuchElementException();
+		return writer.toObject();
+	}
+	
+	/**
+	 * Gets a sequential Stream of the documents in this reader. Documents are parsed lazily as the Stream is consumed.
+	 * @return a Stream of ValueElements, one for each document
+	 */
+	public Stream<ValueElement> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * Gets a sequential Stream of the documents in this reader, unpacked into objects of the specified type.
+	 * @param <T> the type of object to produce
+	 * @param type the type of object to produce
+	 * @return a Stream of objects, one for each document
+	 */
+	public <T> Stream<T> stream(Type type) {
+		Iterator<T> iter = new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return MultiDocumentReader.this.hasNext();
+			}
+			
+			@Override
+			public T next() {
+				try {
+					return MultiDocumentReader.this.next(type);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED), false);
+	}
+	
+	/**
+	 * Gets a parallel Stream of the documents in this reader. The input is split on record boundaries in the calling
+	 * thread, and the records are parsed on whichever ForkJoinPool runs the Stream's terminal operation (normally
+	 * the common pool). Ordering is preserved for ordered terminal operations like {@code toList()} or
+	 * {@code forEachOrdered}.
+	 * 
+	 * <p>Once a MultiDocumentReader is read in parallel, it cannot also be read sequentially.
+	 * @return a parallel Stream of ValueElements, one for each document
+	 */
+	public Stream<ValueElement> parallelStream() {
+		return records().map(this::parseRecord);
+	}
+	
+	/**
+	 * Gets a parallel Stream of the documents in this reader, unpacked into objects of the specified type.
+	 * @param <T> the type of object to produce
+	 * @param type the type of object to produce
+	 * @return a parallel Stream of objects, one for each document
+	 * @see #parallelStream()
+	 */
+	public <T> Stream<T> parallelStream(Type type) {
+		return records().map(it -> parseRecord(it, type));
+	}
+	
+	private Stream<String> records() {
+		if (reader != null) throw new IllegalStateException("This MultiDocumentReader is already being read sequentially.");
+		if (splitter == null) splitter = new DocumentSplitter(source);
+		
+		Iterator<String> iter = new Iterator<>() {
+			private String next = null;
+			
+			@Override
+			public boolean hasNext() {
+				if (next != null) return true;
+				try {
+					next = splitter.nextRecord();
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				return next != null;
+			}
+			
+			@Override
+			public String next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				String result = next;
+				next = null;
+				return result;
+			}
+		};
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED | Spliterator.NONNULL), true);
+	}
+	
+	private ValueElement parseRecord(String record) {
+		try {
+			JsonReader r = new JsonReader(new StringReader(record), options);
+			ValueElementWriter writer = new ValueElementWriter();
+			r.transferTo(writer);
+			return writer.toValueElement();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	private <T> T parseRecord(String record, Type type) {
+		try {
+			JsonReader r = new JsonReader(new StringReader(record), options);
+			ObjectWriter<T> writer = new ObjectWriter<>(type);
+			r.transferTo(writer);
+			return writer.toObject();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+}
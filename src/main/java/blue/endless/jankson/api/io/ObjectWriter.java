@@ -25,35 +25,13 @@
 package blue.endless.jankson.api.io;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Queue;
-import java.util.Set;
-import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
 import blue.endless.jankson.api.SyntaxError;
-import blue.endless.jankson.api.document.PrimitiveElement;
-import blue.endless.jankson.impl.io.objectwriter.CollectionFunction;
-import blue.endless.jankson.impl.io.objectwriter.MapFunction;
-import blue.endless.jankson.impl.io.objectwriter.RecordFunction;
+import blue.endless.jankson.impl.io.objectwriter.BindingPlan;
 import blue.endless.jankson.impl.io.objectwriter.StructuredDataFunction;
-import blue.endless.jankson.impl.io.objectwriter.PrimitiveFunction;
-import blue.endless.jankson.impl.magic.ClassHierarchy;
 
 @SuppressWarnings("unchecked")
 public class ObjectWriter<T> implements StructuredDataWriter {
@@ -61,6 +39,7 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 	private T subject;
 	private boolean complete = false;
 	
+	private BindingPlan plan = null;
 	private StructuredDataFunction<Object> delegate = null;
 	
 	//private Function<Object, Optional<T>> mapper = it -> (Optional<T>) Optional.of(it);
@@ -87,7 +66,8 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 	}
 	
 	/**
-	 * Supplies a function to unpack structured data directly into the target type.
+	 * Supplies a function to unpack structured data directly into the target type. The type is only analyzed the first
+	 * time it's seen; after that, its {@link BindingPlan} comes from a cache.
 	 * @param type
 	 * @param data
 	 * @return
@@ -95,89 +75,7 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 	public static StructuredDataFunction<?> getObjectWriter(Type type, StructuredData data, @Nullable Object subject) {
 		if (!data.type().isSemantic()) throw new IllegalArgumentException();
 		
-		Class<?> targetClass = ClassHierarchy.getErasedClass(type);
-		if (Collection.class.isAssignableFrom(targetClass)) {
-			Type elementType = ClassHierarchy.getCollectionTypeArgument(type);
-			
-			if (subject instanceof Collection coll) {
-				return new CollectionFunction<>(coll, elementType);
-			}
-			
-			if (targetClass.isInterface()) {
-				// Pick a "typical" implementation of popular interfaces
-				Collection<?> coll = null;
-				if (Set.class.isAssignableFrom(targetClass)) {
-					coll = new HashSet<>();
-				} else if (List.class.isAssignableFrom(targetClass)) {
-					coll = new ArrayList<>();
-				} else if (Queue.class.isAssignableFrom(targetClass)) { // Includes Deque
-					coll = new ArrayDeque<>();
-				} else if (targetClass.equals(Collection.class)) {
-					// Defined too broadly but we can deal with it
-					coll = new ArrayList<>();
-				} else {
-					// We can't create an instance of this interface, and we can't make it 
-					throw new IllegalArgumentException("Can't get an implementation for unknown collection interface \""+targetClass.getCanonicalName()+"\"");
-				}
-				
-				return new CollectionFunction<>(coll, elementType);
-			} else {
-				// Attempt to create an instance using the target type's no-arg constructor - just
-				// about every Collection type has one. If not, give a clear indication of the problem
-				
-				try {
-					Constructor<?> cons = targetClass.getConstructor();
-					boolean access = cons.canAccess(null);
-					
-					if (!access) cons.setAccessible(true);
-					Collection<?> coll = (Collection<?>) cons.newInstance();
-					if (!access) cons.setAccessible(false);
-					
-					return new CollectionFunction<>(coll, elementType);
-				} catch (Throwable t) {
-					throw new IllegalArgumentException("Could not create an instance of collection type, \""+type.getTypeName()+"\". Is there a zero-argument constructor?", t);
-				}
-			}
-		}
-		
-		if (Map.class.isAssignableFrom(targetClass)) {
-			if (subject instanceof Map map) {
-				// Map<Object, Object> is incorrect, but we cannot construct MapFunction<?, ?>
-				return new MapFunction<Object, Object>(type, (Map<Object, Object>) subject);
-			}
-			
-			if (targetClass.isInterface()) {
-				return new MapFunction<Object, Object>(type);
-			} else {
-				// Attempt to create an instance using the target type's no-arg constructor - as
-				// with Collection, just about every Map type has one. If not, give a clear
-				// indication of the problem
-				try {
-					Constructor<?> cons = targetClass.getConstructor();
-					boolean access = cons.canAccess(null);
-					
-					if (!access) cons.setAccessible(true);
-					Map<Object, Object> coll = (Map<Object, Object>) cons.newInstance();
-					if (!access) cons.setAccessible(false);
-					
-					return new MapFunction<Object, Object>(type, coll);
-				} catch (Throwable t) {
-					throw new IllegalArgumentException("Could not create an instance of collection type, \""+type.getTypeName()+"\". Is there a zero-argument constructor?", t);
-				}
-			}
-			
-		}
-		
-		if (targetClass.isRecord()) {
-			return new RecordFunction<>(targetClass);
-		}
-		
-		Function<PrimitiveElement, Optional<Object>> selectedMapper = primitiveMappers.get(targetClass);
-		if (selectedMapper != null) {
-			return new StructuredDataFunction.Mapper<>(new PrimitiveFunction(), selectedMapper);
-		}
-		
-		return null;
+		return BindingPlan.of(type).create(subject);
 	}
 	
 	/*
@@ -260,7 +158,8 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 				
 				//analyzeTypeAndData(data);
 				if (data.type().isSemantic()) {
-					StructuredDataFunction<?> function = getObjectWriter(type, data, subject);
+					if (plan == null) plan = BindingPlan.of(type);
+					StructuredDataFunction<?> function = plan.create(subject);
 					if (function != null) {
 						delegate = (StructuredDataFunction<Object>) function;
 						delegate.accept(data);
@@ -272,6 +171,24 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 		}
 	}
 	
+	@Override
+	public void write(StructuredData[] data, int off, int len) throws IOException {
+		int end = off + len;
+		try {
+			for(int i=off; i<end; i++) {
+				StructuredData d = data[i];
+				if (delegate != null && d.type() != StructuredData.Type.EOF) {
+					delegate.accept(d);
+					if (delegate.isComplete()) commitResult();
+				} else {
+					write(d);
+				}
+			}
+		} catch (SyntaxError err) {
+			throw new IOException(err);
+		}
+	}
+	
 	/**
 	 * Returns true if this ObjectWriter has consumed an entire value from the stream
 	 * @return true if this ObjectWriter is complete
@@ -289,41 +206,4 @@ public class ObjectWriter<T> implements StructuredDataWriter {
 		
 		return subject;
 	}
-	
-	//private static Map<Class<?>, Supplier<SingleValueFunction<?>>> classConfigs = new HashMap<>();
-	private static Map<Class<?>, Function<PrimitiveElement, Optional<Object>>> primitiveMappers = new HashMap<>();
-	
-	static {
-		primitiveMappers.put(String.class, (prim) -> (Optional<Object>) (Object) prim.asString());
-		
-		primitiveMappers.put(Integer.class, (prim) -> prim.mapAsInt((it)-> it));
-		primitiveMappers.put(Long.class,    (prim) -> prim.mapAsLong((it)-> it));
-		primitiveMappers.put(Short.class,   (prim) -> prim.mapAsInt((it) -> (short) it));
-		primitiveMappers.put(Byte.class,    (prim) -> prim.mapAsInt((it) -> (byte) it));
-		primitiveMappers.put(Double.class,  (prim) -> prim.mapAsDouble((it)-> it));
-		primitiveMappers.put(Float.class,   (prim) -> prim.mapAsDouble((it) -> (float) it));
-		primitiveMappers.put(Boolean.class, (prim) -> prim.mapAsBoolean((it) -> it));
-		primitiveMappers.put(Double.TYPE,   (prim) -> prim.mapAsDouble((it) -> it));
-		
-		// This one's complex because no good canonical serialization makes sense
-		primitiveMappers.put(Character.class, (prim) -> {
-			Optional<Object> value = prim.getValue();
-			if (value.isEmpty()) return Optional.empty();
-			if (value.get() instanceof String s) {
-				if (s.length() != 1) return Optional.empty();
-				return Optional.of(Character.valueOf(s.charAt(0)));
-			} else {
-				return prim.mapAsInt((it) -> (char) it);
-			}
-		});
-		
-		// PrimitiveElement has convenience methods for these two, so let's set consistent expectations
-		// It's truly unfortunate that Java can't tell that e.g. Optional<BigInteger> is castable to Optional<Object>
-		primitiveMappers.put(BigInteger.class, (prim) -> (Optional<Object>) (Object) prim.asBigInteger());
-		primitiveMappers.put(BigDecimal.class, (prim) -> (Optional<Object>) (Object) prim.asBigDecimal());
-		
-		primitiveMappers.put(LocalDate.class, (prim) -> prim.mapAsString(LocalDate::parse));
-		primitiveMappers.put(LocalTime.class, (prim) -> prim.mapAsString(LocalTime::parse));
-		primitiveMappers.put(LocalDateTime.class, (prim) -> prim.mapAsString(LocalDateTime::parse));
-	}
 }
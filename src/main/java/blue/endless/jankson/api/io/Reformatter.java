@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Rewrites json documents in a different style by streaming them straight from a JsonReader into a JsonWriter. No
+ * document tree is ever built, so memory use doesn't depend on the size of the document. Used with
+ * {@link JsonWriterOptions#ONE_LINE}, this is a minifier.
+ * 
+ * <p>Many files can be reformatted at once with {@link #reformatAll(Collection, Function, int)}. Each worker thread
+ * keeps a single reader and writer, {@link JsonReader#reset(Reader) resetting} them for each file it picks up.
+ * 
+ * <p>This class can also be run from the command line; run it with no arguments for usage.
+ */
+public class Reformatter {
+	private final JsonReaderOptions readerOptions;
+	private final JsonWriterOptions writerOptions;
+	
+	public Reformatter(JsonReaderOptions readerOptions, JsonWriterOptions writerOptions) {
+		this.writerOptions = writerOptions;
+		
+		// Don't spend any time decoding comments if they won't be written
+		if (!writerOptions.get(JsonWriterOptions.Hint.WRITE_COMMENTS) && !readerOptions.hasHint(JsonReaderOptions.Hint.SKIP_COMMENTS)) {
+			readerOptions = readerOptions.withHints(JsonReaderOptions.Hint.SKIP_COMMENTS);
+		}
+		this.readerOptions = readerOptions;
+	}
+	
+	public Reformatter(JsonWriterOptions writerOptions) {
+		this(JsonReaderOptions.UNSPECIFIED, writerOptions);
+	}
+	
+	/**
+	 * Reformats a single document. Neither the Reader nor the Writer is closed.
+	 */
+	public void reformat(Reader in, Writer out) throws IOException {
+		reformat(new JsonReader(in, readerOptions), new JsonWriter(out, writerOptions), out);
+	}
+	
+	private void reformat(JsonReader reader, JsonWriter writer, Writer out) throws IOException {
+		reader.transferTo(writer);
+		if (writerOptions.get(JsonWriterOptions.Hint.WRITE_NEWLINES)) out.write('\n');
+		out.flush();
+	}
+	
+	/**
+	 * Reformats many files at once. Each file is written to a temporary file next to its destination, which is then moved
+	 * into place, so a file can safely be reformatted in place by using {@code Function.identity()} as the destination.
+	 * @param files       the files to reformat
+	 * @param destination given each file, returns where to write the reformatted version
+	 * @param concurrency the number of files to work on at once
+	 * @return a Report on the files reformatted, including any that couldn't be
+	 * @throws InterruptedIOException if the current thread is interrupted while waiting for the files to be reformatted
+	 */
+	public Report reformatAll(Collection<Path> files, Function<Path, Path> destination, int concurrency) throws IOException {
+		if (concurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive.");
+		
+		ConcurrentLinkedQueue<Path> queue = new ConcurrentLinkedQueue<>(files);
+		Map<Path, IOException> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicLong bytesRead = new AtomicLong();
+		AtomicLong bytesWritten = new AtomicLong();
+		
+		long start = System.nanoTime();
+		int workers = Math.min(concurrency, Math.max(1, files.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for(int i=0; i<workers; i++) {
+				futures.add(executor.submit(() -> {
+					// These are reset for each file, so their buffers are reused
+					JsonReader reader = null;
+					JsonWriter writer = null;
+					
+					Path path;
+					while((path = queue.poll()) != null) {
+						Path dest = destination.apply(path).toAbsolutePath();
+						Path temp = null;
+						try(Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+							// Not Files::createTempFile, which would give the new file restrictive permissions
+							temp = dest.resolveSibling("."+dest.getFileName()+"."+Thread.currentThread().threadId()+".tmp");
+							try(Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+								if (reader == null) {
+									reader = new JsonReader(in, readerOptions);
+									writer = new JsonWriter(out, writerOptions);
+								} else {
+									reader.reset(in);
+									writer.reset(out);
+								}
+								reformat(reader, writer, out);
+							}
+							
+							bytesRead.addAndGet(Files.size(path));
+							bytesWritten.addAndGet(Files.size(temp));
+							Files.move(temp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+							succeeded.incrementAndGet();
+						} catch (IOException | RuntimeException ex) {
+							failures.put(path, (ex instanceof IOException io) ? io : new IOException(ex));
+							try {
+								if (temp != null) Files.deleteIfExists(temp);
+							} catch (IOException ex2) {
+								ex.addSuppressed(ex2);
+							}
+						}
+					}
+				}));
+			}
+			
+			for(Future<?> future : futures) future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException result = new InterruptedIOException("Interrupted while reformatting files.");
+			result.initCause(ex);
+			throw result;
+		} catch (ExecutionException ex) {
+			// Per-file problems are caught by the workers, so this is something much worse
+			throw new IOException(ex.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+		return new Report(succeeded.get(), Collections.unmodifiableMap(new LinkedHashMap<>(failures)), bytesRead.get(), bytesWritten.get(), elapsed);
+	}
+	
+	/**
+	 * The outcome of {@link Reformatter#reformatAll(Collection, Function, int)}.
+	 * @param succeeded    the number of files successfully reformatted
+	 * @param failures     the files that couldn't be reformatted, and why
+	 * @param bytesRead    the total size of the files that were reformatted
+	 * @param bytesWritten the total size of the reformatted files
+	 * @param elapsed      the time taken to reformat all the files
+	 */
+	public static record Report(int succeeded, Map<Path, IOException> failures, long bytesRead, long bytesWritten, Duration elapsed) {
+		
+		/**
+		 * Gets the rate at which input was processed, in bytes per second.
+		 */
+		public double bytesPerSecond() {
+			long nanos = Math.max(1, elapsed.toNanos());
+			return bytesRead * 1_000_000_000.0 / nanos;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "Reformatted %d files (%d failed), %d bytes to %d bytes in %.3fs (%.2f MB/s)",
+					succeeded, failures.size(), bytesRead, bytesWritten, elapsed.toNanos() / 1_000_000_000.0, bytesPerSecond() / 1_000_000.0);
+		}
+	}
+	
+	private static JsonWriterOptions preset(String name) {
+		return switch(name.toUpperCase(Locale.ROOT)) {
+			case "DEFAULTS" -> JsonWriterOptions.DEFAULTS;
+			case "ONE_LINE" -> JsonWriterOptions.ONE_LINE;
+			case "STRICT" -> JsonWriterOptions.STRICT;
+			case "INI_SON" -> JsonWriterOptions.INI_SON;
+			default -> throw new IllegalArgumentException("Unknown preset \""+name+"\"");
+		};
+	}
+	
+	private static void printUsage(PrintStream out) {
+		out.println("Usage: java -jar jankson.jar [options] <file>...");
+		out.println("Reformats json files, replacing them unless --out is given.");
+		out.println();
+		out.println("  --preset <name>   output style: DEFAULTS, ONE_LINE, STRICT, or INI_SON (default: DEFAULTS)");
+		out.println("  --out <dir>       write reformatted files into this directory instead");
+		out.println("  --threads <n>     number of files to reformat at once (default: number of processors)");
+	}
+	
+	public static void main(String[] args) {
+		JsonWriterOptions writerOptions = JsonWriterOptions.DEFAULTS;
+		Path outDir = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<Path> files = new ArrayList<>();
+		
+		try {
+			for(int i=0; i<args.length; i++) {
+				String arg = args[i];
+				switch(arg) {
+					case "--preset" -> writerOptions = preset(argument(args, ++i, arg));
+					case "--out" -> outDir = Path.of(argument(args, ++i, arg));
+					case "--threads" -> threads = Integer.parseInt(argument(args, ++i, arg));
+					case "--help", "-h" -> {
+						printUsage(System.out);
+						return;
+					}
+					default -> {
+						if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown option \""+arg+"\"");
+						files.add(Path.of(arg));
+					}
+				}
+			}
+		} catch (IllegalArgumentException ex) {
+			System.err.println(ex.getMessage());
+			printUsage(System.err);
+			System.exit(2);
+			return;
+		}
+		
+		if (files.isEmpty()) {
+			printUsage(System.err);
+			System.exit(2);
+			return;
+		}
+		
+		try {
+			final Path dir = outDir;
+			if (dir != null) Files.createDirectories(dir);
+			Function<Path, Path> destination = (dir == null) ? Function.identity() : (path) -> dir.resolve(path.getFileName());
+			
+			Report report = new Reformatter(writerOptions).reformatAll(files, destination, threads);
+			for(Map.Entry<Path, IOException> failure : report.failures().entrySet()) {
+				System.err.println(failure.getKey()+": "+failure.getValue().getMessage());
+			}
+			System.err.println(report);
+			if (!report.failures().isEmpty()) System.exit(1);
+		} catch (IOException | IllegalArgumentException ex) {
+			System.err.println(ex.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	private static String argument(String[] args, int index, String option) {
+		if (index >= args.length) throw new IllegalArgumentException("Missing value for "+option);
+		return args[index];
+	}
+}
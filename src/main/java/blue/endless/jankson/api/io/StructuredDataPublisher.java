@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adapts a StructuredDataReader into a Flow.Publisher. Data is only pulled from the reader as the subscriber requests
+ * it, so parsing never gets further ahead of the subscriber than its outstanding demand.
+ * 
+ * <p>Because a reader can only be traversed once, a StructuredDataPublisher accepts exactly one subscriber. Unlike
+ * {@link StructuredDataReader#transferTo(StructuredDataWriter)}, the EOF marker is never delivered to onNext; the end
+ * of the data is signaled with onComplete instead.
+ */
+public class StructuredDataPublisher implements Flow.Publisher<StructuredData> {
+	private final StructuredDataReader reader;
+	private final Executor executor;
+	private final AtomicBoolean subscribed = new AtomicBoolean(false);
+	
+	/**
+	 * Creates a publisher which reads and delivers data on the common ForkJoinPool.
+	 */
+	public StructuredDataPublisher(StructuredDataReader reader) {
+		this(reader, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a publisher which reads and delivers data using the specified Executor.
+	 */
+	public StructuredDataPublisher(StructuredDataReader reader, Executor executor) {
+		this.reader = reader;
+		this.executor = executor;
+	}
+	
+	@Override
+	public void subscribe(Flow.Subscriber<? super StructuredData> subscriber) {
+		Objects.requireNonNull(subscriber);
+		
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {}
+				@Override
+				public void cancel() {}
+			});
+			subscriber.onError(new IllegalStateException("This publisher's reader has already been subscribed to."));
+			return;
+		}
+		
+		ReaderSubscription subscription = new ReaderSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+	
+	private class ReaderSubscription implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super StructuredData> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean done = false;
+		/** An error raised by request(), waiting to be delivered from run() so that signals stay serial */
+		private volatile Throwable pendingError = null;
+		
+		public ReaderSubscription(Flow.Subscriber<? super StructuredData> subscriber) {
+			this.subscriber = subscriber;
+		}
+		
+		@Override
+		public void request(long n) {
+			if (done) return;
+			if (n <= 0) {
+				if (pendingError == null) pendingError = new IllegalArgumentException("Requested a non-positive number of items ("+n+").");
+			} else {
+				demand.getAndUpdate(it -> {
+					long result = it + n;
+					return (result < 0) ? Long.MAX_VALUE : result; // Saturate on overflow
+				});
+			}
+			
+			if (wip.getAndIncrement() == 0) executor.execute(this);
+		}
+		
+		@Override
+		public void cancel() {
+			done = true;
+		}
+		
+		@Override
+		public void run() {
+			int missed = 1;
+			while(true) {
+				while(!done) {
+					Throwable error = pendingError;
+					if (error != null) {
+						done = true;
+						subscriber.onError(error);
+						return;
+					}
+					if (demand.get() <= 0) break;
+					
+					try {
+						StructuredData data = reader.hasNext() ? reader.next() : StructuredData.EOF;
+						if (data.type() == StructuredData.Type.EOF) {
+							done = true;
+							subscriber.onComplete();
+							return;
+						}
+						
+						demand.decrementAndGet();
+						subscriber.onNext(data);
+					} catch (Throwable t) {
+						done = true;
+						subscriber.onError(t);
+						return;
+					}
+				}
+				
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) return;
+			}
+		}
+	}
+}
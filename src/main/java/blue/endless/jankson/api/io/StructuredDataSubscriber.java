@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Adapts a StructuredDataWriter into a Flow.Subscriber. Data is requested in batches, and the next batch is only
+ * requested once the writer has accepted the previous one.
+ * 
+ * <p>Completion, failure, or cancellation can be observed through {@link #getCompletion()}.
+ */
+public class StructuredDataSubscriber implements Flow.Subscriber<StructuredData> {
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	
+	private final StructuredDataWriter writer;
+	private final int batchSize;
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+	private Flow.Subscription subscription = null;
+	private int remaining = 0;
+	
+	public StructuredDataSubscriber(StructuredDataWriter writer) {
+		this(writer, DEFAULT_BATCH_SIZE);
+	}
+	
+	/**
+	 * Creates a subscriber which drives the specified writer.
+	 * @param writer    the writer to deliver data to
+	 * @param batchSize the number of StructuredData to request at a time
+	 */
+	public StructuredDataSubscriber(StructuredDataWriter writer, int batchSize) {
+		if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive.");
+		this.writer = writer;
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * Gets a future which completes when the publisher signals the end of the data, or completes exceptionally if
+	 * either the publisher or the writer fails.
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+	
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null) {
+			// We can only drive one stream of data into our writer.
+			subscription.cancel();
+			return;
+		}
+		
+		this.subscription = subscription;
+		remaining = batchSize;
+		subscription.request(batchSize);
+	}
+	
+	@Override
+	public void onNext(StructuredData item) {
+		if (completion.isDone()) return;
+		
+		try {
+			writer.write(item);
+		} catch (IOException ex) {
+			subscription.cancel();
+			completion.completeExceptionally(ex);
+			return;
+		}
+		
+		remaining--;
+		if (remaining == 0) {
+			remaining = batchSize;
+			subscription.request(batchSize);
+		}
+	}
+	
+	@Override
+	public void onError(Throwable throwable) {
+		completion.completeExceptionally(throwable);
+	}
+	
+	/**
+	 * Finishes the document by writing EOF, which the publisher doesn't send through onNext, so that writers which
+	 * flush or finalize their output on EOF behave the same as they would after transferTo.
+	 */
+	@Override
+	public void onComplete() {
+		if (completion.isDone()) return;
+		
+		try {
+			writer.write(StructuredData.EOF);
+		} catch (IOException ex) {
+			completion.completeExceptionally(ex);
+			return;
+		}
+		completion.complete(null);
+	}
+}
@@ -29,4 +29,18 @@ import java.io.IOException;
 public interface StructuredDataWriter {
 	
 	public void write(StructuredData data) throws IOException;
+	
+	/**
+	 * Writes a run of data, in order. This has the same effect as calling {@link #write(StructuredData)} for each
+	 * element, but lets readers hand data over in bulk, and lets writers process it in a tight loop instead of being
+	 * called through this interface once per element.
+	 * @param data an array containing the data to write
+	 * @param off  the index of the first element to write
+	 * @param len  the number of elements to write
+	 */
+	public default void write(StructuredData[] data, int off, int len) throws IOException {
+		for(int i=off; i<off+len; i++) {
+			write(data[i]);
+		}
+	}
 }
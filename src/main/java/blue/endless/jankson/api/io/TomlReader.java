@@ -27,12 +27,16 @@ package blue.endless.jankson.api.io;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import blue.endless.jankson.api.SyntaxError;
 import blue.endless.jankson.api.document.ArrayElement;
 import blue.endless.jankson.api.document.CommentElement;
+import blue.endless.jankson.api.document.KeyValuePairElement;
+import blue.endless.jankson.api.document.NonValueElement;
 import blue.endless.jankson.api.document.ObjectElement;
 import blue.endless.jankson.api.document.PrimitiveElement;
 import blue.endless.jankson.api.document.ValueElement;
@@ -46,18 +50,47 @@ import blue.endless.jankson.impl.io.context.toml.TomlTripleQuotedStringValuePars
 
 public class TomlReader extends AbstractStructuredDataReader {
 	
+	private enum Kind {
+		TABLE,
+		ARRAY,
+		VALUE;
+	}
 	
 	/**
-	 * Unfortunately, because of the unpredictable order here, we need to crystallize the config down into an object before we can emit anything.
+	 * One node of the table index. Tables are found by walking these nodes one key at a time through hashed lookups,
+	 * rather than searching the keys of each ObjectElement along the way.
 	 */
-	private ObjectElement result = new ObjectElement();
-	private List<String> bufferedKey = new ArrayList<>();
+	private static final class TableNode {
+		private final String key;
+		private final Kind kind;
+		/** Children of this table, or of the last table in this array. Null once the table has been closed. */
+		private Map<String, TableNode> children = new HashMap<>();
+		/**
+		 * The table itself, or the last table in this array. For a table which is open in streaming mode, this instead
+		 * holds only the content that arrived while a deeper table was open, and is null until there is some.
+		 */
+		private ObjectElement object;
+		/** The array this node represents, unless it's open in streaming mode. */
+		private ArrayElement array;
+		
+		public TableNode(String key, Kind kind) {
+			this.key = key;
+			this.kind = kind;
+		}
+	}
 	
-	private List<String> tableContext = new ArrayList<>();
-	//private boolean contextIsArray = false;
-	private ObjectElement contextObj = result;
+	/** Every plain value in the index is represented by this one node, since values can't have children. */
+	private static final TableNode VALUE = new TableNode(null, Kind.VALUE);
 	
-	private boolean hasReadInData = false;
+	private final boolean buffered;
+	private TableNode root;
+	private TableNode context;
+	private boolean finished;
+	
+	/** Streaming mode: the tables which have been opened in the output, starting with the root. */
+	private final List<TableNode> openPath = new ArrayList<>();
+	/** Streaming mode: structure which opens the current table, held back so that comments can be written ahead of it. */
+	private final List<StructuredData> pending = new ArrayList<>();
 	
 	/*
 	 * This is a BRIEF overview of TOML's BNF.
@@ -135,80 +168,134 @@ public class TomlReader extends AbstractStructuredDataReader {
 	 * 
 	 * Or, put more simply, Character.isWhitespace(char) && char != '\n'
 	 */
+
+	/**
+	 * Creates a TomlReader which emits data as it's read. Tables may be defined in any order, but tables which arrive
+	 * out of order are held in memory until the table containing them ends.
+	 * @see #TomlReader(Reader, boolean)
+	 */
+	public TomlReader(Reader src) {
+		this(src, false);
+	}
 	
+	/**
+	 * Creates a TomlReader.
+	 * @param src the Reader to read TOML from
+	 * @param buffered if true, the entire document will be read into memory before anything is emitted. If false, data
+	 *        is emitted as it's read. Any table might still gain subtables later on, so a streaming reader keeps the
+	 *        tables it has started open until the end of the document, except that each table in an array of tables
+	 *        ends when the next one starts. Tables which don't continue from the open ones are held in memory until
+	 *        the table containing them ends. Both modes accept the same documents and produce the same data, though
+	 *        keys may come out in a different order.
+	 */
+	public TomlReader(Reader src, boolean buffered) {
+		super(src);
+		this.buffered = buffered;
+		init();
+	}
 	
+	@Override
+	public void reset(Reader source) {
+		super.reset(source);
+		openPath.clear();
+		pending.clear();
+		init();
+	}
 	
-	
-	
-	public TomlReader(Reader src) {
-		super(src);
+	private void init() {
+		root = new TableNode(null, Kind.TABLE);
+		context = root;
+		finished = false;
+		if (buffered) {
+			root.object = new ObjectElement();
+		} else {
+			openPath.add(root);
+			pending.add(StructuredData.OBJECT_START);
+		}
 	}
-
+	
 	@Override
 	protected void readNext() throws IOException {
-		if (hasReadInData) {
+		if (finished) {
 			readQueue.push(StructuredData.EOF);
 			return;
 		}
+		
+		try {
+			// Read expressions until one of them produces output, or we run out of input. When the output is going
+			// straight to a writer, nothing is queued until EOF, so this reads the whole document.
+			while(readQueue.isEmpty()) {
+				// No matter what we find, it may be prefixed with some spaces and/or blank lines
+				while(Character.isWhitespace(src.peek())) src.read();
+				if (src.peek() == -1) {
+					finish();
+					return;
+				}
+				
+				readExpression();
+			}
+		} catch (SyntaxError err) {
+			throw new IOException(err);
+		}
+	}
+	
+	private void readExpression() throws IOException, SyntaxError {
 		// At the root level, we're looking for 'expression' (comment, keyval, table)
 		
 		// Comments are easy, they'll start with octothorpe
 		// Table (both kinds) are easy, we'd peek an opening brace.
 		// Anything else we should try to parse as a keyval.
-		while(src.peek() != -1) {
-			try {
-				// No matter what we find, it may be prefixed with some spaces and/or blank lines
-				while(Character.isWhitespace(src.peek())) src.read();
-				if (src.peek() == -1) break;
-				
-				int ch = src.peek();
-				switch(ch) {
-					case '#' -> {
-						CommentElement elem = CommentValueParser.readStatic(src);
-						contextObj.getPrologue().add(elem);
-					}
+		int ch = src.peek();
+		switch(ch) {
+			case '#' -> {
+				CommentElement elem = CommentValueParser.readStatic(src);
+				if (!buffered && context == openPath.getLast()) {
+					elem.write(output);
+				} else {
+					held(context).getPrologue().add(elem);
+				}
+			}
+			
+			case '[' -> {
+				src.read(); // Consume the table opener
+				int tablePeek = src.peek();
+				if (tablePeek == '[') {
+					src.read(); // Consume the rest of the table-array opener
+					//Read in table-array name
+					List<String> tableKey = readTomlKey();
 					
-					case '[' -> {
-						
-						src.read(); // Consume the table opener
-						int tablePeek = src.peek();
-						if (tablePeek == '[') {
-							src.read(); // Consume the rest of the table-array opener
-							//Read in table-array name
-							tableContext = readTomlKey();
-							//contextIsArray = true;
-							
-							skipNonBreakingWhitespace(); //Shouldn't be needed but just in case
-							if (src.read() != ']') throw new SyntaxError("Unclosed table-array name [["+formatTomlKey(tableContext)+"]]");
-							if (src.read() != ']') throw new SyntaxError("Unclosed table-array name [["+formatTomlKey(tableContext)+"]]");
-							
-							contextObj = getNewArrayContext(tableContext);
-						} else {
-							tableContext = readTomlKey();
-							//contextIsArray = false;
-							if (src.read() != ']') throw new SyntaxError("Unclosed table name ["+formatTomlKey(tableContext)+"]");
-							
-							contextObj = getObjectContext(tableContext);
-						}
-						
-					}
+					skipNonBreakingWhitespace(); //Shouldn't be needed but just in case
+					if (src.read() != ']') throw new SyntaxError("Unclosed table-array name [["+formatTomlKey(tableKey)+"]]");
+					if (src.read() != ']') throw new SyntaxError("Unclosed table-array name [["+formatTomlKey(tableKey)+"]]");
 					
-					default -> {
-						bufferedKey = readTomlKey();
-						if (bufferedKey.size() == 0) throw new SyntaxError("Got no key data!", src.getLine(), src.getCharacter());
-						skipNonBreakingWhitespace();
-						if (src.read() != '=')  throw new SyntaxError("Expected equals sign, found '"+Character.toString(src.peek())+"'", src.getLine(), src.getCharacter());
-						skipNonBreakingWhitespace();
-						readAndCommitValue();
-					}
+					enterTable(tableKey, true);
+				} else {
+					List<String> tableKey = readTomlKey();
+					if (src.read() != ']') throw new SyntaxError("Unclosed table name ["+formatTomlKey(tableKey)+"]");
+					
+					enterTable(tableKey, false);
 				}
-			} catch (SyntaxError err) {
-				throw new IOException(err);
+			}
+			
+			default -> {
+				List<String> key = readTomlKey();
+				if (key.size() == 0) throw new SyntaxError("Got no key data!", src.getLine(), src.getCharacter());
+				skipNonBreakingWhitespace();
+				if (src.read() != '=')  throw new SyntaxError("Expected equals sign, found '"+Character.toString(src.peek())+"'", src.getLine(), src.getCharacter());
+				skipNonBreakingWhitespace();
+				commitKvPair(key, readValue());
 			}
 		}
-		
-		result.write(readQueue);
-		hasReadInData = true;
+	}
+	
+	private void finish() throws IOException {
+		finished = true;
+		if (buffered) {
+			root.object.write(output);
+		} else {
+			closeTo(0);
+		}
+		readQueue.push(StructuredData.EOF);
 	}
 
 	private boolean isTomlKeyChar(int codePoint) {
@@ -317,12 +404,6 @@ public class TomlReader extends AbstractStructuredDataReader {
 		}
 	}
 	
-	private void readAndCommitValue() throws IOException, SyntaxError {
-		ValueElement val = readValue();
-		commitKvPair(bufferedKey, val);
-		bufferedKey.clear();
-	}
-	
 	private PrimitiveElement readLiteralString() throws IOException, SyntaxError {
 		src.read(); //discard starting quote
 		StringBuilder value = new StringBuilder();
@@ -431,58 +512,183 @@ public class TomlReader extends AbstractStructuredDataReader {
 		}
 	}
 	
-	private ObjectElement getObjectContext(List<String> key) throws SyntaxError {
-		if (key.isEmpty()) throw new IllegalArgumentException("Cannot get a context object with no key");
-		
-		ObjectElement subject = result;
-		for(String k : key) {
-			subject = getObjectContext(subject, k);
-		}
-		
-		return subject;
+	private SyntaxError notATable(List<String> key, TableNode node) {
+		String found = (node.kind == Kind.ARRAY) ? "ArrayElement" : "PrimitiveElement";
+		return new SyntaxError("Expected ObjectElement for key '"+formatTomlKey(key)+"', got "+found, src.getLine(), src.getCharacter());
+	}
+	
+	private SyntaxError notAnArray(List<String> key) {
+		return new SyntaxError("Expected ArrayElement for key '"+formatTomlKey(key)+"', got ObjectElement", src.getLine(), src.getCharacter());
 	}
 	
-	private ObjectElement getNewArrayContext(List<String> key) throws SyntaxError {
+	/**
+	 * Gets the ObjectElement that holds content for this table which can't be written yet. Only tables which are open
+	 * in the output start without one.
+	 */
+	private static ObjectElement held(TableNode node) {
+		if (node.object == null) node.object = new ObjectElement();
+		return node.object;
+	}
+	
+	private void enterTable(List<String> key, boolean isArray) throws IOException, SyntaxError {
 		if (key.isEmpty()) throw new SyntaxError("Cannot get a context object with no key", src.getLine(), src.getCharacter());
 		
-		ObjectElement subject = result;
-		if (key.size() > 1) for(int i=0; i<key.size()-1; i++) {
-			subject = getObjectContext(subject, key.get(i));
+		if (buffered) {
+			TableNode node = root;
+			for(int i=0; i<key.size(); i++) {
+				String k = key.get(i);
+				boolean last = i == key.size() - 1;
+				TableNode child = node.children.get(k);
+				if (last && isArray) {
+					if (child == null) {
+						child = new TableNode(k, Kind.ARRAY);
+						child.array = new ArrayElement();
+						node.object.put(k, child.array);
+						node.children.put(k, child);
+					} else if (child.kind != Kind.ARRAY) {
+						throw new SyntaxError("Expected ArrayElement for key '"+formatTomlKey(key)+"', got "+node.object.get(k).getClass().getSimpleName(), src.getLine(), src.getCharacter());
+					}
+					child.object = new ObjectElement();
+					child.array.add(child.object);
+					child.children = new HashMap<>();
+				} else if (child == null) {
+					child = new TableNode(k, Kind.TABLE);
+					child.object = new ObjectElement();
+					node.object.put(k, child.object);
+					node.children.put(k, child);
+				} else if (child.kind == Kind.VALUE) {
+					throw notATable(key.subList(0, i+1), child);
+				}
+				// Tables and arrays of tables both lead to an ObjectElement, so there's nothing more to do
+				node = child;
+			}
+			context = node;
+			return;
 		}
 		
-		String k = key.getLast();
-		Optional<ArrayElement> maybeArray = subject.tryGetArray(k);
-		if (maybeArray.isPresent()) {
-			subject = new ObjectElement();
-			maybeArray.get().add(subject);
-		} else {
-			if (subject.containsKey(k)) throw new SyntaxError("Expected ArrayElement, got "+subject.get(k).getClass().getSimpleName(), src.getLine(), src.getCharacter());
-			ArrayElement elem = new ArrayElement();
-			subject.put(k, elem);
-			subject = new ObjectElement();
-			elem.add(subject);
+		/*
+		 * Any table might still gain subtables from a later header, so tables on the open path stay open until the end
+		 * of the document. The one exception is an array of tables: once its next table starts, the previous one can
+		 * never be reached again. New tables at the end of the open path are written as they're read, and any other
+		 * table is held in its parent until the parent ends.
+		 */
+		TableNode node = root;
+		boolean open = true;
+		for(int i=0; i<key.size(); i++) {
+			String k = key.get(i);
+			boolean last = i == key.size() - 1;
+			TableNode child = node.children.get(k);
+			if (child != null && child.kind == Kind.VALUE) throw notATable(key.subList(0, i+1), child);
+			
+			if (open && child != null && i + 1 < openPath.size() && openPath.get(i + 1) == child) {
+				// We're still inside this table
+				if (last && isArray) {
+					if (child.kind != Kind.ARRAY) throw notAnArray(key);
+					// End the previous table in the array, and start a new one
+					closeTo(i + 2);
+					endTable(child);
+					child.children = new HashMap<>();
+					pending.add(StructuredData.OBJECT_START);
+				}
+			} else if (child == null) {
+				child = new TableNode(k, (last && isArray) ? Kind.ARRAY : Kind.TABLE);
+				node.children.put(k, child);
+				if (open && node == openPath.getLast()) {
+					openPath.add(child);
+					pending.add(StructuredData.objectKey(k));
+					if (child.kind == Kind.ARRAY) pending.add(StructuredData.ARRAY_START);
+					pending.add(StructuredData.OBJECT_START);
+				} else {
+					child.object = new ObjectElement();
+					if (child.kind == Kind.ARRAY) {
+						child.array = new ArrayElement();
+						child.array.add(child.object);
+						held(node).put(k, child.array);
+					} else {
+						held(node).put(k, child.object);
+					}
+					open = false;
+				}
+			} else {
+				// A table that's being held. Tables and arrays of tables both lead to an ObjectElement.
+				if (last && isArray) {
+					if (child.kind != Kind.ARRAY) throw notAnArray(key);
+					child.object = new ObjectElement();
+					child.array.add(child.object);
+					child.children = new HashMap<>();
+				}
+				open = false;
+			}
+			node = child;
 		}
 		
-		return subject;
+		context = node;
 	}
 	
-	private void commitKvPair(List<String> key, ValueElement value) throws SyntaxError {
+	private void commitKvPair(List<String> key, ValueElement value) throws IOException, SyntaxError {
 		if (key.isEmpty()) throw new IllegalArgumentException("Cannot set a value with no key");
 		
-		ObjectElement subject = contextObj;
-		if (key.size() > 1) for(int i=0; i<key.size()-1; i++) {
-			Optional<ObjectElement> maybeNewSubject = subject.tryGetObject(key.get(i));
-			if (maybeNewSubject.isPresent()) {
-				subject = maybeNewSubject.get();
-			} else {
-				if (subject.containsKey(key.get(i))) throw new SyntaxError("Expected ObjectElement, got "+subject.get(key.get(i)).getClass().getSimpleName(), src.getLine(), src.getCharacter());
-				ObjectElement newSubject = new ObjectElement();
-				subject.put(key.get(i), newSubject);
-				subject = newSubject;
+		TableNode node = context;
+		for(int i=0; i<key.size()-1; i++) {
+			String k = key.get(i);
+			TableNode child = node.children.get(k);
+			if (child == null) {
+				child = new TableNode(k, Kind.TABLE);
+				child.object = new ObjectElement();
+				node.children.put(k, child);
+				held(node).put(k, child.object);
+			} else if (child.kind != Kind.TABLE) {
+				throw notATable(key.subList(0, i+1), child);
 			}
+			node = child;
 		}
 		
-		subject.put(key.getLast(), value);
+		String k = key.getLast();
+		TableNode existing = node.children.get(k);
+		if (existing != null && existing.kind != Kind.VALUE) {
+			throw new SyntaxError("Cannot replace the table at '"+formatTomlKey(key)+"' with a value", src.getLine(), src.getCharacter());
+		}
+		node.children.put(k, VALUE);
+		
+		if (!buffered && node == openPath.getLast()) {
+			flushPending();
+			output.write(StructuredData.objectKey(k));
+			value.write(output);
+		} else {
+			held(node).put(k, value);
+		}
+	}
+	
+	private void flushPending() throws IOException {
+		for(StructuredData data : pending) output.write(data);
+		pending.clear();
+	}
+	
+	/**
+	 * Closes open tables until only {@code size} remain open, including the root.
+	 */
+	private void closeTo(int size) throws IOException {
+		while(openPath.size() > size) {
+			TableNode node = openPath.removeLast();
+			endTable(node);
+			node.children = null;
+			if (node.kind == Kind.ARRAY) output.write(StructuredData.ARRAY_END);
+		}
+	}
+	
+	/**
+	 * Writes out anything held for an open table, and then ends it. For an array of tables, this ends its last table.
+	 */
+	private void endTable(TableNode node) throws IOException {
+		flushPending();
+		if (node.object != null) {
+			for(NonValueElement elem : node.object.getPrologue()) elem.write(output);
+			for(Map.Entry<String, ValueElement> entry : node.object.entrySet()) {
+				((KeyValuePairElement) entry).write(output);
+			}
+			node.object = null;
+		}
+		output.write(StructuredData.OBJECT_END);
 	}
 	
 }
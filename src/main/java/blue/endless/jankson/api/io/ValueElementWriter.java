@@ -49,12 +49,7 @@ public class ValueElementWriter implements StructuredDataWriter {
 		if (delegate != null && !delegate.isComplete()) {
 			// After we've completed our data, we could potentially consume a trailer
 			delegate.write(data);
-			if (delegate.isComplete()) {
-				result = delegate.getValue();
-				result.getPrologue().addAll(bufferedComments);
-				bufferedComments.clear();
-				delegate = null;
-			}
+			if (delegate.isComplete()) delegateComplete();
 		} else {
 			if (delegate != null && delegate.isComplete()) {
 				result = delegate.getValue();
@@ -93,6 +88,32 @@ public class ValueElementWriter implements StructuredDataWriter {
 		
 	}
 	
+	@Override
+	public void write(StructuredData[] data, int off, int len) throws IOException {
+		int end = off + len;
+		int i = off;
+		while(i < end) {
+			if (delegate != null && !delegate.isComplete()) {
+				// Nearly everything goes straight to the delegate building the value, so stay with it as long as we can
+				StrictValueElementWriter d = delegate;
+				do {
+					d.write(data[i++]);
+				} while(i < end && !d.isComplete());
+				
+				if (d.isComplete()) delegateComplete();
+			} else {
+				write(data[i++]);
+			}
+		}
+	}
+	
+	private void delegateComplete() {
+		result = delegate.getValue();
+		result.getPrologue().addAll(bufferedComments);
+		bufferedComments.clear();
+		delegate = null;
+	}
+	
 	public ValueElement toValueElement() {
 		return result;
 	}
@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.schema;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+
+/**
+ * A JSON Schema, compiled ahead of time so that documents can be checked against it as they stream past a
+ * {@link SchemaValidator}. The keywords which describe the shape of a document are supported: {@code type},
+ * {@code required}, {@code properties}, {@code additionalProperties}, {@code items}, {@code enum}, {@code minimum},
+ * {@code maximum}, {@code minLength}, {@code maxLength}, {@code minItems}, {@code maxItems}, and {@code pattern}. Other
+ * keywords, such as {@code title} and {@code description}, are ignored.
+ * 
+ * <p>Each schema and subschema compiles into one state of an automaton. Object keys and array items lead from one
+ * state to the next, so validating a value only takes a map lookup to find its state, no matter how deeply it's
+ * nested. Compiled schemas are immutable, so one Schema can be shared by any number of validators and threads.
+ */
+public final class Schema {
+	static final int TYPE_NULL    = 1;
+	static final int TYPE_BOOLEAN = 2;
+	static final int TYPE_INTEGER = 4;
+	static final int TYPE_NUMBER  = 8;
+	static final int TYPE_STRING  = 16;
+	static final int TYPE_ARRAY   = 32;
+	static final int TYPE_OBJECT  = 64;
+	
+	private static final String[] TYPE_NAMES = { "null", "boolean", "integer", "number", "string", "array", "object" };
+	
+	/** The schema {@code true}, which allows anything. */
+	public static final Schema ANY = new Schema(false);
+	/** The schema {@code false}, which allows nothing. */
+	public static final Schema NONE = new Schema(true);
+	
+	/**
+	 * A key listed in "properties" or "required". The index is this key's position in {@link Schema#required}, or -1 if
+	 * the key is optional.
+	 */
+	record Property(Schema schema, int requiredIndex) {}
+	
+	final boolean rejectAll;
+	/** A mask of the TYPE_ constants, or zero if any type is allowed */
+	final int types;
+	final Map<String, Property> properties;
+	final String[] required;
+	final Schema additionalProperties;
+	final Schema items;
+	/** Normalized enum values, or null if there's no enum */
+	final Set<Object> allowed;
+	final double minimum;
+	final double maximum;
+	final int minLength;
+	final int maxLength;
+	final int minItems;
+	final int maxItems;
+	final Pattern pattern;
+	
+	private Schema(boolean rejectAll) {
+		this.rejectAll = rejectAll;
+		this.types = 0;
+		this.properties = Map.of();
+		this.required = new String[0];
+		this.additionalProperties = this;
+		this.items = this;
+		this.allowed = null;
+		this.minimum = Double.NEGATIVE_INFINITY;
+		this.maximum = Double.POSITIVE_INFINITY;
+		this.minLength = 0;
+		this.maxLength = Integer.MAX_VALUE;
+		this.minItems = 0;
+		this.maxItems = Integer.MAX_VALUE;
+		this.pattern = null;
+	}
+	
+	private Schema(ObjectElement obj, String location) {
+		this.rejectAll = false;
+		this.types = compileTypes(obj.get("type"), location);
+		
+		ValueElement additional = obj.get("additionalProperties");
+		this.additionalProperties = (additional == null) ? ANY : compile(additional, location + "/additionalProperties");
+		
+		ValueElement requiredElem = obj.get("required");
+		if (requiredElem == null) {
+			this.required = new String[0];
+		} else if (requiredElem instanceof ArrayElement arr) {
+			this.required = new String[arr.size()];
+			for(int i=0; i<arr.size(); i++) {
+				required[i] = (arr.get(i) instanceof PrimitiveElement prim) ? prim.asString().orElse(null) : null;
+				if (required[i] == null) throw new IllegalArgumentException("Schema at \""+location+"\" has a required key which is not a String.");
+			}
+		} else {
+			throw new IllegalArgumentException("Schema at \""+location+"\" has a \"required\" which is not an array.");
+		}
+		
+		Map<String, Property> props = new HashMap<>();
+		ValueElement propertiesElem = obj.get("properties");
+		if (propertiesElem != null) {
+			if (!(propertiesElem instanceof ObjectElement propsObj)) throw new IllegalArgumentException("Schema at \""+location+"\" has \"properties\" which are not an object.");
+			for(Map.Entry<String, ValueElement> entry : propsObj.entrySet()) {
+				props.put(entry.getKey(), new Property(compile(entry.getValue(), location + "/properties/" + entry.getKey()), -1));
+			}
+		}
+		for(int i=0; i<required.length; i++) {
+			Property existing = props.get(required[i]);
+			props.put(required[i], new Property((existing == null) ? additionalProperties : existing.schema(), i));
+		}
+		this.properties = Map.copyOf(props);
+		
+		ValueElement itemsElem = obj.get("items");
+		if (itemsElem instanceof ArrayElement) throw new IllegalArgumentException("Schema at \""+location+"\" uses tuple \"items\", which are not supported.");
+		this.items = (itemsElem == null) ? ANY : compile(itemsElem, location + "/items");
+		
+		ValueElement enumElem = obj.get("enum");
+		if (enumElem == null) {
+			this.allowed = null;
+		} else if (enumElem instanceof ArrayElement arr) {
+			Set<Object> values = new HashSet<>();
+			for(ValueElement elem : arr) {
+				if (!(elem instanceof PrimitiveElement prim)) throw new IllegalArgumentException("Schema at \""+location+"\" has an enum value which is not a primitive. Only primitives are supported.");
+				values.add(normalize(prim.getValue().orElse(null)));
+			}
+			this.allowed = values;
+		} else {
+			throw new IllegalArgumentException("Schema at \""+location+"\" has an \"enum\" which is not an array.");
+		}
+		
+		this.minimum = getNumber(obj, "minimum", Double.NEGATIVE_INFINITY, location);
+		this.maximum = getNumber(obj, "maximum", Double.POSITIVE_INFINITY, location);
+		this.minLength = getCount(obj, "minLength", 0, location);
+		this.maxLength = getCount(obj, "maxLength", Integer.MAX_VALUE, location);
+		this.minItems = getCount(obj, "minItems", 0, location);
+		this.maxItems = getCount(obj, "maxItems", Integer.MAX_VALUE, location);
+		
+		ValueElement patternElem = obj.get("pattern");
+		if (patternElem == null) {
+			this.pattern = null;
+		} else {
+			String regex = (patternElem instanceof PrimitiveElement prim) ? prim.asString().orElse(null) : null;
+			if (regex == null) throw new IllegalArgumentException("Schema at \""+location+"\" has a \"pattern\" which is not a String.");
+			try {
+				this.pattern = Pattern.compile(regex);
+			} catch (PatternSyntaxException ex) {
+				throw new IllegalArgumentException("Schema at \""+location+"\" has an invalid pattern.", ex);
+			}
+		}
+	}
+	
+	/**
+	 * Compiles a schema document.
+	 * @param schema an object holding the schema's keywords, or a boolean, which allows either everything or nothing
+	 * @throws IllegalArgumentException if the schema is malformed or uses a feature that isn't supported
+	 */
+	public static Schema compile(ValueElement schema) {
+		return compile(schema, "#");
+	}
+	
+	private static Schema compile(ValueElement schema, String location) {
+		if (schema instanceof ObjectElement obj) return new Schema(obj, location);
+		if (schema instanceof PrimitiveElement prim && prim.asBoolean().isPresent()) {
+			return prim.asBoolean().get() ? ANY : NONE;
+		}
+		throw new IllegalArgumentException("Schema at \""+location+"\" must be an object or a boolean.");
+	}
+	
+	private static int compileTypes(ValueElement typeElem, String location) {
+		if (typeElem == null) return 0;
+		if (typeElem instanceof ArrayElement arr) {
+			int result = 0;
+			for(ValueElement elem : arr) result |= compileTypes(elem, location);
+			return result;
+		}
+		
+		String name = (typeElem instanceof PrimitiveElement prim) ? prim.asString().orElse("") : "";
+		for(int i=0; i<TYPE_NAMES.length; i++) {
+			if (TYPE_NAMES[i].equals(name)) return 1 << i;
+		}
+		throw new IllegalArgumentException("Schema at \""+location+"\" has an unknown type \""+name+"\".");
+	}
+	
+	private static double getNumber(ObjectElement obj, String keyword, double fallback, String location) {
+		ValueElement elem = obj.get(keyword);
+		if (elem == null) return fallback;
+		if (elem instanceof PrimitiveElement prim && prim.asDouble().isPresent()) return prim.asDouble().getAsDouble();
+		throw new IllegalArgumentException("Schema at \""+location+"\" has a \""+keyword+"\" which is not a number.");
+	}
+	
+	private static int getCount(ObjectElement obj, String keyword, int fallback, String location) {
+		ValueElement elem = obj.get(keyword);
+		if (elem == null) return fallback;
+		if (elem instanceof PrimitiveElement prim && prim.asLong().isPresent() && prim.asLong().getAsLong() >= 0) {
+			return (int) Math.min(prim.asLong().getAsLong(), Integer.MAX_VALUE);
+		}
+		throw new IllegalArgumentException("Schema at \""+location+"\" has a \""+keyword+"\" which is not a non-negative integer.");
+	}
+	
+	/**
+	 * Gets the mask of types that a primitive value belongs to. A number with no fractional part is both an integer and
+	 * a number.
+	 */
+	static int typeOf(Object value) {
+		if (value == null) return TYPE_NULL;
+		if (value instanceof Boolean) return TYPE_BOOLEAN;
+		if (value instanceof String || value instanceof byte[]) return TYPE_STRING; // Binary data is written as a base64 String
+		if (value instanceof Number) {
+			return (normalize(value) instanceof Double) ? TYPE_NUMBER : TYPE_INTEGER | TYPE_NUMBER;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Puts numbers in a canonical form so that equal numbers compare equal, no matter how they were written. Whole
+	 * numbers become Longs if they fit, and other numbers become Doubles.
+	 */
+	static Object normalize(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof BigInteger big) {
+			return (big.bitLength() < 64) ? (Object) big.longValue() : big.doubleValue();
+		}
+		if (value instanceof Number num) {
+			double d = num.doubleValue();
+			if (d == Math.rint(d) && Math.abs(d) < 0x1p63) return (long) d;
+			return d;
+		}
+		return value;
+	}
+	
+	/**
+	 * Describes a mask of types, for example "string or null".
+	 */
+	static String describeTypes(int types) {
+		StringBuilder result = new StringBuilder();
+		for(int i=0; i<TYPE_NAMES.length; i++) {
+			int bit = 1 << i;
+			if ((types & bit) == 0) continue;
+			// Every integer is also a number, so only mention integer if numbers in general aren't included
+			if (bit == TYPE_INTEGER && (types & TYPE_NUMBER) != 0) continue;
+			if (result.length() > 0) result.append(" or ");
+			result.append(TYPE_NAMES[i]);
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.schema;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.Locator;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+import blue.endless.jankson.api.io.transform.TransformStage;
+
+/**
+ * Checks data against a {@link Schema} on its way to another writer, so that documents can be validated while they're
+ * being parsed, without building them in memory first. Data is passed along unchanged, and the first problem found
+ * stops the document with an IOException caused by a {@link SyntaxError}.
+ * 
+ * <p>If the validator is given a {@link Locator}, its errors carry the line and column of the token which broke the
+ * schema:
+ * 
+ * <pre>{@code
+ * JsonReader reader = new JsonReader(in);
+ * reader.transferTo(new SchemaValidator(destination, schema, reader.getLocator()));
+ * }</pre>
+ */
+public class SchemaValidator extends TransformStage {
+	private final Schema schema;
+	private final @Nullable Locator locator;
+	
+	private Frame[] frames = new Frame[16];
+	private int depth = 0;
+	
+	/**
+	 * One object or array that the current value is nested inside.
+	 */
+	private static final class Frame {
+		private Schema schema;
+		private boolean isObject;
+		/** The schema for the value of the key most recently seen */
+		private Schema pending;
+		private int items;
+		/** One bit for each required key, set once the key is seen */
+		private long[] seen = new long[1];
+	}
+	
+	public SchemaValidator(StructuredDataWriter downstream, Schema schema) {
+		this(downstream, schema, null);
+	}
+	
+	/**
+	 * Creates a new SchemaValidator.
+	 * @param downstream the writer to send data to
+	 * @param schema     the schema to check data against
+	 * @param locator    reports where the data being checked came from, or null if locations shouldn't be reported
+	 */
+	public SchemaValidator(StructuredDataWriter downstream, Schema schema, @Nullable Locator locator) {
+		super(downstream);
+		this.schema = schema;
+		this.locator = locator;
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		switch(data.type()) {
+			case OBJECT_KEY -> checkKey(data.value().toString());
+			case PRIMITIVE -> checkPrimitive(nextSchema(), data.value());
+			case OBJECT_START -> {
+				Schema s = nextSchema();
+				checkContainer(s, Schema.TYPE_OBJECT);
+				push(s, true);
+			}
+			case ARRAY_START -> {
+				Schema s = nextSchema();
+				checkContainer(s, Schema.TYPE_ARRAY);
+				push(s, false);
+			}
+			case OBJECT_END -> {
+				if (depth > 0) {
+					checkRequired(frames[depth - 1]);
+					depth--;
+				}
+			}
+			case ARRAY_END -> {
+				if (depth > 0) {
+					Frame frame = frames[depth - 1];
+					if (frame.items < frame.schema.minItems) throw violation("Array "+where()+" has "+frame.items+" items, but needs at least "+frame.schema.minItems+".");
+					depth--;
+				}
+			}
+			case EOF -> depth = 0;
+			default -> {}
+		}
+		
+		downstream.write(data);
+	}
+	
+	/**
+	 * Finds the schema for the value which is about to start.
+	 */
+	private Schema nextSchema() throws IOException {
+		if (depth == 0) return schema;
+		
+		Frame frame = frames[depth - 1];
+		if (frame.isObject) {
+			Schema result = frame.pending;
+			frame.pending = null;
+			return (result == null) ? Schema.ANY : result;
+		} else {
+			frame.items++;
+			if (frame.items > frame.schema.maxItems) throw violation("Array "+where(path.depth() - 1)+" has more than "+frame.schema.maxItems+" items.");
+			return frame.schema.items;
+		}
+	}
+	
+	private void checkKey(String key) throws IOException {
+		if (depth == 0 || !frames[depth - 1].isObject) return;
+		Frame frame = frames[depth - 1];
+		
+		Schema.Property property = frame.schema.properties.get(key);
+		if (property == null) {
+			if (frame.schema.additionalProperties == Schema.NONE) throw violation("Key \""+key+"\" is not allowed in the object "+where(path.depth() - 1)+".");
+			frame.pending = frame.schema.additionalProperties;
+		} else {
+			frame.pending = property.schema();
+			int index = property.requiredIndex();
+			if (index >= 0) frame.seen[index >>> 6] |= 1L << index;
+		}
+	}
+	
+	private void checkPrimitive(Schema s, Object value) throws IOException {
+		if (s.rejectAll) throw violation("No value is allowed "+where()+".");
+		
+		int type = Schema.typeOf(value);
+		if (s.types != 0 && (s.types & type) == 0) {
+			throw violation("Expected "+Schema.describeTypes(s.types)+" "+where()+", but found "+Schema.describeTypes(type)+".");
+		}
+		
+		if (s.allowed != null && !s.allowed.contains(Schema.normalize(value))) {
+			throw violation("Value "+where()+" is not one of the allowed values.");
+		}
+		
+		if (value instanceof Number num) {
+			double d = num.doubleValue();
+			if (d < s.minimum) throw violation("Value "+where()+" is less than the minimum of "+s.minimum+".");
+			if (d > s.maximum) throw violation("Value "+where()+" is greater than the maximum of "+s.maximum+".");
+		} else if (value instanceof String str) {
+			if (s.minLength > 0 || s.maxLength < Integer.MAX_VALUE) {
+				int length = str.codePointCount(0, str.length());
+				if (length < s.minLength) throw violation("String "+where()+" is shorter than "+s.minLength+" characters.");
+				if (length > s.maxLength) throw violation("String "+where()+" is longer than "+s.maxLength+" characters.");
+			}
+			if (s.pattern != null && !s.pattern.matcher(str).find()) {
+				throw violation("String "+where()+" does not match the pattern \""+s.pattern.pattern()+"\".");
+			}
+		}
+	}
+	
+	private void checkContainer(Schema s, int type) throws IOException {
+		if (s.rejectAll) throw violation("No value is allowed "+where()+".");
+		if (s.types != 0 && (s.types & type) == 0) {
+			throw violation("Expected "+Schema.describeTypes(s.types)+" "+where()+", but found "+Schema.describeTypes(type)+".");
+		}
+		if (s.allowed != null) throw violation("Value "+where()+" is not one of the allowed values.");
+	}
+	
+	private void checkRequired(Frame frame) throws IOException {
+		String[] required = frame.schema.required;
+		StringBuilder missing = null;
+		for(int i=0; i<required.length; i++) {
+			if ((frame.seen[i >>> 6] & (1L << i)) != 0) continue;
+			
+			if (missing == null) {
+				missing = new StringBuilder();
+			} else {
+				missing.append(", ");
+			}
+			missing.append('"').append(required[i]).append('"');
+		}
+		
+		if (missing != null) throw violation("Object "+where()+" is missing required keys: "+missing+".");
+	}
+	
+	private void push(Schema s, boolean isObject) {
+		if (depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+		Frame frame = frames[depth];
+		if (frame == null) {
+			frame = new Frame();
+			frames[depth] = frame;
+		}
+		depth++;
+		
+		frame.schema = s;
+		frame.isObject = isObject;
+		frame.pending = null;
+		frame.items = 0;
+		int words = (s.required.length + 63) >>> 6;
+		if (frame.seen.length < words) {
+			frame.seen = new long[words];
+		} else {
+			Arrays.fill(frame.seen, 0L);
+		}
+	}
+	
+	/**
+	 * Describes where the current value is, for error messages.
+	 */
+	private String where() {
+		return where(path.depth());
+	}
+	
+	/**
+	 * Describes the location made up of the first few segments of the current path. Keys are written as they are, even
+	 * if they contain dots.
+	 */
+	private String where(int segments) {
+		if (segments <= 0) return "at the document root";
+		
+		StringBuilder result = new StringBuilder("at \"");
+		for(int i=0; i<segments; i++) {
+			if (i > 0) result.append('.');
+			if (path.isIndex(i)) {
+				result.append(path.index(i));
+			} else {
+				result.append(path.key(i));
+			}
+		}
+		return result.append('"').toString();
+	}
+	
+	private IOException violation(String message) {
+		if (locator == null) return new IOException(new SyntaxError(message));
+		return new IOException(new SyntaxError(message, locator.getLine(), locator.getColumn()));
+	}
+}
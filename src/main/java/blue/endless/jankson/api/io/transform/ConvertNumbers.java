@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Converts numeric primitives to a different type.
+ */
+public class ConvertNumbers extends TransformStage {
+	/** Converts every number to a Double. */
+	public static final Function<Number, Object> TO_DOUBLE = Number::doubleValue;
+	/** Converts Doubles with no fractional part, which fit in a long, to Longs. Other numbers are left as they are. */
+	public static final Function<Number, Object> WHOLE_TO_LONG = (it) -> {
+		if (it instanceof Double d && d == Math.rint(d) && d >= Long.MIN_VALUE && d < 0x1p63) return d.longValue();
+		return it;
+	};
+	/** Writes numbers as Strings, in the same form Java would print them. */
+	public static final Function<Number, Object> TO_STRING = Number::toString;
+	
+	private final Predicate<PathTracker> where;
+	private final Function<Number, Object> conversion;
+	
+	/**
+	 * Creates a new ConvertNumbers stage.
+	 * @param downstream the writer to send transformed data to
+	 * @param where      returns true for the paths of numbers which should be converted
+	 * @param conversion produces the new value for a number. The result must be something that can be stored in a
+	 *                   PrimitiveElement.
+	 */
+	public ConvertNumbers(StructuredDataWriter downstream, Predicate<PathTracker> where, Function<Number, Object> conversion) {
+		super(downstream);
+		this.where = where;
+		this.conversion = conversion;
+	}
+	
+	/**
+	 * Creates a ConvertNumbers stage which converts every number in the document.
+	 */
+	public ConvertNumbers(StructuredDataWriter downstream, Function<Number, Object> conversion) {
+		this(downstream, (path) -> true, conversion);
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		if (data.type() == StructuredData.Type.PRIMITIVE && data.value() instanceof Number num && where.test(path)) {
+			Object converted = conversion.apply(num);
+			downstream.write(converted == num ? data : StructuredData.primitive(converted));
+		} else {
+			downstream.write(data);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Removes key-value pairs from objects. The filter is consulted at each key, and sees the path of the value which
+ * belongs to that key; if it returns false, the key and its entire value are dropped.
+ */
+public class FilterKeys extends TransformStage {
+	private final Predicate<PathTracker> keep;
+	
+	public FilterKeys(StructuredDataWriter downstream, Predicate<PathTracker> keep) {
+		super(downstream);
+		this.keep = keep;
+	}
+	
+	/**
+	 * Creates a FilterKeys stage which removes every key matching any of the patterns.
+	 * @see PathTracker#matches(String)
+	 */
+	public static FilterKeys removing(StructuredDataWriter downstream, String... patterns) {
+		return new FilterKeys(downstream, (path) -> {
+			for(String pattern : patterns) {
+				if (path.matches(pattern)) return false;
+			}
+			return true;
+		});
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		if (data.type() == StructuredData.Type.OBJECT_KEY && !keep.test(path)) {
+			discardNextValue();
+		} else {
+			downstream.write(data);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Flattens nested objects into their parents, joining the keys along the way with a separator. So with a separator of
+ * ".", {@code { "a": { "b": 1, "c": 2 } }} becomes {@code { "a.b": 1, "a.c": 2 }}.
+ * 
+ * <p>Arrays are left alone, and each object inside an array is flattened on its own. Empty objects are kept as
+ * values, since there would be nothing left of them otherwise.
+ * 
+ * @see UnflattenKeys
+ */
+public class FlattenKeys extends TransformStage {
+	private static final byte OBJECT = 0;
+	private static final byte FLATTENED = 1;
+	private static final byte ARRAY = 2;
+	
+	private final String separator;
+	
+	private byte[] kinds = new byte[16];
+	private boolean[] written = new boolean[16];
+	private String[] savedPrefixes = new String[16];
+	private int depth = 0;
+	
+	/** The joined keys of the flattened objects we're inside, ending in a separator, or "" */
+	private String prefix = "";
+	/** The full key of the value about to be written, which hasn't been sent yet in case the value is an object */
+	private String pendingKey = null;
+	
+	public FlattenKeys(StructuredDataWriter downstream, String separator) {
+		super(downstream);
+		if (separator.isEmpty()) throw new IllegalArgumentException("Separator cannot be empty");
+		this.separator = separator;
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		switch(data.type()) {
+			case OBJECT_KEY -> pendingKey = prefix + data.value().toString();
+			
+			case OBJECT_START -> {
+				if (pendingKey != null) {
+					// Merge this object into its parent
+					push(FLATTENED);
+					prefix = pendingKey + separator;
+					pendingKey = null;
+				} else {
+					downstream.write(data);
+					push(OBJECT);
+					prefix = "";
+				}
+			}
+			
+			case ARRAY_START -> {
+				writePendingKey();
+				downstream.write(data);
+				push(ARRAY);
+				prefix = "";
+			}
+			
+			case OBJECT_END -> {
+				depth--;
+				boolean wasWritten = written[depth];
+				String innerPrefix = prefix;
+				prefix = savedPrefixes[depth];
+				savedPrefixes[depth] = null;
+				
+				if (kinds[depth] == FLATTENED) {
+					if (!wasWritten) {
+						// Nothing was inside, so write the empty object as a value
+						pendingKey = innerPrefix.substring(0, innerPrefix.length() - separator.length());
+						writePendingKey();
+						downstream.write(StructuredData.OBJECT_START);
+						downstream.write(StructuredData.OBJECT_END);
+					}
+					markWritten();
+				} else {
+					downstream.write(data);
+				}
+			}
+			
+			case ARRAY_END -> {
+				depth--;
+				prefix = savedPrefixes[depth];
+				savedPrefixes[depth] = null;
+				downstream.write(data);
+			}
+			
+			case PRIMITIVE -> {
+				writePendingKey();
+				downstream.write(data);
+			}
+			
+			case EOF -> {
+				depth = 0;
+				prefix = "";
+				pendingKey = null;
+				downstream.write(data);
+			}
+			
+			default -> downstream.write(data);
+		}
+	}
+	
+	private void writePendingKey() throws IOException {
+		if (pendingKey == null) return;
+		downstream.write(StructuredData.objectKey(pendingKey));
+		pendingKey = null;
+		markWritten();
+	}
+	
+	private void markWritten() {
+		if (depth > 0) written[depth - 1] = true;
+	}
+	
+	private void push(byte kind) {
+		if (depth == kinds.length) {
+			kinds = Arrays.copyOf(kinds, depth * 2);
+			written = Arrays.copyOf(written, depth * 2);
+			savedPrefixes = Arrays.copyOf(savedPrefixes, depth * 2);
+		}
+		kinds[depth] = kind;
+		written[depth] = false;
+		savedPrefixes[depth] = prefix;
+		depth++;
+	}
+}
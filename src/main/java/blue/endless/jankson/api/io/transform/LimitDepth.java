@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Rejects documents which are nested too deeply, before the offending data reaches the downstream writer. This puts a
+ * bound on the amount of state that later stages and writers have to keep for untrusted input.
+ */
+public class LimitDepth extends TransformStage {
+	private final int maxDepth;
+	
+	/**
+	 * Creates a new LimitDepth stage.
+	 * @param downstream the writer to send data to
+	 * @param maxDepth   the number of objects and arrays which may be nested inside each other. The root object or array
+	 *                   counts as one.
+	 */
+	public LimitDepth(StructuredDataWriter downstream, int maxDepth) {
+		super(downstream);
+		if (maxDepth < 0) throw new IllegalArgumentException("Maximum depth cannot be negative.");
+		this.maxDepth = maxDepth;
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		switch(data.type()) {
+			case OBJECT_START, ARRAY_START -> {
+				if (path.depth() >= maxDepth) throw new IOException("Document is nested more than "+maxDepth+" levels deep (at \""+path+"\")");
+			}
+			default -> {}
+		}
+		downstream.write(data);
+	}
+}
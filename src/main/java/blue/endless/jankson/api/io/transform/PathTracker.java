@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.util.Arrays;
+
+import blue.endless.jankson.api.io.StructuredData;
+
+/**
+ * Keeps track of where in the document a stream of StructuredData currently is, as a stack of object keys and array
+ * indices. Each level of nesting is stored as one slot of a few parallel arrays, so following along costs no
+ * allocation beyond the occasional resize.
+ * 
+ * <p>Paths are written as their segments joined with '.', where each segment is an object key or an array index. The
+ * root value has the empty path "". For example, in {@code { "a": [ { "b": 1 } ] }}, the 1 is at {@code a.0.b}.
+ * 
+ * <p>Data must be handed to {@link #before(StructuredData)} and then {@link #after(StructuredData)}. In between, the
+ * path identifies:
+ * <ul>
+ *   <li>for OBJECT_KEY, the value which belongs to that key
+ *   <li>for PRIMITIVE, OBJECT_START, and ARRAY_START, that value
+ *   <li>for OBJECT_END and ARRAY_END, the object or array which is ending
+ * </ul>
+ */
+public class PathTracker {
+	private boolean[] isArray = new boolean[16];
+	private String[] keys = new String[16];
+	private int[] indices = new int[16];
+	private int depth = 0;
+	
+	/**
+	 * Updates the path for data which is about to be processed.
+	 */
+	public void before(StructuredData data) {
+		switch(data.type()) {
+			case OBJECT_KEY -> {
+				if (depth > 0) keys[depth - 1] = data.value().toString();
+			}
+			case PRIMITIVE, OBJECT_START, ARRAY_START -> {
+				if (depth > 0 && isArray[depth - 1]) indices[depth - 1]++;
+			}
+			case OBJECT_END, ARRAY_END -> {
+				if (depth > 0) {
+					depth--;
+					keys[depth] = null;
+				}
+			}
+			case EOF -> clear();
+			default -> {}
+		}
+	}
+	
+	/**
+	 * Updates the path for data which has just been processed.
+	 */
+	public void after(StructuredData data) {
+		switch(data.type()) {
+			case OBJECT_START -> push(false);
+			case ARRAY_START -> push(true);
+			default -> {}
+		}
+	}
+	
+	/**
+	 * Forgets the current position, returning to the document root.
+	 */
+	public void clear() {
+		for(int i=0; i<depth; i++) keys[i] = null;
+		depth = 0;
+	}
+	
+	private void push(boolean array) {
+		if (depth == isArray.length) {
+			int newLength = depth * 2;
+			isArray = Arrays.copyOf(isArray, newLength);
+			keys = Arrays.copyOf(keys, newLength);
+			indices = Arrays.copyOf(indices, newLength);
+		}
+		isArray[depth] = array;
+		keys[depth] = null;
+		indices[depth] = -1;
+		depth++;
+	}
+	
+	/**
+	 * Gets the number of segments in the current path. This is also the number of objects and arrays that the current
+	 * value is nested inside.
+	 */
+	public int depth() {
+		return depth;
+	}
+	
+	/**
+	 * Returns true if the given segment of the path is an array index, or false if it's an object key.
+	 */
+	public boolean isIndex(int segment) {
+		return isArray[segment];
+	}
+	
+	/**
+	 * Gets the object key at the given segment of the path, or null if that segment is an array index or no key has been
+	 * seen yet.
+	 */
+	public String key(int segment) {
+		return isArray[segment] ? null : keys[segment];
+	}
+	
+	/**
+	 * Gets the array index at the given segment of the path, or -1 if that segment is an object key.
+	 */
+	public int index(int segment) {
+		return isArray[segment] ? indices[segment] : -1;
+	}
+	
+	/**
+	 * Checks the current path against a pattern. Patterns are paths whose segments may also be {@code *}, which matches
+	 * any one key or index, or {@code **}, which matches any number of segments, including none. So {@code **.password}
+	 * matches a password key at any depth, and {@code users.*.email} matches the email of every user.
+	 */
+	public boolean matches(String pattern) {
+		if (pattern.isEmpty()) return depth == 0;
+		return matchFrom(pattern, 0, 0);
+	}
+	
+	private boolean matchFrom(String pattern, int pos, int segment) {
+		int end = pattern.indexOf('.', pos);
+		if (end == -1) end = pattern.length();
+		boolean last = end == pattern.length();
+		
+		if (end - pos == 2 && pattern.startsWith("**", pos)) {
+			if (last) return true;
+			for(int i=segment; i<=depth; i++) {
+				if (matchFrom(pattern, end + 1, i)) return true;
+			}
+			return false;
+		}
+		
+		if (segment >= depth || !segmentMatches(segment, pattern, pos, end)) return false;
+		return (last) ? segment + 1 == depth : matchFrom(pattern, end + 1, segment + 1);
+	}
+	
+	private boolean segmentMatches(int segment, String pattern, int start, int end) {
+		int len = end - start;
+		if (len == 1 && pattern.charAt(start) == '*') return true;
+		
+		if (isArray[segment]) {
+			if (len == 0 || len > 9) return false;
+			int value = 0;
+			for(int i=start; i<end; i++) {
+				char ch = pattern.charAt(i);
+				if (ch < '0' || ch > '9') return false;
+				value = value * 10 + (ch - '0');
+			}
+			return value == indices[segment];
+		} else {
+			String key = keys[segment];
+			return key != null && key.length() == len && pattern.regionMatches(start, key, 0, len);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for(int i=0; i<depth; i++) {
+			if (i > 0) result.append('.');
+			if (isArray[i]) {
+				result.append(indices[i]);
+			} else if (keys[i] != null) {
+				result.append(keys[i]);
+			}
+		}
+		return result.toString();
+	}
+}
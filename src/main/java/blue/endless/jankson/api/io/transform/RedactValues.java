@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Replaces values with a fixed primitive. If a redacted value is an object or array, the whole thing is replaced.
+ */
+public class RedactValues extends TransformStage {
+	private final Predicate<PathTracker> redact;
+	private final StructuredData replacement;
+	
+	/**
+	 * Creates a new RedactValues stage.
+	 * @param downstream  the writer to send transformed data to
+	 * @param redact      returns true for the paths of values which should be replaced
+	 * @param replacement the value to write instead. Must be something that can be stored in a PrimitiveElement.
+	 */
+	public RedactValues(StructuredDataWriter downstream, Predicate<PathTracker> redact, Object replacement) {
+		super(downstream);
+		this.redact = redact;
+		this.replacement = StructuredData.primitive(replacement);
+	}
+	
+	/**
+	 * Creates a RedactValues stage which replaces every value matching any of the patterns.
+	 * @see PathTracker#matches(String)
+	 */
+	public static RedactValues matching(StructuredDataWriter downstream, Object replacement, String... patterns) {
+		return new RedactValues(downstream, (path) -> {
+			for(String pattern : patterns) {
+				if (path.matches(pattern)) return true;
+			}
+			return false;
+		}, replacement);
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		switch(data.type()) {
+			case PRIMITIVE, OBJECT_START, ARRAY_START -> {
+				if (redact.test(path)) {
+					downstream.write(replacement);
+					discardRestOf(data);
+				} else {
+					downstream.write(data);
+				}
+			}
+			default -> downstream.write(data);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.function.BiFunction;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Renames object keys. The renamer is given the path of the value belonging to each key, along with the key itself,
+ * and returns the key to write in its place.
+ */
+public class RenameKeys extends TransformStage {
+	private final BiFunction<PathTracker, String, String> renamer;
+	
+	public RenameKeys(StructuredDataWriter downstream, BiFunction<PathTracker, String, String> renamer) {
+		super(downstream);
+		this.renamer = renamer;
+	}
+	
+	/**
+	 * Creates a RenameKeys stage which gives every key matching the pattern a new name.
+	 * @see PathTracker#matches(String)
+	 */
+	public static RenameKeys matching(StructuredDataWriter downstream, String pattern, String newName) {
+		return new RenameKeys(downstream, (path, key) -> path.matches(pattern) ? newName : key);
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		if (data.type() == StructuredData.Type.OBJECT_KEY) {
+			String key = data.value().toString();
+			String renamed = renamer.apply(path, key);
+			downstream.write(renamed.equals(key) ? data : StructuredData.objectKey(renamed));
+		} else {
+			downstream.write(data);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import blue.endless.jankson.api.io.Locator;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+import blue.endless.jankson.api.io.schema.Schema;
+import blue.endless.jankson.api.io.schema.SchemaValidator;
+
+/**
+ * Assembles TransformStages into a single StructuredDataWriter. Stages run in the order they're added, so each stage
+ * sees the output of the ones added before it.
+ * 
+ * <pre>{@code
+ * StructuredDataWriter head = new TransformPipeline()
+ *         .stripComments()
+ *         .removeKeys("**.internal")
+ *         .redact("[redacted]", "users.*.password")
+ *         .build(new JsonWriter(out));
+ * 
+ * new JsonReader(in).transferTo(head);
+ * }</pre>
+ * 
+ * <p>A pipeline can be built any number of times, and each time creates fresh stages, so a single pipeline can be set
+ * up once and used to transform many documents, even concurrently.
+ */
+public class TransformPipeline {
+	private final List<UnaryOperator<StructuredDataWriter>> stages = new ArrayList<>();
+	
+	/**
+	 * Adds a stage to the end of the pipeline.
+	 * @param stage a function which creates the stage, given the writer it should send its output to
+	 * @return this pipeline
+	 */
+	public TransformPipeline then(UnaryOperator<StructuredDataWriter> stage) {
+		stages.add(stage);
+		return this;
+	}
+	
+	/** @see StripComments */
+	public TransformPipeline stripComments() {
+		return then(StripComments::new);
+	}
+	
+	/** @see FilterKeys */
+	public TransformPipeline filterKeys(Predicate<PathTracker> keep) {
+		return then((it) -> new FilterKeys(it, keep));
+	}
+	
+	/** @see FilterKeys#removing(StructuredDataWriter, String...) */
+	public TransformPipeline removeKeys(String... patterns) {
+		return then((it) -> FilterKeys.removing(it, patterns));
+	}
+	
+	/** @see RenameKeys */
+	public TransformPipeline renameKeys(BiFunction<PathTracker, String, String> renamer) {
+		return then((it) -> new RenameKeys(it, renamer));
+	}
+	
+	/** @see RenameKeys#matching(StructuredDataWriter, String, String) */
+	public TransformPipeline renameKey(String pattern, String newName) {
+		return then((it) -> RenameKeys.matching(it, pattern, newName));
+	}
+	
+	/** @see RedactValues */
+	public TransformPipeline redact(Predicate<PathTracker> redact, Object replacement) {
+		return then((it) -> new RedactValues(it, redact, replacement));
+	}
+	
+	/** @see RedactValues#matching(StructuredDataWriter, Object, String...) */
+	public TransformPipeline redact(Object replacement, String... patterns) {
+		return then((it) -> RedactValues.matching(it, replacement, patterns));
+	}
+	
+	/** @see ConvertNumbers */
+	public TransformPipeline convertNumbers(Function<Number, Object> conversion) {
+		return then((it) -> new ConvertNumbers(it, conversion));
+	}
+	
+	/** @see FlattenKeys */
+	public TransformPipeline flatten(String separator) {
+		return then((it) -> new FlattenKeys(it, separator));
+	}
+	
+	/** @see UnflattenKeys */
+	public TransformPipeline unflatten(String separator) {
+		return then((it) -> new UnflattenKeys(it, separator));
+	}
+	
+	/** @see LimitDepth */
+	public TransformPipeline limitDepth(int maxDepth) {
+		return then((it) -> new LimitDepth(it, maxDepth));
+	}
+	
+	/** @see SchemaValidator */
+	public TransformPipeline validate(Schema schema) {
+		return then((it) -> new SchemaValidator(it, schema));
+	}
+	
+	/** @see SchemaValidator#SchemaValidator(StructuredDataWriter, Schema, Locator) */
+	public TransformPipeline validate(Schema schema, Locator locator) {
+		return then((it) -> new SchemaValidator(it, schema, locator));
+	}
+	
+	/**
+	 * Creates the stages of this pipeline, connected to each other and to the destination.
+	 * @param destination the writer which will receive the output of the last stage
+	 * @return the writer to send data into. If the pipeline has no stages, this is the destination itself.
+	 */
+	public StructuredDataWriter build(StructuredDataWriter destination) {
+		StructuredDataWriter result = destination;
+		for(int i=stages.size()-1; i>=0; i--) {
+			result = stages.get(i).apply(result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * A StructuredDataWriter which changes data on its way to another writer. Stages follow along with the position in
+ * the document, so they can make decisions based on the {@link PathTracker path} of each value, and only ever look at
+ * one piece of data at a time, so documents of any size can be transformed without holding them in memory.
+ * 
+ * <p>Stages can be chained together by hand, or more conveniently with a {@link TransformPipeline}.
+ */
+public abstract class TransformStage implements StructuredDataWriter {
+	protected final StructuredDataWriter downstream;
+	protected final PathTracker path = new PathTracker();
+	
+	private boolean discardPending = false;
+	private int discardDepth = 0;
+	
+	protected TransformStage(StructuredDataWriter downstream) {
+		this.downstream = downstream;
+	}
+	
+	@Override
+	public void write(StructuredData data) throws IOException {
+		path.before(data);
+		if (data.type() == StructuredData.Type.EOF) {
+			discardPending = false;
+			discardDepth = 0;
+			transform(data);
+		} else if (discardPending || discardDepth > 0) {
+			discard(data);
+		} else {
+			transform(data);
+		}
+		path.after(data);
+	}
+	
+	/**
+	 * Processes one piece of data, usually by writing something to the downstream writer. When this is called, the
+	 * path has already been updated as described in {@link PathTracker}.
+	 */
+	protected abstract void transform(StructuredData data) throws IOException;
+	
+	/**
+	 * Drops the value that comes next, including everything inside it if it's an object or array. Call this while
+	 * handling an OBJECT_KEY to drop the value that belongs to it.
+	 */
+	protected void discardNextValue() {
+		discardPending = true;
+	}
+	
+	/**
+	 * Drops the rest of the value that begins with the data being transformed. For a primitive, there's nothing left to
+	 * drop; for the start of an object or array, everything up to and including the matching end is dropped.
+	 */
+	protected void discardRestOf(StructuredData valueStart) {
+		if (valueStart.type() == StructuredData.Type.OBJECT_START || valueStart.type() == StructuredData.Type.ARRAY_START) {
+			discardDepth = 1;
+		}
+	}
+	
+	private void discard(StructuredData data) {
+		switch(data.type()) {
+			case OBJECT_START, ARRAY_START -> {
+				discardPending = false;
+				discardDepth++;
+			}
+			case OBJECT_END, ARRAY_END -> discardDepth--;
+			case PRIMITIVE -> {
+				if (discardDepth == 0) discardPending = false;
+			}
+			default -> {} // Comments and formatting between a key and its value go with the value
+		}
+	}
+}
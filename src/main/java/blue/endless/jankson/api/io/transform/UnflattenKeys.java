@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.api.io.transform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Splits keys containing a separator into nested objects, reversing {@link FlattenKeys}. So with a separator of ".",
+ * {@code { "a.b": 1, "a.c": 2 }} becomes {@code { "a": { "b": 1, "c": 2 } }}.
+ * 
+ * <p>Because nothing is buffered, keys which share a prefix are only merged into the same object if they're next to
+ * each other. {@code { "a.b": 1, "x": 2, "a.c": 3 }} produces two objects for "a", which most writers will handle by
+ * keeping whichever comes last.
+ */
+public class UnflattenKeys extends TransformStage {
+	private final String separator;
+	
+	/** The names of the objects we've opened for split keys, across all levels of the document */
+	private final List<String> opened = new ArrayList<>();
+	/** For each object or array in the document, the number of entries in {@link #opened} from before it started */
+	private int[] bases = new int[16];
+	private int depth = 0;
+	
+	public UnflattenKeys(StructuredDataWriter downstream, String separator) {
+		super(downstream);
+		if (separator.isEmpty()) throw new IllegalArgumentException("Separator cannot be empty");
+		this.separator = separator;
+	}
+	
+	@Override
+	protected void transform(StructuredData data) throws IOException {
+		switch(data.type()) {
+			case OBJECT_KEY -> writeKey(data);
+			
+			case OBJECT_START, ARRAY_START -> {
+				downstream.write(data);
+				if (depth == bases.length) bases = Arrays.copyOf(bases, depth * 2);
+				bases[depth++] = opened.size();
+			}
+			
+			case OBJECT_END, ARRAY_END -> {
+				depth--;
+				closeTo(bases[depth]);
+				downstream.write(data);
+			}
+			
+			case EOF -> {
+				opened.clear();
+				depth = 0;
+				downstream.write(data);
+			}
+			
+			default -> downstream.write(data);
+		}
+	}
+	
+	private void writeKey(StructuredData data) throws IOException {
+		String key = data.value().toString();
+		int base = (depth > 0) ? bases[depth - 1] : 0;
+		
+		int end = key.indexOf(separator);
+		if (end == -1) {
+			closeTo(base);
+			downstream.write(data);
+			return;
+		}
+		
+		// Walk down the objects that are already open, as long as they match the key
+		int level = base;
+		int start = 0;
+		while(end != -1 && level < opened.size() && key.regionMatches(start, opened.get(level), 0, end - start) && opened.get(level).length() == end - start) {
+			level++;
+			start = end + separator.length();
+			end = key.indexOf(separator, start);
+		}
+		closeTo(level);
+		
+		// Open objects for the rest
+		while(end != -1) {
+			String segment = key.substring(start, end);
+			downstream.write(StructuredData.objectKey(segment));
+			downstream.write(StructuredData.OBJECT_START);
+			opened.add(segment);
+			start = end + separator.length();
+			end = key.indexOf(separator, start);
+		}
+		
+		downstream.write(StructuredData.objectKey(key.substring(start)));
+	}
+	
+	private void closeTo(int size) throws IOException {
+		while(opened.size() > size) {
+			opened.removeLast();
+			downstream.write(StructuredData.OBJECT_END);
+		}
+	}
+}
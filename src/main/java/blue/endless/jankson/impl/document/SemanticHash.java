@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.document;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+
+/**
+ * Compares ValueElements by the data they represent, ignoring comments and formatting. Hashes are cached for every
+ * element visited, so that comparing two large trees that differ only slightly can skip over the subtrees which are
+ * unchanged without walking them more than once.
+ * 
+ * <p>Because elements are mutable, the cache is only valid while the elements being compared are not modified. A
+ * SemanticHash should be created for one operation and then thrown away.
+ */
+public class SemanticHash {
+	private final Map<ValueElement, Integer> cache = new IdentityHashMap<>();
+	
+	public int hash(ValueElement value) {
+		Integer cached = cache.get(value);
+		if (cached != null) return cached;
+		
+		int result;
+		if (value instanceof ObjectElement obj) {
+			// Key order doesn't matter, so combine the entries in an order-independent way
+			result = 0x0B1EC7;
+			for(Map.Entry<String, ValueElement> entry : obj.entrySet()) {
+				result += entry.getKey().hashCode() ^ (hash(entry.getValue()) * 31);
+			}
+		} else if (value instanceof ArrayElement arr) {
+			result = 0xA4;
+			for(ValueElement elem : arr) {
+				result = result * 31 + hash(elem);
+			}
+		} else if (value instanceof PrimitiveElement prim) {
+			Object primValue = prim.getValue().orElse(null);
+			result = (primValue instanceof byte[] bytes) ? Arrays.hashCode(bytes) : Objects.hashCode(primValue);
+		} else {
+			result = 0;
+		}
+		
+		cache.put(value, result);
+		return result;
+	}
+	
+	/**
+	 * Returns true if the two values represent the same data, ignoring comments and formatting. A null value represents
+	 * a value that is absent, which is only equal to another absent value.
+	 */
+	public boolean equals(@Nullable ValueElement a, @Nullable ValueElement b) {
+		if (a == b) return true;
+		if (a == null || b == null) return false;
+		if (hash(a) != hash(b)) return false;
+		
+		if (a instanceof PrimitiveElement primA && b instanceof PrimitiveElement primB) {
+			if (primA.isNull() || primB.isNull()) return primA.isNull() && primB.isNull();
+			return Objects.deepEquals(primA.getValue().orElse(null), primB.getValue().orElse(null));
+		} else if (a instanceof ObjectElement objA && b instanceof ObjectElement objB) {
+			if (objA.size() != objB.size()) return false;
+			for(Map.Entry<String, ValueElement> entry : objA.entrySet()) {
+				ValueElement other = objB.get(entry.getKey());
+				if (other == null || !equals(entry.getValue(), other)) return false;
+			}
+			return true;
+		} else if (a instanceof ArrayElement arrA && b instanceof ArrayElement arrB) {
+			if (arrA.size() != arrB.size()) return false;
+			for(int i=0; i<arrA.size(); i++) {
+				if (!equals(arrA.get(i), arrB.get(i))) return false;
+			}
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns true if the two values represent the same data, ignoring comments and formatting.
+	 */
+	public static boolean semanticEquals(@Nullable ValueElement a, @Nullable ValueElement b) {
+		return new SemanticHash().equals(a, b);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.document;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.document.patch.JsonPointer;
+
+/**
+ * Finds the differences between two document trees, ignoring comments and formatting. Locations are reported as
+ * RFC 6901 json pointers, with the empty String representing the document root.
+ */
+public class StructuralDiff {
+	
+	@FunctionalInterface
+	public static interface ChangeConsumer {
+		public void accept(String pointer, @Nullable ValueElement oldValue, @Nullable ValueElement newValue);
+	}
+	
+	/**
+	 * Reports the differences between oldValue and newValue, descending into objects and arrays so that only the
+	 * smallest changed values are reported. A null value represents a value that is absent, not a json null.
+	 */
+	public static void diff(@Nullable ValueElement oldValue, @Nullable ValueElement newValue, ChangeConsumer consumer) {
+		diff(new SemanticHash(), "", oldValue, newValue, consumer);
+	}
+	
+	private static void diff(SemanticHash hasher, String pointer, @Nullable ValueElement oldValue, @Nullable ValueElement newValue, ChangeConsumer consumer) {
+		if (hasher.equals(oldValue, newValue)) return;
+		
+		if (oldValue instanceof ObjectElement oldObj && newValue instanceof ObjectElement newObj) {
+			for(String key : oldObj.keySet()) {
+				diff(hasher, pointer+"/"+JsonPointer.escape(key), oldObj.get(key), newObj.get(key), consumer);
+			}
+			for(String key : newObj.keySet()) {
+				if (!oldObj.containsKey(key)) consumer.accept(pointer+"/"+JsonPointer.escape(key), null, newObj.get(key));
+			}
+		} else if (oldValue instanceof ArrayElement oldArr && newValue instanceof ArrayElement newArr) {
+			int common = Math.min(oldArr.size(), newArr.size());
+			for(int i=0; i<common; i++) {
+				diff(hasher, pointer+"/"+i, oldArr.get(i), newArr.get(i), consumer);
+			}
+			for(int i=common; i<oldArr.size(); i++) {
+				consumer.accept(pointer+"/"+i, oldArr.get(i), null);
+			}
+			for(int i=common; i<newArr.size(); i++) {
+				consumer.accept(pointer+"/"+i, null, newArr.get(i));
+			}
+		} else {
+			consumer.accept(pointer, oldValue, newValue);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.document.patch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.document.patch.JsonPointer;
+import blue.endless.jankson.api.document.patch.PatchOperation;
+import blue.endless.jankson.impl.document.SemanticHash;
+
+/**
+ * Computes json patches. Objects are compared member-by-member, and arrays are matched up with a longest common
+ * subsequence so that insertions and deletions don't cascade into replacing every element after them. For very large
+ * arrays, where the LCS table would be too big, only elements whose hash is unique on both sides are used as anchors,
+ * in the style of a patience diff.
+ */
+public class PatchGenerator {
+	/** The largest LCS table we're willing to build, in cells. */
+	private static final long LCS_LIMIT = 1L << 20;
+	
+	private final SemanticHash hasher = new SemanticHash();
+	private final List<PatchOperation> operations = new ArrayList<>();
+	
+	public static List<PatchOperation> diff(ValueElement source, ValueElement target) {
+		PatchGenerator generator = new PatchGenerator();
+		generator.diff(JsonPointer.ROOT, source, target);
+		return generator.operations;
+	}
+	
+	private void diff(JsonPointer path, ValueElement source, ValueElement target) {
+		if (hasher.equals(source, target)) return;
+		
+		if (source instanceof ObjectElement sourceObj && target instanceof ObjectElement targetObj) {
+			Map<String, ValueElement> targetEntries = new HashMap<>();
+			for(Map.Entry<String, ValueElement> entry : targetObj.entrySet()) targetEntries.putIfAbsent(entry.getKey(), entry.getValue());
+			
+			Set<String> sourceKeys = new HashSet<>();
+			for(Map.Entry<String, ValueElement> entry : sourceObj.entrySet()) {
+				sourceKeys.add(entry.getKey());
+				ValueElement targetValue = targetEntries.get(entry.getKey());
+				if (targetValue == null) {
+					operations.add(PatchOperation.remove(path.append(entry.getKey())));
+				} else {
+					diff(path.append(entry.getKey()), entry.getValue(), targetValue);
+				}
+			}
+			
+			for(Map.Entry<String, ValueElement> entry : targetObj.entrySet()) {
+				if (!sourceKeys.contains(entry.getKey())) {
+					operations.add(PatchOperation.add(path.append(entry.getKey()), copy(entry.getValue())));
+				}
+			}
+		} else if (source instanceof ArrayElement sourceArr && target instanceof ArrayElement targetArr) {
+			diffArray(path, sourceArr, targetArr);
+		} else {
+			operations.add(PatchOperation.replace(path, copy(target)));
+		}
+	}
+	
+	private void diffArray(JsonPointer path, ArrayElement source, ArrayElement target) {
+		// Trim the unchanged prefix and suffix; most edits are small and local.
+		int start = 0;
+		int sourceEnd = source.size();
+		int targetEnd = target.size();
+		while(start < sourceEnd && start < targetEnd && hasher.equals(source.get(start), target.get(start))) start++;
+		while(sourceEnd > start && targetEnd > start && hasher.equals(source.get(sourceEnd-1), target.get(targetEnd-1))) {
+			sourceEnd--;
+			targetEnd--;
+		}
+		
+		int[] sourceHashes = new int[sourceEnd - start];
+		int[] targetHashes = new int[targetEnd - start];
+		for(int i=0; i<sourceHashes.length; i++) sourceHashes[i] = hasher.hash(source.get(start + i));
+		for(int i=0; i<targetHashes.length; i++) targetHashes[i] = hasher.hash(target.get(start + i));
+		
+		int[][] anchors = ((long) sourceHashes.length * targetHashes.length <= LCS_LIMIT) ?
+				longestCommonSubsequence(source, sourceHashes, target, targetHashes, start) :
+				uniqueAnchors(source, sourceHashes, target, targetHashes, start);
+		
+		// Anything between anchors has changed. Pair up changed elements to diff them in place, then remove or add
+		// whatever is left over. "index" tracks where we are in the array as it's being patched.
+		int sourceIndex = start;
+		int targetIndex = start;
+		int index = start;
+		for(int[] anchor : anchors) {
+			index = diffRun(path, source, sourceIndex, start + anchor[0], target, targetIndex, start + anchor[1], index);
+			index++;
+			sourceIndex = start + anchor[0] + 1;
+			targetIndex = start + anchor[1] + 1;
+		}
+		diffRun(path, source, sourceIndex, sourceEnd, target, targetIndex, targetEnd, index);
+	}
+	
+	private int diffRun(JsonPointer path, ArrayElement source, int sourceFrom, int sourceTo, ArrayElement target, int targetFrom, int targetTo, int index) {
+		int paired = Math.min(sourceTo - sourceFrom, targetTo - targetFrom);
+		for(int i=0; i<paired; i++) {
+			diff(path.append(index), source.get(sourceFrom + i), target.get(targetFrom + i));
+			index++;
+		}
+		for(int i=sourceFrom + paired; i<sourceTo; i++) {
+			operations.add(PatchOperation.remove(path.append(index)));
+		}
+		for(int i=targetFrom + paired; i<targetTo; i++) {
+			operations.add(PatchOperation.add(path.append(index), copy(target.get(i))));
+			index++;
+		}
+		return index;
+	}
+	
+	/**
+	 * Finds the pairs of matching indices, relative to offset, which make up the longest common subsequence.
+	 */
+	private int[][] longestCommonSubsequence(ArrayElement source, int[] sourceHashes, ArrayElement target, int[] targetHashes, int offset) {
+		int n = sourceHashes.length;
+		int m = targetHashes.length;
+		if (n == 0 || m == 0) return new int[0][];
+		
+		// table[i][j] is the LCS length of source[i..] and target[j..]
+		int stride = m + 1;
+		int[] table = new int[(n + 1) * stride];
+		for(int i=n-1; i>=0; i--) {
+			for(int j=m-1; j>=0; j--) {
+				if (sourceHashes[i] == targetHashes[j] && hasher.equals(source.get(offset + i), target.get(offset + j))) {
+					table[i*stride + j] = table[(i+1)*stride + j + 1] + 1;
+				} else {
+					table[i*stride + j] = Math.max(table[(i+1)*stride + j], table[i*stride + j + 1]);
+				}
+			}
+		}
+		
+		int[][] result = new int[table[0]][];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while(i < n && j < m) {
+			if (sourceHashes[i] == targetHashes[j] && table[i*stride + j] == table[(i+1)*stride + j + 1] + 1 && hasher.equals(source.get(offset + i), target.get(offset + j))) {
+				result[count++] = new int[] { i, j };
+				i++;
+				j++;
+			} else if (table[(i+1)*stride + j] >= table[i*stride + j + 1]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Matches up elements whose hashes appear exactly once on each side, then keeps the longest increasing run of
+	 * those matches. This doesn't find the best possible alignment, but runs in O(n log n).
+	 */
+	private int[][] uniqueAnchors(ArrayElement source, int[] sourceHashes, ArrayElement target, int[] targetHashes, int offset) {
+		Map<Integer, Integer> sourceUnique = uniqueIndices(sourceHashes);
+		Map<Integer, Integer> targetUnique = uniqueIndices(targetHashes);
+		
+		List<int[]> candidates = new ArrayList<>();
+		for(int i=0; i<sourceHashes.length; i++) {
+			Integer sourceIndex = sourceUnique.get(sourceHashes[i]);
+			Integer targetIndex = targetUnique.get(sourceHashes[i]);
+			if (sourceIndex != null && sourceIndex == i && targetIndex != null && hasher.equals(source.get(offset + i), target.get(offset + targetIndex))) {
+				candidates.add(new int[] { i, targetIndex });
+			}
+		}
+		
+		// Longest increasing subsequence on the target indices, by patience sorting
+		int[] tails = new int[candidates.size()];
+		int[] previous = new int[candidates.size()];
+		int length = 0;
+		for(int c=0; c<candidates.size(); c++) {
+			int j = candidates.get(c)[1];
+			int lo = 0;
+			int hi = length;
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (candidates.get(tails[mid])[1] < j) lo = mid + 1; else hi = mid;
+			}
+			previous[c] = (lo > 0) ? tails[lo - 1] : -1;
+			tails[lo] = c;
+			if (lo == length) length++;
+		}
+		
+		int[][] result = new int[length][];
+		int c = (length > 0) ? tails[length - 1] : -1;
+		for(int k=length-1; k>=0; k--) {
+			result[k] = candidates.get(c);
+			c = previous[c];
+		}
+		return result;
+	}
+	
+	/**
+	 * Maps each hash which appears exactly once to its index.
+	 */
+	private static Map<Integer, Integer> uniqueIndices(int[] hashes) {
+		Map<Integer, Integer> result = new HashMap<>();
+		Set<Integer> duplicates = new HashSet<>();
+		for(int i=0; i<hashes.length; i++) {
+			if (result.putIfAbsent(hashes[i], i) != null) duplicates.add(hashes[i]);
+		}
+		for(Integer hash : duplicates) result.remove(hash);
+		return result;
+	}
+	
+	private static ValueElement copy(ValueElement value) {
+		return value.clone().stripAllFormatting();
+	}
+}
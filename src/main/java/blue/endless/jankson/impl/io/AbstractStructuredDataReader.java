@@ -26,34 +26,32 @@ package blue.endless.jankson.impl.io;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
 import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.api.io.StructuredDataReader;
-import blue.endless.jankson.impl.io.context.ParserContext;
+import blue.endless.jankson.api.io.StructuredDataWriter;
 
 public abstract class AbstractStructuredDataReader implements StructuredDataReader {
 	protected final LookaheadCodePointReader src;
 	protected final StructuredDataPipe readQueue = new StructuredDataPipe();
-	private final Deque<ParserContext> contextStack = new ArrayDeque<>();
+	/**
+	 * Where parsed data should be sent. Normally this is the readQueue, but during
+	 * {@link #transferTo(StructuredDataWriter)} it batches data up for the destination writer, so that data is handed off
+	 * without being queued. EOF is always pushed onto the readQueue, so that it can be reported again to anyone who asks.
+	 */
+	protected StructuredDataWriter output = readQueue;
+	/**
+	 * If false, {@link #transferTo(StructuredDataWriter)} hands data to the destination as soon as it's parsed, instead of
+	 * in batches. Readers which report the location of each piece of data turn this off while that location is in use,
+	 * since otherwise the reader is usually well past the data by the time it arrives.
+	 */
+	protected boolean batchTransfers = true;
+	private BatchingWriter batch;
 	
 	public AbstractStructuredDataReader(Reader src) {
 		this.src = new LookaheadCodePointReader(src);
 	}
 	
-	protected ParserContext getContext() {
-		return contextStack.peek();
-	}
-	
-	protected void pushContext(ParserContext context) {
-		contextStack.push(context);
-	}
-	
-	protected void popContext() {
-		contextStack.pop();
-	}
-	
 	protected void enqueueOutput(StructuredData.Type elem, Object obj) {
 		readQueue.push(elem, obj);
 	}
@@ -74,6 +72,17 @@ public abstract class AbstractStructuredDataReader implements StructuredDataRead
 	
 	protected abstract void readNext() throws IOException;
 	
+	/**
+	 * Discards all parser state and starts reading a new document from the specified source, so that this reader and
+	 * its buffers can be reused instead of creating a new reader for every document. The previous source is not closed.
+	 * Subclasses with state of their own should override this method and call super.
+	 */
+	public void reset(Reader source) {
+		src.reset(source);
+		readQueue.clear();
+		output = readQueue;
+	}
+	
 	@Override
 	public boolean hasNext() {
 		if (readQueue.isEmpty()) return true;
@@ -92,4 +101,53 @@ public abstract class AbstractStructuredDataReader implements StructuredDataRead
 			return StructuredData.EOF;
 		}
 	}
+	
+	/**
+	 * Parses the rest of the document, sending data straight to the writer, usually in batches, instead of queueing it
+	 * up for {@link #next()}. Anything already queued is written first, and the document is finished off with EOF,
+	 * unless EOF was already reached before this method was called.
+	 */
+	@Override
+	public void transferTo(StructuredDataWriter writer) throws IOException {
+		while(!readQueue.isEmpty()) {
+			if (readQueue.isEof()) return;
+			writer.write(readQueue.pop());
+		}
+		
+		if (!batchTransfers) {
+			output = writer;
+			try {
+				while(readQueue.isEmpty()) readNext();
+				writer.write(StructuredData.EOF);
+			} finally {
+				output = readQueue;
+			}
+			return;
+		}
+		
+		if (batch == null) {
+			batch = new BatchingWriter(writer);
+		} else {
+			batch.setDestination(writer);
+		}
+		
+		output = batch;
+		try {
+			// Only EOF lands in the queue now
+			while(readQueue.isEmpty()) readNext();
+			batch.write(StructuredData.EOF);
+		} catch (IOException | RuntimeException ex) {
+			// Anything parsed before the problem still gets delivered
+			output = readQueue;
+			try {
+				batch.flush();
+			} catch (IOException suppressed) {
+				ex.addSuppressed(suppressed);
+			}
+			throw ex;
+		}
+		
+		output = readQueue;
+		batch.flush();
+	}
 }
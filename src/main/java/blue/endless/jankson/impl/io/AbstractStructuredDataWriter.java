@@ -35,7 +35,7 @@ import blue.endless.jankson.api.io.StructuredDataWriter;
  * Helper class that handles state consistency for StructuredDataWriters.
  */
 public abstract class AbstractStructuredDataWriter implements StructuredDataWriter {
-	protected final Writer dest;
+	protected Writer dest;
 	protected Deque<State> context = new ArrayDeque<>();
 	protected boolean rootWritten = false;
 	
@@ -44,6 +44,18 @@ public abstract class AbstractStructuredDataWriter implements StructuredDataWrit
 		context.push(State.ROOT);
 	}
 	
+	/**
+	 * Discards all writer state and starts a new document on the specified destination, so that this writer can be
+	 * reused instead of creating a new writer for every document. The previous destination is not flushed or closed.
+	 * Subclasses with state of their own should override this method and call super.
+	 */
+	public void reset(Writer writer) {
+		this.dest = writer;
+		context.clear();
+		context.push(State.ROOT);
+		rootWritten = false;
+	}
+	
 	/**
 	 * Throws an exception if we're not ready to write a key
 	 */
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.ObjectWriter;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataReader;
+
+/**
+ * Spliterator which binds the elements of one array in a StructuredData stream, one at a time. Each element is
+ * unpacked with a fresh ObjectWriter and handed off before the next element is read, so only one element is ever held
+ * in memory. If a path is given, the array is found by descending through object keys; otherwise the document root
+ * must be the array.
+ * 
+ * <p>This Spliterator cannot be split. Splitting would require buffering elements ahead of the consumer, which is
+ * exactly what we're trying to avoid.
+ */
+public class ArrayElementSpliterator<T> implements Spliterator<T> {
+	private final StructuredDataReader reader;
+	private final Type elementType;
+	private final String[] path;
+	private boolean started = false;
+	private boolean finished = false;
+	
+	public ArrayElementSpliterator(StructuredDataReader reader, Type elementType, String... path) {
+		this.reader = reader;
+		this.elementType = elementType;
+		this.path = path;
+	}
+	
+	private StructuredData nextSemantic() throws IOException {
+		while(reader.hasNext()) {
+			StructuredData data = reader.next();
+			if (data.type().isSemantic()) return data;
+		}
+		return StructuredData.EOF;
+	}
+	
+	/**
+	 * Consumes and discards the value which starts with the data provided.
+	 */
+	private void skipValue(StructuredData start) throws IOException {
+		if (start.type() != StructuredData.Type.OBJECT_START && start.type() != StructuredData.Type.ARRAY_START) return;
+		
+		int depth = 1;
+		while(depth > 0) {
+			StructuredData data = nextSemantic();
+			switch(data.type()) {
+				case OBJECT_START, ARRAY_START -> depth++;
+				case OBJECT_END, ARRAY_END -> depth--;
+				case EOF -> throw new IOException(new SyntaxError("Stream ended in the middle of a value."));
+				default -> {}
+			}
+		}
+	}
+	
+	private void seekArray() throws IOException {
+		for(String key : path) {
+			StructuredData data = nextSemantic();
+			if (data.type() != StructuredData.Type.OBJECT_START) {
+				throw new IOException(new SyntaxError("Expected an object while looking for key \""+key+"\", found "+data.type().name()));
+			}
+			
+			while(true) {
+				data = nextSemantic();
+				if (data.type() == StructuredData.Type.OBJECT_END || data.type() == StructuredData.Type.EOF) {
+					throw new IOException(new SyntaxError("Could not find the key \""+key+"\"."));
+				}
+				
+				if (data.type() == StructuredData.Type.OBJECT_KEY && key.equals(data.value())) break;
+				
+				// Not our key. Skip over its value.
+				skipValue(nextSemantic());
+			}
+		}
+		
+		StructuredData data = nextSemantic();
+		if (data.type() != StructuredData.Type.ARRAY_START) {
+			throw new IOException(new SyntaxError("Expected an array, found "+data.type().name()));
+		}
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (finished) return false;
+		
+		try {
+			if (!started) {
+				started = true;
+				seekArray();
+			}
+			
+			StructuredData data = nextSemantic();
+			switch(data.type()) {
+				case ARRAY_END -> {
+					finished = true;
+					return false;
+				}
+				case EOF -> throw new IOException(new SyntaxError("Stream ended before the end of the array."));
+				case OBJECT_KEY, OBJECT_END -> throw new IOException(new SyntaxError("Expected an array element, found "+data.type().name()));
+				default -> {}
+			}
+			
+			ObjectWriter<T> writer = new ObjectWriter<>(elementType);
+			writer.write(data);
+			if (data.type() != StructuredData.Type.PRIMITIVE) {
+				int depth = 1;
+				while(depth > 0) {
+					StructuredData cur = reader.next();
+					switch(cur.type()) {
+						case OBJECT_START, ARRAY_START -> depth++;
+						case OBJECT_END, ARRAY_END -> depth--;
+						case EOF -> throw new IOException(new SyntaxError("Stream ended in the middle of an array element."));
+						default -> {}
+					}
+					writer.write(cur);
+				}
+			}
+			writer.write(StructuredData.EOF);
+			
+			action.accept(writer.toObject());
+			return true;
+		} catch (IOException ex) {
+			finished = true;
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	@Override
+	public Spliterator<T> trySplit() {
+		return null;
+	}
+	
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+	
+	@Override
+	public int characteristics() {
+		return Spliterator.ORDERED;
+	}
+}
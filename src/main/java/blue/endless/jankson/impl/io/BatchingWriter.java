@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+
+/**
+ * Collects data written to it into batches, and hands each batch to another writer all at once with
+ * {@link StructuredDataWriter#write(StructuredData[], int, int)}. Readers use this during transferTo so that parsers can
+ * keep emitting one element at a time while the destination receives them in bulk.
+ * 
+ * <p>Nothing reaches the destination until the batch fills up or {@link #flush()} is called.
+ */
+public class BatchingWriter implements StructuredDataWriter {
+	public static final int BATCH_SIZE = 256;
+	
+	private final StructuredData[] batch = new StructuredData[BATCH_SIZE];
+	private int size = 0;
+	private StructuredDataWriter destination;
+	
+	public BatchingWriter(StructuredDataWriter destination) {
+		this.destination = destination;
+	}
+	
+	/**
+	 * Sends any batched data to the current destination, and then directs future data to a new one.
+	 */
+	public void setDestination(StructuredDataWriter destination) throws IOException {
+		flush();
+		this.destination = destination;
+	}
+	
+	@Override
+	public void write(StructuredData data) throws IOException {
+		batch[size++] = data;
+		if (size == BATCH_SIZE) flush();
+	}
+	
+	@Override
+	public void write(StructuredData[] data, int off, int len) throws IOException {
+		if (len >= BATCH_SIZE) {
+			// Not worth copying
+			flush();
+			destination.write(data, off, len);
+			return;
+		}
+		
+		if (size + len > BATCH_SIZE) flush();
+		System.arraycopy(data, off, batch, size, len);
+		size += len;
+	}
+	
+	/**
+	 * Sends any batched data to the destination.
+	 */
+	public void flush() throws IOException {
+		if (size == 0) return;
+		int len = size;
+		size = 0;
+		destination.write(batch, 0, len);
+		Arrays.fill(batch, 0, len, null);
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+/**
+ * Constants and helpers for Jankson's binary StructuredData format.
+ * 
+ * <p>A stream starts with the four magic bytes "JNKB", a version byte, and a flags byte. After that, each
+ * StructuredData is one tag byte followed by its payload, if any:
+ * <ul>
+ *   <li>Longs are zigzag-encoded base-128 varints, least significant group first
+ *   <li>Doubles are the eight bytes of their raw IEEE 754 bits, big-endian
+ *   <li>Strings are a varint byte length followed by UTF-8 data
+ *   <li>Binary data is a varint byte length followed by the bytes themselves
+ *   <li>Object keys are either a new key (a String, which is then added to the key dictionary), or a varint index
+ *       into the key dictionary
+ *   <li>Comments are a CommentType ordinal byte followed by a String
+ * </ul>
+ * The stream ends with the EOF tag.
+ */
+public class BinaryFormat {
+	public static final byte[] MAGIC = { 'J', 'N', 'K', 'B' };
+	public static final int VERSION = 1;
+	
+	/** Set in the header if comments and formatting were written into this stream. */
+	public static final int FLAG_FORMATTING = 0x01;
+	
+	/** The most keys the dictionary will remember. After this, new keys are always written inline. */
+	public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+	
+	public static final int TAG_EOF          = 0x00;
+	public static final int TAG_OBJECT_START = 0x01;
+	public static final int TAG_OBJECT_END   = 0x02;
+	public static final int TAG_ARRAY_START  = 0x03;
+	public static final int TAG_ARRAY_END    = 0x04;
+	public static final int TAG_NULL         = 0x05;
+	public static final int TAG_FALSE        = 0x06;
+	public static final int TAG_TRUE         = 0x07;
+	public static final int TAG_LONG         = 0x08;
+	public static final int TAG_DOUBLE       = 0x09;
+	public static final int TAG_STRING       = 0x0A;
+	public static final int TAG_KEY          = 0x0B;
+	public static final int TAG_KEY_REF      = 0x0C;
+	public static final int TAG_COMMENT      = 0x0D;
+	public static final int TAG_WHITESPACE   = 0x0E;
+	public static final int TAG_NEWLINE      = 0x0F;
+	public static final int TAG_BINARY       = 0x10;
+	
+	public static long zigzagEncode(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	public static long zigzagDecode(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	/**
+	 * Counts the number of bytes needed to encode a String as UTF-8. Unpaired surrogates count as the three-byte
+	 * replacement character, matching what {@link #encodeUtf8(String, byte[], int)} writes.
+	 */
+	public static int utf8Length(String s) {
+		int result = 0;
+		for(int i=0; i<s.length(); i++) {
+			char ch = s.charAt(i);
+			if (ch < 0x80) {
+				result++;
+			} else if (ch < 0x800) {
+				result += 2;
+			} else if (Character.isHighSurrogate(ch) && i+1 < s.length() && Character.isLowSurrogate(s.charAt(i+1))) {
+				result += 4;
+				i++;
+			} else {
+				result += 3;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Encodes a String as UTF-8 directly from its chars, without an intermediate byte array. The destination must have
+	 * at least {@link #utf8Length(String)} bytes of room.
+	 * @return the offset just past the last byte written
+	 */
+	public static int encodeUtf8(String s, byte[] dest, int offset) {
+		int pos = offset;
+		for(int i=0; i<s.length(); i++) {
+			char ch = s.charAt(i);
+			if (ch < 0x80) {
+				dest[pos++] = (byte) ch;
+			} else if (ch < 0x800) {
+				dest[pos++] = (byte) (0xC0 | (ch >> 6));
+				dest[pos++] = (byte) (0x80 | (ch & 0x3F));
+			} else if (Character.isHighSurrogate(ch) && i+1 < s.length() && Character.isLowSurrogate(s.charAt(i+1))) {
+				int codePoint = Character.toCodePoint(ch, s.charAt(++i));
+				dest[pos++] = (byte) (0xF0 | (codePoint >> 18));
+				dest[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				dest[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				dest[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else {
+				if (Character.isSurrogate(ch)) ch = '\uFFFD';
+				dest[pos++] = (byte) (0xE0 | (ch >> 12));
+				dest[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+				dest[pos++] = (byte) (0x80 | (ch & 0x3F));
+			}
+		}
+		return pos;
+	}
+}
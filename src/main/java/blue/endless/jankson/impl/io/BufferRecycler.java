@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds on to a small number of spare char and byte buffers so that short-lived readers don't need to allocate new ones.
+ * Buffers are kept in a fixed set of slots which are claimed and refilled with atomic swaps, so any thread can return a
+ * buffer that a different thread took out. Nothing here is tied to a thread, which keeps it safe to use from virtual
+ * threads that come and go with each message.
+ * 
+ * <p>A buffer must not be used after it has been released. If every slot is empty, a new buffer is allocated, and if
+ * every slot is full, a released buffer is simply dropped.
+ */
+public final class BufferRecycler {
+	public static final int CHAR_BUFFER_SIZE = 4096;
+	public static final int BYTE_BUFFER_SIZE = 8192;
+	
+	private static final int SLOTS = Integer.highestOneBit(Math.max(2, Runtime.getRuntime().availableProcessors()) * 4);
+	
+	private static final AtomicReferenceArray<char[]> charBuffers = new AtomicReferenceArray<>(SLOTS);
+	private static final AtomicReferenceArray<byte[]> byteBuffers = new AtomicReferenceArray<>(SLOTS);
+	
+	private BufferRecycler() {}
+	
+	/**
+	 * Gets a char buffer of length {@link #CHAR_BUFFER_SIZE}. Its contents are unspecified.
+	 */
+	public static char[] acquireChars() {
+		char[] result = acquire(charBuffers);
+		return (result == null) ? new char[CHAR_BUFFER_SIZE] : result;
+	}
+	
+	/**
+	 * Returns a buffer obtained from {@link #acquireChars()} so that it can be used again.
+	 */
+	public static void releaseChars(char[] buffer) {
+		if (buffer.length == CHAR_BUFFER_SIZE) release(charBuffers, buffer);
+	}
+	
+	/**
+	 * Gets a byte buffer of length {@link #BYTE_BUFFER_SIZE}. Its contents are unspecified.
+	 */
+	public static byte[] acquireBytes() {
+		byte[] result = acquire(byteBuffers);
+		return (result == null) ? new byte[BYTE_BUFFER_SIZE] : result;
+	}
+	
+	/**
+	 * Returns a buffer obtained from {@link #acquireBytes()} so that it can be used again.
+	 */
+	public static void releaseBytes(byte[] buffer) {
+		if (buffer.length == BYTE_BUFFER_SIZE) release(byteBuffers, buffer);
+	}
+	
+	private static <T> T acquire(AtomicReferenceArray<T> slots) {
+		int start = probe();
+		for(int i=0; i<SLOTS; i++) {
+			int slot = (start + i) & (SLOTS - 1);
+			// Check before swapping so that empty slots don't get written to
+			if (slots.get(slot) != null) {
+				T result = slots.getAndSet(slot, null);
+				if (result != null) return result;
+			}
+		}
+		return null;
+	}
+	
+	private static <T> void release(AtomicReferenceArray<T> slots, T buffer) {
+		int start = probe();
+		for(int i=0; i<SLOTS; i++) {
+			int slot = (start + i) & (SLOTS - 1);
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, buffer)) return;
+		}
+	}
+	
+	/**
+	 * Spreads threads across the slots so that they don't all contend for the first one.
+	 */
+	private static int probe() {
+		long id = Thread.currentThread().threadId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40);
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import blue.endless.jankson.api.MultiFileSyntaxError;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.IniReader;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.StructuredDataReader;
+import blue.endless.jankson.api.io.TomlReader;
+
+/**
+ * Reads many files concurrently, one virtual thread per file. The number of files open at once is bounded so that a
+ * very large batch doesn't exhaust file handles.
+ */
+public class BulkReader {
+	public static final int DEFAULT_CONCURRENCY = 64;
+	
+	@FunctionalInterface
+	public static interface FileLoader<T> {
+		public T load(StructuredDataReader reader) throws IOException, SyntaxError;
+	}
+	
+	/**
+	 * Gets the name of the format a file will be read as, based on its extension: "toml", "ini", or "json".
+	 */
+	public static String formatOf(Path path) {
+		Path fileName = path.getFileName();
+		String name = (fileName == null) ? "" : fileName.toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".toml")) return "toml";
+		if (name.endsWith(".ini")) return "ini";
+		return "json";
+	}
+	
+	/**
+	 * Picks a reader for the file based on its extension. ".toml" and ".ini" files get their respective readers, and
+	 * anything else is read as json.
+	 */
+	public static StructuredDataReader readerFor(Path path, Reader r, JsonReaderOptions opts) {
+		return switch(formatOf(path)) {
+			case "toml" -> new TomlReader(r);
+			case "ini" -> new IniReader(r);
+			default -> new JsonReader(r, opts);
+		};
+	}
+	
+	/**
+	 * Reads all the specified files, returning their values in the same order as the Collection provided.
+	 * @param paths          the files to read
+	 * @param opts           options for any json files read
+	 * @param maxConcurrency the maximum number of files to read at once
+	 * @param loader         a function to turn each file's data into a value
+	 * @return a Map of each file to its value
+	 * @throws MultiFileSyntaxError if any of the files could not be read. The error will contain the problem with each
+	 *                              file, as well as the values for the files which were read successfully.
+	 * @throws InterruptedIOException if the current thread is interrupted while waiting for the files to be read
+	 */
+	public static <T> Map<Path, T> readAll(Collection<Path> paths, JsonReaderOptions opts, int maxConcurrency, FileLoader<T> loader) throws IOException, SyntaxError {
+		if (maxConcurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive.");
+		
+		Semaphore permits = new Semaphore(maxConcurrency);
+		Map<Path, Future<T>> futures = new LinkedHashMap<>();
+		
+		try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for(Path path : paths) {
+				if (futures.containsKey(path)) continue;
+				
+				futures.put(path, executor.submit(() -> {
+					permits.acquire();
+					try(Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+						return loader.load(readerFor(path, r, opts));
+					} finally {
+						permits.release();
+					}
+				}));
+			}
+			
+			Map<Path, T> results = new LinkedHashMap<>();
+			Map<Path, SyntaxError> errors = new LinkedHashMap<>();
+			for(Map.Entry<Path, Future<T>> entry : futures.entrySet()) {
+				try {
+					results.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException ex) {
+					errors.put(entry.getKey(), toSyntaxError(entry.getKey(), ex.getCause()));
+				}
+			}
+			
+			if (!errors.isEmpty()) throw new MultiFileSyntaxError(errors, results);
+			
+			return results;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException result = new InterruptedIOException("Interrupted while reading files.");
+			result.initCause(ex);
+			throw result;
+		}
+	}
+	
+	/**
+	 * Finds the SyntaxError that describes a failure, if there is one, or creates a new one if there isn't. SyntaxErrors
+	 * from the parser are frequently wrapped in IOExceptions to get them through the StructuredDataReader interface.
+	 */
+	private static SyntaxError toSyntaxError(Path path, Throwable t) {
+		List<Throwable> seen = new ArrayList<>();
+		Throwable cur = t;
+		while(cur != null && !seen.contains(cur)) {
+			if (cur instanceof SyntaxError err) return err;
+			seen.add(cur);
+			cur = cur.getCause();
+		}
+		
+		return new SyntaxError("Could not read "+path+": "+t.getMessage(), t);
+	}
+}
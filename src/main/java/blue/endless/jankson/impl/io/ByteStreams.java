@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reading helpers shared by the binary readers.
+ */
+public final class ByteStreams {
+	/** The most we'll allocate for a value before any of its bytes have actually arrived */
+	private static final int INITIAL_CAPACITY = 8192;
+	
+	private ByteStreams() {}
+	
+	/**
+	 * Reads exactly len bytes, starting with whatever the caller already has buffered. Lengths come from the data
+	 * itself, so the result array only grows as bytes arrive; a short, corrupt stream claiming a huge length ends in an
+	 * EOFException rather than a huge up-front allocation.
+	 * @param in         the stream to read from once the buffered bytes run out
+	 * @param buffered   the caller's buffer
+	 * @param offset     where the bytes of this value start in the caller's buffer
+	 * @param available  how many of this value's bytes the caller's buffer holds. Must not exceed len.
+	 * @param len        the number of bytes to read in total
+	 * @param eofMessage the message for the EOFException thrown if the stream ends early
+	 * @return an array of exactly len bytes
+	 */
+	public static byte[] readFully(InputStream in, byte[] buffered, int offset, int available, int len, String eofMessage) throws IOException {
+		byte[] result = new byte[Math.min(len, Math.max(available, INITIAL_CAPACITY))];
+		if (available > 0) System.arraycopy(buffered, offset, result, 0, available);
+		int copied = available;
+		while(copied < len) {
+			if (copied == result.length) result = Arrays.copyOf(result, (int) Math.min(len, result.length * 2L));
+			int read = in.read(result, copied, result.length - copied);
+			if (read == -1) throw new EOFException(eofMessage);
+			copied += read;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a stream of newline-delimited or concatenated json5 documents into the raw text of each document, without
+ * parsing them. Only enough of the grammar is understood to find record boundaries: brace and bracket depth, quoted
+ * strings (including escapes), and comments. Comments which occur between documents are kept with the document which
+ * follows them.
+ * 
+ * <p>Because this class does no validation, a malformed record will simply be handed off as-is, and the error will be
+ * reported by whatever parses it.
+ */
+public class DocumentSplitter {
+	private final Reader in;
+	private final char[] buf = new char[8192];
+	private int bufLen = 0;
+	private int bufPos = 0;
+	private int pushback = -2;
+	
+	private int line = 0;
+	private int recordStartLine = 0;
+	
+	public DocumentSplitter(Reader in) {
+		this.in = in;
+	}
+	
+	private int read() throws IOException {
+		if (pushback != -2) {
+			int result = pushback;
+			pushback = -2;
+			return result;
+		}
+		
+		if (bufPos >= bufLen) {
+			bufLen = in.read(buf, 0, buf.length);
+			bufPos = 0;
+			if (bufLen <= 0) {
+				bufLen = 0;
+				return -1;
+			}
+		}
+		
+		int result = buf[bufPos++];
+		if (result == '\n') line++;
+		return result;
+	}
+	
+	private void unread(int ch) {
+		pushback = ch;
+	}
+	
+	/**
+	 * Gets the (zero-based) line number that the most recently returned record started on. This can be used to
+	 * translate line numbers in errors from an individual record back into line numbers for the entire stream.
+	 */
+	public int getRecordStartLine() {
+		return recordStartLine;
+	}
+	
+	/**
+	 * Reads the raw text of the next document in the stream.
+	 * @return the text of the next document, or null if there are no more documents in the stream.
+	 * @throws IOException if there was a problem reading from the underlying Reader
+	 */
+	public String nextRecord() throws IOException {
+		StringBuilder record = new StringBuilder();
+		int depth = 0;
+		boolean started = false;
+		boolean inToken = false;
+		
+		while(true) {
+			int ch = read();
+			
+			if (ch == -1) {
+				return (started) ? record.toString() : null;
+			}
+			
+			if (!started && record.isEmpty() && Character.isWhitespace(ch)) {
+				// Don't bother keeping whitespace that leads up to a record.
+				continue;
+			}
+			if (record.isEmpty()) recordStartLine = line;
+			
+			if (inToken && depth == 0 && (Character.isWhitespace(ch) || ch == '{' || ch == '[' || ch == ',' || ch == '/' || ch == '#')) {
+				// A bare value at the document root (number, boolean, null) has just ended.
+				unread(ch);
+				return record.toString();
+			}
+			
+			if (ch == '/' || ch == '#') {
+				int next = (ch == '#') ? '/' : read();
+				if (next == '/') {
+					record.appendCodePoint(ch);
+					if (ch == '/') record.append('/');
+					readLineComment(record);
+					continue;
+				} else if (next == '*') {
+					record.append("/*");
+					readBlockComment(record);
+					continue;
+				} else {
+					// Not a comment, just an anomalous slash. Let the parser figure out what to do with it.
+					record.appendCodePoint(ch);
+					if (next != -1) unread(next);
+					continue;
+				}
+			}
+			
+			if (ch == ',' && depth == 0) {
+				// Tolerate commas between top-level documents
+				continue;
+			}
+			
+			record.appendCodePoint(ch);
+			
+			switch(ch) {
+				case '{', '[' -> {
+					started = true;
+					depth++;
+				}
+				case '}', ']' -> {
+					depth--;
+					if (depth <= 0) return record.toString();
+				}
+				case '"', '\'' -> {
+					started = true;
+					readQuoted(record, ch);
+					if (depth == 0) return record.toString();
+				}
+				default -> {
+					if (depth == 0 && !Character.isWhitespace(ch)) {
+						started = true;
+						inToken = true;
+					}
+				}
+			}
+		}
+	}
+	
+	private void readQuoted(StringBuilder record, int quote) throws IOException {
+		while(true) {
+			int ch = read();
+			if (ch == -1) return;
+			record.appendCodePoint(ch);
+			if (ch == '\\') {
+				int escaped = read();
+				if (escaped == -1) return;
+				record.appendCodePoint(escaped);
+			} else if (ch == quote || ch == '\n') {
+				return;
+			}
+		}
+	}
+	
+	private void readLineComment(StringBuilder record) throws IOException {
+		while(true) {
+			int ch = read();
+			if (ch == -1) return;
+			record.appendCodePoint(ch);
+			if (ch == '\n') return;
+		}
+	}
+	
+	private void readBlockComment(StringBuilder record) throws IOException {
+		int prev = -1;
+		while(true) {
+			int ch = read();
+			if (ch == -1) return;
+			record.appendCodePoint(ch);
+			if (prev == '*' && ch == '/') return;
+			prev = ch;
+		}
+	}
+}
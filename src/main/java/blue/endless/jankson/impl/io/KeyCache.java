@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io;
+
+/**
+ * Remembers recently read object keys, so that a key which turns up over and over, like the field names in an array of
+ * records, only becomes a String the first time it's seen. Keys are hashed straight from the parser's scratch buffer
+ * with the same function as {@link String#hashCode()}, so a cached key is found and checked without creating anything.
+ * 
+ * <p>The cache is a small direct-mapped table: a key replaces whatever was in its slot, and very long keys aren't
+ * cached at all. It's never wrong, only sometimes unhelpful.
+ */
+public final class KeyCache {
+	private static final int SIZE = 256;
+	private static final int MAX_LENGTH = 64;
+	
+	private final String[] keys = new String[SIZE];
+	
+	/**
+	 * Gets a String with the same contents as the supplied characters, reusing an earlier String if possible.
+	 */
+	public String get(CharSequence chars) {
+		int len = chars.length();
+		if (len > MAX_LENGTH) return chars.toString();
+		
+		int hash = 0;
+		for(int i=0; i<len; i++) {
+			hash = 31 * hash + chars.charAt(i);
+		}
+		
+		int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+		String existing = keys[slot];
+		// String caches its hashCode, so this is a cheap way to rule out most mismatches before comparing characters
+		if (existing != null && existing.hashCode() == hash && existing.contentEquals(chars)) return existing;
+		
+		String result = chars.toString();
+		keys[slot] = result;
+		return result;
+	}
+}
@@ -27,13 +27,23 @@ package blue.endless.jankson.impl.io;
 import java.io.IOException;
 import java.io.Reader;
 
+/**
+ * Reads code points from a Reader, with a small amount of lookahead. Chars are pulled from the Reader in blocks, so the
+ * Reader may be read past the point where parsing stopped.
+ */
 public class LookaheadCodePointReader implements CodePointReader, Lookahead {
 	private static final int REPLACEMENT_CHARACTER = 0xFFFD;
 	
-	private final Reader in;
+	private Reader in;
 	
 	private int charLookahead = -1;
 	
+	// Chars read from the Reader but not yet decoded. The buffer is borrowed from BufferRecycler and given back at EOF.
+	private char[] buffer = null;
+	private int bufferPos = 0;
+	private int bufferLimit = 0;
+	private boolean inputEnded = false;
+	
 	private final int[] lookahead;
 	private int len = 0;
 	private int ofs = 0;
@@ -50,6 +60,21 @@ public class LookaheadCodePointReader implements CodePointReader, Lookahead {
 		this.lookahead = new int[lookahead];
 	}
 	
+	/**
+	 * Discards all state, including any lookahead, and starts reading from a new Reader. The old Reader is not closed.
+	 */
+	public void reset(Reader in) {
+		this.in = in;
+		charLookahead = -1;
+		bufferPos = 0;
+		bufferLimit = 0;
+		inputEnded = false;
+		len = 0;
+		ofs = 0;
+		line = 0;
+		character = 0;
+	}
+	
 	@Override
 	public String peekString(int length) throws IOException {
 		
@@ -82,8 +107,38 @@ public class LookaheadCodePointReader implements CodePointReader, Lookahead {
 		len++;
 	}
 	
+	private int readChar() throws IOException {
+		if (bufferPos < bufferLimit) return buffer[bufferPos++];
+		if (inputEnded) return -1;
+		
+		if (buffer == null) buffer = BufferRecycler.acquireChars();
+		int read;
+		do {
+			read = in.read(buffer, 0, buffer.length);
+		} while (read == 0);
+		
+		if (read == -1) {
+			inputEnded = true;
+			releaseBuffer();
+			return -1;
+		}
+		
+		bufferPos = 1;
+		bufferLimit = read;
+		return buffer[0];
+	}
+	
+	private void releaseBuffer() {
+		if (buffer != null) {
+			BufferRecycler.releaseChars(buffer);
+			buffer = null;
+		}
+		bufferPos = 0;
+		bufferLimit = 0;
+	}
+	
 	private int readInternal() throws IOException {
-		int high = (charLookahead==-1) ? in.read() : charLookahead;
+		int high = (charLookahead==-1) ? readChar() : charLookahead;
 		if (high==-1) return -1;
 		
 		if (!Character.isSurrogate((char) high)) {
@@ -97,7 +152,7 @@ public class LookaheadCodePointReader implements CodePointReader, Lookahead {
 		}
 		
 		if (Character.isHighSurrogate((char) high)) {
-			int low = in.read();
+			int low = readChar();
 			if (low==-1) {
 				//High surrogate followed by EOF, report this as an error
 				charLookahead = -1;
@@ -161,6 +216,7 @@ public class LookaheadCodePointReader implements CodePointReader, Lookahead {
 
 	@Override
 	public void close() throws IOException {
+		releaseBuffer();
 		in.close();
 	}
 	
@@ -85,6 +85,13 @@ public class StructuredDataPipe implements StructuredDataWriter, StructuredDataR
 		return Optional.of(data.pop());
 	}
 	
+	/**
+	 * Discards all data in this pipe.
+	 */
+	public void clear() {
+		data.clear();
+	}
+	
 	public void push(StructuredData.Type elem, Object value) {
 		data.addLast(new StructuredData(elem, value));
 	}
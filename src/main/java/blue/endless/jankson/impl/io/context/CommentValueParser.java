@@ -100,6 +100,28 @@ public class CommentValueParser implements ValueParser {
 		throw new IllegalStateException();
 	}
 	
+	/**
+	 * Consumes a comment without building a CommentElement for it. Line-end comments consume their newline, just as
+	 * they do in {@link #readStatic(LookaheadCodePointReader)}.
+	 */
+	public static void skipStatic(LookaheadCodePointReader reader) throws IOException, SyntaxError {
+		int ch = reader.read();
+		if (ch=='/' && reader.peek()=='*') {
+			reader.read();
+			while(true) {
+				ch = reader.read();
+				if (ch==-1) throw new SyntaxError("Found the end of the document inside a multiline comment.", reader.getLine(), reader.getCharacter());
+				if (ch=='*' && reader.peek()=='/') {
+					reader.read();
+					return;
+				}
+			}
+		} else {
+			// '#' or "//" - discard the rest of the line
+			while(ch!=-1 && ch!='\n') ch = reader.read();
+		}
+	}
+	
 	@Override
 	public CommentElement read(LookaheadCodePointReader reader) throws IOException, SyntaxError {
 		return readStatic(reader);
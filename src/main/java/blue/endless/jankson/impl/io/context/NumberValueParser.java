@@ -49,10 +49,18 @@ public class NumberValueParser implements ValueParser {
 	}
 	
 	public static Number readStatic(LookaheadCodePointReader reader) throws IOException, SyntaxError {
+		return readStatic(reader, new StringBuilder());
+	}
+	
+	/**
+	 * Reads a number, using the supplied StringBuilder as scratch space. Any contents of the StringBuilder are
+	 * discarded.
+	 */
+	public static Number readStatic(LookaheadCodePointReader reader, StringBuilder sb) throws IOException, SyntaxError {
 		int startLine = reader.getLine();
 		int startChar = reader.getCharacter();
 		
-		StringBuilder sb = new StringBuilder();
+		sb.setLength(0);
 		int ch = reader.read();
 		sb.appendCodePoint(ch);
 		
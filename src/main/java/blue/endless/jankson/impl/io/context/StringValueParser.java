@@ -25,8 +25,10 @@
 package blue.endless.jankson.impl.io.context;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.LargeStringHandler;
 import blue.endless.jankson.impl.io.Lookahead;
 import blue.endless.jankson.impl.io.LookaheadCodePointReader;
 
@@ -51,38 +53,97 @@ public class StringValueParser implements ValueParser {
 	}
 	
 	public static String readStatic(LookaheadCodePointReader reader) throws IOException, SyntaxError {
+		return readStatic(reader, new StringBuilder());
+	}
+	
+	/**
+	 * Reads a quoted String, using the supplied StringBuilder as scratch space. Any contents of the StringBuilder are
+	 * discarded.
+	 */
+	public static String readStatic(LookaheadCodePointReader reader, StringBuilder result) throws IOException, SyntaxError {
+		readInto(reader, result);
+		return result.toString();
+	}
+	
+	/**
+	 * Reads a quoted String into the supplied StringBuilder, replacing its contents, without creating a String.
+	 */
+	public static void readInto(LookaheadCodePointReader reader, StringBuilder result) throws IOException, SyntaxError {
+		readInto(reader, result, Integer.MAX_VALUE, null);
+	}
+	
+	/**
+	 * Reads a quoted String, handing it off to a LargeStringHandler if it grows past the threshold. At most about
+	 * {@code threshold} characters are ever held in the StringBuilder, and escapes are decoded as they go by.
+	 * @return the String, or if it was handed off, whatever the handler reported in its place
+	 */
+	public static Object readStatic(LookaheadCodePointReader reader, StringBuilder result, int threshold, LargeStringHandler handler) throws IOException, SyntaxError {
+		Writer destination = readInto(reader, result, threshold, handler);
+		if (destination == null) return result.toString();
+		return handler.end(destination);
+	}
+	
+	/**
+	 * Reads a quoted String into the supplied StringBuilder. If there's a handler and the String reaches the threshold,
+	 * the String is sent to a Writer from the handler instead, and that Writer is returned. If anything goes wrong after
+	 * that, the handler is told to abort before the problem is thrown.
+	 * @return the Writer the String was sent to, or null if the whole String is in the StringBuilder
+	 */
+	private static Writer readInto(LookaheadCodePointReader reader, StringBuilder result, int threshold, LargeStringHandler handler) throws IOException, SyntaxError {
 		int startLine = reader.getLine();
 		int startChar = reader.getCharacter();
 		
 		int openQuote = reader.read();
 		
-		StringBuilder result = new StringBuilder();
-		int ch = reader.read();
-		
-		while(ch!=openQuote) {
-			if (ch==-1) {
-				SyntaxError err = new SyntaxError("Unmatched quote on a String value.");
-				err.setStartParsing(startLine, startChar);
-				err.setEndParsing(reader.getLine(), reader.getCharacter());
-				throw err;
-			}
-			if (ch=='\n') {
-				SyntaxError err = new SyntaxError("Unescaped newline in a String value.");
-				err.setStartParsing(startLine, startChar);
-				err.setEndParsing(reader.getLine(), reader.getCharacter());
-				throw err;
-			}
+		result.setLength(0);
+		Writer destination = null;
+		try {
+			int ch = reader.read();
 			
-			if (ch=='\\') {
-				readEscapeSequence(reader, result);
-			} else {
-				result.appendCodePoint(ch);
+			while(ch!=openQuote) {
+				if (ch==-1) {
+					SyntaxError err = new SyntaxError("Unmatched quote on a String value.");
+					err.setStartParsing(startLine, startChar);
+					err.setEndParsing(reader.getLine(), reader.getCharacter());
+					throw err;
+				}
+				if (ch=='\n') {
+					SyntaxError err = new SyntaxError("Unescaped newline in a String value.");
+					err.setStartParsing(startLine, startChar);
+					err.setEndParsing(reader.getLine(), reader.getCharacter());
+					throw err;
+				}
+				
+				if (ch=='\\') {
+					readEscapeSequence(reader, result);
+				} else {
+					result.appendCodePoint(ch);
+				}
+				
+				if (result.length() >= threshold && handler != null) {
+					if (destination == null) destination = handler.begin();
+					destination.append(result);
+					result.setLength(0);
+				}
+				
+				ch = reader.read();
 			}
 			
-			ch = reader.read();
+			if (destination != null && !result.isEmpty()) {
+				destination.append(result);
+				result.setLength(0);
+			}
+			return destination;
+		} catch (Throwable t) {
+			if (destination != null) {
+				try {
+					handler.abort(destination, t);
+				} catch (Throwable t2) {
+					t.addSuppressed(t2);
+				}
+			}
+			throw t;
 		}
-		
-		return result.toString();
 	}
 	
 	@Override
@@ -47,7 +47,23 @@ public class TokenValueParser implements ValueParser {
 	}
 	
 	public static String readStatic(LookaheadCodePointReader reader) throws IOException, SyntaxError {
-		StringBuilder token = new StringBuilder();
+		return readStatic(reader, new StringBuilder());
+	}
+	
+	/**
+	 * Reads an unquoted token, using the supplied StringBuilder as scratch space. Any contents of the StringBuilder are
+	 * discarded.
+	 */
+	public static String readStatic(LookaheadCodePointReader reader, StringBuilder token) throws IOException, SyntaxError {
+		readInto(reader, token);
+		return token.toString();
+	}
+	
+	/**
+	 * Reads an unquoted token into the supplied StringBuilder, replacing its contents, without creating a String.
+	 */
+	public static void readInto(LookaheadCodePointReader reader, StringBuilder token) throws IOException, SyntaxError {
+		token.setLength(0);
 		int ch = reader.peek();
 		while(ch != -1 && VALID_UNQUOTED_CHARS.indexOf(ch) != -1) {
 			token.appendCodePoint(reader.read());
@@ -55,7 +71,6 @@ public class TokenValueParser implements ValueParser {
 		}
 		
 		if (token.isEmpty()) throw new SyntaxError("Expected unquoted token but found illegal characters.", reader.getLine(), reader.getCharacter());
-		return token.toString();
 	}
 	
 }
@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io.objectwriter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.impl.magic.ClassHierarchy;
+
+/**
+ * A precompiled description of how to unpack StructuredData into one Type. All the reflection and type analysis for a
+ * Type is done once, when its plan is compiled, and plans are cached, so unpacking a list of a thousand records only
+ * analyzes the record type once. Each value then gets a fresh StructuredDataFunction from {@link #create(Object)},
+ * which holds nothing but the state of that one value.
+ * 
+ * <p>Plans are immutable once compiled, and can be used from any number of threads at once.
+ */
+public abstract class BindingPlan {
+	/** Plans for plain Classes are attached to the Class itself, so they never keep a Class or its ClassLoader alive. */
+	private static final ClassValue<BindingPlan> classPlans = new ClassValue<>() {
+		@Override
+		protected BindingPlan computeValue(Class<?> type) {
+			return compile(type);
+		}
+	};
+	
+	/** The most plans to keep for parameterized types, which can't be attached to a Class */
+	private static final int MAX_GENERIC_PLANS = 256;
+	
+	/**
+	 * Plans for parameterized types, least recently used first. A ParameterizedType can refer to classes from any number
+	 * of ClassLoaders, so these are evicted rather than held forever. Guarded by its own lock.
+	 */
+	private static final Map<Type, BindingPlan> genericPlans = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Type, BindingPlan> eldest) {
+			return size() > MAX_GENERIC_PLANS;
+		}
+	};
+	
+	/**
+	 * Creates a function to unpack one value of this plan's type.
+	 * @param subject an existing object to unpack data into, if the type supports it, or null to create a new object
+	 * @return a new function, or null if data can't be unpacked into this type
+	 * @throws IllegalArgumentException if an object of this type can't be created
+	 */
+	public abstract @Nullable StructuredDataFunction<?> create(@Nullable Object subject);
+	
+	/**
+	 * Gets the plan for a Type, compiling it if this is the first time it's been asked for.
+	 */
+	public static BindingPlan of(Type type) {
+		if (type instanceof Class<?> clazz) return classPlans.get(clazz);
+		
+		BindingPlan result;
+		synchronized(genericPlans) {
+			result = genericPlans.get(type);
+		}
+		if (result != null) return result;
+		
+		// Compiling never needs another plan right away, so there's no risk of a recursive update here. If two threads
+		// compile the same plan at once, whichever gets there first wins.
+		result = compile(type);
+		synchronized(genericPlans) {
+			BindingPlan existing = genericPlans.putIfAbsent(type, result);
+			return (existing != null) ? existing : result;
+		}
+	}
+	
+	private static BindingPlan compile(Type type) {
+		try {
+			Class<?> targetClass = ClassHierarchy.getErasedClass(type);
+			
+			if (Collection.class.isAssignableFrom(targetClass)) {
+				return new CollectionPlan(getCollectionFactory(type, targetClass), ClassHierarchy.getCollectionTypeArgument(type));
+			}
+			
+			if (Map.class.isAssignableFrom(targetClass)) {
+				ClassHierarchy.MapTypeArguments args = ClassHierarchy.getMapTypeArguments(type);
+				Supplier<Map<?, ?>> factory = (targetClass.isInterface()) ? HashMap::new : getFactory(type, targetClass);
+				return new MapPlan(factory, MapFunction.getKeyFunction(args.keyType()), args.valueType());
+			}
+			
+			if (targetClass.isRecord()) {
+				return RecordPlan.of(targetClass);
+			}
+			
+			// Primitives and their wrappers skip PrimitiveElement, and are only boxed if the destination needs it
+			Class<?> unwrapped = UnboxedFunction.unwrap(targetClass);
+			if (unwrapped.isPrimitive() && unwrapped != void.class) {
+				return new UnboxedPlan(targetClass);
+			}
+			
+			if (targetClass.isArray() && targetClass.getComponentType().isPrimitive()) {
+				return new PrimitiveArrayPlan(targetClass.getComponentType());
+			}
+			
+			Function<PrimitiveElement, Optional<Object>> mapper = primitiveMappers.get(targetClass);
+			if (mapper != null) return new PrimitivePlan(mapper);
+			
+			return UNSUPPORTED;
+		} catch (IllegalArgumentException ex) {
+			// Report the problem when someone actually tries to unpack this type, like we would without a plan
+			return new FailedPlan(ex);
+		}
+	}
+	
+	private static Supplier<Collection<?>> getCollectionFactory(Type type, Class<?> targetClass) {
+		if (!targetClass.isInterface()) return getFactory(type, targetClass);
+		
+		// Pick a "typical" implementation of popular interfaces
+		if (Set.class.isAssignableFrom(targetClass)) return HashSet::new;
+		if (List.class.isAssignableFrom(targetClass)) return ArrayList::new;
+		if (Queue.class.isAssignableFrom(targetClass)) return ArrayDeque::new; // Includes Deque
+		if (targetClass.equals(Collection.class)) return ArrayList::new; // Defined too broadly but we can deal with it
+		
+		// We can't create an instance of this interface
+		throw new IllegalArgumentException("Can't get an implementation for unknown collection interface \""+targetClass.getCanonicalName()+"\"");
+	}
+	
+	/**
+	 * Gets a factory which calls the no-arg constructor of a Collection or Map class. Just about every Collection and
+	 * Map type has one. If not, give a clear indication of the problem.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Supplier<T> getFactory(Type type, Class<?> targetClass) {
+		Constructor<?> cons;
+		try {
+			cons = targetClass.getConstructor();
+			// This Constructor object is ours alone, so it can stay accessible
+			if (!cons.canAccess(null)) cons.setAccessible(true);
+		} catch (Throwable t) {
+			throw new IllegalArgumentException("Could not create an instance of collection type, \""+type.getTypeName()+"\". Is there a zero-argument constructor?", t);
+		}
+		
+		return () -> {
+			try {
+				return (T) cons.newInstance();
+			} catch (Throwable t) {
+				throw new IllegalArgumentException("Could not create an instance of collection type, \""+type.getTypeName()+"\".", t);
+			}
+		};
+	}
+	
+	/**
+	 * A plan which depends on the plan for another Type. The other plan is only looked up the first time it's needed,
+	 * so that types which contain themselves, like {@code record Tree(List<Tree> children)}, can be compiled.
+	 */
+	static final class Lazy {
+		private final Type type;
+		private volatile BindingPlan plan;
+		
+		Lazy(Type type) {
+			this.type = type;
+		}
+		
+		BindingPlan get() {
+			BindingPlan result = plan;
+			if (result == null) {
+				result = BindingPlan.of(type);
+				plan = result;
+			}
+			return result;
+		}
+	}
+	
+	private static final BindingPlan UNSUPPORTED = new BindingPlan() {
+		@Override
+		public StructuredDataFunction<?> create(Object subject) {
+			return null;
+		}
+	};
+	
+	private static final class FailedPlan extends BindingPlan {
+		private final IllegalArgumentException problem;
+		
+		FailedPlan(IllegalArgumentException problem) {
+			this.problem = problem;
+		}
+		
+		@Override
+		public StructuredDataFunction<?> create(Object subject) {
+			throw new IllegalArgumentException(problem.getMessage(), problem.getCause());
+		}
+	}
+	
+	private static final class CollectionPlan extends BindingPlan {
+		private final Supplier<Collection<?>> factory;
+		private final Lazy elementPlan;
+		
+		CollectionPlan(Supplier<Collection<?>> factory, Type elementType) {
+			this.factory = factory;
+			this.elementPlan = new Lazy(elementType);
+		}
+		
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public StructuredDataFunction<?> create(Object subject) {
+			Collection coll = (subject instanceof Collection<?> existing) ? existing : factory.get();
+			return new CollectionFunction<>(coll, elementPlan.get());
+		}
+	}
+	
+	private static final class MapPlan extends BindingPlan {
+		private final Supplier<Map<?, ?>> factory;
+		private final Function<String, ?> keyFunction;
+		private final Lazy valuePlan;
+		
+		MapPlan(Supplier<Map<?, ?>> factory, Function<String, ?> keyFunction, Type valueType) {
+			this.factory = factory;
+			this.keyFunction = keyFunction;
+			this.valuePlan = new Lazy(valueType);
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public StructuredDataFunction<?> create(Object subject) {
+			// Map<Object, Object> is incorrect, but we cannot construct MapFunction<?, ?>
+			Map<Object, Object> map = (Map<Object, Object>) ((subject instanceof Map<?, ?> existing) ? existing : factory.get());
+			return new MapFunction<Object, Object>((Function<String, Object>) keyFunction, valuePlan.get(), map);
+		}
+	}
+	
+	private static final class UnboxedPlan extends BindingPlan {
+		private final Class<?> type;
+		
+		UnboxedPlan(Class<?> type) {
+			this.type = type;
+		}
+		
+		@Override
+		public StructuredDataFunction<?> create(Object subject) {
+			return new UnboxedFunction(type);
+		}
+	}
+	
+	private static final class PrimitiveArrayPlan extends BindingPlan {
+		private final Class<?> componentType;
+		
+		PrimitiveArrayPlan(Class<?> componentType) {
+			this.componentType = componentType;
+		}
+		
+		@Override
+		public StructuredDataFunction<?> create(Object subject) {
+			return new PrimitiveArrayFunction(componentType);
+		}
+	}
+	
+	private static final class PrimitivePlan extends BindingPlan {
+		private final Function<PrimitiveElement, Optional<Object>> mapper;
+		
+		PrimitivePlan(Function<PrimitiveElement, Optional<Object>> mapper) {
+			this.mapper = mapper;
+		}
+		
+		@Override
+		public StructuredDataFunction<?> create(Object subject) {
+			return new StructuredDataFunction.Mapper<>(new PrimitiveFunction(), mapper);
+		}
+	}
+	
+	private static Map<Class<?>, Function<PrimitiveElement, Optional<Object>>> primitiveMappers = new HashMap<>();
+	
+	@SuppressWarnings("unchecked")
+	private static void registerPrimitiveMappers() {
+		// Java primitives and their wrappers are handled by UnboxedFunction instead
+		primitiveMappers.put(String.class, (prim) -> (Optional<Object>) (Object) prim.asString());
+		
+		// PrimitiveElement has convenience methods for these two, so let's set consistent expectations
+		// It's truly unfortunate that Java can't tell that e.g. Optional<BigInteger> is castable to Optional<Object>
+		primitiveMappers.put(BigInteger.class, (prim) -> (Optional<Object>) (Object) prim.asBigInteger());
+		primitiveMappers.put(BigDecimal.class, (prim) -> (Optional<Object>) (Object) prim.asBigDecimal());
+		
+		primitiveMappers.put(LocalDate.class, (prim) -> prim.mapAsString(LocalDate::parse));
+		primitiveMappers.put(LocalTime.class, (prim) -> prim.mapAsString(LocalTime::parse));
+		primitiveMappers.put(LocalDateTime.class, (prim) -> prim.mapAsString(LocalDateTime::parse));
+	}
+	
+	static {
+		registerPrimitiveMappers();
+	}
+}
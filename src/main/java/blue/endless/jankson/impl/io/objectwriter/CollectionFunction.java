@@ -29,13 +29,12 @@ import java.lang.reflect.Type;
 import java.util.Collection;
 
 import blue.endless.jankson.api.SyntaxError;
-import blue.endless.jankson.api.io.ObjectWriter;
 import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.impl.magic.ClassHierarchy;
 
 public class CollectionFunction<V, T extends Collection<V>> extends SingleValueFunction<Collection<V>>{
 	
-	private final Type memberType;
+	private final BindingPlan memberPlan;
 	private final T result;
 	
 	private boolean startFound = false;
@@ -44,8 +43,12 @@ public class CollectionFunction<V, T extends Collection<V>> extends SingleValueF
 	private StructuredDataFunction<V> delegate = null;
 	
 	public CollectionFunction(T result, Type memberType) {
+		this(result, BindingPlan.of(memberType));
+	}
+	
+	public CollectionFunction(T result, BindingPlan memberPlan) {
 		this.result = result;
-		this.memberType = memberType;
+		this.memberPlan = memberPlan;
 	}
 	
 	public CollectionFunction(Type resultType) throws IllegalArgumentException {
@@ -92,7 +95,8 @@ public class CollectionFunction<V, T extends Collection<V>> extends SingleValueF
 				}
 				
 				default -> {
-					delegate = (StructuredDataFunction<V>) ObjectWriter.getObjectWriter(memberType, data, null);
+					if (!data.type().isSemantic()) return; // Formatting between values
+					delegate = (StructuredDataFunction<V>) memberPlan.create(null);
 					delegate.accept(data);
 					checkDelegate();
 				}
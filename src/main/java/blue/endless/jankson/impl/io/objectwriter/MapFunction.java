@@ -31,15 +31,13 @@ import java.util.Map;
 import java.util.function.Function;
 
 import blue.endless.jankson.api.SyntaxError;
-import blue.endless.jankson.api.io.ObjectWriter;
 import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.impl.magic.ClassHierarchy;
 
 public class MapFunction<K, V> extends SingleValueFunction<Map<K, V>> {
 	
-	private final Type keyType;
-	private final Type valueType;
 	private final Function<String, K> toKFunction;
+	private final BindingPlan valuePlan;
 	private final Map<K, V> result;
 	private K bufferedKey = null;
 	
@@ -49,38 +47,33 @@ public class MapFunction<K, V> extends SingleValueFunction<Map<K, V>> {
 	private StructuredDataFunction<V> delegate = null;
 	
 	public MapFunction(Type keyType, Type valueType) {
-		this.keyType = keyType;
-		this.valueType = valueType;
-		this.result = new HashMap<K, V>();
-		this.toKFunction = getKeyFunction(keyType);
-		
+		this(keyType, valueType, new HashMap<K, V>());
 	}
 	
 	public MapFunction(Type keyType, Type valueType, Map<K, V> map) {
-		this.keyType = keyType;
-		this.valueType = valueType;
-		this.result = map;
-		this.toKFunction = getKeyFunction(keyType);
+		this(getKeyFunction(keyType), BindingPlan.of(valueType), map);
 	}
 	
 	public MapFunction(Type mapType) {
-		this.result = new HashMap<>();
-		var mapTypes = ClassHierarchy.getMapTypeArguments(mapType);
-		this.keyType = mapTypes.keyType();
-		this.valueType = mapTypes.valueType();
-		this.toKFunction = getKeyFunction(keyType);
+		this(mapType, new HashMap<>());
 	}
 	
 	public MapFunction(Type mapType, Map<K, V> map) {
+		this(ClassHierarchy.getMapTypeArguments(mapType), map);
+	}
+	
+	private MapFunction(ClassHierarchy.MapTypeArguments mapTypes, Map<K, V> map) {
+		this(mapTypes.keyType(), mapTypes.valueType(), map);
+	}
+	
+	public MapFunction(Function<String, K> keyFunction, BindingPlan valuePlan, Map<K, V> map) {
+		this.toKFunction = keyFunction;
+		this.valuePlan = valuePlan;
 		this.result = map;
-		var mapTypes = ClassHierarchy.getMapTypeArguments(mapType);
-		this.keyType = mapTypes.keyType();
-		this.valueType = mapTypes.valueType();
-		this.toKFunction = getKeyFunction(keyType);
 	}
 	
 	@SuppressWarnings("unchecked")
-	private static <K> Function<String, K> getKeyFunction(Type keyType) throws IllegalArgumentException {
+	static <K> Function<String, K> getKeyFunction(Type keyType) throws IllegalArgumentException {
 		if (keyType.equals(String.class)) return (it) -> (K) it;
 		
 		Class<K> keyClass = (Class<K>) ClassHierarchy.getErasedClass(keyType);
@@ -145,7 +138,8 @@ public class MapFunction<K, V> extends SingleValueFunction<Map<K, V>> {
 					}
 					
 					default -> {
-						delegate = (StructuredDataFunction<V>) ObjectWriter.getObjectWriter(valueType, data, null);
+						if (!data.type().isSemantic()) return; // Formatting between the key and its value
+						delegate = (StructuredDataFunction<V>) valuePlan.create(null);
 						delegate.accept(data);
 						checkDelegate();
 					}
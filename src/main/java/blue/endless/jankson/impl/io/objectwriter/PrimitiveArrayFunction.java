@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io.objectwriter;
+
+import java.util.Arrays;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.io.StructuredData;
+
+/**
+ * Unpacks an array of primitives, like int[] or double[], without boxing any of its elements. Elements are gathered in
+ * a growable long[] or double[] buffer, and copied into an array of the right type once the array ends. A byte[] can
+ * also be unpacked from a single binary value or base64 String, which is used as-is without any per-element work.
+ */
+public class PrimitiveArrayFunction extends SingleValueFunction<Object> {
+	private final Class<?> componentType;
+	private final boolean usesDoubles;
+	private long[] longs;
+	private double[] doubles;
+	private int size = 0;
+	
+	private boolean startFound = false;
+	private Object result = null;
+	
+	/**
+	 * Creates a new PrimitiveArrayFunction.
+	 * @param componentType the primitive element type, for example int.class to unpack an int[]
+	 */
+	public PrimitiveArrayFunction(Class<?> componentType) {
+		this.componentType = componentType;
+		this.usesDoubles = UnboxedFunction.usesDoubleSlot(componentType);
+		if (usesDoubles) {
+			doubles = new double[16];
+		} else {
+			longs = new long[16];
+		}
+	}
+	
+	@Override
+	public Object getResult() {
+		return result;
+	}
+	
+	@Override
+	protected void process(StructuredData data) throws SyntaxError {
+		if (!data.type().isSemantic()) return;
+		
+		if (!startFound) {
+			// A byte[] can also be written as a single binary value, or a base64 String
+			if (componentType == byte.class && data.type() == StructuredData.Type.PRIMITIVE) {
+				if (data.value() instanceof byte[] bytes) {
+					result = bytes;
+				} else if (data.value() instanceof String s) {
+					result = PrimitiveElement.decodeBase64(s).orElseThrow(() -> new SyntaxError("Expected binary data, but the String found was not valid base64."));
+				} else {
+					throw new SyntaxError("Expected binary data or an array, found "+data.value());
+				}
+				return;
+			}
+			
+			if (data.type() != StructuredData.Type.ARRAY_START) throw new SyntaxError("Expected an array, found "+data.type());
+			startFound = true;
+			return;
+		}
+		
+		switch(data.type()) {
+			case PRIMITIVE -> {
+				if (usesDoubles) {
+					if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+					doubles[size++] = UnboxedFunction.toDouble(componentType, data.value());
+				} else {
+					if (size == longs.length) longs = Arrays.copyOf(longs, size * 2);
+					longs[size++] = UnboxedFunction.toLong(componentType, data.value());
+				}
+			}
+			case ARRAY_END -> result = toArray();
+			case EOF -> throw new SyntaxError("Expected a value or end of array. Found EOF instead!");
+			default -> throw new SyntaxError("Expected a "+componentType.getName()+" value, found "+data.type());
+		}
+	}
+	
+	private Object toArray() {
+		if (componentType == long.class) return Arrays.copyOf(longs, size);
+		if (componentType == double.class) return Arrays.copyOf(doubles, size);
+		
+		if (componentType == int.class) {
+			int[] ints = new int[size];
+			for(int i=0; i<size; i++) ints[i] = (int) longs[i];
+			return ints;
+		}
+		
+		if (componentType == byte.class) {
+			byte[] bytes = new byte[size];
+			for(int i=0; i<size; i++) bytes[i] = (byte) longs[i];
+			return bytes;
+		}
+		
+		if (componentType == short.class) {
+			short[] shorts = new short[size];
+			for(int i=0; i<size; i++) shorts[i] = (short) longs[i];
+			return shorts;
+		}
+		
+		if (componentType == char.class) {
+			char[] chars = new char[size];
+			for(int i=0; i<size; i++) chars[i] = (char) longs[i];
+			return chars;
+		}
+		
+		if (componentType == boolean.class) {
+			boolean[] booleans = new boolean[size];
+			for(int i=0; i<size; i++) booleans[i] = longs[i] != 0;
+			return booleans;
+		}
+		
+		float[] floats = new float[size];
+		for(int i=0; i<size; i++) floats[i] = (float) doubles[i];
+		return floats;
+	}
+}
@@ -24,44 +24,44 @@
 
 package blue.endless.jankson.impl.io.objectwriter;
 
-import java.lang.reflect.AnnotatedType;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.RecordComponent;
-import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
 import blue.endless.jankson.api.SyntaxError;
-import blue.endless.jankson.api.annotation.SerializedName;
-import blue.endless.jankson.api.io.ObjectWriter;
 import blue.endless.jankson.api.io.StructuredData;
 
+/**
+ * Unpacks one record. Everything that can be worked out ahead of time lives in a shared {@link RecordPlan}, so this
+ * only holds the component values seen so far.
+ */
 public class RecordFunction<T> extends SingleValueFunction<T> {
-	private Class<T> clazz;
+	private final RecordPlan<T> plan;
 	private boolean foundStart = false;
 	private boolean foundEnd = false;
 	private T result = null;
-	private Map<String, Object> values = new HashMap<>();
-	private Map<String, String> serializedNameToFieldName = new HashMap<>();
-	private Set<String> requiredValues = new HashSet<>();
+	/** Component values, by position. Primitive components go in the long or double slots instead, unboxed. */
+	private final Object[] objects;
+	private final long[] longs;
+	private final double[] doubles;
+	/** One bit for each of the first 64 components, set once a value has been stored for it */
+	private long seen = 0L;
+	/** Bits for components past the first 64, or null if there aren't any */
+	private final long[] seenOverflow;
+	private int remaining;
 	private String delegateKey = null;
+	private int delegateIndex = -1;
 	private StructuredDataFunction<Object> delegate = null;
 	
+	@SuppressWarnings("unchecked")
 	public RecordFunction(Class<T> clazz) {
-		this.clazz = clazz;
-		for (RecordComponent c : clazz.getRecordComponents()) {
-			requiredValues.add(c.getName());
-			
-			AnnotatedType annoType = c.getAnnotatedType();
-			SerializedName altName = annoType.getAnnotation(SerializedName.class);
-			
-			serializedNameToFieldName.put(
-					(altName != null) ? altName.value() : c.getName(),
-					c.getName()
-				);
-		}
+		this((BindingPlan.of(clazz) instanceof RecordPlan<?> cached) ? (RecordPlan<T>) cached : RecordPlan.of(clazz));
+	}
+	
+	public RecordFunction(RecordPlan<T> plan) {
+		this.plan = plan;
+		int size = plan.size();
+		this.objects = new Object[size];
+		this.longs = plan.newLongSlots();
+		this.doubles = plan.newDoubleSlots();
+		this.seenOverflow = (size > 64) ? new long[(size - 1) >>> 6] : null;
+		this.remaining = size;
 	}
 	
 	@Override
@@ -69,68 +69,61 @@ public class RecordFunction<T> extends SingleValueFunction<T> {
 		return result;
 	}
 	
-	/**
-	 * This is a hack and a half. There is no "correct" way to access a canonical constructor. By
-	 * convention, it appears last in the bytecode and reflection, but this is not guaranteed.
-	 * Luckily, we ARE guaranteed that record components (inside the parentheses in the record
-	 * declaration) are in the order they're declared in, which is also guaranteed to be the order
-	 * they appear in, in the canonical constructor.
-	 * 
-	 * <p>Note that we use getType here. If we attempt to call clazz.getDeclaredConstructor with an
-	 * array of AnnotatedType or GenericType, this method will fail. Generic types are erased in
-	 * constructors (as with any method), even though they aren't in fields / record components.
-	 * 
-	 * @see <a href="https://stackoverflow.com/questions/67126109/is-there-a-way-to-recognise-a-java-16-records-canonical-constructor-via-reflect#comment118694512_67126661">
-	 *      https://stackoverflow.com/questions/67126109/is-there-a-way-to-recognise-a-java-16-records-canonical-constructor-via-reflect#comment118694512_67126661</a>
-	 * @return The canonical constructor for this record.
-	 * @throws NoSuchMethodException if no canonical constructor can be found
-	 * @throws SecurityException if we are unable to acquire the canonical constructor for security reasons
-	 */
-	private Constructor<T> getCanonicalConstructor() throws NoSuchMethodException, SecurityException {
-		RecordComponent[] components = clazz.getRecordComponents();
-		Class<?>[] componentTypes = new Class<?>[components.length];
-		for(int i=0; i<components.length; i++) {
-			componentTypes[i] = components[i].getType();
-		}
-		
-		return clazz.getDeclaredConstructor(componentTypes);
-	}
-	
 	private void checkDelegate() throws SyntaxError {
 		if (delegate != null && delegate.isComplete()) {
-			Object o = delegate.getResult();
-			String fieldName = serializedNameToFieldName.get(delegateKey);
-			if (fieldName != null) {
-				values.put(fieldName, delegate.getResult());
-				requiredValues.remove(fieldName);
+			if (delegateIndex != -1) {
+				store(delegateIndex, delegate);
+				markSeen(delegateIndex);
 			}
 			
 			delegate = null;
 			delegateKey = null;
+			delegateIndex = -1;
 		}
 		
-		if (result == null && requiredValues.isEmpty()) {
-			RecordComponent[] components = clazz.getRecordComponents();
-			
-			Class<?>[] types = new Class<?>[components.length];
-			Object[] args = new Object[components.length];
-			for(int i = 0; i<components.length; i++) {
-				RecordComponent component = components[i];
-				types[i] = component.getType();
-				args[i] = values.get(component.getName());
-			}
+		if (result == null && remaining == 0) {
 			try {
-				Constructor<T> c = getCanonicalConstructor();
-				boolean accessible = c.canAccess(null);
-				if (!accessible) c.setAccessible(true);
-				result = c.newInstance(args);
-				if (!accessible) c.setAccessible(false);
+				result = plan.construct(objects, longs, doubles);
 			} catch (Throwable t) {
-				throw new SyntaxError("Could not create record of type '"+clazz.getSimpleName()+"'.", t);
+				throw new SyntaxError("Could not create record of type '"+plan.getRecordClass().getSimpleName()+"'.", t);
+			}
+		}
+	}
+	
+	private void markSeen(int index) {
+		if (index < 64) {
+			long bit = 1L << index;
+			if ((seen & bit) == 0) {
+				seen |= bit;
+				remaining--;
+			}
+		} else {
+			int word = (index >>> 6) - 1;
+			long bit = 1L << index;
+			if ((seenOverflow[word] & bit) == 0) {
+				seenOverflow[word] |= bit;
+				remaining--;
 			}
 		}
 	}
 	
+	/**
+	 * Puts a finished component value into its slot, without boxing it if it's a primitive.
+	 */
+	private void store(int index, StructuredDataFunction<Object> function) throws SyntaxError {
+		switch(plan.slotKind(index)) {
+			case RecordPlan.SLOT_LONG -> {
+				if (!(function instanceof UnboxedFunction unboxed)) throw new SyntaxError("Expected a primitive value for record component '"+plan.getSerializedName(index)+"'.");
+				longs[index] = unboxed.getLong();
+			}
+			case RecordPlan.SLOT_DOUBLE -> {
+				if (!(function instanceof UnboxedFunction unboxed)) throw new SyntaxError("Expected a primitive value for record component '"+plan.getSerializedName(index)+"'.");
+				doubles[index] = unboxed.getDouble();
+			}
+			default -> objects[index] = function.getResult();
+		}
+	}
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	protected void process(StructuredData data) throws SyntaxError {
@@ -158,31 +151,18 @@ public class RecordFunction<T> extends SingleValueFunction<T> {
 			} else if (data.type() == StructuredData.Type.OBJECT_KEY) {
 				if (delegateKey != null) throw new SyntaxError("Got two keys in a row while unpacking a record type. The value is missing! (keys: "+delegateKey+", "+data.value().toString()+")");
 				delegateKey = data.value().toString();
+				delegateIndex = plan.indexOf(delegateKey);
 			} else {
-				String fieldName = serializedNameToFieldName.get(delegateKey);
-				if (fieldName == null) {
+				if (delegateIndex == -1) {
+					// This key doesn't correspond to anything recognizeable in the record.
 					delegate = SingleValueFunction.discard();
 					delegate.accept(data);
 					checkDelegate();
 					return;
 				}
 				
-				Type fieldType = null;
-				for(RecordComponent comp : clazz.getRecordComponents()) {
-					if (comp.getName().equals(fieldName)) {
-						fieldType = comp.getGenericType();
-					}
-				}
-
-				if (fieldType != null) {
-					
-					delegate = (StructuredDataFunction<Object>) ObjectWriter.getObjectWriter(fieldType, data, null);
-					if (delegate != null) {
-						delegate.accept(data);
-					}
-				} else {
-					// This key doesn't correspond to anything recognizeable in the record.
-					delegate = SingleValueFunction.discard();
+				delegate = (StructuredDataFunction<Object>) plan.getComponentPlan(delegateIndex).create(null);
+				if (delegate != null) {
 					delegate.accept(data);
 				}
 			}
@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io.objectwriter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+
+import blue.endless.jankson.api.annotation.SerializedName;
+
+/**
+ * Everything needed to unpack one record class, worked out once and shared by every {@link RecordFunction} for that
+ * class. This includes:
+ * 
+ * <ul>
+ *   <li>A perfect hash table from serialized names to component positions, so a key is matched with one hash, one
+ *       table read, and one equals check
+ *   <li>The plans for each component's type
+ *   <li>A bitmask for each component, so that RecordFunction can keep track of which components it has seen
+ *   <li>A MethodHandle which calls the canonical constructor with arguments taken from positional slots
+ * </ul>
+ * 
+ * <p>Components with primitive types are read from a long[] or double[] and passed to the constructor as primitives,
+ * so they're never boxed; everything else is read from an Object[]. Slots are indexed by component position.
+ */
+public final class RecordPlan<T> extends BindingPlan {
+	static final byte SLOT_OBJECT = 0;
+	static final byte SLOT_LONG = 1;
+	static final byte SLOT_DOUBLE = 2;
+	
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class, long[].class, double[].class);
+	
+	private final Class<T> recordClass;
+	private final String[] serializedNames;
+	private final BindingPlan.Lazy[] componentPlans;
+	private final byte[] slotKinds;
+	private final boolean hasLongs;
+	private final boolean hasDoubles;
+	/** (Object[], long[], double[]) -> Object */
+	private final MethodHandle constructor;
+	
+	/**
+	 * Component position + 1 for each hash bucket, or zero for an empty bucket. Null if no perfect hash could be found,
+	 * which only happens if two names have the same hashCode.
+	 */
+	private final byte[] table;
+	private final int seed;
+	private final int shift;
+	
+	private RecordPlan(Class<T> recordClass, String[] serializedNames, BindingPlan.Lazy[] componentPlans, byte[] slotKinds, MethodHandle constructor) {
+		this.recordClass = recordClass;
+		this.serializedNames = serializedNames;
+		this.componentPlans = componentPlans;
+		this.slotKinds = slotKinds;
+		this.constructor = constructor;
+		
+		boolean longs = false;
+		boolean doubles = false;
+		for(byte kind : slotKinds) {
+			if (kind == SLOT_LONG) longs = true;
+			if (kind == SLOT_DOUBLE) doubles = true;
+		}
+		this.hasLongs = longs;
+		this.hasDoubles = doubles;
+		
+		// Find a multiplier which sends every name to its own bucket. With at least twice as many buckets as names,
+		// one usually turns up within the first few tries; if not, double the table and try again.
+		int bits = 2;
+		while((1 << bits) < serializedNames.length * 2) bits++;
+		int found = 0;
+		for(int tries=0; tries<4 && found == 0; tries++) {
+			found = findSeed(serializedNames, bits);
+			if (found == 0) bits++;
+		}
+		
+		this.seed = found;
+		this.shift = 32 - bits;
+		if (found == 0) {
+			this.table = null;
+		} else {
+			this.table = new byte[1 << bits];
+			for(int i=0; i<serializedNames.length; i++) {
+				table[bucket(serializedNames[i].hashCode(), found, shift)] = (byte) (i + 1);
+			}
+		}
+	}
+	
+	private static int findSeed(String[] names, int bits) {
+		boolean[] used = new boolean[1 << bits];
+		int shift = 32 - bits;
+		int candidate = 0x9E3779B9;
+		for(int attempt=0; attempt<64; attempt++) {
+			Arrays.fill(used, false);
+			boolean collided = false;
+			for(String name : names) {
+				int b = bucket(name.hashCode(), candidate, shift);
+				if (used[b]) {
+					collided = true;
+					break;
+				}
+				used[b] = true;
+			}
+			if (!collided) return candidate;
+			candidate = candidate * 0x2C1B3C6D + 0x297A2D39 | 1; // Odd multipliers mix best
+		}
+		return 0;
+	}
+	
+	private static int bucket(int hash, int seed, int shift) {
+		return (hash * seed) >>> shift;
+	}
+	
+	@Override
+	public StructuredDataFunction<?> create(Object subject) {
+		return new RecordFunction<>(this);
+	}
+	
+	/**
+	 * Gets the position of the component with this serialized name, or -1 if there isn't one.
+	 */
+	public int indexOf(String serializedName) {
+		if (table == null) {
+			// If names are duplicated, the last one wins, the same as it would in a HashMap
+			for(int i=serializedNames.length-1; i>=0; i--) {
+				if (serializedNames[i].equals(serializedName)) return i;
+			}
+			return -1;
+		}
+		
+		int entry = table[bucket(serializedName.hashCode(), seed, shift)] & 0xFF;
+		if (entry == 0) return -1;
+		int index = entry - 1;
+		return serializedNames[index].equals(serializedName) ? index : -1;
+	}
+	
+	public int size() {
+		return slotKinds.length;
+	}
+	
+	public Class<T> getRecordClass() {
+		return recordClass;
+	}
+	
+	String getSerializedName(int component) {
+		return serializedNames[component];
+	}
+	
+	BindingPlan getComponentPlan(int component) {
+		return componentPlans[component].get();
+	}
+	
+	/**
+	 * Gets which kind of slot holds the component at this position: SLOT_OBJECT, SLOT_LONG, or SLOT_DOUBLE.
+	 */
+	byte slotKind(int component) {
+		return slotKinds[component];
+	}
+	
+	/**
+	 * Creates a long[] big enough for every component, or null if no component is held in a long slot.
+	 */
+	long[] newLongSlots() {
+		return (hasLongs) ? new long[slotKinds.length] : null;
+	}
+	
+	/**
+	 * Creates a double[] big enough for every component, or null if no component is held in a double slot.
+	 */
+	double[] newDoubleSlots() {
+		return (hasDoubles) ? new double[slotKinds.length] : null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	T construct(Object[] objects, long[] longs, double[] doubles) throws Throwable {
+		return (T) (Object) constructor.invokeExact(objects, longs, doubles);
+	}
+	
+	/**
+	 * Gets the name a component is stored under. SerializedName can only be put on fields, so when it's written on a
+	 * record component, it ends up on the component's private field rather than on the component itself.
+	 */
+	private static String getSerializedName(Class<?> recordClass, RecordComponent component) {
+		try {
+			SerializedName altName = recordClass.getDeclaredField(component.getName()).getAnnotation(SerializedName.class);
+			if (altName != null) return altName.value();
+		} catch (NoSuchFieldException ex) {
+			// Every component has a field, but if it's somehow missing, there's no annotation to find
+		}
+		return component.getName();
+	}
+	
+	/**
+	 * Builds a RecordPlan for a record class. Most callers should use {@link BindingPlan#of(java.lang.reflect.Type)}
+	 * instead, which caches plans.
+	 * @throws IllegalArgumentException if the canonical constructor can't be found or accessed
+	 */
+	public static <T> RecordPlan<T> of(Class<T> recordClass) {
+		RecordComponent[] components = recordClass.getRecordComponents();
+		Class<?>[] componentTypes = new Class<?>[components.length];
+		String[] serializedNames = new String[components.length];
+		BindingPlan.Lazy[] componentPlans = new BindingPlan.Lazy[components.length];
+		for(int i=0; i<components.length; i++) {
+			RecordComponent c = components[i];
+			componentTypes[i] = c.getType();
+			componentPlans[i] = new BindingPlan.Lazy(c.getGenericType());
+			
+			serializedNames[i] = getSerializedName(recordClass, c);
+		}
+		
+		try {
+			// Record components are guaranteed to be in the same order as the canonical constructor's parameters
+			Constructor<T> canonical = recordClass.getDeclaredConstructor(componentTypes);
+			// This Constructor object is ours alone, so it can stay accessible
+			if (!canonical.canAccess(null)) canonical.setAccessible(true);
+			MethodHandle target = MethodHandles.lookup().unreflectConstructor(canonical);
+			
+			// Replace each parameter with a read from the matching slot array
+			byte[] slotKinds = new byte[components.length];
+			MethodHandle[] getters = new MethodHandle[components.length];
+			int[] reorder = new int[components.length];
+			for(int i=0; i<components.length; i++) {
+				Class<?> type = componentTypes[i];
+				MethodHandle getter;
+				if (!type.isPrimitive()) {
+					slotKinds[i] = SLOT_OBJECT;
+					getter = MethodHandles.arrayElementGetter(Object[].class);
+				} else if (UnboxedFunction.usesDoubleSlot(type)) {
+					slotKinds[i] = SLOT_DOUBLE;
+					getter = MethodHandles.arrayElementGetter(double[].class);
+				} else {
+					slotKinds[i] = SLOT_LONG;
+					getter = MethodHandles.arrayElementGetter(long[].class);
+				}
+				getter = MethodHandles.insertArguments(getter, 1, i);
+				// Narrows longs to int, short, etc., takes the low bit of a long for boolean, and casts Objects
+				getters[i] = MethodHandles.explicitCastArguments(getter, getter.type().changeReturnType(type));
+				reorder[i] = slotKinds[i];
+			}
+			
+			MethodHandle filtered = MethodHandles.filterArguments(target, 0, getters);
+			MethodHandle handle = MethodHandles.permuteArguments(filtered, INVOKER_TYPE.changeReturnType(recordClass), reorder);
+			return new RecordPlan<>(recordClass, serializedNames, componentPlans, slotKinds, handle.asType(INVOKER_TYPE));
+		} catch (NoSuchMethodException | IllegalAccessException | RuntimeException ex) {
+			throw new IllegalArgumentException("Could not find an accessible canonical constructor for record type '"+recordClass.getSimpleName()+"'.", ex);
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson.impl.io.objectwriter;
+
+import javax.annotation.Nullable;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.StructuredData;
+
+/**
+ * Unpacks a single primitive value into a Java primitive type or its wrapper, going straight from the StructuredData to
+ * a long or double. Callers which know the target type can pick up the value with {@link #getLong()} or
+ * {@link #getDouble()} and never box it; {@link #getResult()} boxes it for everyone else.
+ * 
+ * <p>Whole-number types, boolean, and char are held as a long, and float and double are held as a double. Values are
+ * converted the same way PrimitiveElement converts them: numbers can be read from Strings, whole numbers can be read
+ * as floating point, and floating point is never silently truncated to a whole number.
+ */
+public class UnboxedFunction extends SingleValueFunction<Object> {
+	private final Class<?> type;
+	private final boolean boxed;
+	private boolean isNull = true;
+	private long longValue;
+	private double doubleValue;
+	
+	/**
+	 * Creates a new UnboxedFunction.
+	 * @param type a primitive class like int.class, or a wrapper class like Integer.class. For a wrapper class, null
+	 *             and values which can't be converted produce a null result. For a primitive class, they're errors.
+	 */
+	public UnboxedFunction(Class<?> type) {
+		this.type = unwrap(type);
+		this.boxed = !type.isPrimitive();
+	}
+	
+	@Override
+	protected void process(StructuredData data) throws SyntaxError {
+		if (data.type() != StructuredData.Type.PRIMITIVE) {
+			if (data.type().isSemantic()) throw new SyntaxError("Expected a "+type.getName()+" value, found "+data.type().name());
+			return;
+		}
+		
+		try {
+			if (usesDoubleSlot(type)) {
+				doubleValue = toDouble(type, data.value());
+			} else {
+				longValue = toLong(type, data.value());
+			}
+			isNull = false;
+		} catch (SyntaxError err) {
+			if (!boxed) throw err;
+		}
+	}
+	
+	public long getLong() {
+		return longValue;
+	}
+	
+	public double getDouble() {
+		return doubleValue;
+	}
+	
+	@Override
+	public Object getResult() {
+		if (isNull) return null;
+		return box(type, longValue, doubleValue);
+	}
+	
+	/**
+	 * Gets the primitive class for a wrapper class like Integer.class. Other classes are returned unchanged.
+	 */
+	public static Class<?> unwrap(Class<?> type) {
+		if (type == Integer.class)   return int.class;
+		if (type == Long.class)      return long.class;
+		if (type == Short.class)     return short.class;
+		if (type == Byte.class)      return byte.class;
+		if (type == Character.class) return char.class;
+		if (type == Boolean.class)   return boolean.class;
+		if (type == Float.class)     return float.class;
+		if (type == Double.class)    return double.class;
+		return type;
+	}
+	
+	/**
+	 * Returns true if values of this primitive type are held as a double, or false if they're held as a long.
+	 */
+	public static boolean usesDoubleSlot(Class<?> primitiveType) {
+		return primitiveType == double.class || primitiveType == float.class;
+	}
+	
+	/**
+	 * Converts a primitive value for a type held as a long.
+	 * @throws SyntaxError if the value can't be represented in the type
+	 */
+	static long toLong(Class<?> primitiveType, @Nullable Object value) throws SyntaxError {
+		if (primitiveType == boolean.class) {
+			if (value instanceof Boolean b) return b ? 1L : 0L;
+			throw new SyntaxError("Expected a boolean value, found "+describe(value));
+		}
+		
+		if (primitiveType == char.class && value instanceof String s && s.length() == 1) return s.charAt(0);
+		
+		long result;
+		if (value instanceof Long l) {
+			result = l;
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			result = ((Number) value).longValue();
+		} else if (value instanceof String s) {
+			try {
+				result = Long.parseLong(s);
+			} catch (NumberFormatException ex) {
+				throw new SyntaxError("Expected a whole number for a "+primitiveType.getName()+" value, found "+describe(value));
+			}
+		} else {
+			throw new SyntaxError("Expected a whole number for a "+primitiveType.getName()+" value, found "+describe(value));
+		}
+		
+		// Narrower types have to fit in an int first, and are then cast, the same as a PrimitiveElement mapAsInt
+		if (primitiveType != long.class && (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)) {
+			throw new SyntaxError("Value "+result+" is too large for a "+primitiveType.getName()+" value");
+		}
+		
+		if (primitiveType == short.class) return (short) result;
+		if (primitiveType == byte.class) return (byte) result;
+		if (primitiveType == char.class) return (char) result;
+		return result;
+	}
+	
+	/**
+	 * Converts a primitive value for a type held as a double.
+	 * @throws SyntaxError if the value isn't a number
+	 */
+	static double toDouble(Class<?> primitiveType, @Nullable Object value) throws SyntaxError {
+		double result;
+		if (value instanceof Number n) {
+			result = n.doubleValue();
+		} else if (value instanceof String s) {
+			try {
+				result = Double.parseDouble(s);
+			} catch (NumberFormatException ex) {
+				throw new SyntaxError("Expected a number for a "+primitiveType.getName()+" value, found "+describe(value));
+			}
+		} else {
+			throw new SyntaxError("Expected a number for a "+primitiveType.getName()+" value, found "+describe(value));
+		}
+		
+		return (primitiveType == float.class) ? (float) result : result;
+	}
+	
+	static Object box(Class<?> primitiveType, long longValue, double doubleValue) {
+		if (primitiveType == int.class)     return Integer.valueOf((int) longValue);
+		if (primitiveType == long.class)    return Long.valueOf(longValue);
+		if (primitiveType == short.class)   return Short.valueOf((short) longValue);
+		if (primitiveType == byte.class)    return Byte.valueOf((byte) longValue);
+		if (primitiveType == char.class)    return Character.valueOf((char) longValue);
+		if (primitiveType == boolean.class) return Boolean.valueOf(longValue != 0);
+		if (primitiveType == float.class)   return Float.valueOf((float) doubleValue);
+		return Double.valueOf(doubleValue);
+	}
+	
+	private static String describe(@Nullable Object value) {
+		if (value == null) return "null";
+		if (value instanceof String s) return "\""+s+"\"";
+		return value.toString();
+	}
+}
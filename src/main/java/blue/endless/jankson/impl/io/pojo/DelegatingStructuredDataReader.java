@@ -28,6 +28,8 @@ import java.io.IOException;
 
 import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.api.io.StructuredDataReader;
+import blue.endless.jankson.api.io.StructuredDataWriter;
+import blue.endless.jankson.impl.io.BatchingWriter;
 import blue.endless.jankson.impl.io.StructuredDataPipe;
 
 public abstract class DelegatingStructuredDataReader implements StructuredDataReader {
@@ -64,6 +66,41 @@ public abstract class DelegatingStructuredDataReader implements StructuredDataRe
 		return latestEntry;
 	}
 	
+	/**
+	 * Sends the rest of this reader's data to the writer in batches, without buffering it in the pipe. Delegates add
+	 * their data to the same batch, so no matter how deeply readers are nested, each piece of data is only handled once.
+	 */
+	@Override
+	public void transferTo(StructuredDataWriter writer) throws IOException {
+		if (writer instanceof BatchingWriter batch) {
+			// We're a delegate of another reader, which is already batching
+			transferBatched(batch);
+		} else {
+			BatchingWriter batch = new BatchingWriter(writer);
+			try {
+				transferBatched(batch);
+			} finally {
+				batch.flush();
+			}
+		}
+	}
+	
+	private void transferBatched(BatchingWriter batch) throws IOException {
+		while(true) {
+			// Anything already buffered goes first
+			while(!pipe.isEmpty()) {
+				if (pipe.isEof()) return;
+				batch.write(pipe.pop());
+			}
+			
+			if (delegate != null) delegate.transferTo(batch);
+			
+			delegate = null;
+			onDelegateEmpty();
+			if (pipe.isEmpty() && delegate == null) throw new IllegalStateException("No new data was made available from onDelegateEmpty()!");
+		}
+	}
+	
 	/**
 	 * Buffers an element so that it will be presented next, after any previously buffered data
 	 * @param value the value to buffer
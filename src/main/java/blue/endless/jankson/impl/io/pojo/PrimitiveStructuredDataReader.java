@@ -29,6 +29,7 @@ import java.io.IOException;
 import blue.endless.jankson.api.document.PrimitiveElement;
 import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.api.io.StructuredDataReader;
+import blue.endless.jankson.api.io.StructuredDataWriter;
 
 public class PrimitiveStructuredDataReader implements StructuredDataReader {
 	
@@ -61,5 +62,12 @@ public class PrimitiveStructuredDataReader implements StructuredDataReader {
 	public boolean hasNext() {
 		return !wasNexted;
 	}
+	
+	@Override
+	public void transferTo(StructuredDataWriter writer) throws IOException {
+		if (wasNexted) return;
+		wasNexted = true;
+		writer.write(data);
+	}
 
 }
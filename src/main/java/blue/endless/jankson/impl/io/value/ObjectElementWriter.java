@@ -77,6 +77,9 @@ public class ObjectElementWriter implements StrictValueElementWriter {
 							}
 						}
 						
+						case NEWLINE -> bufferedKeyPreamble.add(FormattingElement.NEWLINE);
+						case WHITESPACE -> {}
+						
 						case OBJECT_KEY -> bufferedKey = data.value().toString();
 						
 						case OBJECT_END -> {
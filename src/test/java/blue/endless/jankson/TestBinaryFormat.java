@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.BinaryStructuredDataReader;
+import blue.endless.jankson.api.io.BinaryStructuredDataWriter;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.ObjectWriter;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.ValueElementWriter;
+
+public class TestBinaryFormat {
+	private static final String SUBJECT = """
+			{
+				// A comment
+				"name": "Jankson \\uD83D\\uDE00 é",
+				"count": -12345678901,
+				"ratio": 0.25,
+				"flags": [ true, false, null ],
+				/* nested */
+				"nested": { "name": "again", "count": 1 },
+				"list": [ { "name": "a" }, { "name": "b" } ],
+			}
+			""";
+	
+	private static byte[] encode(String json, boolean retainFormatting) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryStructuredDataWriter writer = new BinaryStructuredDataWriter(out, retainFormatting);
+		new JsonReader(new StringReader(json), new JsonReaderOptions()).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		return out.toByteArray();
+	}
+	
+	private static List<StructuredData> events(StructuredDataSource source) throws IOException {
+		List<StructuredData> result = new ArrayList<>();
+		source.read(result);
+		return result;
+	}
+	
+	private interface StructuredDataSource {
+		void read(List<StructuredData> list) throws IOException;
+	}
+	
+	@Test
+	public void testEventsRoundTrip() throws IOException {
+		byte[] encoded = encode(SUBJECT, true);
+		
+		List<StructuredData> expected = events((list) -> new JsonReader(new StringReader(SUBJECT), new JsonReaderOptions()).transferTo(list::add));
+		List<StructuredData> actual = events((list) -> new BinaryStructuredDataReader(new ByteArrayInputStream(encoded)).transferTo(list::add));
+		
+		// Comments come back as CommentElements, which don't have value equality, so compare them by their contents
+		expected.removeIf(it -> it.type() == StructuredData.Type.EOF);
+		actual.removeIf(it -> it.type() == StructuredData.Type.EOF);
+		Assertions.assertEquals(expected.size(), actual.size());
+		for(int i=0; i<expected.size(); i++) {
+			StructuredData e = expected.get(i);
+			StructuredData a = actual.get(i);
+			Assertions.assertEquals(e.type(), a.type());
+			if (e.isComment()) {
+				Assertions.assertEquals(e.asComment().getValue(), a.asComment().getValue());
+				Assertions.assertEquals(e.asComment().getCommentType(), a.asComment().getCommentType());
+			} else {
+				Assertions.assertEquals(e.value(), a.value());
+			}
+		}
+	}
+	
+	@Test
+	public void testDocumentRoundTrip() throws IOException, SyntaxError {
+		ValueElementWriter writer = new ValueElementWriter();
+		BinaryStructuredDataReader reader = new BinaryStructuredDataReader(new ByteArrayInputStream(encode(SUBJECT, true)));
+		reader.transferTo(writer);
+		Assertions.assertTrue(reader.hasFormatting());
+		
+		ValueElement original = Jankson.readJson(SUBJECT);
+		Assertions.assertEquals(Jankson.toJsonString(original, JsonWriterOptions.DEFAULTS), Jankson.toJsonString(writer.toValueElement(), JsonWriterOptions.DEFAULTS));
+	}
+	
+	public static record Entry(String name, Long count) {}
+	
+	@Test
+	public void testSemanticOnly() throws IOException, SyntaxError {
+		Assertions.assertTrue(encode(SUBJECT, false).length < encode(SUBJECT, true).length);
+		
+		byte[] compact = encode("{ /* comment */ \"name\": \"Jankson \\uD83D\\uDE00 é\", \"count\": -12345678901 }", false);
+		ObjectWriter<Entry> writer = new ObjectWriter<>(Entry.class);
+		new BinaryStructuredDataReader(new ByteArrayInputStream(compact)).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		Assertions.assertEquals(new Entry("Jankson 😀 é", -12345678901L), writer.toObject());
+	}
+	
+	@Test
+	public void testLongStrings() throws IOException, SyntaxError {
+		String longString = "éabc".repeat(10_000);
+		String json = "[ \""+longString+"\", \""+longString+"\" ]";
+		
+		ValueElementWriter writer = new ValueElementWriter();
+		new BinaryStructuredDataReader(new ByteArrayInputStream(encode(json, true))).transferTo(writer);
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(json), JsonWriterOptions.STRICT), Jankson.toJsonString(writer.toValueElement(), JsonWriterOptions.STRICT));
+	}
+	
+	@Test
+	public void testMalformed() throws IOException {
+		Assertions.assertThrows(IOException.class, () -> new BinaryStructuredDataReader(new ByteArrayInputStream("{ }".getBytes())).next());
+		
+		byte[] encoded = encode(SUBJECT, true);
+		byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 5);
+		Assertions.assertThrows(IOException.class, () -> new BinaryStructuredDataReader(new ByteArrayInputStream(truncated)).transferTo(it -> {}));
+	}
+	
+	@Test
+	public void testHugeLengthIsTruncation() {
+		// A String claiming to be Integer.MAX_VALUE bytes long, with nothing after it
+		byte[] encoded = { 'J', 'N', 'K', 'B', 1, 0, 0x0A, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+		Assertions.assertThrows(EOFException.class, () -> new BinaryStructuredDataReader(new ByteArrayInputStream(encoded)).transferTo(it -> {}));
+		
+		encoded[6] = 0x10; // Binary data
+		Assertions.assertThrows(EOFException.class, () -> new BinaryStructuredDataReader(new ByteArrayInputStream(encoded)).transferTo(it -> {}));
+	}
+	
+	@Test
+	public void testBinary() throws IOException {
+		byte[] small = { 1, 2, 3 };
+		byte[] large = new byte[20_000];
+		for(int i=0; i<large.length; i++) large[i] = (byte) (i * 31);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryStructuredDataWriter writer = new BinaryStructuredDataWriter(out, false);
+		writer.write(StructuredData.ARRAY_START);
+		writer.write(StructuredData.primitive(small));
+		writer.write(StructuredData.primitive(large));
+		writer.write(StructuredData.ARRAY_END);
+		writer.write(StructuredData.EOF);
+		
+		ValueElementWriter result = new ValueElementWriter();
+		new BinaryStructuredDataReader(new ByteArrayInputStream(out.toByteArray())).transferTo(result);
+		ArrayElement arr = (ArrayElement) result.toValueElement();
+		Assertions.assertArrayEquals(small, ((PrimitiveElement) arr.get(0)).asBinary().get());
+		Assertions.assertArrayEquals(large, ((PrimitiveElement) arr.get(1)).asBinary().get());
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.CborReader;
+import blue.endless.jankson.api.io.CborWriter;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.ObjectWriter;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.ValueElementWriter;
+
+public class TestCbor {
+	
+	private static ValueElement decode(String hex) throws IOException {
+		ValueElementWriter writer = new ValueElementWriter();
+		new CborReader(new ByteArrayInputStream(HexFormat.of().parseHex(hex))).transferTo(writer);
+		return writer.toValueElement();
+	}
+	
+	private static byte[] encode(String json) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CborWriter writer = new CborWriter(out);
+		new JsonReader(new StringReader(json), new JsonReaderOptions()).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		return out.toByteArray();
+	}
+	
+	private static void assertDecodes(String expectedJson, String hex) throws IOException, SyntaxError {
+		Assertions.assertEquals(
+				Jankson.toJsonString(Jankson.readJson(expectedJson), JsonWriterOptions.STRICT),
+				Jankson.toJsonString(decode(hex), JsonWriterOptions.STRICT));
+	}
+	
+	@Test
+	public void testRfcExamples() throws IOException, SyntaxError {
+		// From RFC 8949 Appendix A
+		assertDecodes("0", "00");
+		assertDecodes("500", "1901f4");
+		assertDecodes("1000000000000", "1b000000e8d4a51000");
+		assertDecodes("-1000", "3903e7");
+		assertDecodes("1.0", "f93c00");
+		assertDecodes("1.1", "fb3ff199999999999a");
+		assertDecodes("100000.0", "fa47c35000");
+		assertDecodes("-4.0", "f9c400");
+		assertDecodes("true", "f5");
+		assertDecodes("null", "f6");
+		assertDecodes("\"IETF\"", "6449455446");
+		assertDecodes("\"\\u00fc\"", "62c3bc");
+		assertDecodes("[ 1, [ 2, 3 ], [ 4, 5 ] ]", "8301820203820405");
+		assertDecodes("[ 1, [ 2, 3 ], [ 4, 5 ] ]", "9f018202039f0405ffff");
+		assertDecodes("{ \"a\": 1, \"b\": [ 2, 3 ] }", "a26161016162820203");
+		assertDecodes("{ \"a\": 1, \"b\": [ 2, 3 ] }", "bf61610161629f0203ffff");
+		assertDecodes("\"streaming\"", "7f657374726561646d696e67ff");
+		assertDecodes("{ \"1\": 2, \"3\": 4 }", "a201020304");
+		
+		// Bignums and decimal fractions
+		PrimitiveElement big = (PrimitiveElement) decode("c249010000000000000000");
+		Assertions.assertEquals("18446744073709551616", big.asBigInteger().get().toString());
+		PrimitiveElement smallBignum = (PrimitiveElement) decode("c2420100");
+		Assertions.assertEquals(256L, smallBignum.asLong().getAsLong());
+		PrimitiveElement fraction = (PrimitiveElement) decode("c48221196ab3");
+		Assertions.assertEquals(new BigDecimal("273.15"), fraction.asBigDecimal().get());
+	}
+	
+	@Test
+	public void testEncoding() throws IOException {
+		Assertions.assertEquals("bf61610161629f02f93e00fb3ff199999999999aff6163f6ff", HexFormat.of().formatHex(encode("{ \"a\": 1, \"b\": [ 2, 1.5, 1.1 ], \"c\": null }")));
+		Assertions.assertEquals("3903e7", HexFormat.of().formatHex(encode("-1000")));
+		Assertions.assertEquals("1b000000e8d4a51000", HexFormat.of().formatHex(encode("1000000000000")));
+	}
+	
+	@Test
+	public void testBigValuesRoundTrip() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CborWriter writer = new CborWriter(out);
+		writer.write(StructuredData.ARRAY_START);
+		writer.write(new StructuredData(StructuredData.Type.PRIMITIVE, new BigInteger("-18446744073709551617")));
+		writer.write(new StructuredData(StructuredData.Type.PRIMITIVE, new BigDecimal("273.15")));
+		writer.write(StructuredData.ARRAY_END);
+		writer.write(StructuredData.EOF);
+		
+		ValueElementWriter valueWriter = new ValueElementWriter();
+		new CborReader(new ByteArrayInputStream(out.toByteArray())).transferTo(valueWriter);
+		ArrayElement arr = (ArrayElement) valueWriter.toValueElement();
+		Assertions.assertEquals(new BigInteger("-18446744073709551617"), arr.getPrimitive(0).asBigInteger().get());
+		Assertions.assertEquals(new BigDecimal("273.15"), arr.getPrimitive(1).asBigDecimal().get());
+	}
+	
+	public static record Message(String id, List<Long> values, Boolean ok) {}
+	
+	@Test
+	public void testPipelines() throws IOException, SyntaxError {
+		String json = "{ \"id\": \"héllo 😀\", \"values\": [ 1, -2, 300000, 5000000000 ], \"ok\": true }";
+		byte[] cbor = encode(json);
+		
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(json), JsonWriterOptions.STRICT), Jankson.toJsonString(decode(HexFormat.of().formatHex(cbor)), JsonWriterOptions.STRICT));
+		
+		ObjectWriter<Message> writer = new ObjectWriter<>(Message.class);
+		new CborReader(new ByteArrayInputStream(cbor)).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		Assertions.assertEquals(new Message("héllo 😀", List.of(1L, -2L, 300000L, 5000000000L), true), writer.toObject());
+	}
+	
+	@Test
+	public void testMalformed() {
+		Assertions.assertThrows(IOException.class, () -> decode("ff"));
+		Assertions.assertThrows(IOException.class, () -> decode("a16161"));
+		Assertions.assertThrows(IOException.class, () -> decode("a1816101"));
+		
+		// Huge declared lengths with no data behind them are just truncated input
+		Assertions.assertThrows(EOFException.class, () -> decode("5a7fffffff"));
+		Assertions.assertThrows(EOFException.class, () -> decode("7a7fffffff"));
+		Assertions.assertThrows(EOFException.class, () -> decode("5f5a7fffffffff"));
+	}
+	
+	@Test
+	public void testBinary() throws IOException, SyntaxError {
+		// Byte strings are read as binary, which json shows as base64url
+		assertDecodes("\"AQIDBA\"", "4401020304");
+		PrimitiveElement bytes = (PrimitiveElement) decode("4401020304");
+		Assertions.assertArrayEquals(new byte[] { 1, 2, 3, 4 }, bytes.asBinary().get());
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CborWriter writer = new CborWriter(out);
+		writer.write(StructuredData.primitive(new byte[] { 1, 2, 3, 4 }));
+		writer.write(StructuredData.EOF);
+		Assertions.assertEquals("4401020304", HexFormat.of().formatHex(out.toByteArray()));
+	}
+}
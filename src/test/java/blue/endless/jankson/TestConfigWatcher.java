@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.io.ConfigChange;
+import blue.endless.jankson.api.io.ConfigWatcher;
+
+public class TestConfigWatcher {
+	
+	@Test
+	public void testFineGrainedChanges() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-watch");
+		Path file = dir.resolve("config.json5");
+		Files.writeString(file, "{ a: 1, b: { c: \"x\", d: [ 1, 2 ] }, e: true }");
+		
+		try(ConfigWatcher watcher = new ConfigWatcher()) {
+			List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+			watcher.addListener(changes::add);
+			watcher.watch(file);
+			
+			// Comments and formatting changes aren't changes
+			Files.writeString(file, "{\n\t// Hello\n\ta: 1,\n\tb: { c: \"x\", d: [ 1, 2 ] },\n\te: true\n}");
+			watcher.checkAll();
+			Assertions.assertEquals(List.of(), changes);
+			
+			Files.writeString(file, "{ a: 1, b: { c: \"y\", d: [ 1, 2, 3 ] }, f: false }");
+			watcher.checkAll();
+			
+			Assertions.assertEquals(List.of("/b/c", "/b/d/2", "/e", "/f"), changes.stream().map(ConfigChange::pointer).collect(Collectors.toList()));
+			Assertions.assertEquals("y", ((PrimitiveElement) changes.get(0).newValue()).asString().get());
+			Assertions.assertTrue(changes.get(1).isAddition());
+			Assertions.assertTrue(changes.get(2).isRemoval());
+		}
+	}
+	
+	@Test
+	public void testWatchThread() throws IOException, SyntaxError, InterruptedException {
+		Path dir = Files.createTempDirectory("jankson-watch");
+		Path file = dir.resolve("config.json5");
+		Files.writeString(file, "{ a: 1 }");
+		
+		try(ConfigWatcher watcher = new ConfigWatcher()) {
+			List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+			watcher.addListener(changes::add);
+			watcher.watch(file);
+			watcher.start();
+			
+			Files.writeString(file, "{ a: 2 }");
+			
+			long deadline = System.currentTimeMillis() + 10_000;
+			while(changes.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(20);
+			
+			Assertions.assertEquals(1, changes.size());
+			Assertions.assertEquals("/a", changes.get(0).pointer());
+			Assertions.assertEquals(2L, ((PrimitiveElement) ((ObjectElement) watcher.get(file)).get("a")).asLong().getAsLong());
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.DocumentCache;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.LargeStringHandler;
+
+public class TestDocumentCache {
+	
+	private static List<Path> snapshots(Path dir) throws IOException {
+		try(Stream<Path> stream = Files.list(dir)) {
+			return stream.filter(it -> it.toString().endsWith(".jbin")).toList();
+		}
+	}
+	
+	@Test
+	public void testCacheHitsAndMisses() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-cache");
+		Path cacheDir = dir.resolve("cache");
+		Path source = dir.resolve("config.json5");
+		Files.writeString(source, "{\n\t// Port to listen on\n\tport: 25565,\n\tname: \"server\"\n}");
+		
+		DocumentCache cache = new DocumentCache(cacheDir, 1 << 20);
+		ValueElement first = cache.read(source);
+		Assertions.assertEquals(1, snapshots(cacheDir).size());
+		
+		// Second read comes from the snapshot, and must match a fresh parse exactly, comments and all
+		ValueElement second = cache.read(source);
+		Assertions.assertEquals(1, snapshots(cacheDir).size());
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(source), JsonWriterOptions.DEFAULTS), Jankson.toJsonString(second, JsonWriterOptions.DEFAULTS));
+		Assertions.assertEquals(Jankson.toJsonString(first, JsonWriterOptions.DEFAULTS), Jankson.toJsonString(second, JsonWriterOptions.DEFAULTS));
+		
+		// Changing the file or the options is a miss
+		Files.writeString(source, "{ port: 8080 }");
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(source), JsonWriterOptions.STRICT), Jankson.toJsonString(cache.read(source), JsonWriterOptions.STRICT));
+		Assertions.assertEquals(2, snapshots(cacheDir).size());
+		cache.read(source, new JsonReaderOptions(JsonReaderOptions.Hint.ALLOW_BARE_ROOT_OBJECT));
+		Assertions.assertEquals(3, snapshots(cacheDir).size());
+	}
+	
+	@Test
+	public void testCorruptSnapshot() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-cache");
+		Path cacheDir = dir.resolve("cache");
+		Path source = dir.resolve("config.json");
+		Files.writeString(source, "{ \"a\": [ 1, 2, 3 ] }");
+		
+		DocumentCache cache = new DocumentCache(cacheDir, 1 << 20);
+		cache.read(source);
+		Files.write(snapshots(cacheDir).get(0), new byte[] { 'J', 'N', 'K', 'B', 1, 0, 0x01 });
+		
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(source), JsonWriterOptions.STRICT), Jankson.toJsonString(cache.read(source), JsonWriterOptions.STRICT));
+	}
+	
+	@Test
+	public void testEviction() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-cache");
+		Path cacheDir = dir.resolve("cache");
+		DocumentCache cache = new DocumentCache(cacheDir, 200);
+		
+		for(int i=0; i<10; i++) {
+			Path source = dir.resolve("config"+i+".json");
+			Files.writeString(source, "{ \"index\": "+i+", \"padding\": \"................................\" }");
+			cache.read(source);
+		}
+		
+		long total = 0;
+		for(Path snapshot : snapshots(cacheDir)) total += Files.size(snapshot);
+		Assertions.assertTrue(total <= 200);
+		Assertions.assertFalse(snapshots(cacheDir).isEmpty());
+	}
+	
+	@Test
+	public void testLargeStringHandlerBypassesCache() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-cache");
+		Path cacheDir = dir.resolve("cache");
+		Path source = dir.resolve("config.json");
+		Files.writeString(source, "{ \"big\": \"abcdefghijklmnop\" }");
+		
+		List<StringWriter> handedOff = new ArrayList<>();
+		JsonReaderOptions options = JsonReaderOptions.UNSPECIFIED.withLargeStrings(4, new LargeStringHandler() {
+			@Override
+			public Writer begin() {
+				StringWriter result = new StringWriter();
+				handedOff.add(result);
+				return result;
+			}
+			
+			@Override
+			public Object end(Writer destination) {
+				return "#"+(handedOff.size() - 1);
+			}
+		});
+		
+		DocumentCache cache = new DocumentCache(cacheDir, 1 << 20);
+		cache.read(source);
+		Assertions.assertEquals(1, snapshots(cacheDir).size());
+		
+		// The handler must see the string on every read, and must not be handed a snapshot taken without it
+		Assertions.assertEquals("{\n\t\"big\": \"#0\"\n}", Jankson.toJsonString(cache.read(source, options), JsonWriterOptions.STRICT));
+		Assertions.assertEquals("{\n\t\"big\": \"#1\"\n}", Jankson.toJsonString(cache.read(source, options), JsonWriterOptions.STRICT));
+		Assertions.assertEquals(2, handedOff.size());
+		Assertions.assertEquals(1, snapshots(cacheDir).size());
+	}
+}
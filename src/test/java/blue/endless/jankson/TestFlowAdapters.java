@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriter;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataPublisher;
+import blue.endless.jankson.api.io.StructuredDataSubscriber;
+
+public class TestFlowAdapters {
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		String subject = "{ \"a\": 1, \"b\": [ true, false, null ], \"c\": { \"d\": \"e\" } }";
+		
+		StringWriter out = new StringWriter();
+		StructuredDataPublisher publisher = new StructuredDataPublisher(new JsonReader(new StringReader(subject), new JsonReaderOptions()));
+		StructuredDataSubscriber subscriber = new StructuredDataSubscriber(new JsonWriter(out, JsonWriterOptions.ONE_LINE), 2);
+		publisher.subscribe(subscriber);
+		subscriber.getCompletion().get(10, TimeUnit.SECONDS);
+		
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(subject), JsonWriterOptions.ONE_LINE), out.toString());
+	}
+	
+	@Test
+	public void testBackpressure() throws Exception {
+		StructuredDataPublisher publisher = new StructuredDataPublisher(new JsonReader(new StringReader("[ 1, 2, 3, 4, 5 ]"), new JsonReaderOptions()), Runnable::run);
+		
+		List<StructuredData> received = new ArrayList<>();
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+		publisher.subscribe(new Flow.Subscriber<StructuredData>() {
+			@Override public void onSubscribe(Flow.Subscription s) { subscription[0] = s; }
+			@Override public void onNext(StructuredData item) { received.add(item); }
+			@Override public void onError(Throwable throwable) {}
+			@Override public void onComplete() {}
+		});
+		
+		Assertions.assertEquals(0, received.size());
+		subscription[0].request(2);
+		Assertions.assertEquals(2, received.size());
+		Assertions.assertEquals(StructuredData.Type.ARRAY_START, received.get(0).type());
+		subscription[0].cancel();
+		subscription[0].request(2);
+		Assertions.assertEquals(2, received.size());
+	}
+	
+	@Test
+	public void testSyntaxErrorPropagates() {
+		StructuredDataPublisher publisher = new StructuredDataPublisher(new JsonReader(new StringReader("{ \"a\": ] }"), new JsonReaderOptions()));
+		StructuredDataSubscriber subscriber = new StructuredDataSubscriber(new JsonWriter(new StringWriter()));
+		publisher.subscribe(subscriber);
+		
+		Assertions.assertThrows(ExecutionException.class, () -> subscriber.getCompletion().get(10, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	public void testEofIsNotDelivered() {
+		StructuredDataPublisher publisher = new StructuredDataPublisher(new JsonReader(new StringReader("[ 1 ]"), new JsonReaderOptions()), Runnable::run);
+		
+		List<StructuredData> received = new ArrayList<>();
+		boolean[] completed = new boolean[1];
+		publisher.subscribe(new Flow.Subscriber<StructuredData>() {
+			@Override public void onSubscribe(Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+			@Override public void onNext(StructuredData item) { received.add(item); }
+			@Override public void onError(Throwable throwable) {}
+			@Override public void onComplete() { completed[0] = true; }
+		});
+		
+		Assertions.assertTrue(completed[0]);
+		Assertions.assertEquals(List.of(StructuredData.ARRAY_START, StructuredData.primitive(1L), StructuredData.ARRAY_END), received);
+	}
+	
+	@Test
+	public void testBadRequestIsSignaledSerially() {
+		StructuredDataPublisher publisher = new StructuredDataPublisher(new JsonReader(new StringReader("[ 1, 2 ]"), new JsonReaderOptions()), Runnable::run);
+		
+		List<Object> signals = new ArrayList<>();
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+		publisher.subscribe(new Flow.Subscriber<StructuredData>() {
+			@Override public void onSubscribe(Flow.Subscription s) { subscription[0] = s; }
+			@Override public void onNext(StructuredData item) {
+				signals.add(item);
+				// A bad request made from inside onNext must not re-enter the subscriber
+				if (signals.size() == 1) subscription[0].request(0);
+				signals.add("after request");
+			}
+			@Override public void onError(Throwable throwable) { signals.add(throwable); }
+			@Override public void onComplete() { signals.add("complete"); }
+		});
+		
+		subscription[0].request(5);
+		Assertions.assertEquals(3, signals.size());
+		Assertions.assertEquals("after request", signals.get(1));
+		Assertions.assertInstanceOf(IllegalArgumentException.class, signals.get(2));
+	}
+}
@@ -25,14 +25,27 @@
 package blue.endless.jankson;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import blue.endless.jankson.api.Jankson;
 import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ObjectElement;
 import blue.endless.jankson.api.document.PrimitiveElement;
 import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriter;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.LargeStringHandler;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.StructuredDataWriter;
 
 public class TestJsonReader {
 	
@@ -80,4 +93,234 @@ public class TestJsonReader {
 			Assertions.fail("Should parse to a PrimitiveElement");
 		}
 	}
+	
+	@Test
+	public void testBareRootObject() throws IOException {
+		JsonReaderOptions opts = new JsonReaderOptions(JsonReaderOptions.Hint.ALLOW_BARE_ROOT_OBJECT, JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS);
+		JsonReader reader = new JsonReader(new StringReader("\"a\": 1,\nb: [ 2, 3 ]\nc: { d: null }\n"), opts);
+		StringWriter out = new StringWriter();
+		reader.transferTo(new JsonWriter(out, JsonWriterOptions.STRICT));
+		
+		Assertions.assertEquals("{\n\t\"a\": 1,\n\t\"b\": [\n\t\t2,\n\t\t3\n\t],\n\t\"c\": {\n\t\t\"d\": null\n\t}\n}", out.toString());
+	}
+	
+	@Test
+	public void testSkipComments() throws IOException, SyntaxError {
+		String doc = "// header\n{\n\t# first\n\ta: 1, /* inline */ b: [ 2, // two\n 3 ]\n\t/** doc */\n\tc: \"x\"\n}\n";
+		JsonReader reader = new JsonReader(new StringReader(doc), new JsonReaderOptions(JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS, JsonReaderOptions.Hint.SKIP_COMMENTS));
+		
+		int events = 0;
+		while(reader.hasNext()) {
+			StructuredData data = reader.next();
+			Assertions.assertTrue(data.type().isSemantic() || data.type() == StructuredData.Type.EOF, "Unexpected "+data.type());
+			events++;
+			if (data.type() == StructuredData.Type.EOF) break;
+		}
+		Assertions.assertEquals(12, events);
+		
+		ValueElement skipped = Jankson.readJson(doc, new JsonReaderOptions(JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS, JsonReaderOptions.Hint.SKIP_COMMENTS));
+		Assertions.assertEquals("{\n\t\"a\": 1,\n\t\"b\": [\n\t\t2,\n\t\t3\n\t],\n\t\"c\": \"x\"\n}", Jankson.toJsonString(skipped, JsonWriterOptions.STRICT));
+		
+		Assertions.assertThrows(IOException.class, () -> {
+			Jankson.readJson("[ 1 /* never closed", new JsonReaderOptions(JsonReaderOptions.Hint.SKIP_COMMENTS));
+		});
+	}
+	
+	@Test
+	public void testTransferAfterPartialRead() throws IOException {
+		String doc = "{ a: [ 1, 2 ], b: { c: true } }";
+		JsonReader reader = new JsonReader(new StringReader(doc));
+		
+		StringWriter out = new StringWriter();
+		JsonWriter writer = new JsonWriter(out, JsonWriterOptions.STRICT);
+		for(int i=0; i<4; i++) writer.write(reader.next());
+		reader.transferTo(writer);
+		Assertions.assertFalse(reader.hasNext());
+		
+		Assertions.assertEquals("{\n\t\"a\": [\n\t\t1,\n\t\t2\n\t],\n\t\"b\": {\n\t\t\"c\": true\n\t}\n}", out.toString());
+	}
+	
+	@Test
+	public void testBatchedTransfer() throws IOException {
+		StringBuilder doc = new StringBuilder("[");
+		for(int i=0; i<1000; i++) doc.append("{ \"id\": "+i+" },");
+		doc.append("]");
+		
+		List<StructuredData> pulled = new ArrayList<>();
+		JsonReader reader = new JsonReader(new StringReader(doc.toString()));
+		while(reader.hasNext()) pulled.add(reader.next());
+		
+		List<StructuredData> pushed = new ArrayList<>();
+		int[] batches = new int[1];
+		new JsonReader(new StringReader(doc.toString())).transferTo(new StructuredDataWriter() {
+			@Override
+			public void write(StructuredData data) throws IOException {
+				Assertions.fail("Data should arrive in batches");
+			}
+			
+			@Override
+			public void write(StructuredData[] data, int off, int len) throws IOException {
+				batches[0]++;
+				for(int i=off; i<off+len; i++) pushed.add(data[i]);
+			}
+		});
+		
+		Assertions.assertEquals(pulled, pushed);
+		Assertions.assertTrue(batches[0] > 1 && batches[0] < pushed.size() / 100);
+	}
+	
+	@Test
+	public void testResetReaderAndWriter() throws IOException {
+		JsonReader reader = new JsonReader(new StringReader("{ \"a\": [ 1, { \"b\": 2 } ] }"), JsonReaderOptions.UNSPECIFIED);
+		StringWriter out = new StringWriter();
+		JsonWriter writer = new JsonWriter(out, JsonWriterOptions.STRICT);
+		
+		reader.transferTo(writer);
+		Assertions.assertEquals("{\n\t\"a\": [\n\t\t1,\n\t\t{\n\t\t\t\"b\": 2\n\t\t}\n\t]\n}", out.toString());
+		
+		// Abandon a document halfway through, then reuse both ends for new documents
+		reader.reset(new StringReader("[ [ [ 1, 2"));
+		for(int i=0; i<4; i++) reader.next();
+		
+		for(String doc : new String[] { "[ 3, { \"c\": [] } ]", "\"bare\"", "{}" }) {
+			reader.reset(new StringReader(doc));
+			out = new StringWriter();
+			writer.reset(out);
+			reader.transferTo(writer);
+			
+			StringWriter expected = new StringWriter();
+			new JsonReader(new StringReader(doc), JsonReaderOptions.UNSPECIFIED).transferTo(new JsonWriter(expected, JsonWriterOptions.STRICT));
+			Assertions.assertEquals(expected.toString(), out.toString());
+		}
+	}
+	
+	@Test
+	public void testRepeatedKeysAreReused() throws IOException {
+		List<String> keys = new ArrayList<>();
+		StructuredDataWriter collector = (data) -> {
+			if (data.type() == StructuredData.Type.OBJECT_KEY) keys.add((String) data.value());
+		};
+		
+		JsonReader reader = new JsonReader(new StringReader("[ { \"a\": 1, b: 2 }, { \"a\": 3, b: 4 } ]"), JsonReaderOptions.UNSPECIFIED);
+		reader.transferTo(collector);
+		reader.reset(new StringReader("{ \"a\": 5, \"c\": 6 }"));
+		reader.transferTo(collector);
+		
+		Assertions.assertEquals(List.of("a", "b", "a", "b", "a", "c"), keys);
+		Assertions.assertSame(keys.get(0), keys.get(2));
+		Assertions.assertSame(keys.get(1), keys.get(3));
+		Assertions.assertSame(keys.get(0), keys.get(4));
+	}
+	
+	@Test
+	public void testStreamLargeStrings() throws IOException, SyntaxError {
+		StringBuilder big = new StringBuilder();
+		for(int i=0; i<20_000; i++) big.append("line ").append(i).append(i % 7 == 0 ? "\"\\\n" : " ");
+		
+		// Stream the big String out through JsonWriter a piece at a time
+		StringWriter json = new StringWriter();
+		JsonWriter writer = new JsonWriter(json, JsonWriterOptions.ONE_LINE);
+		writer.write(StructuredData.OBJECT_START);
+		writer.write(StructuredData.objectKey("blob"));
+		try(Writer value = writer.beginString()) {
+			for(int i=0; i<big.length(); i+=1000) value.append(big, i, Math.min(i + 1000, big.length()));
+			Assertions.assertThrows(IllegalStateException.class, () -> writer.write(StructuredData.OBJECT_END));
+		}
+		writer.write(StructuredData.objectKey("small"));
+		writer.write(StructuredData.primitive("x"));
+		writer.write(StructuredData.OBJECT_END);
+		
+		// The whole thing is an ordinary document
+		ObjectElement obj = Assertions.assertInstanceOf(ObjectElement.class, Jankson.readJson(json.toString()));
+		Assertions.assertEquals(big.toString(), obj.getPrimitive("blob").asString().get());
+		
+		// Read it back, handing off anything over 1000 characters
+		List<StringWriter> handedOff = new ArrayList<>();
+		JsonReaderOptions options = JsonReaderOptions.UNSPECIFIED.withLargeStrings(1000, new LargeStringHandler() {
+			@Override
+			public Writer begin() {
+				StringWriter result = new StringWriter();
+				handedOff.add(result);
+				return result;
+			}
+			
+			@Override
+			public Object end(Writer destination) {
+				return "#"+(handedOff.size() - 1);
+			}
+		});
+		
+		List<StructuredData> data = new ArrayList<>();
+		new JsonReader(new StringReader(json.toString()), options).transferTo((it) -> data.add(it));
+		
+		Assertions.assertEquals(1, handedOff.size());
+		Assertions.assertEquals(big.toString(), handedOff.get(0).toString());
+		Assertions.assertEquals(StructuredData.primitive("#0"), data.get(2));
+		Assertions.assertEquals(StructuredData.primitive("x"), data.get(4));
+	}
+	
+	@Test
+	public void testWithHintsKeepsSettings() {
+		LargeStringHandler handler = new LargeStringHandler() {
+			@Override
+			public Writer begin() {
+				return new StringWriter();
+			}
+			
+			@Override
+			public Object end(Writer destination) {
+				return destination.toString();
+			}
+		};
+		JsonReaderOptions options = JsonReaderOptions.UNSPECIFIED.withLargeStrings(1000, handler);
+		JsonReaderOptions result = options.withHints(JsonReaderOptions.Hint.SKIP_COMMENTS);
+		
+		Assertions.assertTrue(result.hasHint(JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS));
+		Assertions.assertTrue(result.hasHint(JsonReaderOptions.Hint.SKIP_COMMENTS));
+		Assertions.assertFalse(options.hasHint(JsonReaderOptions.Hint.SKIP_COMMENTS));
+		Assertions.assertSame(options.getMarshaller(), result.getMarshaller());
+		Assertions.assertEquals(1000, result.getLargeStringThreshold());
+		Assertions.assertSame(handler, result.getLargeStringHandler());
+	}
+	
+	@Test
+	public void testRootCommas() throws IOException {
+		JsonReaderOptions options = JsonReaderOptions.UNSPECIFIED.withHints(JsonReaderOptions.Hint.ALLOW_ROOT_COMMAS);
+		List<StructuredData> data = new ArrayList<>();
+		new JsonReader(new StringReader("[ 1 ], [ 2 ],"), options).transferTo((it) -> data.add(it));
+		Assertions.assertEquals(List.of(
+				StructuredData.ARRAY_START, StructuredData.primitive(1L), StructuredData.ARRAY_END,
+				StructuredData.ARRAY_START, StructuredData.primitive(2L), StructuredData.ARRAY_END,
+				StructuredData.EOF), data);
+		
+		Assertions.assertThrows(IOException.class, () -> new JsonReader(new StringReader("[ 1 ], [ 2 ]"), JsonReaderOptions.UNSPECIFIED).transferTo((it) -> {}));
+	}
+	
+	@Test
+	public void testLargeStringAbort() {
+		for(String broken : new String[] { "{ \"a\": \"0123456789", "{ \"a\": \"0123456789\n\" }", "{ \"a\": \"0123456789\\uzzzz\" }" }) {
+			List<String> events = new ArrayList<>();
+			JsonReaderOptions options = JsonReaderOptions.UNSPECIFIED.withLargeStrings(4, new LargeStringHandler() {
+				@Override
+				public Writer begin() {
+					events.add("begin");
+					return new StringWriter() {
+						@Override
+						public void close() {
+							events.add("close");
+						}
+					};
+				}
+				
+				@Override
+				public Object end(Writer destination) {
+					events.add("end");
+					return null;
+				}
+			});
+			
+			Assertions.assertThrows(IOException.class, () -> new JsonReader(new StringReader(broken), options).transferTo((it) -> {}));
+			Assertions.assertEquals(List.of("begin", "close"), events, broken);
+		}
+	}
 }
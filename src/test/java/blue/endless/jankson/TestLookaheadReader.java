@@ -122,4 +122,28 @@ public class TestLookaheadReader {
 		r.peekString(3);
 		Assertions.assertThrows(IllegalArgumentException.class, ()->r.peek(9));
 	}
+	
+	@Test
+	public void surrogatesAcrossBlocks() throws IOException {
+		// Put a surrogate pair right on the boundary between the blocks read from the underlying Reader
+		String text = "a".repeat(4095) + "\uD83D\uDE00" + "b";
+		LookaheadCodePointReader r = new LookaheadCodePointReader(new StringReader(text));
+		
+		for(int i=0; i<4095; i++) Assertions.assertEquals('a', r.read());
+		Assertions.assertEquals(0x1F600, r.read());
+		Assertions.assertEquals('b', r.read());
+		Assertions.assertEquals(-1, r.read());
+	}
+	
+	@Test
+	public void reset() throws IOException {
+		LookaheadCodePointReader r = new LookaheadCodePointReader(new StringReader("first\nline"), 16);
+		r.peekString(8);
+		r.read();
+		
+		r.reset(new StringReader("second"));
+		Assertions.assertEquals(0, r.getLine());
+		Assertions.assertEquals(0, r.getCharacter());
+		Assertions.assertEquals("second", r.readString(16));
+	}
 }
@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.MessagePackReader;
+import blue.endless.jankson.api.io.MessagePackWriter;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.ValueElementWriter;
+
+public class TestMessagePack {
+	
+	private static ValueElement decode(byte[] data) throws IOException {
+		ValueElementWriter writer = new ValueElementWriter();
+		new MessagePackReader(new ByteArrayInputStream(data)).transferTo(writer);
+		return writer.toValueElement();
+	}
+	
+	private static byte[] encode(String json) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MessagePackWriter writer = new MessagePackWriter(out);
+		new JsonReader(new StringReader(json), new JsonReaderOptions()).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		return out.toByteArray();
+	}
+	
+	private static String hex(String json) throws IOException {
+		return HexFormat.of().formatHex(encode(json));
+	}
+	
+	private static void assertRoundTrip(String json) throws IOException, SyntaxError {
+		Assertions.assertEquals(
+				Jankson.toJsonString(Jankson.readJson(json), JsonWriterOptions.STRICT),
+				Jankson.toJsonString(decode(encode(json)), JsonWriterOptions.STRICT));
+	}
+	
+	@Test
+	public void testSmallestIntegers() throws IOException {
+		Assertions.assertEquals("00", hex("0"));
+		Assertions.assertEquals("7f", hex("127"));
+		Assertions.assertEquals("cc80", hex("128"));
+		Assertions.assertEquals("cd0100", hex("256"));
+		Assertions.assertEquals("ce00010000", hex("65536"));
+		Assertions.assertEquals("cf0000000100000000", hex("4294967296"));
+		Assertions.assertEquals("ff", hex("-1"));
+		Assertions.assertEquals("e0", hex("-32"));
+		Assertions.assertEquals("d0df", hex("-33"));
+		Assertions.assertEquals("d1ff7f", hex("-129"));
+		Assertions.assertEquals("d2ffff7fff", hex("-32769"));
+		Assertions.assertEquals("d3ffffffff7fffffff", hex("-2147483649"));
+	}
+	
+	@Test
+	public void testStringsAndFloats() throws IOException {
+		Assertions.assertEquals("a3616263", hex("\"abc\""));
+		Assertions.assertEquals("a2c3bc", hex("\"\\u00fc\""));
+		Assertions.assertEquals("d920" + "61".repeat(32), hex("\"" + "a".repeat(32) + "\""));
+		Assertions.assertEquals("da0100" + "61".repeat(256), hex("\"" + "a".repeat(256) + "\""));
+		Assertions.assertEquals("ca3fc00000", hex("1.5"));
+		Assertions.assertEquals("cb3ff199999999999a", hex("1.1"));
+		Assertions.assertEquals("c0c2c3", hex("null false true"));
+	}
+	
+	@Test
+	public void testContainerHeaders() throws IOException {
+		Assertions.assertEquals("90", hex("[]"));
+		Assertions.assertEquals("80", hex("{}"));
+		Assertions.assertEquals("93019202039104", hex("[1, [2, 3], [4]]"));
+		Assertions.assertEquals("82a161c3a16292c0c2", hex("{ \"a\": true, \"b\": [null, false] }"));
+		
+		// 16 elements needs array16, and nested inside a fixarray
+		String sixteen = "[" + "0,".repeat(15) + "0]";
+		Assertions.assertEquals("91dc0010" + "00".repeat(16), hex("[" + sixteen + "]"));
+		
+		// 70000 elements needs array32
+		String big = "[" + "1,".repeat(69999) + "1]";
+		Assertions.assertEquals("dd00011170" + "01".repeat(70000), hex(big));
+	}
+	
+	@Test
+	public void testRoundTrip() throws IOException, SyntaxError {
+		assertRoundTrip("{ \"a\": 1, \"b\": [ 1.5, -40, \"x\", null, true ], \"c\": { \"d\": {}, \"e\": [] } }");
+		assertRoundTrip("[ 9223372036854775807, -9223372036854775808, \"\\ud83d\\ude00\" ]");
+		assertRoundTrip("{ \"" + "k".repeat(300) + "\": \"" + "v".repeat(70000) + "\" }");
+	}
+	
+	@Test
+	public void testByteBuffers() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		MessagePackWriter writer = new MessagePackWriter(buffer);
+		new JsonReader(new StringReader("{ \"a\": [1, 2] } \"b\""), new JsonReaderOptions()).transferTo(writer);
+		writer.write(StructuredData.EOF);
+		buffer.flip();
+		Assertions.assertEquals(8, buffer.remaining());
+		
+		ArrayElement values = new ArrayElement();
+		MessagePackReader reader = new MessagePackReader(buffer);
+		ValueElementWriter first = new ValueElementWriter();
+		for(int i=0; i<7; i++) first.write(reader.next());
+		values.add(first.toValueElement());
+		values.add(PrimitiveElement.of((String) reader.next().value()));
+		Assertions.assertEquals(StructuredData.Type.EOF, reader.next().type());
+		Assertions.assertEquals("[ { a: [ 1, 2 ] }, \"b\" ]", Jankson.toJsonString(values, JsonWriterOptions.ONE_LINE));
+	}
+	
+	@Test
+	public void testReaderExtensions() throws IOException {
+		// uint64 beyond Long.MAX_VALUE, numeric map key, bin8, and a 32-bit timestamp
+		ValueElement value = decode(HexFormat.of().parseHex("84cfffffffffffffffffc0" + "01a178" + "02c403010203" + "03d6ff00000000"));
+		String json = Jankson.toJsonString(value, JsonWriterOptions.STRICT);
+		Assertions.assertTrue(json.contains("\"1\": \"x\""), json);
+		Assertions.assertTrue(json.contains("\"AQID\""), json);
+		Assertions.assertTrue(json.contains("\"1970-01-01T00:00:00Z\""), json);
+	}
+	
+	@Test
+	public void testTruncated() {
+		Assertions.assertThrows(IOException.class, () -> decode(HexFormat.of().parseHex("92a3616263")));
+		
+		// Huge declared lengths with no data behind them are just truncated input
+		Assertions.assertThrows(EOFException.class, () -> decode(HexFormat.of().parseHex("c67fffffff")));
+		Assertions.assertThrows(EOFException.class, () -> decode(HexFormat.of().parseHex("db7fffffff")));
+		Assertions.assertThrows(EOFException.class, () -> decode(HexFormat.of().parseHex("c97fffffff01")));
+	}
+	
+	@Test
+	public void testBinary() throws IOException, SyntaxError {
+		PrimitiveElement bytes = (PrimitiveElement) decode(HexFormat.of().parseHex("c40401020304"));
+		Assertions.assertArrayEquals(new byte[] { 1, 2, 3, 4 }, bytes.asBinary().get());
+		Assertions.assertEquals("\"AQIDBA\"", Jankson.toJsonString(bytes, JsonWriterOptions.STRICT));
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MessagePackWriter writer = new MessagePackWriter(out);
+		writer.write(StructuredData.ARRAY_START);
+		writer.write(StructuredData.primitive(new byte[] { 1, 2, 3, 4 }));
+		writer.write(StructuredData.primitive(new byte[300]));
+		writer.write(StructuredData.ARRAY_END);
+		writer.write(StructuredData.EOF);
+		byte[] encoded = out.toByteArray();
+		Assertions.assertEquals("92c40401020304c5012c", HexFormat.of().formatHex(encoded, 0, 10));
+		
+		ArrayElement arr = (ArrayElement) decode(encoded);
+		Assertions.assertArrayEquals(new byte[300], ((PrimitiveElement) arr.get(1)).asBinary().get());
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.MultiDocumentReader;
+
+public class TestMultiDocumentReader {
+	
+	private static final String JSON_LINES = """
+			{ "id": 1, "name": "alpha" }
+			{ "id": 2, "name": "beta" }
+			{ "id": 3, "name": "gamma" }
+			""";
+	
+	private static final String CONCATENATED = """
+			// A comment before the first document
+			{ a: 1 }[ 1, 2, "]" ] 42 "plain string"
+			/* A comment before the last document */ { b: { c: "}" } }
+			""";
+	
+	@Test
+	public void testJsonLines() throws IOException {
+		MultiDocumentReader reader = new MultiDocumentReader(new StringReader(JSON_LINES));
+		List<ValueElement> docs = reader.stream().toList();
+		
+		Assertions.assertEquals(3, docs.size());
+		for(int i=0; i<docs.size(); i++) {
+			ObjectElement obj = Assertions.assertInstanceOf(ObjectElement.class, docs.get(i));
+			Assertions.assertEquals(i+1, obj.getPrimitive("id").asInt().getAsInt());
+		}
+	}
+	
+	@Test
+	public void testConcatenated() throws IOException {
+		MultiDocumentReader reader = new MultiDocumentReader(new StringReader(CONCATENATED));
+		
+		Assertions.assertTrue(reader.hasNext());
+		ObjectElement first = Assertions.assertInstanceOf(ObjectElement.class, reader.next());
+		Assertions.assertEquals(1, first.getPrologue().size());
+		
+		ArrayElement second = Assertions.assertInstanceOf(ArrayElement.class, reader.next());
+		Assertions.assertEquals("]", second.getPrimitive(2).asString().get());
+		
+		Assertions.assertEquals(42L, ((PrimitiveElement) reader.next()).asLong().getAsLong());
+		Assertions.assertEquals("plain string", ((PrimitiveElement) reader.next()).asString().get());
+		
+		ObjectElement last = Assertions.assertInstanceOf(ObjectElement.class, reader.next());
+		Assertions.assertEquals("}", last.getObject("b").getPrimitive("c").asString().get());
+		
+		Assertions.assertFalse(reader.hasNext());
+	}
+	
+	private static void assertModesMatch(String input, int expectedCount) throws IOException {
+		List<ValueElement> sequential = new MultiDocumentReader(new StringReader(input)).stream().toList();
+		List<ValueElement> parallel = new MultiDocumentReader(new StringReader(input)).parallelStream().toList();
+		
+		Assertions.assertEquals(expectedCount, sequential.size());
+		Assertions.assertEquals(sequential.size(), parallel.size());
+		for(int i=0; i<sequential.size(); i++) {
+			Assertions.assertEquals(
+					Jankson.toJsonString(sequential.get(i), JsonWriterOptions.STRICT),
+					Jankson.toJsonString(parallel.get(i), JsonWriterOptions.STRICT)
+					);
+		}
+	}
+	
+	@Test
+	public void testParallelMatchesSequential() throws IOException {
+		assertModesMatch(CONCATENATED, 5);
+	}
+	
+	@Test
+	public void testCommasBetweenDocuments() throws IOException {
+		assertModesMatch("{a:1},{b:2}", 2);
+		assertModesMatch("[ 1 ], \"x\" ,\n{ c: [ 2, 3 ] },", 3);
+	}
+	
+	public static record Entry(Integer id, String name) {}
+	
+	@Test
+	public void testTypedStreams() {
+		List<Entry> expected = List.of(new Entry(1, "alpha"), new Entry(2, "beta"), new Entry(3, "gamma"));
+		
+		Assertions.assertEquals(expected, new MultiDocumentReader(new StringReader(JSON_LINES)).stream(Entry.class).toList());
+		Assertions.assertEquals(expected, new MultiDocumentReader(new StringReader(JSON_LINES)).parallelStream(Entry.class).toList());
+	}
+	
+	@Test
+	public void testMalformedDocument() {
+		MultiDocumentReader reader = new MultiDocumentReader(new StringReader("{ a: 1 } } { b: 2 }"));
+		Assertions.assertThrows(UncheckedIOException.class, () -> reader.stream().toList());
+	}
+}
@@ -28,14 +28,20 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.annotation.SerializedName;
 import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonWriterOptions;
 import blue.endless.jankson.api.io.ObjectWriter;
+import blue.endless.jankson.impl.io.objectwriter.BindingPlan;
+import blue.endless.jankson.impl.io.objectwriter.RecordPlan;
 import blue.endless.jankson.impl.magic.ClassHierarchy;
 
 public class TestObjectWriter {
@@ -248,4 +254,177 @@ public class TestObjectWriter {
 		
 		Assertions.assertEquals(expected, actual);
 	}
+	
+	record Tree(String name, List<Tree> children) {}
+	
+	@Test
+	public void testPlansAreCached() throws IOException {
+		record P(List<Map<String, Integer>> value) {}
+		Type targetType = P.class.getRecordComponents()[0].getGenericType();
+		
+		Assertions.assertSame(BindingPlan.of(targetType), BindingPlan.of(targetType));
+		Assertions.assertSame(BindingPlan.of(Tree.class), BindingPlan.of(Tree.class));
+		
+		// Each value still gets its own state
+		Assertions.assertNotSame(BindingPlan.of(targetType).create(null), BindingPlan.of(targetType).create(null));
+	}
+	
+	@Test
+	public void testListOfRecords() throws IOException {
+		record Point(double x, double y, double z) {}
+		record P(List<Point> value) {}
+		Type targetType = P.class.getRecordComponents()[0].getGenericType();
+		
+		StringBuilder subject = new StringBuilder("[");
+		List<Point> expected = new ArrayList<>();
+		for(int i=0; i<2000; i++) {
+			subject.append("{ \"x\": "+i+".0, \"y\": 1.5, \"z\": "+(i * 2)+" },");
+			expected.add(new Point(i, 1.5, i * 2));
+		}
+		subject.append("]");
+		
+		var writer = new ObjectWriter<List<Point>>(targetType);
+		new JsonReader(new StringReader(subject.toString())).transferTo(writer);
+		
+		Assertions.assertEquals(expected, writer.toObject());
+	}
+	
+	@Test
+	public void testRecursiveType() throws IOException {
+		String subject =
+				"""
+				{ "name": "root", "children": [
+					{ "name": "a", "children": [] },
+					{ "name": "b", "children": [ { "name": "c", "children": [] } ] }
+				] }
+				""";
+		
+		var writer = new ObjectWriter<>(Tree.class);
+		new JsonReader(new StringReader(subject)).transferTo(writer);
+		
+		Tree expected = new Tree("root", List.of(
+				new Tree("a", List.of()),
+				new Tree("b", List.of(new Tree("c", List.of())))
+				));
+		Assertions.assertEquals(expected, writer.toObject());
+	}
+	
+	@Test
+	public void testPrimitiveRecordComponents() throws IOException {
+		record Sample(int i, long l, short s, byte b, char c, boolean z, float f, double d, Integer boxed, String name) {}
+		
+		String subject =
+				"""
+				{ "i": -5, "l": 9223372036854775807, "s": 300, "b": 65, "c": "x", "z": true, "f": 1.5, "d": 3, "boxed": 2.5, "name": "n" }
+				""";
+		var writer = new ObjectWriter<>(Sample.class);
+		new JsonReader(new StringReader(subject)).transferTo(writer);
+		
+		// Wrapper types keep their old behavior of becoming null if the value doesn't fit
+		Assertions.assertEquals(new Sample(-5, Long.MAX_VALUE, (short) 300, (byte) 65, 'x', true, 1.5f, 3.0, null, "n"), writer.toObject());
+		
+		Assertions.assertThrows(IOException.class, () -> {
+			new JsonReader(new StringReader("{ \"value\": 2.5 }")).transferTo(new ObjectWriter<>(IntHolder.class));
+		});
+	}
+	
+	record IntHolder(int value) {}
+	
+	@Test
+	public void testPrimitiveArrays() throws IOException {
+		record Samples(int[] ints, long[] longs, double[] doubles, byte[] bytes, boolean[] flags) {}
+		
+		StringBuilder subject = new StringBuilder("{ \"ints\": [");
+		for(int i=0; i<100; i++) subject.append(i).append(", ");
+		subject.append("], \"longs\": [ 1, -2 ], \"doubles\": [ 0.5, 2 ], \"bytes\": [ 1, 255 ], \"flags\": [ true, false ] }");
+		
+		var writer = new ObjectWriter<>(Samples.class);
+		new JsonReader(new StringReader(subject.toString())).transferTo(writer);
+		Samples actual = writer.toObject();
+		
+		Assertions.assertEquals(100, actual.ints().length);
+		Assertions.assertEquals(99, actual.ints()[99]);
+		Assertions.assertArrayEquals(new long[] { 1, -2 }, actual.longs());
+		Assertions.assertArrayEquals(new double[] { 0.5, 2.0 }, actual.doubles());
+		Assertions.assertArrayEquals(new byte[] { 1, (byte) 255 }, actual.bytes());
+		Assertions.assertArrayEquals(new boolean[] { true, false }, actual.flags());
+		
+		var rootWriter = new ObjectWriter<>(float[].class);
+		new JsonReader(new StringReader("[ 1, 2.5 ]")).transferTo(rootWriter);
+		Assertions.assertArrayEquals(new float[] { 1f, 2.5f }, rootWriter.toObject());
+		
+		Assertions.assertThrows(IOException.class, () -> {
+			new JsonReader(new StringReader("[ 1, [ 2 ] ]")).transferTo(new ObjectWriter<>(int[].class));
+		});
+	}
+	
+	record Renamed(@SerializedName("display-name") String name, int Aa, int BB, double weight) {}
+	
+	@Test
+	public void testRecordPlan() throws IOException {
+		// "Aa" and "BB" have the same hashCode, so this record can't use a perfect hash and has to fall back
+		RecordPlan<Renamed> plan = RecordPlan.of(Renamed.class);
+		Assertions.assertEquals(0, plan.indexOf("display-name"));
+		Assertions.assertEquals(-1, plan.indexOf("name"));
+		Assertions.assertEquals(1, plan.indexOf("Aa"));
+		Assertions.assertEquals(2, plan.indexOf("BB"));
+		Assertions.assertEquals(-1, plan.indexOf("weigh"));
+		
+		Assertions.assertInstanceOf(RecordPlan.class, BindingPlan.of(Renamed.class));
+		
+		// Out of order, with an unknown key and a key that only matches the component name
+		String subject =
+				"""
+				{ "weight": 2.5, "BB": 2, "unknown": [ 1, { "x": 2 } ], "name": "ignored", "Aa": 1, "display-name": "thing" }
+				""";
+		var writer = new ObjectWriter<>(Renamed.class);
+		new JsonReader(new StringReader(subject)).transferTo(writer);
+		Assertions.assertEquals(new Renamed("thing", 1, 2, 2.5), writer.toObject());
+	}
+	
+	@Test
+	public void testArrayOfRecords() throws IOException {
+		record Entry(String id, int count, boolean enabled) {}
+		
+		StringBuilder subject = new StringBuilder("[");
+		for(int i=0; i<500; i++) subject.append("{ \"enabled\": "+(i % 2 == 0)+", \"id\": \"e"+i+"\", \"count\": "+i+" },");
+		subject.append("]");
+		
+		record P(List<Entry> value) {}
+		var listWriter = new ObjectWriter<List<Entry>>(P.class.getRecordComponents()[0].getGenericType());
+		new JsonReader(new StringReader(subject.toString())).transferTo(listWriter);
+		List<Entry> entries = listWriter.toObject();
+		Assertions.assertEquals(500, entries.size());
+		Assertions.assertEquals(new Entry("e7", 7, false), entries.get(7));
+		
+		RecordPlan<Entry> plan = RecordPlan.of(Entry.class);
+		Assertions.assertEquals(0, plan.indexOf("id"));
+		Assertions.assertEquals(1, plan.indexOf("count"));
+		Assertions.assertEquals(2, plan.indexOf("enabled"));
+		Assertions.assertEquals(-1, plan.indexOf("missing"));
+	}
+	
+	@Test
+	public void testBinary() throws IOException {
+		byte[] data = new byte[1000];
+		for(int i=0; i<data.length; i++) data[i] = (byte) (i * 7);
+		
+		// Written as a single base64url String rather than an array of numbers
+		String json = Jankson.writeJsonString(data, JsonWriterOptions.STRICT);
+		Assertions.assertEquals("\""+Base64.getUrlEncoder().withoutPadding().encodeToString(data)+"\"", json);
+		
+		var writer = new ObjectWriter<byte[]>(byte[].class);
+		new JsonReader(new StringReader(json)).transferTo(writer);
+		Assertions.assertArrayEquals(data, writer.toObject());
+		
+		// Arrays of numbers and standard base64 still work
+		writer = new ObjectWriter<byte[]>(byte[].class);
+		new JsonReader(new StringReader("[ 1, 2, 3 ]")).transferTo(writer);
+		Assertions.assertArrayEquals(new byte[] { 1, 2, 3 }, writer.toObject());
+		
+		record Blob(String name, byte[] data) {}
+		var blobWriter = new ObjectWriter<>(Blob.class);
+		new JsonReader(new StringReader("{ \"name\": \"x\", \"data\": \"AQID/w==\" }")).transferTo(blobWriter);
+		Assertions.assertArrayEquals(new byte[] { 1, 2, 3, -1 }, blobWriter.toObject().data());
+	}
 }
@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ArrayElement;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.document.patch.JsonPatch;
+import blue.endless.jankson.api.document.patch.JsonPointer;
+import blue.endless.jankson.api.document.patch.MergePatch;
+import blue.endless.jankson.api.document.patch.PatchException;
+import blue.endless.jankson.api.document.patch.PatchOperation;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+
+public class TestPatch {
+	
+	private static String strict(ValueElement elem) throws IOException {
+		return Jankson.toJsonString(elem, JsonWriterOptions.STRICT);
+	}
+	
+	@Test
+	public void testPointers() throws PatchException {
+		JsonPointer pointer = JsonPointer.parse("/a~1b/m~0n/0");
+		Assertions.assertEquals(List.of("a/b", "m~n", "0"), pointer.tokens());
+		Assertions.assertEquals("/a~1b/m~0n/0", pointer.toString());
+		Assertions.assertTrue(JsonPointer.ROOT.isProperPrefixOf(pointer));
+		Assertions.assertThrows(PatchException.class, () -> JsonPointer.parse("a/b"));
+		Assertions.assertThrows(PatchException.class, () -> JsonPointer.parse("/a~2"));
+	}
+	
+	@Test
+	public void testApplyRfc6902() throws IOException, SyntaxError, PatchException {
+		ValueElement doc = Jankson.readJson("{ \"foo\": [ \"bar\", \"baz\" ], \"q\": { \"x\": 1 } }");
+		JsonPatch patch = JsonPatch.of(Jankson.readJson("""
+				[
+					{ "op": "test", "path": "/foo/0", "value": "bar" },
+					{ "op": "add", "path": "/foo/1", "value": "qux" },
+					{ "op": "add", "path": "/foo/-", "value": "end" },
+					{ "op": "remove", "path": "/foo/0" },
+					{ "op": "replace", "path": "/q/x", "value": 2 },
+					{ "op": "copy", "from": "/q", "path": "/r" },
+					{ "op": "move", "from": "/q/x", "path": "/y" }
+				]
+				"""));
+		
+		ValueElement result = patch.apply(doc);
+		Assertions.assertSame(doc, result);
+		Assertions.assertEquals(strict(Jankson.readJson("{ \"foo\": [ \"qux\", \"baz\", \"end\" ], \"q\": { }, \"r\": { \"x\": 2 }, \"y\": 2 }")), strict(result));
+		
+		JsonPatch failing = new JsonPatch(List.of(PatchOperation.test(JsonPointer.parse("/y"), PrimitiveElement.of(3L))));
+		Assertions.assertThrows(PatchException.class, () -> failing.apply(result));
+		
+		JsonPatch moveIntoChild = new JsonPatch(List.of(PatchOperation.move(JsonPointer.parse("/r"), JsonPointer.parse("/r/x"))));
+		Assertions.assertThrows(PatchException.class, () -> moveIntoChild.apply(result));
+		
+		// Round-trip through a patch document
+		Assertions.assertEquals(strict(patch.toValueElement()), strict(JsonPatch.of(patch.toValueElement()).toValueElement()));
+	}
+	
+	@Test
+	public void testDiffIsMinimal() throws IOException, SyntaxError, PatchException {
+		ValueElement a = Jankson.readJson("{ a: 1, list: [ 1, 2, 3, 4, 5 ], nested: { deep: { x: \"y\" } } }");
+		ValueElement b = Jankson.readJson("{ /* comments don't matter */ a: 1, list: [ 1, 2, 9, 3, 4, 5 ], nested: { deep: { x: \"z\" } } }");
+		
+		JsonPatch patch = JsonPatch.diff(a, b);
+		Assertions.assertEquals(2, patch.operations().size());
+		Assertions.assertEquals(PatchOperation.Op.ADD, patch.operations().get(0).op());
+		Assertions.assertEquals("/list/2", patch.operations().get(0).path().toString());
+		Assertions.assertEquals("/nested/deep/x", patch.operations().get(1).path().toString());
+		
+		Assertions.assertTrue(JsonPatch.diff(a, a.clone()).isEmpty());
+	}
+	
+	@Test
+	public void testRandomRoundTrips() throws IOException, PatchException {
+		Random random = new Random(1234);
+		for(int i=0; i<300; i++) {
+			ValueElement source = randomValue(random, 3);
+			ValueElement target = randomValue(random, 3);
+			if (random.nextBoolean()) {
+				target = source.clone();
+				target = mutate(random, target, 3);
+			}
+			
+			JsonPatch patch = JsonPatch.diff(source, target);
+			ValueElement patched = patch.apply(source.clone());
+			Assertions.assertEquals(strict(target), strict(patched));
+		}
+	}
+	
+	@Test
+	public void testLargeArray() throws IOException, PatchException {
+		ArrayElement source = new ArrayElement();
+		for(int i=0; i<3000; i++) source.add(PrimitiveElement.of((long) i));
+		ArrayElement target = source.clone();
+		target.set(0, PrimitiveElement.of("first"));
+		target.add(1500, PrimitiveElement.of("middle"));
+		target.remove(2500);
+		target.set(target.size()-1, PrimitiveElement.of("last"));
+		
+		JsonPatch patch = JsonPatch.diff(source, target);
+		Assertions.assertEquals(4, patch.operations().size());
+		Assertions.assertEquals(strict(target), strict(patch.apply(source.clone())));
+	}
+	
+	@Test
+	public void testMergePatch() throws IOException, SyntaxError {
+		// Example from RFC 7386, section 3
+		ValueElement target = Jankson.readJson("{ \"title\": \"Goodbye!\", \"author\": { \"givenName\": \"John\", \"familyName\": \"Doe\" }, \"tags\": [ \"example\", \"sample\" ], \"content\": \"This will be unchanged\" }");
+		ValueElement patch = Jankson.readJson("{ \"title\": \"Hello!\", \"phoneNumber\": \"+01-123-456-7890\", \"author\": { \"familyName\": null }, \"tags\": [ \"example\" ] }");
+		ValueElement expected = Jankson.readJson("{ \"title\": \"Hello!\", \"author\": { \"givenName\": \"John\" }, \"tags\": [ \"example\" ], \"content\": \"This will be unchanged\", \"phoneNumber\": \"+01-123-456-7890\" }");
+		
+		ValueElement original = target.clone();
+		ValueElement result = MergePatch.apply(target, patch);
+		Assertions.assertEquals(strict(expected), strict(result));
+		
+		ValueElement generated = MergePatch.diff(original, expected);
+		Assertions.assertEquals(strict(expected), strict(MergePatch.apply(original, generated)));
+	}
+	
+	private static ValueElement randomValue(Random random, int depth) {
+		int kind = (depth <= 0) ? random.nextInt(3) : random.nextInt(5);
+		return switch(kind) {
+			case 0 -> PrimitiveElement.of((long) random.nextInt(5));
+			case 1 -> PrimitiveElement.of("s"+random.nextInt(3));
+			case 2 -> random.nextBoolean() ? PrimitiveElement.of(random.nextBoolean()) : PrimitiveElement.ofNull();
+			case 3 -> {
+				ArrayElement arr = new ArrayElement();
+				int size = random.nextInt(6);
+				for(int i=0; i<size; i++) arr.add(randomValue(random, depth-1));
+				yield arr;
+			}
+			default -> {
+				ObjectElement obj = new ObjectElement();
+				int size = random.nextInt(5);
+				for(int i=0; i<size; i++) obj.put("k"+random.nextInt(6), randomValue(random, depth-1));
+				yield obj;
+			}
+		};
+	}
+	
+	private static ValueElement mutate(Random random, ValueElement value, int depth) {
+		if (value instanceof ArrayElement arr) {
+			int edits = random.nextInt(3);
+			for(int i=0; i<edits; i++) {
+				int choice = random.nextInt(3);
+				if (choice == 0 || arr.isEmpty()) {
+					arr.add(random.nextInt(arr.size()+1), randomValue(random, depth-1));
+				} else if (choice == 1) {
+					arr.remove(random.nextInt(arr.size()));
+				} else {
+					int index = random.nextInt(arr.size());
+					arr.set(index, mutate(random, arr.get(index), depth-1));
+				}
+			}
+			return arr;
+		} else if (value instanceof ObjectElement obj) {
+			int edits = random.nextInt(3);
+			for(int i=0; i<edits; i++) {
+				String key = "k"+random.nextInt(6);
+				ValueElement existing = obj.get(key);
+				if (existing == null) {
+					obj.put(key, randomValue(random, depth-1));
+				} else if (random.nextBoolean()) {
+					obj.remove(key);
+				} else {
+					obj.put(key, mutate(random, existing, depth-1));
+				}
+			}
+			return obj;
+		} else {
+			return randomValue(random, depth);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.MultiFileSyntaxError;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.document.ObjectElement;
+import blue.endless.jankson.api.document.PrimitiveElement;
+import blue.endless.jankson.api.document.ValueElement;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+
+public class TestReadAll {
+	public static record Settings(String name, Integer size) {}
+	
+	@Test
+	public void testManyFiles() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-readall");
+		List<Path> paths = new ArrayList<>();
+		for(int i=0; i<200; i++) {
+			Path p = dir.resolve("config"+i+".json5");
+			Files.writeString(p, "{ name: \"config"+i+"\", size: "+i+" }");
+			paths.add(p);
+		}
+		
+		Map<Path, ValueElement> result = Jankson.readAll(paths);
+		Assertions.assertEquals(paths, new ArrayList<>(result.keySet()));
+		for(int i=0; i<200; i++) {
+			ObjectElement obj = (ObjectElement) result.get(paths.get(i));
+			Assertions.assertEquals("config"+i, ((PrimitiveElement) obj.get("name")).asString().get());
+		}
+		
+		Map<Path, Settings> typed = Jankson.readAll(paths, JsonReaderOptions.UNSPECIFIED, Settings.class);
+		Assertions.assertEquals(new Settings("config7", 7), typed.get(paths.get(7)));
+	}
+	
+	@Test
+	public void testReaderByExtension() throws IOException, SyntaxError {
+		Path dir = Files.createTempDirectory("jankson-readall");
+		Path toml = dir.resolve("a.toml");
+		Files.writeString(toml, "[server]\nport = 25565\n");
+		Path ini = dir.resolve("b.ini");
+		Files.writeString(ini, "[server]\nport=25565\n");
+		
+		Map<Path, ValueElement> result = Jankson.readAll(List.of(toml, ini));
+		ObjectElement tomlServer = (ObjectElement) ((ObjectElement) result.get(toml)).get("server");
+		Assertions.assertEquals(25565L, ((PrimitiveElement) tomlServer.get("port")).asLong().getAsLong());
+		Assertions.assertTrue(result.get(ini) instanceof ObjectElement);
+	}
+	
+	@Test
+	public void testErrorsAreCollected() throws IOException {
+		Path dir = Files.createTempDirectory("jankson-readall");
+		Path good = dir.resolve("good.json");
+		Files.writeString(good, "{ \"a\": 1 }");
+		Path bad = dir.resolve("bad.json");
+		Files.writeString(bad, "{ \"a\": ] }");
+		Path missing = dir.resolve("missing.json");
+		
+		MultiFileSyntaxError err = Assertions.assertThrows(MultiFileSyntaxError.class, () -> Jankson.readAll(List.of(good, bad, missing)));
+		Assertions.assertEquals(List.of(bad, missing), new ArrayList<>(err.getErrors().keySet()));
+		Assertions.assertTrue(err.getResults().containsKey(good));
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.JsonReaderOptions;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.Reformatter;
+
+public class TestReformatter {
+	
+	private static final String DOC = """
+			{
+				// A comment
+				"name": "quote \\" and \\\\ and \\n",
+				"needs quotes": [ 1, 2.5, true, null ],
+				nested: { a: {} }
+			}
+			""";
+	
+	@Test
+	public void testRoundTrip() throws IOException, SyntaxError {
+		for(JsonWriterOptions options : new JsonWriterOptions[] { JsonWriterOptions.DEFAULTS, JsonWriterOptions.ONE_LINE, JsonWriterOptions.STRICT }) {
+			StringWriter out = new StringWriter();
+			new Reformatter(options).reformat(new StringReader(DOC), out);
+			
+			// Whatever the style, the data has to survive the trip
+			JsonReaderOptions dataOnly = new JsonReaderOptions(JsonReaderOptions.Hint.ALLOW_UNQUOTED_KEYS, JsonReaderOptions.Hint.SKIP_COMMENTS);
+			Assertions.assertEquals(
+					Jankson.toJsonString(Jankson.readJson(DOC, dataOnly), JsonWriterOptions.STRICT),
+					Jankson.toJsonString(Jankson.readJson(out.toString(), dataOnly), JsonWriterOptions.STRICT));
+		}
+	}
+	
+	@Test
+	public void testMinify() throws IOException {
+		StringWriter out = new StringWriter();
+		new Reformatter(new JsonWriterOptions()).reformat(new StringReader(DOC), out);
+		Assertions.assertEquals("{\"name\":\"quote \\\" and \\\\ and \\n\",\"needs quotes\":[1,2.5,true,null],\"nested\":{\"a\":{}}}", out.toString());
+	}
+	
+	@Test
+	public void testLineCommentEndsLine() throws IOException, SyntaxError {
+		StringWriter out = new StringWriter();
+		new Reformatter(JsonWriterOptions.ONE_LINE).reformat(new StringReader("[ 1, // one\n 2 ]"), out);
+		Assertions.assertEquals("[ 1, // one\n\t 2 ]", out.toString());
+		Assertions.assertEquals(
+				Jankson.toJsonString(Jankson.readJson("[ 1, 2 ]"), JsonWriterOptions.STRICT),
+				Jankson.toJsonString(Jankson.readJson(out.toString(), new JsonReaderOptions(JsonReaderOptions.Hint.SKIP_COMMENTS)), JsonWriterOptions.STRICT));
+	}
+	
+	@Test
+	public void testReformatAll() throws IOException {
+		Path dir = Files.createTempDirectory("jankson-reformat");
+		try {
+			List<Path> files = new ArrayList<>();
+			for(int i=0; i<20; i++) {
+				Path file = dir.resolve("file"+i+".json");
+				Files.writeString(file, "{ \"id\": "+i+", list: [ 1, 2, 3 ] }", StandardCharsets.UTF_8);
+				files.add(file);
+			}
+			Path broken = dir.resolve("broken.json");
+			Files.writeString(broken, "{ \"id\": ", StandardCharsets.UTF_8);
+			files.add(broken);
+			
+			Reformatter.Report report = new Reformatter(JsonWriterOptions.ONE_LINE).reformatAll(files, Function.identity(), 4);
+			
+			Assertions.assertEquals(20, report.succeeded());
+			Assertions.assertEquals(List.of(broken), List.copyOf(report.failures().keySet()));
+			Assertions.assertTrue(report.bytesRead() > 0 && report.bytesPerSecond() > 0);
+			Assertions.assertEquals("{ id: 7, list: [ 1, 2, 3 ] }", Files.readString(dir.resolve("file7.json")));
+			Assertions.assertEquals("{ \"id\": ", Files.readString(broken));
+		} finally {
+			try(var stream = Files.list(dir)) {
+				for(Path p : stream.toList()) Files.delete(p);
+			}
+			Files.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testReformatAllReport() throws IOException {
+		Path dir = Files.createTempDirectory("jankson-reformat");
+		try {
+			Path good = dir.resolve("good.json");
+			Files.writeString(good, "{ a: 1 }", StandardCharsets.UTF_8);
+			List<Path> broken = new ArrayList<>();
+			for(int i=0; i<10; i++) {
+				Path file = dir.resolve("broken"+i+".json");
+				Files.writeString(file, "[", StandardCharsets.UTF_8);
+				broken.add(file);
+			}
+			
+			List<Path> files = new ArrayList<>();
+			files.add(good);
+			files.addAll(broken);
+			files.add(good);
+			
+			// One worker, so the files are attempted in order
+			Reformatter.Report report = new Reformatter(JsonWriterOptions.ONE_LINE).reformatAll(files, Function.identity(), 1);
+			
+			Assertions.assertEquals(2, report.succeeded());
+			Assertions.assertEquals(broken, List.copyOf(report.failures().keySet()));
+		} finally {
+			try(var stream = Files.list(dir)) {
+				for(Path p : stream.toList()) Files.delete(p);
+			}
+			Files.delete(dir);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonWriter;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.schema.Schema;
+import blue.endless.jankson.api.io.schema.SchemaValidator;
+
+public class TestSchemaValidator {
+	private static final String USER_SCHEMA = """
+			{
+				"type": "object",
+				"required": [ "name", "roles" ],
+				"additionalProperties": false,
+				"properties": {
+					"name": { "type": "string", "minLength": 1, "pattern": "^[a-z]+$" },
+					"age": { "type": "integer", "minimum": 0, "maximum": 150 },
+					"email": { "type": [ "string", "null" ] },
+					"roles": {
+						"type": "array",
+						"maxItems": 3,
+						"items": { "enum": [ "admin", "user", 7 ] }
+					},
+					"settings": {
+						"type": "object",
+						"additionalProperties": { "type": "boolean" }
+					}
+				}
+			}
+			""";
+	
+	private static Schema schema() throws IOException, SyntaxError {
+		return Schema.compile(Jankson.readJson(USER_SCHEMA));
+	}
+	
+	private static String validate(String json) throws IOException, SyntaxError {
+		JsonReader reader = new JsonReader(new StringReader(json));
+		StringWriter out = new StringWriter();
+		reader.transferTo(new SchemaValidator(new JsonWriter(out, JsonWriterOptions.STRICT), schema(), reader.getLocator()));
+		return out.toString();
+	}
+	
+	private static SyntaxError violation(String json) {
+		IOException ex = Assertions.assertThrows(IOException.class, () -> validate(json));
+		if (ex.getCause() instanceof SyntaxError err) return err;
+		Assertions.fail("Schema violations should be reported as SyntaxErrors", ex);
+		return null;
+	}
+	
+	@Test
+	public void testValidDocument() throws IOException, SyntaxError {
+		String doc = """
+				{
+					"name": "alice",
+					"age": 30,
+					"email": null,
+					"roles": [ "admin", 7.0 ],
+					"settings": { "dark": true }
+				}
+				""";
+		
+		Assertions.assertEquals(Jankson.toJsonString(Jankson.readJson(doc), JsonWriterOptions.STRICT), validate(doc));
+	}
+	
+	@Test
+	public void testViolations() {
+		Assertions.assertTrue(violation("[]").getMessage().contains("Expected object at the document root"));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\" }").getMessage().contains("\"roles\""));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"roles\": [], \"extra\": 1 }").getMessage().contains("\"extra\" is not allowed"));
+		Assertions.assertTrue(violation("{ \"name\": \"Bob\", \"roles\": [] }").getMessage().contains("pattern"));
+		Assertions.assertTrue(violation("{ \"name\": \"\", \"roles\": [] }").getMessage().contains("shorter"));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"age\": 2.5, \"roles\": [] }").getMessage().contains("Expected integer at \"age\""));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"age\": 200, \"roles\": [] }").getMessage().contains("maximum"));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"roles\": [ \"root\" ] }").getMessage().contains("at \"roles.0\""));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"roles\": [ \"user\", \"user\", \"user\", \"user\" ] }").getMessage().contains("more than 3"));
+		Assertions.assertTrue(violation("{ \"name\": \"bob\", \"roles\": [], \"settings\": { \"dark\": 1 } }").getMessage().contains("at \"settings.dark\""));
+	}
+	
+	@Test
+	public void testErrorLocation() {
+		String doc = "{\n\t\"name\": \"bob\",\n\t\"roles\": [\n\t\t\"user\",\n\t\t\"root\"\n\t]\n}";
+		SyntaxError err = violation(doc);
+		Assertions.assertEquals("Started at line 5, column 3", err.getLineMessage().substring(0, 27));
+		
+		// Missing keys are reported at the end of the object
+		err = violation("{\n\t\"name\": \"bob\"\n}");
+		Assertions.assertTrue(err.getLineMessage().startsWith("Started at line 3, column 1"), err.getLineMessage());
+	}
+	
+	@Test
+	public void testBooleanSchemas() throws IOException, SyntaxError {
+		Assertions.assertSame(Schema.ANY, Schema.compile(Jankson.readJson("true")));
+		Assertions.assertSame(Schema.NONE, Schema.compile(Jankson.readJson("false")));
+		
+		StringWriter out = new StringWriter();
+		Assertions.assertThrows(IOException.class, () -> {
+			new JsonReader(new StringReader("{ \"a\": 1 }")).transferTo(new SchemaValidator(new JsonWriter(out), Schema.NONE));
+		});
+	}
+	
+	@Test
+	public void testMalformedSchema() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Schema.compile(Jankson.readJson("{ \"type\": \"strin\" }")));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Schema.compile(Jankson.readJson("{ \"pattern\": \"[\" }")));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Schema.compile(Jankson.readJson("{ \"minItems\": -1 }")));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Schema.compile(Jankson.readJson("{ \"enum\": [ {} ] }")));
+	}
+	
+	@Test
+	public void testReuseAcrossDocuments() throws IOException, SyntaxError {
+		JsonReader reader = new JsonReader(new StringReader("{ \"name\": \"a\", \"roles\": [] }"));
+		SchemaValidator validator = new SchemaValidator((data) -> {}, schema(), reader.getLocator());
+		reader.transferTo(validator);
+		
+		// The required keys seen in the first document shouldn't count toward the second
+		reader.reset(new StringReader("{ \"settings\": {} }"));
+		Assertions.assertThrows(IOException.class, () -> reader.transferTo(validator));
+	}
+}
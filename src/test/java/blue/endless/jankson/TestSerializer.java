@@ -249,4 +249,20 @@ public class TestSerializer {
 //			Assertions.fail("Should not get a syntax error for a well-formed object: "+ex.getCompleteMessage());
 //		}
 //	}
+	
+	@Test
+	public void testNestedTransferMatchesPull() throws IOException {
+		Object subject = List.of(1, List.of(2, List.of()), new int[] { 3, 4 }, "five");
+		
+		StringWriter pushed = new StringWriter();
+		ObjectStructuredDataReader.of(subject).transferTo(new JsonWriter(pushed, JsonWriterOptions.ONE_LINE));
+		
+		StringWriter pulled = new StringWriter();
+		JsonWriter writer = new JsonWriter(pulled, JsonWriterOptions.ONE_LINE);
+		StructuredDataReader reader = ObjectStructuredDataReader.of(subject);
+		while(reader.hasNext()) writer.write(reader.next());
+		
+		Assertions.assertEquals(pulled.toString(), pushed.toString());
+		Assertions.assertEquals("[ 1, [ 2, [ ] ], [ 3, 4 ], \"five\" ]", pushed.toString());
+	}
 }
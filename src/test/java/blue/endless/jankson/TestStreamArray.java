@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+
+public class TestStreamArray {
+	public static record Point(Integer x, Integer y) {}
+	
+	@Test
+	public void testRootArray() {
+		String subject = "[ { x: 1, y: 2 }, { x: 3, y: 4 }, // trailing comment\n { x: 5, y: 6 } ]";
+		
+		try(Stream<Point> stream = Jankson.streamArray(new StringReader(subject), Point.class)) {
+			List<Point> points = stream.collect(Collectors.toList());
+			Assertions.assertEquals(List.of(new Point(1, 2), new Point(3, 4), new Point(5, 6)), points);
+		}
+	}
+	
+	@Test
+	public void testNestedArray() {
+		String subject = "{ skipped: { a: [ 1, 2 ] }, data: { points: [ { x: 1, y: 2 } ], other: 3 } }";
+		
+		try(Stream<Point> stream = Jankson.streamArray(new StringReader(subject), Point.class, "data", "points")) {
+			Assertions.assertEquals(List.of(new Point(1, 2)), stream.toList());
+		}
+	}
+	
+	@Test
+	public void testLazyConsumption() {
+		// The element after the first one is malformed; if we only take the first, we should never see the error.
+		String subject = "[ \"a\", { broken ] ";
+		
+		try(Stream<String> stream = Jankson.streamArray(new StringReader(subject), String.class)) {
+			Assertions.assertEquals(List.of("a"), stream.limit(1).toList());
+		}
+	}
+	
+	@Test
+	public void testErrors() {
+		Assertions.assertThrows(UncheckedIOException.class, () -> {
+			Jankson.<Map<String, Integer>>streamArray(new StringReader("{ a: 1 }"), Map.class).toList();
+		});
+		
+		Assertions.assertThrows(UncheckedIOException.class, () -> {
+			Jankson.streamArray(new StringReader("{ a: [] }"), Integer.class, "b").toList();
+		});
+	}
+}
@@ -25,16 +25,21 @@
 package blue.endless.jankson;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import blue.endless.jankson.api.document.ValueElement;
 import blue.endless.jankson.api.io.JsonWriter;
 import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.StructuredData;
 import blue.endless.jankson.api.io.TomlReader;
+import blue.endless.jankson.api.io.ValueElementWriter;
 import blue.endless.jankson.api.io.JsonWriterOptions.Hint;
+import blue.endless.jankson.impl.document.SemanticHash;
 
 public class TestTomlReader {
 	
@@ -360,4 +365,166 @@ public class TestTomlReader {
 		
 		Assertions.assertEquals(expected.trim(), actual);
 	}
+	
+	private static String toJson(TomlReader reader) throws IOException {
+		StringWriter out = new StringWriter();
+		reader.transferTo(new JsonWriter(out, STRICT_ONE_LINE));
+		return out.toString();
+	}
+	
+	@Test
+	public void testDottedKeysUnderTableHeaders() throws IOException {
+		String tomlExample = """
+		[fruit]
+		apple.color = "red"
+		name = "apple"
+		apple.taste.sweet = true
+		
+		[fruit.apple.texture]
+		smooth = true
+		
+		[vegetable]
+		name = "carrot"
+		""";
+		
+		String expected = """
+		{ "fruit": { "name": "apple", "apple": { "color": "red", "taste": { "sweet": true }, "texture": { "smooth": true } } }, "vegetable": { "name": "carrot" } }
+		""";
+		
+		Assertions.assertEquals(expected.trim(), toJson(new TomlReader(new StringReader(tomlExample))));
+		
+		String buffered = toJson(new TomlReader(new StringReader(tomlExample), true));
+		Assertions.assertEquals("{ \"fruit\": { \"apple\": { \"color\": \"red\", \"taste\": { \"sweet\": true }, \"texture\": { \"smooth\": true } }, \"name\": \"apple\" }, \"vegetable\": { \"name\": \"carrot\" } }", buffered);
+	}
+	
+	@Test
+	public void testOutOfOrderTables() throws IOException {
+		String tomlExample = """
+		[a.b]
+		x = 1
+		
+		[c]
+		y = 2
+		
+		[a.d]
+		z = 3
+		
+		[[list]]
+		n = 1
+		
+		[c.e]
+		w = 4
+		
+		[[list]]
+		n = 2
+		""";
+		
+		String expected = """
+		{ "a": { "b": { "x": 1 }, "d": { "z": 3 } }, "c": { "y": 2, "e": { "w": 4 } }, "list": [ { "n": 1 }, { "n": 2 } ] }
+		""";
+		
+		Assertions.assertEquals(expected.trim(), toJson(new TomlReader(new StringReader(tomlExample))));
+		Assertions.assertEquals(expected.trim(), toJson(new TomlReader(new StringReader(tomlExample), true)));
+	}
+	
+	@Test
+	public void testStreamsBeforeEndOfInput() throws IOException {
+		String head = """
+		title = "manifest"
+		
+		[[mods]]
+		id = "first"
+		
+		""";
+		
+		// A Reader which fails if anything past the head is requested
+		Reader src = new Reader() {
+			private final StringReader delegate = new StringReader(head);
+			
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				int read = delegate.read(cbuf, off, len);
+				if (read == -1) throw new IOException("Read past the end of the available input");
+				return read;
+			}
+			
+			@Override
+			public void close() {}
+		};
+		
+		TomlReader reader = new TomlReader(src);
+		Assertions.assertEquals(StructuredData.OBJECT_START, reader.next());
+		Assertions.assertEquals(StructuredData.objectKey("title"), reader.next());
+		Assertions.assertEquals("manifest", reader.next().value());
+		Assertions.assertEquals(StructuredData.objectKey("mods"), reader.next());
+		Assertions.assertEquals(StructuredData.ARRAY_START, reader.next());
+		Assertions.assertEquals(StructuredData.OBJECT_START, reader.next());
+		Assertions.assertEquals(StructuredData.objectKey("id"), reader.next());
+		Assertions.assertEquals("first", reader.next().value());
+	}
+	
+	private static ValueElement read(TomlReader reader) throws IOException {
+		ValueElementWriter writer = new ValueElementWriter();
+		reader.transferTo(writer);
+		return writer.toValueElement();
+	}
+	
+	@Test
+	public void testStreamingMatchesBuffered() throws IOException {
+		String[] documents = {
+				"[a.b]\nx = 1\n[a]\ny = 2\n[a.b.c]\nz = 3\n",
+				"[[p]]\nn = 1\n[p.meta]\nm = 1\n[q]\nv = 1\n[[p]]\nn = 2\n[p.meta]\nm = 2\n[q.r]\ns = 1\n",
+				"[x]\na.b = 1\n[x.a.c]\nd = 2\n[y]\n[x.e]\nf = 3\n[[x.list]]\ng = 4\n[y.z]\n[[x.list]]\ng = 5\n",
+				"# top\nk = 1\n[t] # about t\n# in t\nv = 2\n[u]\n# in u\nw = 3\n[t.s]\n# in t.s\nq = 4\n",
+		};
+		
+		for(String document : documents) {
+			ValueElement streamed = read(new TomlReader(new StringReader(document)));
+			ValueElement buffered = read(new TomlReader(new StringReader(document), true));
+			Assertions.assertTrue(SemanticHash.semanticEquals(buffered, streamed), () -> "Expected "+buffered+" but got "+streamed);
+		}
+	}
+	
+	@Test
+	public void testArrayTablesEndEarly() throws IOException {
+		String head = """
+		[[mods]]
+		id = "first"
+		
+		[other]
+		x = 1
+		
+		[[mods]]
+		id = "second"
+		
+		""";
+		
+		// A Reader which fails if anything past the head is requested
+		Reader src = new Reader() {
+			private final StringReader delegate = new StringReader(head);
+			
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				int read = delegate.read(cbuf, off, len);
+				if (read == -1) throw new IOException("Read past the end of the available input");
+				return read;
+			}
+			
+			@Override
+			public void close() {}
+		};
+		
+		// The first mod is finished as soon as the second one starts, even though [other] is still being held
+		TomlReader reader = new TomlReader(src);
+		Assertions.assertEquals(StructuredData.OBJECT_START, reader.next());
+		Assertions.assertEquals(StructuredData.objectKey("mods"), reader.next());
+		Assertions.assertEquals(StructuredData.ARRAY_START, reader.next());
+		Assertions.assertEquals(StructuredData.OBJECT_START, reader.next());
+		Assertions.assertEquals(StructuredData.objectKey("id"), reader.next());
+		Assertions.assertEquals("first", reader.next().value());
+		Assertions.assertEquals(StructuredData.OBJECT_END, reader.next());
+		Assertions.assertEquals(StructuredData.OBJECT_START, reader.next());
+		Assertions.assertEquals(StructuredData.objectKey("id"), reader.next());
+		Assertions.assertEquals("second", reader.next().value());
+	}
 }
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018-2024 Falkreon (Isaac Ellingson)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blue.endless.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.api.Jankson;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.api.io.JsonReader;
+import blue.endless.jankson.api.io.JsonWriter;
+import blue.endless.jankson.api.io.JsonWriterOptions;
+import blue.endless.jankson.api.io.StructuredData;
+import blue.endless.jankson.api.io.transform.ConvertNumbers;
+import blue.endless.jankson.api.io.transform.FlattenKeys;
+import blue.endless.jankson.api.io.transform.PathTracker;
+import blue.endless.jankson.api.io.transform.TransformPipeline;
+import blue.endless.jankson.api.io.transform.UnflattenKeys;
+
+public class TestTransform {
+	
+	private static String transform(String json, TransformPipeline pipeline) throws IOException {
+		StringWriter out = new StringWriter();
+		new JsonReader(new StringReader(json)).transferTo(pipeline.build(new JsonWriter(out, JsonWriterOptions.STRICT)));
+		return out.toString();
+	}
+	
+	private static String normalize(String json) throws IOException, SyntaxError {
+		return Jankson.toJsonString(Jankson.readJson(json), JsonWriterOptions.STRICT);
+	}
+	
+	@Test
+	public void testSanitize() throws IOException, SyntaxError {
+		String doc = """
+				{
+					// Who can log in
+					"users": [
+						{ "name": "alice", "password": "hunter2", "internal": { "id": 1 } },
+						{ "name": "bob", "password": { "hash": "abc" }, "internal": 2 }
+					],
+					"internal": [ 1, 2, 3 ],
+					"version": 3
+				}
+				""";
+		
+		TransformPipeline pipeline = new TransformPipeline()
+				.stripComments()
+				.removeKeys("**.internal")
+				.redact("[redacted]", "users.*.password")
+				.renameKey("version", "schemaVersion");
+		
+		String expected = """
+				{
+					"users": [
+						{ "name": "alice", "password": "[redacted]" },
+						{ "name": "bob", "password": "[redacted]" }
+					],
+					"schemaVersion": 3
+				}
+				""";
+		
+		Assertions.assertEquals(normalize(expected), transform(doc, pipeline));
+	}
+	
+	@Test
+	public void testFlattenAndUnflatten() throws IOException, SyntaxError {
+		String nested = "{ \"a\": { \"b\": 1, \"c\": { \"d\": true, \"e\": {} } }, \"f\": [ { \"g\": { \"h\": null } } ], \"i\": \"j\" }";
+		String flat = "{ \"a.b\": 1, \"a.c.d\": true, \"a.c.e\": {}, \"f\": [ { \"g.h\": null } ], \"i\": \"j\" }";
+		
+		Assertions.assertEquals(normalize(flat), transform(nested, new TransformPipeline().flatten(".")));
+		Assertions.assertEquals(normalize(nested), transform(flat, new TransformPipeline().unflatten(".")));
+		Assertions.assertEquals(normalize(nested), transform(nested, new TransformPipeline().flatten("/").unflatten("/")));
+	}
+	
+	@Test
+	public void testEmptySeparator() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new FlattenKeys(it -> {}, ""));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new UnflattenKeys(it -> {}, ""));
+	}
+	
+	@Test
+	public void testConvertNumbers() throws IOException, SyntaxError {
+		Assertions.assertEquals(
+				normalize("[ 1, 2, 3.5, \"x\" ]"),
+				transform("[ 1.0, 2, 3.5, \"x\" ]", new TransformPipeline().convertNumbers(ConvertNumbers.WHOLE_TO_LONG)));
+		Assertions.assertEquals(
+				normalize("{ a: \"1\", b: [ \"2.5\" ] }"),
+				transform("{ a: 1, b: [ 2.5 ] }", new TransformPipeline().convertNumbers(ConvertNumbers.TO_STRING)));
+	}
+	
+	@Test
+	public void testLimitDepth() throws IOException {
+		TransformPipeline pipeline = new TransformPipeline().limitDepth(3);
+		transform("{ a: [ { b: 1 } ] }", pipeline);
+		Assertions.assertThrows(IOException.class, () -> transform("{ a: [ { b: [] } ] }", pipeline));
+	}
+	
+	@Test
+	public void testPathMatching() throws IOException {
+		PathTracker path = new PathTracker();
+		StructuredData[] data = {
+				StructuredData.OBJECT_START,
+				StructuredData.objectKey("a"),
+				StructuredData.ARRAY_START,
+				StructuredData.primitive(1L),
+				StructuredData.OBJECT_START,
+				StructuredData.objectKey("b")
+		};
+		for(StructuredData d : data) {
+			path.before(d);
+			path.after(d);
+		}
+		
+		Assertions.assertEquals("a.1.b", path.toString());
+		Assertions.assertTrue(path.matches("a.1.b"));
+		Assertions.assertTrue(path.matches("a.*.b"));
+		Assertions.assertTrue(path.matches("**.b"));
+		Assertions.assertTrue(path.matches("a.**"));
+		Assertions.assertTrue(path.matches("**"));
+		Assertions.assertFalse(path.matches("a.0.b"));
+		Assertions.assertFalse(path.matches("a.1"));
+		Assertions.assertFalse(path.matches("b"));
+		Assertions.assertFalse(path.matches(""));
+	}
+}